@@ -0,0 +1,58 @@
+package org.opentripplanner.ext.fares.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model.basic.Money;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+class FareRuleIndexTest {
+
+  private static final FeedScopedId ROUTE_1 = id("R1");
+  private static final FeedScopedId ROUTE_2 = id("R2");
+
+  private final FareRuleSet anyTrip = ruleSet("any");
+  private final FareRuleSet aToB = ruleSet("a-b");
+  private final FareRuleSet fromA = ruleSet("from-a");
+  private final FareRuleSet route1 = ruleSet("route-1");
+  private final FareRuleSet aToBOnRoute2 = ruleSet("a-b-route-2");
+
+  {
+    aToB.addOriginDestination("A", "B");
+    fromA.addOriginDestination("A", null);
+    route1.addRoute(ROUTE_1);
+    aToBOnRoute2.addOriginDestination("A", "B");
+    aToBOnRoute2.addRoute(ROUTE_2);
+  }
+
+  private final FareRuleIndex subject = new FareRuleIndex(
+    List.of(anyTrip, aToB, fromA, route1, aToBOnRoute2)
+  );
+
+  @Test
+  void candidatesKeepTheOrder() {
+    assertEquals(List.of(anyTrip, aToB, fromA, route1), subject.candidates("A", "B", ROUTE_1));
+    assertEquals(
+      List.of(anyTrip, aToB, fromA, aToBOnRoute2),
+      subject.candidates("A", "B", ROUTE_2)
+    );
+  }
+
+  @Test
+  void candidatesWithOtherZones() {
+    assertEquals(List.of(anyTrip, fromA), subject.candidates("A", "C", ROUTE_2));
+    assertEquals(List.of(anyTrip, route1), subject.candidates("B", "A", ROUTE_1));
+  }
+
+  @Test
+  void collectionContainsAllRuleSets() {
+    assertEquals(5, subject.size());
+    assertEquals(List.of(anyTrip, aToB, fromA, route1, aToBOnRoute2), List.copyOf(subject));
+  }
+
+  private static FareRuleSet ruleSet(String id) {
+    return new FareRuleSet(FareAttribute.of(id(id)).setPrice(Money.usDollars(1)).build());
+  }
+}
@@ -0,0 +1,104 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+
+class StreetFlexPathCalculatorTest {
+
+  private static final Duration MAX_FLEX_TRIP_DURATION = Duration.ofMinutes(45);
+
+  private final IntersectionVertex a = intersectionVertex("A", 0.0, 0.0);
+  private final IntersectionVertex b = intersectionVertex("B", 0.0, 0.01);
+  private final IntersectionVertex c = intersectionVertex("C", 0.0, 0.02);
+  private final IntersectionVertex d = intersectionVertex("D", 0.0, 0.03);
+
+  {
+    var areaStop = TransitModelForTest.of().areaStop("Z").build();
+    a.addAreaStops(List.of(areaStop));
+    c.addAreaStops(List.of(areaStop));
+    streetEdge(a, b, 1000, StreetTraversalPermission.CAR);
+    streetEdge(b, c, 1000, StreetTraversalPermission.CAR);
+    streetEdge(c, d, 1000, StreetTraversalPermission.CAR);
+  }
+
+  @Test
+  void sharedCacheIsUsedAcrossRequests() {
+    var sharedCache = new StreetFlexPathCache();
+
+    var path = calculator(sharedCache).calculateFlexPath(a, c, 0, 1);
+    var expected = new StreetFlexPathCalculator(false, MAX_FLEX_TRIP_DURATION)
+      .calculateFlexPath(a, c, 0, 1);
+
+    assertNotNull(path);
+    assertEquals(expected.distanceMeters, path.distanceMeters);
+    assertEquals(expected.durationSeconds, path.durationSeconds);
+    assertEquals(expected.getGeometry(), path.getGeometry());
+    assertEquals(1, sharedCache.size());
+
+    // A new request reuses the table
+    assertEquals(
+      path.durationSeconds,
+      calculator(sharedCache).calculateFlexPath(a, c, 0, 1).durationSeconds
+    );
+    assertEquals(1, sharedCache.size());
+  }
+
+  @Test
+  void onlyFlexVerticesAreShared() {
+    var sharedCache = new StreetFlexPathCache();
+
+    // d is not inside an area stop, so the per-request search is used
+    assertNotNull(calculator(sharedCache).calculateFlexPath(a, d, 0, 1));
+    assertEquals(0, sharedCache.size());
+
+    // c can not reach a since the edges are one-way
+    assertNull(calculator(sharedCache).calculateFlexPath(c, a, 0, 1));
+    assertEquals(1, sharedCache.size());
+  }
+
+  @Test
+  void cacheIsNotUsedAfterTheStreetGraphChanges() {
+    var sharedCache = new StreetFlexPathCache();
+
+    calculator(sharedCache, 1).calculateFlexPath(a, c, 0, 1);
+    calculator(sharedCache, 1).calculateFlexPath(a, c, 0, 1);
+    assertEquals(1, sharedCache.size());
+
+    // The edge generation has changed, so the table is computed again
+    calculator(sharedCache, 2).calculateFlexPath(a, c, 0, 1);
+    assertEquals(2, sharedCache.size());
+  }
+
+  @Test
+  void cacheIsBoundedByTheNumberOfVerticesInTheTables() {
+    // The table from a has the vertices a and c, and the table from c has c only
+    var sharedCache = new StreetFlexPathCache(4);
+
+    calculator(sharedCache).calculateFlexPath(a, c, 0, 1);
+    assertEquals(1, sharedCache.size());
+
+    calculator(sharedCache).calculateFlexPath(c, a, 0, 1);
+    assertEquals(1, sharedCache.size());
+  }
+
+  private static StreetFlexPathCalculator calculator(StreetFlexPathCache sharedCache) {
+    return calculator(sharedCache, 0);
+  }
+
+  private static StreetFlexPathCalculator calculator(
+    StreetFlexPathCache sharedCache,
+    long edgeGeneration
+  ) {
+    return new StreetFlexPathCalculator(false, MAX_FLEX_TRIP_DURATION, sharedCache, edgeGeneration);
+  }
+}
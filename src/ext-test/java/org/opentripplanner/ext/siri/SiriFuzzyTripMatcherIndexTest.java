@@ -0,0 +1,114 @@
+package org.opentripplanner.ext.siri;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.framework.time.TimeUtils;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimesFactory;
+
+class SiriFuzzyTripMatcherIndexTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+  private static final Route ROUTE = TransitModelForTest
+    .route("R1")
+    .withMode(TransitMode.RAIL)
+    .build();
+  private static final int T08_00 = TimeUtils.time("08:00");
+  private static final int T09_00 = TimeUtils.time("09:00");
+
+  private final Trip trip1 = trip("T1", "IPC1");
+  private final Trip trip2 = trip("T2", "IPC1");
+  private final TripPattern pattern = pattern("P1", trip1, T08_00, trip2, T09_00);
+  private final String lastStopId = pattern.lastStop().getId().getId();
+  private final int trip1Arrival = lastStopArrival(trip1);
+
+  private final SiriFuzzyTripMatcherIndex subject = SiriFuzzyTripMatcherIndex.of(
+    List.of(trip1, trip2),
+    Map.of(trip1, pattern, trip2, pattern)::get
+  );
+
+  @Test
+  void matchByInternalPlanningCode() {
+    assertEquals(Set.of(trip1, trip2), subject.getByInternalPlanningCode("IPC1"));
+    assertEquals(Set.of(), subject.getByInternalPlanningCode("IPC2"));
+  }
+
+  @Test
+  void matchByLastStopArrival() {
+    assertEquals(Set.of(trip1), subject.getByLastStopArrival(lastStopId, trip1Arrival));
+    assertNull(subject.getByLastStopArrival(lastStopId, trip1Arrival + 60));
+    assertNull(subject.getByLastStopArrival("XX", trip1Arrival));
+  }
+
+  @Test
+  void addTripDoesNotChangeTheOriginal() {
+    var added = trip("T3", "IPC1");
+    var addedPattern = pattern("P2", added, T08_00, trip("T4", "IPC2"), T09_00);
+
+    var result = subject.plus(added, addedPattern);
+
+    assertEquals(Set.of(trip1, trip2, added), result.getByInternalPlanningCode("IPC1"));
+    assertEquals(Set.of(trip1, added), result.getByLastStopArrival(lastStopId, trip1Arrival));
+    assertEquals(Set.of(trip1, trip2), subject.getByInternalPlanningCode("IPC1"));
+    assertEquals(Set.of(trip1), subject.getByLastStopArrival(lastStopId, trip1Arrival));
+  }
+
+  @Test
+  void indexedTripsCanNotBeModified() {
+    var trip3 = trip("T3", "IPC1");
+    var byCode = subject.getByInternalPlanningCode("IPC1");
+    var byArrival = subject.getByLastStopArrival(lastStopId, trip1Arrival);
+
+    assertThrows(UnsupportedOperationException.class, () -> byCode.add(trip3));
+    assertThrows(UnsupportedOperationException.class, () -> byArrival.add(trip3));
+  }
+
+  private int lastStopArrival(Trip trip) {
+    var tripTimes = pattern.getScheduledTimetable().getTripTimes(trip);
+    return tripTimes.getArrivalTime(tripTimes.getNumStops() - 1);
+  }
+
+  private static Trip trip(String id, String internalPlanningCode) {
+    return TransitModelForTest
+      .trip(id)
+      .withRoute(ROUTE)
+      .withNetexInternalPlanningCode(internalPlanningCode)
+      .build();
+  }
+
+  private static TripPattern pattern(
+    String id,
+    Trip first,
+    int firstStartTime,
+    Trip second,
+    int secondStartTime
+  ) {
+    var pattern = TransitModelForTest
+      .tripPattern(id, ROUTE)
+      .withStopPattern(TEST_MODEL.stopPattern(3))
+      .build();
+    addTrip(pattern, first, firstStartTime);
+    addTrip(pattern, second, secondStartTime);
+    return pattern;
+  }
+
+  private static void addTrip(TripPattern pattern, Trip trip, int startTime) {
+    var tripTimes = TripTimesFactory.tripTimes(
+      trip,
+      TEST_MODEL.stopTimesEvery5Minutes(3, trip, startTime),
+      new Deduplicator()
+    );
+    pattern.getScheduledTimetable().addTripTimes(tripTimes);
+  }
+}
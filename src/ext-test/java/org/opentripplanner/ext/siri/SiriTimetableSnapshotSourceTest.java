@@ -1,6 +1,7 @@
 package org.opentripplanner.ext.siri;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import java.util.Set;
@@ -38,6 +39,7 @@ class SiriTimetableSnapshotSourceTest {
 
     assertEquals(1, result.successful());
     assertEquals(RealTimeState.CANCELED, env.getTripTimesForTrip(env.trip1).getRealTimeState());
+    assertTrue(result.lockHoldTime().isPositive());
   }
 
   @Test
@@ -0,0 +1,217 @@
+package org.opentripplanner.ext.siri.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.updater.GraphWriterRunnable;
+import uk.org.siri.siri20.DatedVehicleJourneyRef;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+import uk.org.siri.siri20.EstimatedVersionFrameStructure;
+
+class CoalescingEstimatedTimetableBufferTest {
+
+  /** The queued graph-writer tasks, run by the test. */
+  private final List<GraphWriterRunnable> tasks = new ArrayList<>();
+  private final List<List<EstimatedVehicleJourney>> appliedBatches = new ArrayList<>();
+
+  private final CoalescingEstimatedTimetableBuffer subject = new CoalescingEstimatedTimetableBuffer(
+    "test",
+    this::execute,
+    updates -> appliedBatches.add(journeys(updates)),
+    2,
+    100
+  );
+
+  @Test
+  void latestVersionOfJourneyIsApplied() {
+    var a1 = journey("A");
+    var b = journey("B");
+    var a2 = journey("A");
+
+    var f1 = subject.submit(deliveries(a1, b));
+    var f2 = subject.submit(deliveries(a2));
+
+    // Only one task is queued for both messages
+    assertEquals(1, tasks.size());
+    assertEquals(2, subject.pendingJourneys());
+    runTasks();
+
+    assertEquals(List.of(List.of(b, a2)), appliedBatches);
+    assertTrue(f1.isDone());
+    assertTrue(f2.isDone());
+    assertEquals(0, subject.pendingJourneys());
+  }
+
+  @Test
+  void journeysAreAppliedInBatches() {
+    var a = journey("A");
+    var b = journey("B");
+    var c = journey("C");
+
+    var f1 = subject.submit(deliveries(a, b));
+    var f2 = subject.submit(deliveries(c));
+
+    runTask();
+    assertEquals(List.of(List.of(a, b)), appliedBatches);
+    assertTrue(f1.isDone());
+    assertFalse(f2.isDone());
+
+    runTask();
+    assertEquals(List.of(List.of(a, b), List.of(c)), appliedBatches);
+    assertTrue(f2.isDone());
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  void messageIsAppliedWhenTheReplacingVersionIsApplied() {
+    var j1 = journey("J");
+    var k1 = journey("K1");
+    var k2 = journey("K2");
+    var j2 = journey("J");
+
+    var f1 = subject.submit(deliveries(j1));
+    var f2 = subject.submit(deliveries(k1, k2, j2));
+
+    // The later version of J is applied after the K journeys, in the next batch
+    runTask();
+    assertEquals(List.of(List.of(k1, k2)), appliedBatches);
+    assertFalse(f1.isDone());
+    assertFalse(f2.isDone());
+
+    runTask();
+    assertEquals(List.of(List.of(k1, k2), List.of(j2)), appliedBatches);
+    assertTrue(f1.isDone());
+    assertTrue(f2.isDone());
+  }
+
+  @Test
+  void messageWithoutJourneysIsAppliedAtOnce() {
+    var future = subject.submit(List.of());
+
+    assertTrue(future.isDone());
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  void journeysWithoutReferenceAreNotCoalesced() {
+    var a = new EstimatedVehicleJourney();
+    var b = new EstimatedVehicleJourney();
+
+    subject.submit(deliveries(a));
+    subject.submit(deliveries(b));
+    runTasks();
+
+    assertEquals(List.of(List.of(a, b)), appliedBatches);
+  }
+
+  @Test
+  void interruptedSubmitFailsWithoutBlocking() {
+    var buffer = new CoalescingEstimatedTimetableBuffer("test", this::execute, updates -> {}, 1, 1);
+    buffer.submit(deliveries(journey("A")));
+
+    // The buffer is full, the interrupted thread returns instead of waiting for the graph writer
+    Thread.currentThread().interrupt();
+    var future = buffer.submit(deliveries(journey("B")));
+
+    assertTrue(Thread.interrupted());
+    assertTrue(future.isDone());
+    assertThrows(ExecutionException.class, future::get);
+    assertEquals(1, buffer.pendingJourneys());
+  }
+
+  @Test
+  void rejectedTaskFailsThePendingMessages() {
+    var buffer = new CoalescingEstimatedTimetableBuffer(
+      "test",
+      task -> {
+        throw new RejectedExecutionException();
+      },
+      updates -> {},
+      1,
+      1
+    );
+
+    var f1 = buffer.submit(deliveries(journey("A")));
+    assertThrows(ExecutionException.class, f1::get);
+    assertEquals(0, buffer.pendingJourneys());
+
+    // The buffer does not stay full, so the next message does not block
+    var f2 = buffer.submit(deliveries(journey("B")));
+    assertThrows(ExecutionException.class, f2::get);
+  }
+
+  @Test
+  void errorFailsTheMessagesOfTheBatch() {
+    var error = new StackOverflowError();
+    var buffer = new CoalescingEstimatedTimetableBuffer(
+      "test",
+      this::execute,
+      updates -> {
+        throw error;
+      },
+      2,
+      100
+    );
+    var f1 = buffer.submit(deliveries(journey("A")));
+    var f2 = buffer.submit(deliveries(journey("B")));
+
+    // The error is passed on to the graph writer
+    assertSame(error, assertThrows(StackOverflowError.class, this::runTask));
+    assertSame(error, assertThrows(ExecutionException.class, f1::get).getCause());
+    assertSame(error, assertThrows(ExecutionException.class, f2::get).getCause());
+  }
+
+  private Future<?> execute(GraphWriterRunnable task) {
+    tasks.add(task);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private void runTask() {
+    tasks.removeFirst().run(null, null);
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      runTask();
+    }
+  }
+
+  private static EstimatedVehicleJourney journey(String datedVehicleJourneyRef) {
+    var ref = new DatedVehicleJourneyRef();
+    ref.setValue(datedVehicleJourneyRef);
+    var journey = new EstimatedVehicleJourney();
+    journey.setDatedVehicleJourneyRef(ref);
+    return journey;
+  }
+
+  private static List<EstimatedTimetableDeliveryStructure> deliveries(
+    EstimatedVehicleJourney... journeys
+  ) {
+    var frame = new EstimatedVersionFrameStructure();
+    frame.getEstimatedVehicleJourneies().addAll(List.of(journeys));
+    var delivery = new EstimatedTimetableDeliveryStructure();
+    delivery.getEstimatedJourneyVersionFrames().add(frame);
+    return List.of(delivery);
+  }
+
+  private static List<EstimatedVehicleJourney> journeys(
+    List<EstimatedTimetableDeliveryStructure> deliveries
+  ) {
+    return deliveries
+      .stream()
+      .flatMap(it -> it.getEstimatedJourneyVersionFrames().stream())
+      .flatMap(it -> it.getEstimatedVehicleJourneies().stream())
+      .toList();
+  }
+}
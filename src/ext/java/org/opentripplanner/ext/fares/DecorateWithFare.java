@@ -1,5 +1,9 @@
 package org.opentripplanner.ext.fares;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.filterchain.framework.spi.ItineraryDecorator;
 import org.opentripplanner.routing.fares.FareService;
@@ -7,9 +11,28 @@ import org.opentripplanner.routing.fares.FareService;
 /**
  * Computes the fares of an itinerary and adds them.
  * <p>
+ * The fare service is shared by all requests and must be thread-safe, so when parallel routing is
+ * enabled the itineraries of a request are decorated in parallel.
+ * <p>
  * TODO: Convert to a class - exposing a service in a DTO is a risk.
  */
 public record DecorateWithFare(FareService fareService) implements ItineraryDecorator {
+  private static final Timer FARE_CALCULATION_TIMER = Timer
+    .builder("routing.fares")
+    .description("Time to calculate the fares of all itineraries in a request")
+    .register(Metrics.globalRegistry);
+
+  @Override
+  public void decorate(List<Itinerary> itineraries) {
+    FARE_CALCULATION_TIMER.record(() -> {
+      if (OTPFeature.ParallelRouting.isOn() && itineraries.size() > 1) {
+        itineraries.parallelStream().forEach(this::decorate);
+      } else {
+        itineraries.forEach(this::decorate);
+      }
+    });
+  }
+
   @Override
   public void decorate(Itinerary itinerary) {
     var fare = fareService.calculateFares(itinerary);
@@ -1,8 +1,13 @@
 package org.opentripplanner.ext.fares.impl;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,9 +19,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.ext.fares.model.FareAttribute;
+import org.opentripplanner.ext.fares.model.FareRuleIndex;
 import org.opentripplanner.ext.fares.model.FareRuleSet;
 import org.opentripplanner.ext.flex.FlexibleTransitLeg;
 import org.opentripplanner.model.fare.FareProduct;
@@ -75,15 +82,33 @@ public class DefaultFareService implements FareService {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultFareService.class);
 
+  private static final int MAX_CACHED_BEST_FARES = 10_000;
+
   /** For each fare type (regular, student, etc...) the collection of rules that apply. */
   protected Map<FareType, Collection<FareRuleSet>> fareRulesPerType;
 
+  /**
+   * The fare rules of {@link #fareRulesPerType} by fare type and feed id, created when first
+   * needed. This is not serialized with the graph.
+   */
+  @Nullable
+  private transient volatile Map<FareType, Map<String, FareRuleIndex>> fareRulesByTypeAndFeed;
+
+  /**
+   * The best fare of a ride sequence, shared by all requests. The same ride sequences appear in
+   * many itineraries, so the DP in {@link #performSearch} can often skip matching the fare rules.
+   */
+  @Nullable
+  private transient volatile Cache<BestFareKey, Optional<FareAndId>> bestFareCache;
+
   public DefaultFareService() {
     fareRulesPerType = new HashMap<>();
   }
 
   public void addFareRules(FareType fareType, Collection<FareRuleSet> fareRules) {
     fareRulesPerType.put(fareType, new ArrayList<>(fareRules));
+    fareRulesByTypeAndFeed = null;
+    bestFareCache = null;
   }
 
   public Map<FareType, Collection<FareRuleSet>> getFareRulesPerType() {
@@ -143,7 +168,16 @@ public class DefaultFareService implements FareService {
    */
   @Nullable
   protected Collection<FareRuleSet> fareRulesForFeed(FareType fareType, String feedId) {
-    var fareRulesByTypeAndFeed = fareRulesPerType
+    var index = fareRulesByTypeAndFeed;
+    if (index == null) {
+      index = indexFareRules();
+      fareRulesByTypeAndFeed = index;
+    }
+    return index.getOrDefault(fareType, Map.of()).get(feedId);
+  }
+
+  private Map<FareType, Map<String, FareRuleIndex>> indexFareRules() {
+    return fareRulesPerType
       .entrySet()
       .stream()
       .collect(
@@ -153,10 +187,14 @@ public class DefaultFareService implements FareService {
             rules
               .getValue()
               .stream()
-              .collect(Collectors.groupingBy(rule -> rule.getFareAttribute().getId().getFeedId()))
+              .collect(
+                Collectors.groupingBy(
+                  rule -> rule.getFareAttribute().getId().getFeedId(),
+                  Collectors.collectingAndThen(Collectors.toList(), FareRuleIndex::new)
+                )
+              )
         )
       );
-    return fareRulesByTypeAndFeed.get(fareType).get(feedId);
   }
 
   /**
@@ -285,8 +323,13 @@ public class DefaultFareService implements FareService {
     Duration tripTime = Duration.between(startTime, lastRideStartTime);
     Duration journeyTime = Duration.between(startTime, lastRideEndTime);
 
+    // only the rule sets with matching zones and routes need to be checked
+    Collection<FareRuleSet> candidates = fareRules instanceof FareRuleIndex index
+      ? index.candidates(startZone, endZone, firstRide.getRoute().getId())
+      : fareRules;
+
     // find the best fare that matches this set of rides
-    for (FareRuleSet ruleSet : fareRules) {
+    for (FareRuleSet ruleSet : candidates) {
       FareAttribute attribute = ruleSet.getFareAttribute();
       // fares also don't really have an agency id, they will have the per-feed default id
       // check only if the fare is not mapped to an agency
@@ -374,7 +417,7 @@ public class DefaultFareService implements FareService {
     for (int i = 0; i < rides.size(); i++) {
       // each diagonal
       for (int j = 0; j < rides.size() - i; j++) {
-        Optional<FareAndId> best = getBestFareAndId(
+        Optional<FareAndId> best = getCachedBestFareAndId(
           fareType,
           rides.subList(j, j + i + 1),
           fareRules
@@ -404,4 +447,80 @@ public class DefaultFareService implements FareService {
     }
     return r;
   }
+
+  private Optional<FareAndId> getCachedBestFareAndId(
+    FareType fareType,
+    List<Leg> legs,
+    Collection<FareRuleSet> fareRules
+  ) {
+    var cache = bestFareCache;
+    if (cache == null) {
+      cache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_BEST_FARES).build();
+      bestFareCache = cache;
+    }
+    try {
+      return cache.get(
+        BestFareKey.of(fareType, legs, fareRules),
+        () -> getBestFareAndId(fareType, legs, fareRules)
+      );
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Identify a ride sequence by the agencies, routes, trips, boarding and alighting stops and times
+   * of its legs. The fare rules are compared by identity, they do not change after the service is
+   * created.
+   */
+  private record BestFareKey(FareType fareType, IdentityWrapper fareRules, List<LegKey> legs) {
+    static BestFareKey of(FareType fareType, List<Leg> legs, Collection<FareRuleSet> fareRules) {
+      return new BestFareKey(
+        fareType,
+        new IdentityWrapper(fareRules),
+        legs.stream().map(LegKey::of).toList()
+      );
+    }
+  }
+
+  private record LegKey(
+    FeedScopedId agencyId,
+    FeedScopedId routeId,
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    FeedScopedId fromStopId,
+    Integer boardStopPosInPattern,
+    FeedScopedId toStopId,
+    Integer alightStopPosInPattern,
+    ZonedDateTime startTime,
+    ZonedDateTime endTime
+  ) {
+    static LegKey of(Leg leg) {
+      return new LegKey(
+        leg.getAgency().getId(),
+        leg.getRoute().getId(),
+        leg.getTrip().getId(),
+        leg.getServiceDate(),
+        leg.getFrom().stop.getId(),
+        leg.getBoardStopPosInPattern(),
+        leg.getTo().stop.getId(),
+        leg.getAlightStopPosInPattern(),
+        leg.getStartTime(),
+        leg.getEndTime()
+      );
+    }
+  }
+
+  private record IdentityWrapper(Object value) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IdentityWrapper other && value == other.value;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(value);
+    }
+  }
 }
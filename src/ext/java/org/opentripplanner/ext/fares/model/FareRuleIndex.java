@@ -0,0 +1,93 @@
+package org.opentripplanner.ext.fares.model;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.ext.fares.model.FareRuleSet.OriginDestination;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+/**
+ * A collection of fare rule sets indexed by origin/destination zone and by route. The index is
+ * used to skip the rule sets which can not match a ride sequence, instead of checking every rule
+ * set with {@link FareRuleSet#matches}.
+ * <p>
+ * The collection keeps the order of the rule sets, and so does
+ * {@link #candidates(String, String, FeedScopedId)}. This is important because the first of two
+ * rule sets with the same price wins.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class FareRuleIndex extends AbstractCollection<FareRuleSet> {
+
+  private static final BitSet EMPTY = new BitSet();
+
+  private final List<FareRuleSet> ruleSets;
+  private final BitSet withoutOriginDestination = new BitSet();
+  private final Map<OriginDestination, BitSet> byOriginDestination = new HashMap<>();
+  private final BitSet withoutRoutes = new BitSet();
+  private final Map<FeedScopedId, BitSet> byRoute = new HashMap<>();
+
+  public FareRuleIndex(Collection<FareRuleSet> ruleSets) {
+    this.ruleSets = List.copyOf(ruleSets);
+    for (int i = 0; i < this.ruleSets.size(); ++i) {
+      var ruleSet = this.ruleSets.get(i);
+      if (ruleSet.getOriginDestinations().isEmpty()) {
+        withoutOriginDestination.set(i);
+      }
+      for (var od : ruleSet.getOriginDestinations()) {
+        byOriginDestination.computeIfAbsent(od, it -> new BitSet()).set(i);
+      }
+      if (ruleSet.getRoutes().isEmpty()) {
+        withoutRoutes.set(i);
+      }
+      for (var route : ruleSet.getRoutes()) {
+        byRoute.computeIfAbsent(route, it -> new BitSet()).set(i);
+      }
+    }
+  }
+
+  /**
+   * Return the rule sets which may match a ride sequence from the start zone to the end zone,
+   * using the given route. This uses the same origin/destination and route conditions as
+   * {@link FareRuleSet#matches}, the other conditions must still be checked.
+   *
+   * @param route the route of any ride in the sequence, a rule set with routes must contain all
+   *              routes of the sequence.
+   */
+  public List<FareRuleSet> candidates(String startZone, String endZone, FeedScopedId route) {
+    var odMatches = (BitSet) withoutOriginDestination.clone();
+    odMatches.or(originDestination(startZone, endZone));
+    odMatches.or(originDestination(startZone, null));
+    odMatches.or(originDestination(null, startZone));
+
+    var routeMatches = (BitSet) withoutRoutes.clone();
+    routeMatches.or(byRoute.getOrDefault(route, EMPTY));
+
+    odMatches.and(routeMatches);
+
+    var result = new ArrayList<FareRuleSet>(odMatches.cardinality());
+    for (int i = odMatches.nextSetBit(0); i >= 0; i = odMatches.nextSetBit(i + 1)) {
+      result.add(ruleSets.get(i));
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator<FareRuleSet> iterator() {
+    return ruleSets.iterator();
+  }
+
+  @Override
+  public int size() {
+    return ruleSets.size();
+  }
+
+  private BitSet originDestination(String origin, String destination) {
+    return byOriginDestination.getOrDefault(new OriginDestination(origin, destination), EMPTY);
+  }
+}
@@ -28,6 +28,10 @@ public class FareRuleSet implements Serializable {
     originDestinations.add(new OriginDestination(origin, destination));
   }
 
+  Set<OriginDestination> getOriginDestinations() {
+    return originDestinations;
+  }
+
   /**
    * Used for checking ticket validity on HSL special routes on which some tickets are valid
    * outside their normal validity zones
@@ -6,6 +6,7 @@ import com.google.common.collect.Multimap;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import org.opentripplanner.ext.flex.flexpathcalculator.StreetFlexPathCache;
 import org.opentripplanner.ext.flex.trip.FlexTrip;
 import org.opentripplanner.model.PathTransfer;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
@@ -24,6 +25,8 @@ public class FlexIndex {
 
   private final Map<FeedScopedId, FlexTrip<?, ?>> tripById = new HashMap<>();
 
+  private final StreetFlexPathCache streetFlexPathCache = new StreetFlexPathCache();
+
   public FlexIndex(TransitModel transitModel) {
     for (PathTransfer transfer : transitModel.getAllPathTransfers()) {
       transfersToStop.put(transfer.to, transfer);
@@ -66,4 +69,11 @@ public class FlexIndex {
   public Collection<FlexTrip<?, ?>> getAllFlexTrips() {
     return tripById.values();
   }
+
+  /**
+   * The car paths used by flex access and egress, shared across requests.
+   */
+  public StreetFlexPathCache getStreetFlexPathCache() {
+    return streetFlexPathCache;
+  }
 }
@@ -79,10 +79,22 @@ public class FlexRouter {
       );
 
     if (graph.hasStreets) {
+      var sharedCache = flexIndex.getStreetFlexPathCache();
+      long edgeGeneration = graph.getPermanentEdgeGeneration();
       this.accessFlexPathCalculator =
-        new StreetFlexPathCalculator(false, flexParameters.maxFlexTripDuration());
+        new StreetFlexPathCalculator(
+          false,
+          flexParameters.maxFlexTripDuration(),
+          sharedCache,
+          edgeGeneration
+        );
       this.egressFlexPathCalculator =
-        new StreetFlexPathCalculator(true, flexParameters.maxFlexTripDuration());
+        new StreetFlexPathCalculator(
+          true,
+          flexParameters.maxFlexTripDuration(),
+          sharedCache,
+          edgeGeneration
+        );
     } else {
       // this is only really useful in tests. in real world scenarios you're unlikely to get useful
       // results if you don't have streets
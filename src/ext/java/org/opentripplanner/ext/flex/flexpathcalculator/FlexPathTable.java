@@ -0,0 +1,97 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.TemporaryVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * The durations and distances of the car paths from one origin vertex to all reachable flex
+ * vertices, extracted from a one-to-many search. A flex vertex is a vertex where a flex trip may
+ * start or end: the vertex of a regular stop or a street vertex inside an area stop. The other
+ * vertices of the search are not kept, so this is a lot smaller than the
+ * {@link ShortestPathTree} it is created from.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+final class FlexPathTable {
+
+  private static final int NOT_FOUND = -1;
+
+  private final TObjectIntMap<Vertex> indexByVertex;
+  private final int[] distances;
+  private final int[] durations;
+
+  private FlexPathTable(TObjectIntMap<Vertex> indexByVertex, int[] distances, int[] durations) {
+    this.indexByVertex = indexByVertex;
+    this.distances = distances;
+    this.durations = durations;
+  }
+
+  static FlexPathTable of(ShortestPathTree<State, Edge, Vertex> shortestPathTree) {
+    var vertices = shortestPathTree
+      .getVertices()
+      .stream()
+      .filter(FlexPathTable::isFlexVertex)
+      .toList();
+    var indexByVertex = new TObjectIntHashMap<Vertex>(vertices.size(), 0.5f, NOT_FOUND);
+    var distances = new int[vertices.size()];
+    var durations = new int[vertices.size()];
+    int size = 0;
+    for (var vertex : vertices) {
+      GraphPath<State, Edge, Vertex> path = shortestPathTree.getPath(vertex);
+      if (path != null) {
+        indexByVertex.put(vertex, size);
+        distances[size] = distanceMeters(path);
+        durations[size] = path.getDuration();
+        ++size;
+      }
+    }
+    return new FlexPathTable(indexByVertex, distances, durations);
+  }
+
+  /**
+   * Only the paths to flex vertices are kept in the table. Temporary vertices are never flex
+   * vertices, since they are created for a single request.
+   */
+  static boolean isFlexVertex(Vertex vertex) {
+    if (vertex instanceof TemporaryVertex) {
+      return false;
+    }
+    return (
+      vertex instanceof TransitStopVertex ||
+      (vertex instanceof StreetVertex streetVertex && !streetVertex.areaStops().isEmpty())
+    );
+  }
+
+  static int distanceMeters(GraphPath<State, Edge, Vertex> path) {
+    return (int) path.edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
+  }
+
+  /**
+   * @param geometrySupplier the geometry is not kept in the table, it is computed by the supplier
+   *                         when needed.
+   * @return the path to the given flex vertex, or {@code null} if it is not reachable.
+   */
+  @Nullable
+  FlexPath flexPath(Vertex vertex, Supplier<LineString> geometrySupplier) {
+    int index = indexByVertex.get(vertex);
+    if (index == NOT_FOUND) {
+      return null;
+    }
+    return new FlexPath(distances[index], durations[index], geometrySupplier);
+  }
+
+  int size() {
+    return indexByVertex.size();
+  }
+}
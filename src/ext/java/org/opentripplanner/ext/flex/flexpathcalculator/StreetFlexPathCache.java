@@ -0,0 +1,80 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * Cache the {@link FlexPathTable}s computed by the {@link StreetFlexPathCalculator} across
+ * requests. The car searches used for flex do not depend on the request, only on the origin
+ * vertex, the search direction and the maximum flex trip duration, so the result from one request
+ * can be reused by the next one. Only permanent vertices are cached.
+ * <p>
+ * The permanent edge generation of the graph is part of the key, see
+ * {@link Graph#getPermanentEdgeGeneration()}. When the permanent street graph changes, the cached
+ * tables are no longer used, and they are evicted when the cache is full. The rental vehicles and
+ * parking linked by the real-time updaters do not change the car paths between permanent vertices,
+ * so they do not invalidate the cache.
+ * <p>
+ * A table of an origin in a large area stop may contain every street vertex of the area, so the
+ * cache is bounded by the total number of vertices in the tables, not the number of tables. The
+ * least recently used tables are evicted first.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class StreetFlexPathCache {
+
+  /**
+   * Each vertex in a table uses about 32 bytes, so the cached tables use up to about 160 MB.
+   */
+  private static final long MAX_CACHED_VERTICES = 5_000_000;
+
+  private final Cache<Key, FlexPathTable> cache;
+
+  public StreetFlexPathCache() {
+    this(MAX_CACHED_VERTICES);
+  }
+
+  StreetFlexPathCache(long maxCachedVertices) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxCachedVertices)
+        // Count an empty table as one vertex, so the number of cached tables is bounded as well
+        .<Key, FlexPathTable>weigher((key, table) -> table.size() + 1)
+        .build();
+  }
+
+  FlexPathTable get(
+    Vertex originVertex,
+    boolean reverseDirection,
+    Duration maxFlexTripDuration,
+    long edgeGeneration,
+    Supplier<FlexPathTable> loader
+  ) {
+    var key = new Key(originVertex, reverseDirection, maxFlexTripDuration, edgeGeneration);
+    try {
+      return cache.get(key, loader::get);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  private record Key(
+    Vertex originVertex,
+    boolean reverseDirection,
+    Duration maxFlexTripDuration,
+    long edgeGeneration
+  ) {}
+}
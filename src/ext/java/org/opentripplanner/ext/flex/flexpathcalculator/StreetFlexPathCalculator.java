@@ -3,6 +3,7 @@ package org.opentripplanner.ext.flex.flexpathcalculator;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.opentripplanner.astar.model.GraphPath;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
@@ -29,6 +30,10 @@ import org.opentripplanner.street.search.strategy.DominanceFunctions;
  * configured so that the caching is done with either the origin or destination vertex as the key.
  * The one-to-many search will then either be done in the forward or the reverse direction depending
  * on this configuration.
+ * <p>
+ * The car search does not depend on the request, so when a {@link StreetFlexPathCache} is given,
+ * the durations and distances from permanent origin vertices to flex vertices are shared across
+ * requests. Temporary vertices and other destinations fall back to the per-request cache.
  */
 public class StreetFlexPathCalculator implements FlexPathCalculator {
 
@@ -36,9 +41,29 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
   private final boolean reverseDirection;
   private final Duration maxFlexTripDuration;
 
+  @Nullable
+  private final StreetFlexPathCache sharedCache;
+
+  private final long edgeGeneration;
+
   public StreetFlexPathCalculator(boolean reverseDirection, Duration maxFlexTripDuration) {
+    this(reverseDirection, maxFlexTripDuration, null, 0);
+  }
+
+  /**
+   * @param edgeGeneration the permanent edge generation of the graph when the request started, see
+   *                       {@link org.opentripplanner.routing.graph.Graph#getPermanentEdgeGeneration()}.
+   */
+  public StreetFlexPathCalculator(
+    boolean reverseDirection,
+    Duration maxFlexTripDuration,
+    @Nullable StreetFlexPathCache sharedCache,
+    long edgeGeneration
+  ) {
     this.reverseDirection = reverseDirection;
     this.maxFlexTripDuration = maxFlexTripDuration;
+    this.sharedCache = sharedCache;
+    this.edgeGeneration = edgeGeneration;
   }
 
   @Override
@@ -53,20 +78,34 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
     Vertex originVertex = reverseDirection ? tov : fromv;
     Vertex destinationVertex = reverseDirection ? fromv : tov;
 
-    ShortestPathTree<State, Edge, Vertex> shortestPathTree;
-    if (cache.containsKey(originVertex)) {
-      shortestPathTree = cache.get(originVertex);
-    } else {
-      shortestPathTree = routeToMany(originVertex);
-      cache.put(originVertex, shortestPathTree);
+    if (
+      sharedCache != null &&
+      FlexPathTable.isFlexVertex(originVertex) &&
+      FlexPathTable.isFlexVertex(destinationVertex)
+    ) {
+      var table = sharedCache.get(
+        originVertex,
+        reverseDirection,
+        maxFlexTripDuration,
+        edgeGeneration,
+        () -> FlexPathTable.of(routeToMany(originVertex))
+      );
+      // The geometry is rarely needed, so it is computed from a per-request search on demand
+      return table.flexPath(
+        destinationVertex,
+        () -> {
+          var path = shortestPathTree(originVertex).getPath(destinationVertex);
+          return GeometryUtils.concatenateLineStrings(path.edges, Edge::getGeometry);
+        }
+      );
     }
 
-    GraphPath<State, Edge, Vertex> path = shortestPathTree.getPath(destinationVertex);
+    GraphPath<State, Edge, Vertex> path = shortestPathTree(originVertex).getPath(destinationVertex);
     if (path == null) {
       return null;
     }
 
-    int distance = (int) path.edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
+    int distance = FlexPathTable.distanceMeters(path);
     int duration = path.getDuration();
 
     // computing the linestring from the graph path is a surprisingly expensive operation
@@ -79,6 +118,10 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
     );
   }
 
+  private ShortestPathTree<State, Edge, Vertex> shortestPathTree(Vertex originVertex) {
+    return cache.computeIfAbsent(originVertex, this::routeToMany);
+  }
+
   private ShortestPathTree<State, Edge, Vertex> routeToMany(Vertex vertex) {
     RouteRequest routingRequest = new RouteRequest();
     routingRequest.setArriveBy(reverseDirection);
@@ -1,13 +1,15 @@
 package org.opentripplanner.ext.siri;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -15,7 +17,6 @@ import javax.annotation.Nullable;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.calendar.CalendarService;
-import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.Route;
 import org.opentripplanner.transit.model.network.TripPattern;
@@ -38,27 +39,37 @@ import uk.org.siri.siri20.VehicleModesEnumeration;
  * process will always be applied even in places where you have good quality IDs in SIRI data and
  * don't need it - we'd have to add a way to disable it.
  * <p>
- * The same instance of this SiriFuzzyTripMatcher may appear in different SIRI updaters. Be sure
- * to fetch the instance at during the setup of the updaters, the initialization is not thread-safe.
+ * The same instance of this SiriFuzzyTripMatcher may appear in different SIRI updaters. The trips
+ * are indexed when the instance is created, the index is immutable and is replaced atomically when
+ * realtime updates add new trips, see {@link #addTrip(Trip)}.
  */
 public class SiriFuzzyTripMatcher {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriFuzzyTripMatcher.class);
 
+  private static final Timer VEHICLE_JOURNEY_MATCHED_TIMER = matchTimer("vehicle_journey", true);
+  private static final Timer VEHICLE_JOURNEY_NOT_MATCHED_TIMER = matchTimer(
+    "vehicle_journey",
+    false
+  );
+  private static final Timer ESTIMATED_JOURNEY_MATCHED_TIMER = matchTimer(
+    "estimated_journey",
+    true
+  );
+  private static final Timer ESTIMATED_JOURNEY_NOT_MATCHED_TIMER = matchTimer(
+    "estimated_journey",
+    false
+  );
+
   private static SiriFuzzyTripMatcher instance;
 
-  private final Map<String, Set<Trip>> internalPlanningCodeCache = new HashMap<>();
-  private final Map<String, Set<Trip>> startStopTripCache = new HashMap<>();
+  private final AtomicReference<SiriFuzzyTripMatcherIndex> index;
   private final TransitService transitService;
-  private boolean initialized = false;
 
   /**
    * Factory method used to create only one instance.
-   * <p>
-   * THIS METHOD IS NOT THREAD-SAFE AND SHOULD BE CALLED DURING THE
-   * INITIALIZATION PROCESS.
    */
-  public static SiriFuzzyTripMatcher of(TransitService transitService) {
+  public static synchronized SiriFuzzyTripMatcher of(TransitService transitService) {
     if (instance == null) {
       instance = new SiriFuzzyTripMatcher(transitService);
     }
@@ -70,7 +81,21 @@ public class SiriFuzzyTripMatcher {
    */
   public SiriFuzzyTripMatcher(TransitService transitService) {
     this.transitService = transitService;
-    initCache(this.transitService);
+    var initialIndex = SiriFuzzyTripMatcherIndex.of(
+      transitService.getAllTrips(),
+      transitService::getPatternForTrip
+    );
+    this.index = new AtomicReference<>(initialIndex);
+  }
+
+  /**
+   * Add a trip created by a realtime update, so that later updates can be matched to it. The trip
+   * and its pattern must be added to the transit model before this is called. The trip is never
+   * removed from the index again.
+   */
+  public void addTrip(Trip trip) {
+    TripPattern pattern = transitService.getPatternForTrip(trip);
+    index.updateAndGet(it -> it.plus(trip, pattern));
   }
 
   /**
@@ -79,6 +104,42 @@ public class SiriFuzzyTripMatcher {
   public Trip match(
     MonitoredVehicleJourneyStructure monitoredVehicleJourney,
     EntityResolver entityResolver
+  ) {
+    long start = System.nanoTime();
+    Trip trip = findTrip(monitoredVehicleJourney, entityResolver);
+    var timer = trip == null ? VEHICLE_JOURNEY_NOT_MATCHED_TIMER : VEHICLE_JOURNEY_MATCHED_TIMER;
+    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return trip;
+  }
+
+  /**
+   * Matches EstimatedVehicleJourney to a set of possible Trips based on tripId
+   */
+  @Nullable
+  public TripAndPattern match(
+    EstimatedVehicleJourney journey,
+    EntityResolver entityResolver,
+    BiFunction<TripPattern, LocalDate, Timetable> getCurrentTimetable,
+    BiFunction<FeedScopedId, LocalDate, TripPattern> getRealtimeAddedTripPattern
+  ) {
+    long start = System.nanoTime();
+    TripAndPattern tripAndPattern = findTripAndPattern(
+      journey,
+      entityResolver,
+      getCurrentTimetable,
+      getRealtimeAddedTripPattern
+    );
+    var timer = tripAndPattern == null
+      ? ESTIMATED_JOURNEY_NOT_MATCHED_TIMER
+      : ESTIMATED_JOURNEY_MATCHED_TIMER;
+    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return tripAndPattern;
+  }
+
+  @Nullable
+  private Trip findTrip(
+    MonitoredVehicleJourneyStructure monitoredVehicleJourney,
+    EntityResolver entityResolver
   ) {
     if (monitoredVehicleJourney.getDestinationRef() != null) {
       String destinationRef = monitoredVehicleJourney.getDestinationRef().getValue();
@@ -99,11 +160,8 @@ public class SiriFuzzyTripMatcher {
     return null;
   }
 
-  /**
-   * Matches EstimatedVehicleJourney to a set of possible Trips based on tripId
-   */
   @Nullable
-  public TripAndPattern match(
+  private TripAndPattern findTripAndPattern(
     EstimatedVehicleJourney journey,
     EntityResolver entityResolver,
     BiFunction<TripPattern, LocalDate, Timetable> getCurrentTimetable,
@@ -180,45 +238,6 @@ public class SiriFuzzyTripMatcher {
     return matches;
   }
 
-  private void initCache(TransitService index) {
-    if (!initialized) {
-      for (Trip trip : index.getAllTrips()) {
-        TripPattern tripPattern = index.getPatternForTrip(trip);
-
-        if (tripPattern == null) {
-          continue;
-        }
-
-        if (tripPattern.getRoute().getMode().equals(TransitMode.RAIL)) {
-          String internalPlanningCode = trip.getNetexInternalPlanningCode();
-          if (internalPlanningCode != null) {
-            internalPlanningCodeCache
-              .computeIfAbsent(internalPlanningCode, key -> new HashSet<>())
-              .add(trip);
-          }
-        }
-        String lastStopId = tripPattern.lastStop().getId().getId();
-
-        TripTimes tripTimes = tripPattern.getScheduledTimetable().getTripTimes(trip);
-        if (tripTimes != null) {
-          int arrivalTime = tripTimes.getArrivalTime(tripTimes.getNumStops() - 1);
-
-          String key = createStartStopKey(lastStopId, arrivalTime);
-          startStopTripCache.computeIfAbsent(key, k -> new HashSet<>()).add(trip);
-        }
-      }
-
-      LOG.info("Built internalPlanningCode-cache [{}].", internalPlanningCodeCache.size());
-      LOG.info("Built start-stop-cache [{}].", startStopTripCache.size());
-    }
-
-    initialized = true;
-  }
-
-  private static String createStartStopKey(String lastStopId, int lastStopArrivalTime) {
-    return lastStopId + ":" + lastStopArrivalTime;
-  }
-
   @Nonnull
   private Set<Trip> getMatchingTripsOnStopOrSiblings(
     String lastStopPoint,
@@ -236,13 +255,11 @@ public class SiriFuzzyTripMatcher {
       transitService.getTimeZone()
     );
 
-    Set<Trip> trips = startStopTripCache.get(
-      createStartStopKey(lastStopPoint, secondsSinceMidnight)
-    );
+    var index = this.index.get();
+    Set<Trip> trips = index.getByLastStopArrival(lastStopPoint, secondsSinceMidnight);
     if (trips == null) {
       //Attempt to fetch trips that started yesterday - i.e. add 24 hours to arrival-time
-      trips =
-        startStopTripCache.get(createStartStopKey(lastStopPoint, secondsSinceMidnightYesterday));
+      trips = index.getByLastStopArrival(lastStopPoint, secondsSinceMidnightYesterday);
     }
 
     if (trips != null) {
@@ -258,9 +275,7 @@ public class SiriFuzzyTripMatcher {
     trips = new HashSet<>();
     var allQuays = stop.getParentStation().getChildStops();
     for (var quay : allQuays) {
-      Set<Trip> tripSet = startStopTripCache.get(
-        createStartStopKey(quay.getId().getId(), secondsSinceMidnight)
-      );
+      Set<Trip> tripSet = index.getByLastStopArrival(quay.getId().getId(), secondsSinceMidnight);
       if (tripSet != null) {
         trips.addAll(tripSet);
       }
@@ -272,7 +287,7 @@ public class SiriFuzzyTripMatcher {
     if (internalPlanningCode == null) {
       return null;
     }
-    return internalPlanningCodeCache.getOrDefault(internalPlanningCode, new HashSet<>());
+    return index.get().getByInternalPlanningCode(internalPlanningCode);
   }
 
   /**
@@ -355,16 +370,11 @@ public class SiriFuzzyTripMatcher {
     }
     LocalDate serviceDate = date.toLocalDate();
 
+    CalendarService calendarService = transitService.getCalendarService();
     List<Trip> results = new ArrayList<>();
     for (Trip trip : trips) {
-      Set<LocalDate> serviceDatesForServiceId = transitService
-        .getCalendarService()
-        .getServiceDatesForServiceId(trip.getServiceId());
-
-      for (LocalDate next : serviceDatesForServiceId) {
-        if (next.equals(serviceDate)) {
-          results.add(trip);
-        }
+      if (calendarService.getServiceDatesForServiceId(trip.getServiceId()).contains(serviceDate)) {
+        results.add(trip);
       }
     }
 
@@ -391,4 +401,13 @@ public class SiriFuzzyTripMatcher {
 
     return null;
   }
+
+  private static Timer matchTimer(String journeyType, boolean matched) {
+    return Timer
+      .builder("siriFuzzyTripMatcher.match")
+      .description("Time used to match a SIRI journey without a known trip id to a trip")
+      .tags("journey_type", journeyType, "result", matched ? "matched" : "not_matched")
+      .publishPercentileHistogram()
+      .register(Metrics.globalRegistry);
+  }
 }
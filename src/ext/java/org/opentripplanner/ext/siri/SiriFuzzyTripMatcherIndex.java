@@ -0,0 +1,185 @@
+package org.opentripplanner.ext.siri;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.collection.PersistentHashMap;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The trips used by the {@link SiriFuzzyTripMatcher}, indexed by NeTEx internal planning code and
+ * by last stop and scheduled arrival time at the last stop.
+ * <p>
+ * The scheduled trips are indexed once, in parallel. Trips added later by realtime updates are
+ * kept in persistent maps, so adding a trip creates a new index sharing almost everything with
+ * the previous one. Added trips are never removed, they are kept until the index is built again
+ * from the transit model, which happens when the graph is reloaded. The index grows with the
+ * number of trips added by realtime updates while the server is running.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+final class SiriFuzzyTripMatcherIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SiriFuzzyTripMatcherIndex.class);
+
+  private final Map<String, Set<Trip>> internalPlanningCodes;
+  private final Map<LastStopArrival, Set<Trip>> lastStopArrivals;
+  private final PersistentHashMap<String, Set<Trip>> addedInternalPlanningCodes;
+  private final PersistentHashMap<LastStopArrival, Set<Trip>> addedLastStopArrivals;
+
+  private SiriFuzzyTripMatcherIndex(
+    Map<String, Set<Trip>> internalPlanningCodes,
+    Map<LastStopArrival, Set<Trip>> lastStopArrivals,
+    PersistentHashMap<String, Set<Trip>> addedInternalPlanningCodes,
+    PersistentHashMap<LastStopArrival, Set<Trip>> addedLastStopArrivals
+  ) {
+    this.internalPlanningCodes = internalPlanningCodes;
+    this.lastStopArrivals = lastStopArrivals;
+    this.addedInternalPlanningCodes = addedInternalPlanningCodes;
+    this.addedLastStopArrivals = addedLastStopArrivals;
+  }
+
+  /**
+   * Index the given trips in parallel.
+   *
+   * @param patternForTrip the scheduled pattern of a trip, the trip is skipped if {@code null}.
+   */
+  static SiriFuzzyTripMatcherIndex of(
+    Collection<Trip> trips,
+    Function<Trip, TripPattern> patternForTrip
+  ) {
+    // THIS CODE RUNS IN PARALLEL
+    var tripsAndPatterns = trips
+      .parallelStream()
+      .map(trip -> new TripAndPattern(trip, patternForTrip.apply(trip)))
+      .filter(it -> it.tripPattern() != null)
+      .toList();
+    var internalPlanningCodes = tripsAndPatterns
+      .parallelStream()
+      .filter(it -> internalPlanningCode(it.trip(), it.tripPattern()) != null)
+      .collect(
+        Collectors.groupingByConcurrent(
+          it -> it.trip().getNetexInternalPlanningCode(),
+          Collectors.mapping(TripAndPattern::trip, Collectors.toUnmodifiableSet())
+        )
+      );
+    var lastStopArrivals = tripsAndPatterns
+      .parallelStream()
+      .map(it -> {
+        var key = lastStopArrival(it.trip(), it.tripPattern());
+        return key == null ? null : Map.entry(key, it.trip());
+      })
+      .filter(Objects::nonNull)
+      .collect(
+        Collectors.groupingByConcurrent(
+          Map.Entry::getKey,
+          Collectors.mapping(Map.Entry::getValue, Collectors.toUnmodifiableSet())
+        )
+      );
+    // END PARALLEL CODE
+
+    LOG.info("Built internalPlanningCode-cache [{}].", internalPlanningCodes.size());
+    LOG.info("Built start-stop-cache [{}].", lastStopArrivals.size());
+
+    return new SiriFuzzyTripMatcherIndex(
+      Map.copyOf(internalPlanningCodes),
+      Map.copyOf(lastStopArrivals),
+      PersistentHashMap.of(),
+      PersistentHashMap.of()
+    );
+  }
+
+  /**
+   * Return a new index with the given trip added, this index is not changed.
+   */
+  SiriFuzzyTripMatcherIndex plus(Trip trip, @Nullable TripPattern pattern) {
+    var addedInternalPlanningCodes = this.addedInternalPlanningCodes;
+    var internalPlanningCode = internalPlanningCode(trip, pattern);
+    if (internalPlanningCode != null) {
+      addedInternalPlanningCodes =
+        addedInternalPlanningCodes.plus(
+          internalPlanningCode,
+          plus(getByInternalPlanningCode(internalPlanningCode), trip)
+        );
+    }
+    var addedLastStopArrivals = this.addedLastStopArrivals;
+    var lastStopArrival = lastStopArrival(trip, pattern);
+    if (lastStopArrival != null) {
+      addedLastStopArrivals =
+        addedLastStopArrivals.plus(
+          lastStopArrival,
+          plus(getByLastStopArrival(lastStopArrival), trip)
+        );
+    }
+    return new SiriFuzzyTripMatcherIndex(
+      internalPlanningCodes,
+      lastStopArrivals,
+      addedInternalPlanningCodes,
+      addedLastStopArrivals
+    );
+  }
+
+  Set<Trip> getByInternalPlanningCode(String internalPlanningCode) {
+    var added = addedInternalPlanningCodes.get(internalPlanningCode);
+    return added != null
+      ? added
+      : internalPlanningCodes.getOrDefault(internalPlanningCode, Set.of());
+  }
+
+  /**
+   * @param lastStopId the id of the last stop, without the feed id.
+   * @param arrivalTime the scheduled arrival time at the last stop, in seconds after the start of
+   *                    the service date.
+   */
+  @Nullable
+  Set<Trip> getByLastStopArrival(String lastStopId, int arrivalTime) {
+    return getByLastStopArrival(new LastStopArrival(lastStopId, arrivalTime));
+  }
+
+  @Nullable
+  private Set<Trip> getByLastStopArrival(LastStopArrival key) {
+    var added = addedLastStopArrivals.get(key);
+    return added != null ? added : lastStopArrivals.get(key);
+  }
+
+  private static Set<Trip> plus(@Nullable Set<Trip> trips, Trip trip) {
+    var result = trips == null ? new HashSet<Trip>() : new HashSet<>(trips);
+    result.add(trip);
+    return Set.copyOf(result);
+  }
+
+  @Nullable
+  private static String internalPlanningCode(Trip trip, @Nullable TripPattern pattern) {
+    if (pattern == null || !pattern.getRoute().getMode().equals(TransitMode.RAIL)) {
+      return null;
+    }
+    return trip.getNetexInternalPlanningCode();
+  }
+
+  @Nullable
+  private static LastStopArrival lastStopArrival(Trip trip, @Nullable TripPattern pattern) {
+    if (pattern == null) {
+      return null;
+    }
+    TripTimes tripTimes = pattern.getScheduledTimetable().getTripTimes(trip);
+    if (tripTimes == null) {
+      return null;
+    }
+    return new LastStopArrival(
+      pattern.lastStop().getId().getId(),
+      tripTimes.getArrivalTime(tripTimes.getNumStops() - 1)
+    );
+  }
+
+  private record LastStopArrival(String stopId, int arrivalTime) {}
+}
@@ -9,6 +9,7 @@ import static org.opentripplanner.updater.spi.UpdateError.UpdateErrorType.TRIP_N
 import static org.opentripplanner.updater.spi.UpdateError.UpdateErrorType.UNKNOWN;
 import static org.opentripplanner.updater.trip.UpdateIncrementality.FULL_DATASET;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -104,7 +105,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
 
     List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
 
-    snapshotManager.withLock(() -> {
+    Duration lockHoldTime = snapshotManager.withLock(() -> {
       if (incrementality == FULL_DATASET) {
         // Remove all updates from the buffer
         snapshotManager.clearBuffer(feedId);
@@ -125,7 +126,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       snapshotManager.purgeAndCommit();
     });
 
-    return UpdateResult.ofResults(results);
+    return UpdateResult.ofResults(results).withLockHoldTime(lockHoldTime);
   }
 
   @Override
@@ -161,7 +162,11 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       }
 
       /* commit */
-      return addTripToGraphAndBuffer(result.successValue());
+      var updateResult = addTripToGraphAndBuffer(result.successValue());
+      if (shouldAddNewTrip && fuzzyTripMatcher != null && updateResult.isSuccess()) {
+        fuzzyTripMatcher.addTrip(result.successValue().tripTimes().getTrip());
+      }
+      return updateResult;
     } catch (DataValidationException e) {
       return DataValidationExceptionMapper.toResult(e);
     } catch (Exception e) {
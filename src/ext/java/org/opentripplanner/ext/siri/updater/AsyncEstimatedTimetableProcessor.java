@@ -9,37 +9,41 @@ import uk.org.siri.siri20.ServiceDelivery;
 
 /**
  * Apply asynchronously estimated timetable updates in the graph-writer thread and forward the
- * result to an update result consumer.
+ * result to an update result consumer. The updates are coalesced in a
+ * {@link CoalescingEstimatedTimetableBuffer} before they are applied.
  */
 public class AsyncEstimatedTimetableProcessor {
 
-  private final EstimatedTimetableHandler estimatedTimetableHandler;
-  private final WriteToGraphCallback saveResultOnGraph;
-  private final Consumer<UpdateResult> updateResultConsumer;
+  private final CoalescingEstimatedTimetableBuffer buffer;
 
   public AsyncEstimatedTimetableProcessor(
+    String configRef,
     EstimatedTimetableHandler estimatedTimetableHandler,
     WriteToGraphCallback saveResultOnGraph,
-    Consumer<UpdateResult> updateResultConsumer
+    Consumer<UpdateResult> updateResultConsumer,
+    int maxBatchSize,
+    int maxPendingJourneys
   ) {
-    this.estimatedTimetableHandler = estimatedTimetableHandler;
-    this.saveResultOnGraph = saveResultOnGraph;
-    this.updateResultConsumer = updateResultConsumer;
+    this.buffer =
+      new CoalescingEstimatedTimetableBuffer(
+        configRef,
+        saveResultOnGraph,
+        updates ->
+          updateResultConsumer.accept(
+            estimatedTimetableHandler.applyUpdate(updates, UpdateIncrementality.DIFFERENTIAL)
+          ),
+        maxBatchSize,
+        maxPendingJourneys
+      );
   }
 
   /**
    * Apply the estimated timetables to the transit model.
-   * This method is non-blocking and applies the changes asynchronously.
+   * This method applies the changes asynchronously, it only blocks if too many updates are
+   * waiting to be applied.
    * @return a future indicating when the changes are applied.
    */
   public Future<?> processSiriData(ServiceDelivery serviceDelivery) {
-    return saveResultOnGraph.execute((graph, transitModel) ->
-      updateResultConsumer.accept(
-        estimatedTimetableHandler.applyUpdate(
-          serviceDelivery.getEstimatedTimetableDeliveries(),
-          UpdateIncrementality.DIFFERENTIAL
-        )
-      )
-    );
+    return buffer.submit(serviceDelivery.getEstimatedTimetableDeliveries());
   }
 }
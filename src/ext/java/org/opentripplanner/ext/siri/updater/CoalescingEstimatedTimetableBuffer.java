@@ -0,0 +1,322 @@
+package org.opentripplanner.ext.siri.updater;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.opentripplanner.updater.spi.WriteToGraphCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+import uk.org.siri.siri20.EstimatedVersionFrameStructure;
+
+/**
+ * Buffer the estimated vehicle journeys of asynchronous SIRI-ET messages before they are applied
+ * in the graph-writer thread.
+ * <p>
+ * Only the latest version of each dated service journey is kept: if a journey is received again
+ * before the previous version is applied, the previous version is dropped. At most one graph-writer
+ * task is queued at a time, it applies up to {@code maxBatchSize} journeys in one go. When the
+ * graph writer falls behind, the messages received in the meantime are coalesced into the next
+ * task instead of queueing one task per message.
+ * <p>
+ * When {@code maxPendingJourneys} journeys are waiting, {@link #submit(List)} blocks until the
+ * graph writer catches up. This pushes back on the message source, which stops fetching new
+ * messages while its consumer thread is blocked. A blocked thread exits if it is interrupted, for
+ * example when the updaters are shut down.
+ * <p>
+ * If the graph writer rejects a task, because it is shut down, the pending journeys are dropped and
+ * their messages fail, since they can never be applied.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class CoalescingEstimatedTimetableBuffer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    CoalescingEstimatedTimetableBuffer.class
+  );
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+  public static final int DEFAULT_MAX_PENDING_JOURNEYS = 20_000;
+
+  private static final String METRICS_PREFIX = "siriEtBuffer";
+
+  private final WriteToGraphCallback saveResultOnGraph;
+  private final Consumer<List<EstimatedTimetableDeliveryStructure>> applyUpdates;
+  private final int maxBatchSize;
+  private final int maxPendingJourneys;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+
+  /**
+   * The journeys waiting to be applied, in the order they are received. A journey received again
+   * replaces the previous version and moves to the end.
+   */
+  private final LinkedHashMap<Object, PendingJourney> pendingJourneys = new LinkedHashMap<>();
+
+  private boolean drainQueued = false;
+
+  private final Timer stalenessTimer;
+  private final Counter coalescedCounter;
+
+  /**
+   * @param applyUpdates apply the updates to the transit model, this is called in the graph-writer
+   *                     thread.
+   */
+  public CoalescingEstimatedTimetableBuffer(
+    String configRef,
+    WriteToGraphCallback saveResultOnGraph,
+    Consumer<List<EstimatedTimetableDeliveryStructure>> applyUpdates,
+    int maxBatchSize,
+    int maxPendingJourneys
+  ) {
+    if (maxBatchSize < 1 || maxPendingJourneys < 1) {
+      throw new IllegalArgumentException(
+        "maxBatchSize and maxPendingJourneys must be positive: " +
+        maxBatchSize +
+        ", " +
+        maxPendingJourneys
+      );
+    }
+    this.saveResultOnGraph = saveResultOnGraph;
+    this.applyUpdates = applyUpdates;
+    this.maxBatchSize = maxBatchSize;
+    this.maxPendingJourneys = maxPendingJourneys;
+
+    var tags = List.of(Tag.of("configRef", configRef));
+    Gauge
+      .builder(METRICS_PREFIX + ".pendingJourneys", this, it -> it.pendingJourneys())
+      .description("Estimated vehicle journeys waiting to be applied")
+      .tags(tags)
+      .register(Metrics.globalRegistry);
+    this.stalenessTimer =
+      Timer
+        .builder(METRICS_PREFIX + ".staleness")
+        .description("Time from receiving an estimated vehicle journey until it is applied")
+        .tags(tags)
+        .publishPercentileHistogram()
+        .register(Metrics.globalRegistry);
+    this.coalescedCounter =
+      Counter
+        .builder(METRICS_PREFIX + ".coalescedJourneys")
+        .description("Estimated vehicle journeys replaced by a later version before being applied")
+        .tags(tags)
+        .register(Metrics.globalRegistry);
+  }
+
+  /**
+   * Add the estimated vehicle journeys of the deliveries to the buffer. This method blocks while
+   * the buffer is full.
+   *
+   * @return a future completed when the journeys, or later versions of them, are applied. The
+   * future fails if the thread is interrupted while waiting or if the graph writer is shut down.
+   */
+  public Future<?> submit(List<EstimatedTimetableDeliveryStructure> deliveries) {
+    long receivedAt = System.nanoTime();
+    var message = new PendingMessage(new CompletableFuture<>());
+    boolean done;
+    lock.lock();
+    try {
+      while (pendingJourneys.size() >= maxPendingJourneys) {
+        notFull.await();
+      }
+      for (var delivery : deliveries) {
+        for (var frame : delivery.getEstimatedJourneyVersionFrames()) {
+          for (var journey : frame.getEstimatedVehicleJourneies()) {
+            Object key = journeyKey(journey);
+            var messages = new ArrayList<PendingMessage>(1);
+            var replaced = pendingJourneys.remove(key);
+            if (replaced != null) {
+              coalescedCounter.increment();
+              // The messages of the previous version are applied with this version
+              messages.addAll(replaced.messages());
+            }
+            if (!messages.contains(message)) {
+              messages.add(message);
+              ++message.outstandingJourneys;
+            }
+            pendingJourneys.put(key, new PendingJourney(journey, messages, receivedAt));
+          }
+        }
+      }
+      if (message.outstandingJourneys > 0 && !drainQueued) {
+        drainQueued = true;
+        queueDrain();
+      }
+      // Read while locked, the graph writer completes the message when the count drops to 0
+      done = message.outstandingJourneys == 0;
+    } catch (InterruptedException e) {
+      // Nothing is added to the buffer, pass the interruption on to the caller
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    } finally {
+      lock.unlock();
+    }
+    if (done) {
+      message.future.complete(null);
+    }
+    return message.future;
+  }
+
+  int pendingJourneys() {
+    lock.lock();
+    try {
+      return pendingJourneys.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Apply the next batch of journeys. This runs in the graph-writer thread.
+   */
+  private void drain() {
+    var journeys = new ArrayList<PendingJourney>();
+    // The messages with journeys in this batch, and the messages applied by this batch
+    var messages = new LinkedHashSet<PendingMessage>();
+    var futures = new ArrayList<CompletableFuture<Void>>();
+    lock.lock();
+    try {
+      Iterator<PendingJourney> it = pendingJourneys.values().iterator();
+      while (it.hasNext() && journeys.size() < maxBatchSize) {
+        var journey = it.next();
+        it.remove();
+        journeys.add(journey);
+        for (var message : journey.messages()) {
+          messages.add(message);
+          if (--message.outstandingJourneys == 0) {
+            futures.add(message.future);
+          }
+        }
+      }
+      if (pendingJourneys.isEmpty()) {
+        drainQueued = false;
+      } else {
+        // Keep the drain queued, the remaining journeys are applied by the next task
+        queueDrain();
+      }
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      if (!journeys.isEmpty()) {
+        applyUpdates.accept(toDeliveries(journeys));
+        long appliedAt = System.nanoTime();
+        for (var journey : journeys) {
+          stalenessTimer.record(appliedAt - journey.receivedAt(), TimeUnit.NANOSECONDS);
+        }
+      }
+      futures.forEach(f -> f.complete(null));
+    } catch (Throwable e) {
+      LOG.error("Applying {} estimated vehicle journeys failed.", journeys.size(), e);
+      // A message is failed if any of its journeys failed. This is also done for errors, so the
+      // message consumers waiting for the futures do not hang.
+      messages.forEach(m -> m.future.completeExceptionally(e));
+      if (e instanceof Error error) {
+        throw error;
+      }
+    }
+  }
+
+  /**
+   * Queue a drain task in the graph writer. If the graph writer rejects it, the pending journeys
+   * are dropped and their messages fail, so that no caller waits for a drain that never runs.
+   * Must be called while holding the lock.
+   */
+  private void queueDrain() {
+    try {
+      saveResultOnGraph.execute((graph, transitModel) -> drain());
+    } catch (RejectedExecutionException e) {
+      LOG.warn(
+        "The graph writer rejected the update, dropping {} estimated vehicle journeys.",
+        pendingJourneys.size()
+      );
+      var messages = new LinkedHashSet<PendingMessage>();
+      pendingJourneys.values().forEach(it -> messages.addAll(it.messages()));
+      pendingJourneys.clear();
+      drainQueued = false;
+      notFull.signalAll();
+      messages.forEach(m -> m.future.completeExceptionally(e));
+    }
+  }
+
+  private static List<EstimatedTimetableDeliveryStructure> toDeliveries(
+    List<PendingJourney> journeys
+  ) {
+    var frame = new EstimatedVersionFrameStructure();
+    for (var journey : journeys) {
+      frame.getEstimatedVehicleJourneies().add(journey.journey());
+    }
+    var delivery = new EstimatedTimetableDeliveryStructure();
+    delivery.getEstimatedJourneyVersionFrames().add(frame);
+    return List.of(delivery);
+  }
+
+  /**
+   * The key identifying the dated service journey, using the same references as the
+   * {@link org.opentripplanner.ext.siri.EntityResolver} in the same order. A journey without any
+   * reference is never coalesced.
+   */
+  private static Object journeyKey(EstimatedVehicleJourney journey) {
+    var framedRef = journey.getFramedVehicleJourneyRef();
+    if (framedRef != null && framedRef.getDatedVehicleJourneyRef() != null) {
+      var dataFrameRef = framedRef.getDataFrameRef();
+      return new JourneyKey(
+        "framed",
+        dataFrameRef == null ? null : dataFrameRef.getValue(),
+        framedRef.getDatedVehicleJourneyRef()
+      );
+    }
+    if (journey.getDatedVehicleJourneyRef() != null) {
+      return new JourneyKey("dated", null, journey.getDatedVehicleJourneyRef().getValue());
+    }
+    if (journey.getEstimatedVehicleJourneyCode() != null) {
+      return new JourneyKey("code", null, journey.getEstimatedVehicleJourneyCode());
+    }
+    return new Object();
+  }
+
+  private record JourneyKey(String refType, @Nullable String dataFrameRef, String ref) {}
+
+  /**
+   * @param messages the messages waiting for this journey: the message it was received in and the
+   *                 messages of the versions it replaced.
+   */
+  private record PendingJourney(
+    EstimatedVehicleJourney journey,
+    List<PendingMessage> messages,
+    long receivedAt
+  ) {}
+
+  /**
+   * A message is applied when none of its journeys, or the versions replacing them, are pending.
+   * The count is guarded by the buffer lock.
+   */
+  private static final class PendingMessage {
+
+    private final CompletableFuture<Void> future;
+    private int outstandingJourneys = 0;
+
+    private PendingMessage(CompletableFuture<Void> future) {
+      this.future = future;
+    }
+  }
+}
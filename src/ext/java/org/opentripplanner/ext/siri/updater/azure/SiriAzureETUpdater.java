@@ -16,9 +16,11 @@ import java.util.function.Consumer;
 import javax.xml.stream.XMLStreamException;
 import org.apache.hc.core5.net.URIBuilder;
 import org.opentripplanner.ext.siri.SiriTimetableSnapshotSource;
+import org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.updater.spi.ResultLogger;
 import org.opentripplanner.updater.spi.UpdateResult;
+import org.opentripplanner.updater.spi.WriteToGraphCallback;
 import org.opentripplanner.updater.trip.UpdateIncrementality;
 import org.opentripplanner.updater.trip.metrics.TripUpdateMetrics;
 import org.rutebanken.siri20.util.SiriXml;
@@ -37,6 +39,9 @@ public class SiriAzureETUpdater extends AbstractAzureSiriUpdater {
   private final SiriTimetableSnapshotSource snapshotSource;
 
   private final Consumer<UpdateResult> recordMetrics;
+  private final int maxBatchSize;
+  private final int maxPendingJourneys;
+  private CoalescingEstimatedTimetableBuffer buffer;
 
   public SiriAzureETUpdater(
     SiriAzureETUpdaterParameters config,
@@ -47,6 +52,21 @@ public class SiriAzureETUpdater extends AbstractAzureSiriUpdater {
     this.fromDateTime = config.getFromDateTime();
     this.snapshotSource = snapshotSource;
     this.recordMetrics = TripUpdateMetrics.streaming(config);
+    this.maxBatchSize = config.getMaxBatchSize();
+    this.maxPendingJourneys = config.getMaxPendingJourneys();
+  }
+
+  @Override
+  public void setup(WriteToGraphCallback writeToGraphCallback) {
+    super.setup(writeToGraphCallback);
+    this.buffer =
+      new CoalescingEstimatedTimetableBuffer(
+        getConfigRef(),
+        writeToGraphCallback,
+        this::applyUpdates,
+        maxBatchSize,
+        maxPendingJourneys
+      );
   }
 
   @Override
@@ -98,17 +118,19 @@ public class SiriAzureETUpdater extends AbstractAzureSiriUpdater {
   }
 
   private Future<?> processMessage(List<EstimatedTimetableDeliveryStructure> updates) {
-    return super.saveResultOnGraph.execute((graph, transitModel) -> {
-      var result = snapshotSource.applyEstimatedTimetable(
-        fuzzyTripMatcher(),
-        entityResolver(),
-        feedId,
-        UpdateIncrementality.DIFFERENTIAL,
-        updates
-      );
-      ResultLogger.logUpdateResultErrors(feedId, "siri-et", result);
-      recordMetrics.accept(result);
-    });
+    return buffer.submit(updates);
+  }
+
+  private void applyUpdates(List<EstimatedTimetableDeliveryStructure> updates) {
+    var result = snapshotSource.applyEstimatedTimetable(
+      fuzzyTripMatcher(),
+      entityResolver(),
+      feedId,
+      UpdateIncrementality.DIFFERENTIAL,
+      updates
+    );
+    ResultLogger.logUpdateResultErrors(feedId, "siri-et", result);
+    recordMetrics.accept(result);
   }
 
   private void processHistory(ServiceDelivery siri) {
@@ -1,5 +1,8 @@
 package org.opentripplanner.ext.siri.updater.azure;
 
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_BATCH_SIZE;
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_PENDING_JOURNEYS;
+
 import com.azure.core.amqp.implementation.ConnectionStringProperties;
 import java.time.LocalDate;
 import org.opentripplanner.updater.trip.UrlUpdaterParameters;
@@ -9,6 +12,8 @@ public class SiriAzureETUpdaterParameters
   implements UrlUpdaterParameters {
 
   private LocalDate fromDateTime;
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  private int maxPendingJourneys = DEFAULT_MAX_PENDING_JOURNEYS;
 
   public SiriAzureETUpdaterParameters() {
     super("siri-azure-et-updater");
@@ -22,6 +27,22 @@ public class SiriAzureETUpdaterParameters
     this.fromDateTime = fromDateTime;
   }
 
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public int getMaxPendingJourneys() {
+    return maxPendingJourneys;
+  }
+
+  public void setMaxPendingJourneys(int maxPendingJourneys) {
+    this.maxPendingJourneys = maxPendingJourneys;
+  }
+
   @Override
   public String url() {
     var url = getServiceBusUrl();
@@ -23,6 +23,8 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
   private final AsyncEstimatedTimetableSource asyncEstimatedTimetableSource;
   private final EstimatedTimetableHandler estimatedTimetableHandler;
   private final Consumer<UpdateResult> updateResultConsumer;
+  private final int maxBatchSize;
+  private final int maxPendingJourneys;
   private WriteToGraphCallback saveResultOnGraph;
 
   public SiriETGooglePubsubUpdater(
@@ -51,6 +53,8 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
       );
 
     updateResultConsumer = TripUpdateMetrics.streaming(config);
+    maxBatchSize = config.maxBatchSize();
+    maxPendingJourneys = config.maxPendingJourneys();
   }
 
   @Override
@@ -61,9 +65,12 @@ public class SiriETGooglePubsubUpdater implements GraphUpdater {
   @Override
   public void run() {
     AsyncEstimatedTimetableProcessor asyncEstimatedTimetableProcessor = new AsyncEstimatedTimetableProcessor(
+      configRef,
       estimatedTimetableHandler,
       saveResultOnGraph,
-      updateResultConsumer
+      updateResultConsumer,
+      maxBatchSize,
+      maxPendingJourneys
     );
     asyncEstimatedTimetableSource.start(asyncEstimatedTimetableProcessor::processSiriData);
   }
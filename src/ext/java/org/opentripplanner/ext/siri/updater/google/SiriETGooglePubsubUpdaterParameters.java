@@ -1,5 +1,8 @@
 package org.opentripplanner.ext.siri.updater.google;
 
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_BATCH_SIZE;
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_PENDING_JOURNEYS;
+
 import java.time.Duration;
 import java.util.Objects;
 import javax.annotation.Nonnull;
@@ -16,7 +19,9 @@ public record SiriETGooglePubsubUpdaterParameters(
   @Nullable String dataInitializationUrl,
   Duration reconnectPeriod,
   Duration initialGetDataTimeout,
-  boolean fuzzyTripMatching
+  boolean fuzzyTripMatching,
+  int maxBatchSize,
+  int maxPendingJourneys
 )
   implements UrlUpdaterParameters {
   public static Duration RECONNECT_PERIOD = Duration.ofSeconds(30);
@@ -43,6 +48,8 @@ public record SiriETGooglePubsubUpdaterParameters(
       .addDuration("reconnectPeriod", reconnectPeriod, RECONNECT_PERIOD)
       .addDuration("initialGetDataTimeout", initialGetDataTimeout, INITIAL_GET_DATA_TIMEOUT)
       .addBoolIfTrue("fuzzyTripMatching", fuzzyTripMatching)
+      .addNum("maxBatchSize", maxBatchSize, DEFAULT_MAX_BATCH_SIZE)
+      .addNum("maxPendingJourneys", maxPendingJourneys, DEFAULT_MAX_PENDING_JOURNEYS)
       .addObj("dataInitializationUrl", dataInitializationUrl, null)
       .toString();
   }
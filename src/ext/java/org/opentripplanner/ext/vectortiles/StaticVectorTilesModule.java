@@ -0,0 +1,96 @@
+package org.opentripplanner.ext.vectortiles;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerType;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayersParameters;
+import org.opentripplanner.ext.vectortiles.layers.areastops.AreaStopsLayerBuilder;
+import org.opentripplanner.ext.vectortiles.layers.stations.StationsLayerBuilder;
+import org.opentripplanner.ext.vectortiles.layers.stops.StopsLayerBuilder;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.inspector.vector.LayerBuilder;
+import org.opentripplanner.inspector.vector.LayerParameters;
+import org.opentripplanner.inspector.vector.VectorTileArchive;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.transit.service.DefaultTransitService;
+import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.transit.service.TransitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Render the tiles of the static vector tile layers, stops, stations and area stops, and store them
+ * in the graph as a {@link VectorTileArchive}. The layers are configured in the router config, the
+ * maximum zoom level and the languages in the build config.
+ * <p>
+ * This module must run after all modules changing the stops and patterns.
+ */
+public class StaticVectorTilesModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StaticVectorTilesModule.class);
+
+  private final Graph graph;
+  private final TransitModel transitModel;
+  private final LayersParameters<LayerType> layersParameters;
+  private final int maxZoom;
+  private final List<String> languages;
+
+  public StaticVectorTilesModule(
+    Graph graph,
+    TransitModel transitModel,
+    LayersParameters<LayerType> layersParameters,
+    int maxZoom,
+    List<String> languages
+  ) {
+    this.graph = graph;
+    this.transitModel = transitModel;
+    this.layersParameters = layersParameters;
+    this.maxZoom = maxZoom;
+    this.languages = languages;
+  }
+
+  @Override
+  public void buildGraph() {
+    long start = System.currentTimeMillis();
+    LOG.info("Rendering static vector tiles...");
+
+    transitModel.index();
+    TransitService transitService = new DefaultTransitService(transitModel);
+    var archive = VectorTileArchive.of();
+
+    for (var layerParameters : layersParameters.layers()) {
+      for (String language : languages) {
+        var locale = Locale.forLanguageTag(language);
+        Supplier<LayerBuilder<?>> layerBuilderFactory = switch (layerParameters.type()) {
+          case Stop -> () -> new StopsLayerBuilder<>(transitService, layerParameters, locale);
+          case Station -> () -> new StationsLayerBuilder(transitService, layerParameters, locale);
+          case AreaStop -> () -> new AreaStopsLayerBuilder(transitService, layerParameters, locale);
+          default -> null;
+        };
+        if (layerBuilderFactory != null) {
+          int tiles = archive.addLayer(layerParameters, locale, maxZoom, layerBuilderFactory);
+          logLayer(layerParameters, language, tiles);
+        }
+      }
+    }
+
+    var result = archive.build();
+    graph.setVectorTileArchive(result);
+    LOG.info(
+      "Static vector tiles rendered: {}. Took: {}",
+      result,
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - start)
+    );
+  }
+
+  private static void logLayer(LayerParameters<?> layerParameters, String language, int tiles) {
+    LOG.info(
+      "Rendered {} tiles with features for layer {} in language {}.",
+      tiles,
+      layerParameters.name(),
+      language
+    );
+  }
+}
@@ -3,6 +3,7 @@ package org.opentripplanner.ext.vectortiles;
 import static org.opentripplanner.framework.io.HttpUtils.APPLICATION_X_PROTOBUF;
 
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
@@ -60,7 +61,8 @@ public class VectorTilesResource {
     @PathParam("x") int x,
     @PathParam("y") int y,
     @PathParam("z") int z,
-    @PathParam("layers") String requestedLayers
+    @PathParam("layers") String requestedLayers,
+    @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
   ) {
     return VectorTileResponseFactory.create(
       x,
@@ -70,7 +72,9 @@ public class VectorTilesResource {
       Arrays.asList(requestedLayers.split(",")),
       serverContext.vectorTileConfig().layers(),
       VectorTilesResource::createLayerBuilder,
-      serverContext
+      serverContext,
+      serverContext.vectorTileCache(),
+      ifNoneMatch
     );
   }
 
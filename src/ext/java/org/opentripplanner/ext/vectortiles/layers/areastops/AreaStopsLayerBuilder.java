@@ -34,6 +34,11 @@ public class AreaStopsLayerBuilder extends LayerBuilder<AreaStop> {
     this.transitService = transitService;
   }
 
+  @Override
+  protected long dataGeneration() {
+    return STATIC_DATA;
+  }
+
   protected List<Geometry> getGeometries(Envelope query) {
     return transitService
       .findAreaStops(query)
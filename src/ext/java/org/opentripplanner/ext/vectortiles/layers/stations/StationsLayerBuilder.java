@@ -38,6 +38,11 @@ public class StationsLayerBuilder extends LayerBuilder<Station> {
     this.transitModel = transitService;
   }
 
+  @Override
+  protected long dataGeneration() {
+    return STATIC_DATA;
+  }
+
   protected List<Geometry> getGeometries(Envelope query) {
     return transitModel
       .getStations()
@@ -23,6 +23,7 @@ public class StopsLayerBuilder<T> extends LayerBuilder<T> {
     DigitransitStopPropertyMapper::create
   );
   private final TransitService transitService;
+  private final MapperType mapperType;
 
   public StopsLayerBuilder(
     TransitService transitService,
@@ -43,6 +44,16 @@ public class StopsLayerBuilder<T> extends LayerBuilder<T> {
       layerParameters.expansionFactor()
     );
     this.transitService = transitService;
+    this.mapperType = MapperType.valueOf(layerParameters.mapper());
+  }
+
+  /**
+   * The realtime properties depend on the current time and the realtime data, which has no
+   * version, so these tiles are only cached for the configured cacheMaxSeconds.
+   */
+  @Override
+  protected long dataGeneration() {
+    return mapperType == MapperType.DigitransitRealtime ? UNVERSIONED_DATA : STATIC_DATA;
   }
 
   protected List<Geometry> getGeometries(Envelope query) {
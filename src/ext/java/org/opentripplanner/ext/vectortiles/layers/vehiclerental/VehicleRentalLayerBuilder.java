@@ -32,6 +32,11 @@ abstract class VehicleRentalLayerBuilder<T extends VehicleRentalPlace> extends L
     this.service = service;
   }
 
+  @Override
+  protected long dataGeneration() {
+    return service == null ? STATIC_DATA : service.getGeneration();
+  }
+
   @Override
   protected List<Geometry> getGeometries(Envelope query) {
     if (service == null) {
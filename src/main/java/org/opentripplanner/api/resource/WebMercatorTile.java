@@ -8,6 +8,9 @@ import org.locationtech.jts.geom.Envelope;
  */
 public class WebMercatorTile {
 
+  /** The latitude of the north and south edges of the web mercator projection. */
+  private static final double MAX_LAT = 85.0511287798;
+
   /**
    * Implements https://wiki.openstreetmap.org/wiki/Slippy_map_tilenames#Tile_numbers_to_lon./lat.
    */
@@ -19,6 +22,25 @@ public class WebMercatorTile {
     return new Envelope(maxLon, minLon, maxLat, minLat);
   }
 
+  /**
+   * The x number of the tile containing the longitude.
+   */
+  public static int lon2tileX(double lon, int zoom) {
+    int n = 1 << zoom;
+    int x = (int) Math.floor((lon + 180) / 360 * n);
+    return Math.min(Math.max(x, 0), n - 1);
+  }
+
+  /**
+   * The y number of the tile containing the latitude.
+   */
+  public static int lat2tileY(double lat, int zoom) {
+    int n = 1 << zoom;
+    double latRad = Math.toRadians(Math.min(Math.max(lat, -MAX_LAT), MAX_LAT));
+    double y = (1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * n;
+    return Math.min(Math.max((int) Math.floor(y), 0), n - 1);
+  }
+
   private static double tile2lon(int x, int z) {
     return x / Math.pow(2.0, z) * 360.0 - 180;
   }
@@ -9,6 +9,7 @@ import static org.opentripplanner.apis.vectortiles.model.LayerType.Vertex;
 import static org.opentripplanner.framework.io.HttpUtils.APPLICATION_X_PROTOBUF;
 
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
@@ -90,7 +91,8 @@ public class GraphInspectorVectorTileResource {
     @PathParam("x") int x,
     @PathParam("y") int y,
     @PathParam("z") int z,
-    @PathParam("layers") String requestedLayers
+    @PathParam("layers") String requestedLayers,
+    @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
   ) {
     return VectorTileResponseFactory.create(
       x,
@@ -100,7 +102,9 @@ public class GraphInspectorVectorTileResource {
       Arrays.asList(requestedLayers.split(",")),
       DEBUG_LAYERS,
       GraphInspectorVectorTileResource::createLayerBuilder,
-      serverContext
+      serverContext,
+      serverContext.inspectorVectorTileCache(),
+      ifNoneMatch
     );
   }
 
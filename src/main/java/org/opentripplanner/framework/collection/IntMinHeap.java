@@ -0,0 +1,75 @@
+package org.opentripplanner.framework.collection;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of {@code [key, value]} pairs packed into longs, to avoid boxing. This is used
+ * as the priority queue in Dijkstra searches on graphs with integer costs. The key must be zero or
+ * positive, use {@link #key(long)} and {@link #value(long)} to unpack the polled element.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+public class IntMinHeap {
+
+  private long[] heap = new long[256];
+  private int size = 0;
+
+  public void add(int key, int value) {
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    long element = ((long) key << 32) | (value & 0xFFFFFFFFL);
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (heap[parent] <= element) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = element;
+  }
+
+  /**
+   * Remove and return the element with the smallest key. Elements with the same key are ordered
+   * by value.
+   */
+  public long poll() {
+    long result = heap[0];
+    long last = heap[--size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        ++child;
+      }
+      if (last <= heap[child]) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public static int key(long element) {
+    return (int) (element >>> 32);
+  }
+
+  public static int value(long element) {
+    return (int) element;
+  }
+}
@@ -0,0 +1,400 @@
+package org.opentripplanner.framework.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable hash map where {@link #plus(Object, Object)} and {@link #minus(Object)} return a new
+ * map sharing all but the changed path with this map. The entries are stored in a hash array
+ * mapped trie, with up to 32 children in each node, so a change copies at most one node on each
+ * of the 7 levels of the trie, and a lookup visits at most 7 nodes.
+ * <p>
+ * This is used for the data that is copied to a new version when something changes, while the
+ * older versions are still in use. Taking a snapshot of the current version does not copy
+ * anything.
+ * <p>
+ * The {@link java.util.Map} methods changing the map throw an
+ * {@link UnsupportedOperationException}. Null keys and values are not allowed.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /** The max depth of the trie is 7 levels, plus the root wrapper used when iterating. */
+  private static final int MAX_DEPTH = 8;
+
+  private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+  /** A {@link Leaf}, {@link Collision} or {@link Branch}, or {@code null} if the map is empty. */
+  private final Object root;
+  private final int size;
+
+  private PersistentHashMap(Object root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> of() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Return a map with the given key mapped to the value. This map is returned if the key is
+   * already mapped to the same value instance.
+   */
+  public PersistentHashMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    var added = new boolean[1];
+    Object newRoot = root == null
+      ? new Leaf(hash(key), key, value)
+      : put(root, 0, hash(key), key, value, added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, added[0] || root == null ? size + 1 : size);
+  }
+
+  /**
+   * Return a map without the given key. This map is returned if the key is not in the map.
+   */
+  public PersistentHashMap<K, V> minus(Object key) {
+    if (root == null || key == null) {
+      return this;
+    }
+    Object newRoot = remove(root, 0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? of() : new PersistentHashMap<>(newRoot, size - 1);
+  }
+
+  /**
+   * Return a map without the keys matching the filter. This map is returned if no key matches.
+   */
+  public PersistentHashMap<K, V> minusIf(Predicate<? super K> filter) {
+    var result = this;
+    for (K key : keySet()) {
+      if (filter.test(key)) {
+        result = result.minus(key);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    int hash = hash(key);
+    Object node = root;
+    int shift = 0;
+    while (node instanceof Branch branch) {
+      int bit = bit(hash, shift);
+      if ((branch.bitmap & bit) == 0) {
+        return null;
+      }
+      node = branch.slots[branch.index(bit)];
+      shift += BITS;
+    }
+    if (node instanceof Leaf leaf) {
+      return leaf.matches(hash, key) ? (V) leaf.value : null;
+    }
+    if (node instanceof Collision collision && collision.hash == hash) {
+      int i = collision.indexOf(key);
+      return i < 0 ? null : (V) collision.leaves[i].value;
+    }
+    return null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /* private methods */
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  private static int hashOf(Object node) {
+    return node instanceof Leaf leaf ? leaf.hash : ((Collision) node).hash;
+  }
+
+  /**
+   * Return the node with the key added, or the same node if the key is already mapped to the
+   * value. {@code added[0]} is set if the key was not in the node.
+   */
+  private static Object put(
+    Object node,
+    int shift,
+    int hash,
+    Object key,
+    Object value,
+    boolean[] added
+  ) {
+    if (node instanceof Branch branch) {
+      int bit = bit(hash, shift);
+      int i = branch.index(bit);
+      if ((branch.bitmap & bit) == 0) {
+        added[0] = true;
+        return branch.insert(bit, i, new Leaf(hash, key, value));
+      }
+      Object child = put(branch.slots[i], shift + BITS, hash, key, value, added);
+      return child == branch.slots[i] ? branch : branch.replace(i, child);
+    }
+    if (node instanceof Leaf leaf) {
+      if (leaf.matches(hash, key)) {
+        return leaf.value == value ? leaf : new Leaf(hash, key, value);
+      }
+      added[0] = true;
+      var newLeaf = new Leaf(hash, key, value);
+      return leaf.hash == hash
+        ? new Collision(hash, new Leaf[] { leaf, newLeaf })
+        : merge(leaf, newLeaf, hash, shift);
+    }
+    var collision = (Collision) node;
+    var newLeaf = new Leaf(hash, key, value);
+    if (collision.hash != hash) {
+      added[0] = true;
+      return merge(collision, newLeaf, hash, shift);
+    }
+    int i = collision.indexOf(key);
+    if (i < 0) {
+      added[0] = true;
+      var leaves = Arrays.copyOf(collision.leaves, collision.leaves.length + 1);
+      leaves[leaves.length - 1] = newLeaf;
+      return new Collision(hash, leaves);
+    }
+    if (collision.leaves[i].value == value) {
+      return collision;
+    }
+    var leaves = collision.leaves.clone();
+    leaves[i] = newLeaf;
+    return new Collision(hash, leaves);
+  }
+
+  /**
+   * Create the branches needed to hold two nodes with different hashes, at the given level.
+   */
+  private static Branch merge(Object node, Leaf leaf, int hash, int shift) {
+    int nodeHash = hashOf(node);
+    int nodeBit = bit(nodeHash, shift);
+    int leafBit = bit(hash, shift);
+    if (nodeBit == leafBit) {
+      return new Branch(nodeBit, new Object[] { merge(node, leaf, hash, shift + BITS) });
+    }
+    Object[] slots = Integer.compareUnsigned(nodeBit, leafBit) < 0
+      ? new Object[] { node, leaf }
+      : new Object[] { leaf, node };
+    return new Branch(nodeBit | leafBit, slots);
+  }
+
+  /**
+   * Return the node without the key, {@code null} if the node becomes empty, or the same node if
+   * the key is not in the node. A branch left with one leaf or collision is replaced by it.
+   */
+  private static Object remove(Object node, int shift, int hash, Object key) {
+    if (node instanceof Branch branch) {
+      int bit = bit(hash, shift);
+      if ((branch.bitmap & bit) == 0) {
+        return branch;
+      }
+      int i = branch.index(bit);
+      Object child = remove(branch.slots[i], shift + BITS, hash, key);
+      if (child == branch.slots[i]) {
+        return branch;
+      }
+      if (child == null) {
+        if (branch.slots.length == 1) {
+          return null;
+        }
+        var result = branch.delete(bit, i);
+        return result.slots.length == 1 && !(result.slots[0] instanceof Branch)
+          ? result.slots[0]
+          : result;
+      }
+      if (branch.slots.length == 1 && !(child instanceof Branch)) {
+        return child;
+      }
+      return branch.replace(i, child);
+    }
+    if (node instanceof Leaf leaf) {
+      return leaf.matches(hash, key) ? null : leaf;
+    }
+    var collision = (Collision) node;
+    int i = collision.hash == hash ? collision.indexOf(key) : -1;
+    if (i < 0) {
+      return collision;
+    }
+    if (collision.leaves.length == 2) {
+      return collision.leaves[1 - i];
+    }
+    var leaves = new Leaf[collision.leaves.length - 1];
+    System.arraycopy(collision.leaves, 0, leaves, 0, i);
+    System.arraycopy(collision.leaves, i + 1, leaves, i, leaves.length - i);
+    return new Collision(hash, leaves);
+  }
+
+  /* private types */
+
+  private record Leaf(int hash, Object key, Object value) {
+    boolean matches(int hash, Object key) {
+      return this.hash == hash && this.key.equals(key);
+    }
+  }
+
+  /** Leaves with the same hash and different keys. */
+  private record Collision(int hash, Leaf[] leaves) {
+    int indexOf(Object key) {
+      for (int i = 0; i < leaves.length; ++i) {
+        if (leaves[i].key.equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * A node with one slot for each bit set in the bitmap, in bit order. A slot is a leaf, a
+   * collision or a branch at the next level.
+   */
+  private record Branch(int bitmap, Object[] slots) {
+    int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    Branch insert(int bit, int index, Object node) {
+      var result = new Object[slots.length + 1];
+      System.arraycopy(slots, 0, result, 0, index);
+      result[index] = node;
+      System.arraycopy(slots, index, result, index + 1, slots.length - index);
+      return new Branch(bitmap | bit, result);
+    }
+
+    Branch replace(int index, Object node) {
+      var result = slots.clone();
+      result[index] = node;
+      return new Branch(bitmap, result);
+    }
+
+    Branch delete(int bit, int index) {
+      var result = new Object[slots.length - 1];
+      System.arraycopy(slots, 0, result, 0, index);
+      System.arraycopy(slots, index + 1, result, index, result.length - index);
+      return new Branch(bitmap & ~bit, result);
+    }
+  }
+
+  /** Depth-first iteration over the trie, with an explicit stack of slot arrays. */
+  private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+    private final Object[][] stack = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth = -1;
+    private Leaf[] collision = null;
+    private int collisionPosition = 0;
+    private Leaf next;
+
+    private EntryIterator(Object root) {
+      if (root != null) {
+        push(new Object[] { root });
+      }
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = new SimpleImmutableEntry<>((K) next.key, (V) next.value);
+      advance();
+      return result;
+    }
+
+    private void push(Object[] slots) {
+      stack[++depth] = slots;
+      positions[depth] = 0;
+    }
+
+    private void advance() {
+      if (collision != null) {
+        if (collisionPosition < collision.length) {
+          next = collision[collisionPosition++];
+          return;
+        }
+        collision = null;
+      }
+      while (depth >= 0) {
+        if (positions[depth] == stack[depth].length) {
+          --depth;
+          continue;
+        }
+        Object node = stack[depth][positions[depth]++];
+        if (node instanceof Branch branch) {
+          push(branch.slots);
+        } else if (node instanceof Leaf leaf) {
+          next = leaf;
+          return;
+        } else {
+          collision = ((Collision) node).leaves;
+          next = collision[0];
+          collisionPosition = 1;
+          return;
+        }
+      }
+      next = null;
+    }
+  }
+}
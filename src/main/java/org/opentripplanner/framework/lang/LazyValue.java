@@ -0,0 +1,68 @@
+package org.opentripplanner.framework.lang;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A value computed on first access, and then cached. The supplier is called at most once, and the
+ * reference to it is released when the value is computed, so anything it captures can be garbage
+ * collected. The value may be {@code null}.
+ * <p>
+ * This is used for expensive derived values which are often not needed, like the geometry of a
+ * street leg in an itinerary.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ * @param <T> the type of the wrapped value.
+ */
+public final class LazyValue<T> implements Supplier<T> {
+
+  private volatile Supplier<T> supplier;
+  private T value;
+
+  private LazyValue(@Nullable Supplier<T> supplier, @Nullable T value) {
+    this.supplier = supplier;
+    this.value = value;
+  }
+
+  /**
+   * Create a lazy value, the given supplier is called the first time the value is accessed.
+   */
+  public static <T> LazyValue<T> of(Supplier<T> supplier) {
+    return new LazyValue<>(Objects.requireNonNull(supplier), null);
+  }
+
+  /**
+   * Wrap an already computed value.
+   */
+  public static <T> LazyValue<T> ofValue(@Nullable T value) {
+    return new LazyValue<>(null, value);
+  }
+
+  @Override
+  @Nullable
+  public T get() {
+    // The volatile read of the supplier makes the value written before it visible
+    if (supplier != null) {
+      synchronized (this) {
+        if (supplier != null) {
+          value = supplier.get();
+          supplier = null;
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Return {@code true} if the value is computed, this does not trigger the computation.
+   */
+  public boolean isComputed() {
+    return supplier == null;
+  }
+
+  @Override
+  public String toString() {
+    return isComputed() ? String.valueOf(value) : "<not computed>";
+  }
+}
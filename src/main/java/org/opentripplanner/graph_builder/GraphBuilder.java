@@ -23,6 +23,7 @@ import org.opentripplanner.graph_builder.module.configure.DaggerGraphBuilderFact
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.service.worldenvelope.WorldEnvelopeRepository;
 import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.standalone.config.routerconfig.VectorTileConfig;
 import org.opentripplanner.street.model.StreetLimitationParameters;
 import org.opentripplanner.transit.service.TransitModel;
 import org.slf4j.Logger;
@@ -60,6 +61,7 @@ public class GraphBuilder implements Runnable {
    */
   public static GraphBuilder create(
     BuildConfig config,
+    VectorTileConfig vectorTileConfig,
     GraphBuilderDataSources dataSources,
     Graph graph,
     TransitModel transitModel,
@@ -80,6 +82,7 @@ public class GraphBuilder implements Runnable {
     var builder = DaggerGraphBuilderFactory
       .builder()
       .config(config)
+      .vectorTileConfig(vectorTileConfig)
       .graph(graph)
       .transitModel(transitModel)
       .worldEnvelopeRepository(worldEnvelopeRepository)
@@ -144,6 +147,12 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModule(it);
     }
 
+    // The street edges are indexed after the last change to the street network, and before the
+    // transfers are generated, so the transfer searches can use the edge cost cache
+    if ((hasOsm && !saveStreetGraph) || loadStreetGraph) {
+      graphBuilder.addModule(factory.streetEdgeIndexModule());
+    }
+
     if (hasTransitData) {
       // Add links to flex areas after the streets has been split, so that also the split edges are connected
       if (OTPFeature.FlexRouting.isOn()) {
@@ -163,6 +172,11 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModule(factory.graphCoherencyCheckerModule());
     }
 
+    // The landmarks must be computed after all changes to the street network
+    if (config.streetLandmarks > 0 && ((hasOsm && !saveStreetGraph) || loadStreetGraph)) {
+      graphBuilder.addModule(factory.streetLandmarkModule());
+    }
+
     if (OTPFeature.Co2Emissions.isOn()) {
       graphBuilder.addModule(factory.emissionsModule());
     }
@@ -177,6 +191,15 @@ public class GraphBuilder implements Runnable {
 
     graphBuilder.addModule(factory.calculateWorldEnvelopeModule());
 
+    // The static vector tiles are rendered after all changes to the stops
+    if (
+      hasTransitData &&
+      config.staticVectorTilesMaxZoom > 0 &&
+      OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn()
+    ) {
+      graphBuilder.addModule(factory.staticVectorTilesModule());
+    }
+
     return graphBuilder;
   }
 
@@ -0,0 +1,91 @@
+package org.opentripplanner.graph_builder.module;
+
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
+import org.opentripplanner.street.model.edge.TemporaryEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Give each street edge a dense index and link each street edge to the edge going in the opposite
+ * direction between the same vertices. The index is used to look up the traversal costs in the
+ * {@link StreetEdgeCostCache} of the street search, and the reverse edge is used to check for
+ * U-turns.
+ * <p>
+ * The edges are ordered by the location of the from vertex, in cells of about one kilometer, so
+ * the edges near each other get indexes close to each other. A reverse edge is only linked if it
+ * is the only edge in the opposite direction.
+ * <p>
+ * This module must run after all modules changing the street network. Edges created after this,
+ * like split and temporary edges, have no index and no reverse edge.
+ */
+public class StreetEdgeIndexModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetEdgeIndexModule.class);
+
+  /** The size of the cells used to order the edges by location, in degrees. */
+  private static final double CELL_SIZE_DEGREES = 0.01;
+
+  private final Graph graph;
+
+  @Inject
+  public StreetEdgeIndexModule(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public void buildGraph() {
+    var edges = new ArrayList<StreetEdge>();
+    for (StreetEdge edge : graph.getStreetEdges()) {
+      if (!(edge instanceof TemporaryEdge)) {
+        edges.add(edge);
+      }
+    }
+    // The sort is stable, so the edges in the same cell keep the order of the graph
+    edges.sort(Comparator.comparingLong(it -> cell(it.getFromVertex())));
+
+    int nReverseEdges = 0;
+    for (int i = 0; i < edges.size(); ++i) {
+      var edge = edges.get(i);
+      edge.setIndex(i);
+      edge.setReverseEdge(findReverseEdge(edge));
+      if (edge.getReverseEdge() != null) {
+        ++nReverseEdges;
+      }
+    }
+    LOG.info("Indexed {} street edges, {} with a reverse edge.", edges.size(), nReverseEdges);
+  }
+
+  /**
+   * Return the street edge going from the to vertex to the from vertex of the given edge, or null
+   * if there is none or more than one edge in the opposite direction.
+   */
+  static StreetEdge findReverseEdge(StreetEdge edge) {
+    Edge reverse = null;
+    for (Edge candidate : edge.getToVertex().getOutgoing()) {
+      if (edge.isReverseOf(candidate)) {
+        if (reverse != null) {
+          return null;
+        }
+        reverse = candidate;
+      }
+    }
+    return reverse instanceof StreetEdge streetEdge ? streetEdge : null;
+  }
+
+  /**
+   * The cell containing the vertex, the cells are ordered by row and then by column.
+   */
+  private static long cell(Vertex v) {
+    long row = (long) Math.floor((v.getLat() + 90) / CELL_SIZE_DEGREES);
+    long column = (long) Math.floor((v.getLon() + 180) / CELL_SIZE_DEGREES);
+    return (row << 32) | column;
+  }
+}
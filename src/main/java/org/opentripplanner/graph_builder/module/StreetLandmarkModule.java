@@ -0,0 +1,288 @@
+package org.opentripplanner.graph_builder.module;
+
+import static org.opentripplanner.street.model.StreetLandmarks.BICYCLE_DISTANCE_UNITS_PER_METER;
+import static org.opentripplanner.street.model.StreetLandmarks.CAR_DURATION_UNITS_PER_SECOND;
+import static org.opentripplanner.street.model.StreetLandmarks.UNREACHED;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import org.opentripplanner.framework.collection.IntMinHeap;
+import org.opentripplanner.framework.lang.IntUtils;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select a small set of landmark vertices and compute the shortest car duration and bicycle
+ * distance to and from each of them for all vertices in the graph. The result is stored in the
+ * graph as {@link StreetLandmarks} and used by the street search to calculate a lower bound for
+ * the remaining weight.
+ * <p>
+ * The landmarks are selected using the "farthest" heuristic on the car network: the next landmark
+ * is the vertex with the longest duration to or from all the selected landmarks. The first
+ * landmark is the vertex farthest away from the center of the graph.
+ * <p>
+ * This module must run after all modules changing the street network, including the elevation
+ * modules. Each vertex is given an index used to look up the values.
+ * <p>
+ * CONCURRENCY: The landmarks and car durations are computed sequentially, then the bicycle
+ * distances are computed in parallel with one task for each landmark.
+ */
+public class StreetLandmarkModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetLandmarkModule.class);
+
+  private static final int NOT_TRAVERSABLE = -1;
+
+  private final Graph graph;
+  private final int nLandmarks;
+
+  private Vertex[] vertices;
+
+  public StreetLandmarkModule(Graph graph, int nLandmarks) {
+    this.graph = graph;
+    this.nLandmarks = nLandmarks;
+  }
+
+  @Override
+  public void buildGraph() {
+    long start = System.currentTimeMillis();
+    LOG.info("Computing street landmarks...");
+
+    indexVertices();
+    var landmarks = build();
+    graph.setStreetLandmarks(landmarks);
+
+    LOG.info(
+      "Street landmarks created with {} landmarks for {} vertices. Took: {}",
+      landmarks.numberOfLandmarks(),
+      vertices.length,
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - start)
+    );
+    // The vertices are only needed while building
+    vertices = null;
+  }
+
+  /**
+   * The duration in milliseconds driving along the edge, using the car speed of the edge. This
+   * is never more than the duration used by the street search.
+   */
+  static int carDuration(Edge edge) {
+    if (edge instanceof StreetEdge streetEdge) {
+      if (!streetEdge.canTraverse(TraverseMode.CAR) || streetEdge.getCarSpeed() <= 0) {
+        return NOT_TRAVERSABLE;
+      }
+      return (int) (
+        (streetEdge.getDistanceMeters() * CAR_DURATION_UNITS_PER_SECOND) / streetEdge.getCarSpeed()
+      );
+    }
+    return 0;
+  }
+
+  /**
+   * The distance in decimeters cycling, or walking the bicycle, along the edge.
+   */
+  static int bicycleDistance(Edge edge) {
+    if (edge instanceof StreetEdge streetEdge) {
+      if (
+        !streetEdge.canTraverse(TraverseMode.BICYCLE) && !streetEdge.canTraverse(TraverseMode.WALK)
+      ) {
+        return NOT_TRAVERSABLE;
+      }
+      double distance = Math.min(
+        streetEdge.getDistanceMeters(),
+        streetEdge.getEffectiveBikeDistance()
+      );
+      return (int) (Math.max(0.0, distance) * BICYCLE_DISTANCE_UNITS_PER_METER);
+    }
+    return 0;
+  }
+
+  private void indexVertices() {
+    vertices = graph.getVertices().toArray(Vertex[]::new);
+    for (int i = 0; i < vertices.length; ++i) {
+      vertices[i].setIndex(i);
+    }
+  }
+
+  private StreetLandmarks build() {
+    var landmarks = new ArrayList<Integer>();
+    var carFromLandmarks = new ArrayList<int[]>();
+    var carToLandmarks = new ArrayList<int[]>();
+    selectLandmarks(landmarks, carFromLandmarks, carToLandmarks);
+    int n = landmarks.size();
+
+    int[][] bicycleFromLandmarks = new int[n][];
+    int[][] bicycleToLandmarks = new int[n][];
+
+    // THIS CODE RUNS IN PARALLEL
+    IntStream
+      .range(0, n)
+      .parallel()
+      .forEach(i -> {
+        int landmark = landmarks.get(i);
+        bicycleFromLandmarks[i] =
+          shortestPaths(landmark, true, StreetLandmarkModule::bicycleDistance);
+        bicycleToLandmarks[i] =
+          shortestPaths(landmark, false, StreetLandmarkModule::bicycleDistance);
+      });
+    // END PARALLEL CODE
+
+    return new StreetLandmarks(
+      vertices.length,
+      n,
+      interleave(carToLandmarks),
+      interleave(carFromLandmarks),
+      interleave(List.of(bicycleToLandmarks)),
+      interleave(List.of(bicycleFromLandmarks))
+    );
+  }
+
+  /**
+   * Select landmarks and add the shortest car durations from and to each of them.
+   */
+  private void selectLandmarks(
+    List<Integer> landmarks,
+    List<int[]> fromLandmarks,
+    List<int[]> toLandmarks
+  ) {
+    int seed = findDrivableVertexClosestToCenter();
+    if (nLandmarks == 0 || seed == -1) {
+      return;
+    }
+    int[] minDurations = IntUtils.intArray(vertices.length, UNREACHED);
+
+    int candidate = findFarthestVertex(
+      shortestPaths(seed, true, StreetLandmarkModule::carDuration)
+    );
+    if (candidate == -1) {
+      candidate = seed;
+    }
+
+    while (landmarks.size() < nLandmarks && candidate != -1) {
+      int[] from = shortestPaths(candidate, true, StreetLandmarkModule::carDuration);
+      int[] to = shortestPaths(candidate, false, StreetLandmarkModule::carDuration);
+      landmarks.add(candidate);
+      fromLandmarks.add(from);
+      toLandmarks.add(to);
+
+      for (int v = 0; v < vertices.length; ++v) {
+        minDurations[v] = Math.min(minDurations[v], Math.min(from[v], to[v]));
+      }
+      // Landmarks have a duration of zero, so they are never selected again
+      candidate = findFarthestVertex(minDurations);
+    }
+  }
+
+  /**
+   * Return the reached vertex with the longest duration, vertices with a zero duration are
+   * skipped. Return -1 if no vertex exist.
+   */
+  private int findFarthestVertex(int[] durations) {
+    int farthest = -1;
+    for (int v = 0; v < vertices.length; ++v) {
+      if (durations[v] == 0 || durations[v] == UNREACHED) {
+        continue;
+      }
+      if (farthest == -1 || durations[v] > durations[farthest]) {
+        farthest = v;
+      }
+    }
+    return farthest;
+  }
+
+  private int findDrivableVertexClosestToCenter() {
+    if (vertices.length == 0) {
+      return -1;
+    }
+    double lat = 0.0;
+    double lon = 0.0;
+    for (Vertex v : vertices) {
+      lat += v.getLat();
+      lon += v.getLon();
+    }
+    lat /= vertices.length;
+    lon /= vertices.length;
+
+    int best = -1;
+    double bestDistance = Double.MAX_VALUE;
+    for (int i = 0; i < vertices.length; ++i) {
+      var v = vertices[i];
+      if (v.getOutgoing().stream().noneMatch(e -> carDuration(e) > NOT_TRAVERSABLE)) {
+        continue;
+      }
+      double dLat = v.getLat() - lat;
+      double dLon = v.getLon() - lon;
+      double distance = dLat * dLat + dLon * dLon;
+      if (distance < bestDistance) {
+        best = i;
+        bestDistance = distance;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Dijkstra's shortest path. If forward, return the cost from the source to all vertices, if not
+   * the cost from all vertices to the source.
+   */
+  private int[] shortestPaths(int source, boolean forward, ToIntFunction<Edge> edgeCost) {
+    int[] costs = IntUtils.intArray(vertices.length, UNREACHED);
+    var queue = new IntMinHeap();
+    costs[source] = 0;
+    queue.add(0, source);
+
+    while (!queue.isEmpty()) {
+      long next = queue.poll();
+      int cost = IntMinHeap.key(next);
+      int index = IntMinHeap.value(next);
+
+      if (cost > costs[index]) {
+        continue;
+      }
+      var vertex = vertices[index];
+      for (Edge edge : forward ? vertex.getOutgoing() : vertex.getIncoming()) {
+        int edgeCostValue = edgeCost.applyAsInt(edge);
+        if (edgeCostValue == NOT_TRAVERSABLE) {
+          continue;
+        }
+        var other = forward ? edge.getToVertex() : edge.getFromVertex();
+        int otherIndex = other.getIndex();
+        if (otherIndex < 0 || otherIndex >= vertices.length || vertices[otherIndex] != other) {
+          continue;
+        }
+        int otherCost = (int) Math.min((long) cost + edgeCostValue, UNREACHED - 1);
+        if (otherCost < costs[otherIndex]) {
+          costs[otherIndex] = otherCost;
+          queue.add(otherCost, otherIndex);
+        }
+      }
+    }
+    return costs;
+  }
+
+  /**
+   * Convert {@code [landmark][vertex]} to a flat array indexed by
+   * {@code vertex * nLandmarks + landmark}.
+   */
+  private int[] interleave(List<int[]> values) {
+    int n = values.size();
+    int[] result = new int[vertices.length * n];
+    for (int l = 0; l < n; ++l) {
+      int[] it = values.get(l);
+      for (int v = 0; v < vertices.length; ++v) {
+        result[v * n + l] = it[v];
+      }
+    }
+    return result;
+  }
+}
@@ -17,6 +17,7 @@ import org.opentripplanner.ext.emissions.EmissionsModule;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationModule;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationRepository;
 import org.opentripplanner.ext.transferanalyzer.DirectTransferAnalyzer;
+import org.opentripplanner.ext.vectortiles.StaticVectorTilesModule;
 import org.opentripplanner.graph_builder.ConfiguredDataSource;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
@@ -24,6 +25,7 @@ import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.graph_builder.issue.report.DataImportIssueReporter;
 import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
+import org.opentripplanner.graph_builder.module.StreetLandmarkModule;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.islandpruning.PruneIslands;
 import org.opentripplanner.graph_builder.module.ned.DegreeGridNEDTileSource;
@@ -43,6 +45,7 @@ import org.opentripplanner.openstreetmap.OsmProvider;
 import org.opentripplanner.routing.api.request.preference.WalkPreferences;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.standalone.config.routerconfig.VectorTileConfig;
 import org.opentripplanner.street.model.StreetLimitationParameters;
 import org.opentripplanner.transit.service.TransitModel;
 
@@ -69,6 +72,7 @@ public class GraphBuilderModules {
           osmConfiguredDataSource.config().osmTagMapper(),
           osmConfiguredDataSource.config().timeZone(),
           config.osmCacheDataInMem,
+          config.osmRelationsAndWaysInSinglePass,
           issueStore
         )
       );
@@ -256,6 +260,29 @@ public class GraphBuilderModules {
     );
   }
 
+  @Provides
+  @Singleton
+  static StreetLandmarkModule provideStreetLandmarkModule(BuildConfig config, Graph graph) {
+    return new StreetLandmarkModule(graph, config.streetLandmarks);
+  }
+
+  @Provides
+  @Singleton
+  static StaticVectorTilesModule provideStaticVectorTilesModule(
+    BuildConfig config,
+    Graph graph,
+    TransitModel transitModel,
+    VectorTileConfig vectorTileConfig
+  ) {
+    return new StaticVectorTilesModule(
+      graph,
+      transitModel,
+      vectorTileConfig,
+      config.staticVectorTilesMaxZoom,
+      config.staticVectorTilesLanguages
+    );
+  }
+
   @Provides
   @Singleton
   static EdgeUpdaterModule provideDataOverlayFactory(BuildConfig config, Graph graph) {
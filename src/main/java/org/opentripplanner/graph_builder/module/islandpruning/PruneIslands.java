@@ -1,22 +1,23 @@
 package org.opentripplanner.graph_builder.module.islandpruning;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.opentripplanner.framework.lang.IntUtils;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.GraphConnectivity;
 import org.opentripplanner.graph_builder.issues.IsolatedStop;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
-import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.index.StreetIndex;
 import org.opentripplanner.routing.linking.VertexLinker;
@@ -30,8 +31,6 @@ import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.model.vertex.VertexLabel;
 import org.opentripplanner.street.search.TraverseMode;
-import org.opentripplanner.street.search.request.StreetSearchRequest;
-import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.transit.service.TransitModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +46,9 @@ public class PruneIslands implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(PruneIslands.class);
 
+  /** Used as subgraph id for vertices which are not in a subgraph */
+  private static final int NO_SUBGRAPH = -1;
+
   private final Graph graph;
   private final TransitModel transitModel;
   private final DataImportIssueStore issueStore;
@@ -57,6 +59,7 @@ public class PruneIslands implements GraphBuilderModule {
   private double adaptivePruningFactor;
   private VertexLinker vertexLinker;
   private StreetIndex streetIndex;
+  private Vertex[] vertices;
 
   public PruneIslands(
     Graph graph,
@@ -84,9 +87,26 @@ public class PruneIslands implements GraphBuilderModule {
     this.vertexLinker = graph.getLinkerSafe(transitModel.getStopModel());
     this.streetIndex = graph.getStreetIndexSafe(transitModel.getStopModel());
 
-    pruneIslands(TraverseMode.BICYCLE);
-    pruneIslands(TraverseMode.WALK);
-    pruneIslands(TraverseMode.CAR);
+    indexVertices();
+    var modes = List.of(TraverseMode.BICYCLE, TraverseMode.WALK, TraverseMode.CAR);
+
+    // THIS CODE RUNS IN PARALLEL
+    var connectivity = modes
+      .parallelStream()
+      .map(mode -> StreetConnectivity.collect(vertices, mode))
+      .toList();
+    // END PARALLEL CODE
+
+    // The islands are pruned one mode at the time, in the same order as they were collected,
+    // edges removed by one mode are skipped by the following modes.
+    Set<Edge> removedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < modes.size(); ++i) {
+      var modeConnectivity = connectivity.get(i);
+      modeConnectivity.index(removedEdges);
+      pruneIslands(modes.get(i), modeConnectivity, removedEdges);
+    }
+    // The vertices are only needed while pruning
+    vertices = null;
 
     // reconnect stops that got disconnected
     if (streetLinkerModule != null) {
@@ -168,58 +188,55 @@ public class PruneIslands implements GraphBuilderModule {
           to noThruTraffic state. Remove traversal mode specific access from unreachable edges. Remove unconnected edges.
      */
 
-  private void pruneIslands(TraverseMode traverseMode) {
+  private void pruneIslands(
+    TraverseMode traverseMode,
+    StreetConnectivity connectivity,
+    Set<Edge> removedEdges
+  ) {
     LOG.debug("nothru pruning");
-    Map<Vertex, Subgraph> subgraphs = new HashMap<>();
-    Map<Vertex, Subgraph> extgraphs = new HashMap<>();
-    Map<Vertex, ArrayList<Vertex>> neighborsForVertex = new HashMap<>();
-    Map<Edge, Boolean> isolated = new HashMap<>();
+    int[] subgraphs = newSubgraphIds();
+    int[] extgraphs = newSubgraphIds();
+    Set<Edge> isolated = new HashSet<>();
     ArrayList<Subgraph> islands = new ArrayList<>();
     int count;
 
-    /* establish vertex neighbourhood without currently relevant noThruTrafficEdges */
-    collectNeighbourVertices(neighborsForVertex, traverseMode, false);
-
-    /* associate each connected vertex with a subgraph */
-    count = collectSubGraphs(neighborsForVertex, subgraphs, null, null);
+    /* associate each connected vertex with a subgraph, without currently relevant
+       noThruTrafficEdges */
+    count = collectSubGraphs(connectivity, false, subgraphs, null, null);
     LOG.info("Islands when {} noThruTraffic is considered: {}", traverseMode, count);
 
-    /* Expand vertex neighbourhood with relevant noThruTrafficEdges
-       Note that we can reuse the original neighbour map here
-       and simply process a smaller set of noThruTrafficEdges */
-    collectNeighbourVertices(neighborsForVertex, traverseMode, true);
-
     /* Next: generate subgraphs without considering access limitations */
-    count = collectSubGraphs(neighborsForVertex, extgraphs, null, islands);
+    count = collectSubGraphs(connectivity, true, extgraphs, null, islands);
     LOG.info("Islands when {} noThruTraffic is ignored: {}", traverseMode, count);
 
     /* collect unreachable edges to a map */
-    processIslands(islands, isolated, true, traverseMode);
+    processIslands(islands, isolated, true, traverseMode, removedEdges);
 
-    extgraphs = new HashMap<>(); // let old map go
+    extgraphs = newSubgraphIds(); // let old map go
     islands = new ArrayList<>(); // reset this too
 
     /* Recompute expanded subgraphs by accepting noThruTraffic edges in graph expansion.
        However, expansion is not allowed to jump from an original island to another one
      */
-    collectSubGraphs(neighborsForVertex, extgraphs, subgraphs, islands);
+    collectSubGraphs(connectivity, true, extgraphs, subgraphs, islands);
 
     /* Next round: generate purely noThruTraffic islands if such ones exist */
-    count = collectSubGraphs(neighborsForVertex, extgraphs, null, islands);
+    count = collectSubGraphs(connectivity, true, extgraphs, null, islands);
 
     LOG.info("{} noThruTraffic island count: {}", traverseMode, count);
 
     LOG.info("Total {} sub graphs found", islands.size());
 
-    count = processIslands(islands, isolated, false, traverseMode);
+    count = processIslands(islands, isolated, false, traverseMode, removedEdges);
     LOG.info("Modified {} islands", count);
   }
 
   private int processIslands(
     ArrayList<Subgraph> islands,
-    Map<Edge, Boolean> isolated,
+    Set<Edge> isolated,
     boolean markIsolated,
-    TraverseMode traverseMode
+    TraverseMode traverseMode,
+    Set<Edge> removedEdges
   ) {
     Map<String, Integer> stats = new HashMap<>();
 
@@ -259,7 +276,9 @@ public class PruneIslands implements GraphBuilderModule {
             : 1.0;
 
           if (island.streetSize() * sizeCoeff < pruningThresholdWithStops) {
-            if (restrictOrRemove(island, isolated, stats, markIsolated, traverseMode)) {
+            if (
+              restrictOrRemove(island, isolated, stats, markIsolated, traverseMode, removedEdges)
+            ) {
               islandsWithStopsChanged++;
               count++;
             }
@@ -273,7 +292,9 @@ public class PruneIslands implements GraphBuilderModule {
             adaptivePruningDistance
             : 1.0;
           if (island.streetSize() * sizeCoeff < pruningThresholdWithoutStops) {
-            if (restrictOrRemove(island, isolated, stats, markIsolated, traverseMode)) {
+            if (
+              restrictOrRemove(island, isolated, stats, markIsolated, traverseMode, removedEdges)
+            ) {
               count++;
             }
           }
@@ -303,78 +324,61 @@ public class PruneIslands implements GraphBuilderModule {
     return count;
   }
 
-  private void collectNeighbourVertices(
-    Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
-    TraverseMode traverseMode,
-    boolean shouldMatchNoThruType
-  ) {
-    StreetMode streetMode =
-      switch (traverseMode) {
-        case WALK -> StreetMode.WALK;
-        case BICYCLE -> StreetMode.BIKE;
-        case CAR -> StreetMode.CAR;
-        default -> throw new IllegalArgumentException();
-      };
-
-    StreetSearchRequest request = StreetSearchRequest.of().withMode(streetMode).build();
-
-    for (Vertex gv : graph.getVertices()) {
-      if (!(gv instanceof StreetVertex)) {
-        continue;
-      }
-      State s0 = new State(gv, request);
-      for (Edge e : gv.getOutgoing()) {
-        if (
-          e instanceof StreetEdge &&
-          shouldMatchNoThruType != ((StreetEdge) e).isNoThruTraffic(traverseMode)
-        ) {
-          continue;
-        }
-        State[] states = e.traverse(s0);
-        if (State.isEmpty(states)) {
-          continue;
-        }
-        Arrays
-          .stream(states)
-          .map(State::getVertex)
-          .forEach(out -> {
-            var vertexList = neighborsForVertex.computeIfAbsent(gv, k -> new ArrayList<>());
-            vertexList.add(out);
-
-            // note: this assumes that edges are bi-directional. Maybe explicit state traversal is needed for CAR mode.
-            vertexList = neighborsForVertex.computeIfAbsent(out, k -> new ArrayList<>());
-            vertexList.add(gv);
-          });
-      }
+  private void indexVertices() {
+    vertices = graph.getVertices().toArray(Vertex[]::new);
+    for (int i = 0; i < vertices.length; ++i) {
+      vertices[i].setIndex(i);
     }
   }
 
+  /**
+   * Create an array with the subgraph id for each vertex, {@link #NO_SUBGRAPH} if the vertex is
+   * not in a subgraph.
+   */
+  private int[] newSubgraphIds() {
+    return IntUtils.intArray(vertices.length, NO_SUBGRAPH);
+  }
+
   private int collectSubGraphs(
-    Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
-    Map<Vertex, Subgraph> newgraphs, // put new subgraphs here
-    Map<Vertex, Subgraph> subgraphs, // optional isolation map from a previous round
+    StreetConnectivity connectivity,
+    boolean includeNoThruTraffic,
+    int[] newgraphs, // put new subgraphs here
+    int[] subgraphs, // optional isolation map from a previous round
     ArrayList<Subgraph> islands
   ) { // final list of islands or null
     int count = 0;
-    for (Vertex gv : graph.getVertices()) {
-      if (!(gv instanceof StreetVertex)) {
+    int[] visited = IntUtils.intArray(vertices.length, NO_SUBGRAPH);
+    // The start vertex is queued again when it is reached from a neighbour
+    int[] queue = new int[vertices.length + 1];
+
+    for (int v = 0; v < vertices.length; ++v) {
+      if (!(vertices[v] instanceof StreetVertex)) {
         continue;
       }
 
-      if (subgraphs != null && !subgraphs.containsKey(gv)) {
+      if (subgraphs != null && subgraphs[v] == NO_SUBGRAPH) {
         // do not start new graph generation from non-classified vertex
         continue;
       }
-      if (newgraphs.containsKey(gv)) { // already processed
+      if (newgraphs[v] != NO_SUBGRAPH) { // already processed
         continue;
       }
-      if (!neighborsForVertex.containsKey(gv)) {
+      if (!connectivity.hasNeighbors(v, includeNoThruTraffic)) {
         continue;
       }
-      Subgraph subgraph = computeConnectedSubgraph(neighborsForVertex, gv, subgraphs, newgraphs);
+      // The start vertex index is unique for each subgraph in a round
+      Subgraph subgraph = computeConnectedSubgraph(
+        connectivity,
+        includeNoThruTraffic,
+        v,
+        subgraphs,
+        newgraphs,
+        visited,
+        queue
+      );
       for (Iterator<Vertex> vIter = subgraph.streetIterator(); vIter.hasNext();) {
         Vertex subnode = vIter.next();
-        newgraphs.put(subnode, subgraph);
+        newgraphs[subnode.getIndex()] = v;
       }
       if (islands != null) {
         islands.add(subgraph);
@@ -386,10 +390,11 @@ public class PruneIslands implements GraphBuilderModule {
 
   private boolean restrictOrRemove(
     Subgraph island,
-    Map<Edge, Boolean> isolated,
+    Set<Edge> isolated,
     Map<String, Integer> stats,
     boolean markIsolated,
-    TraverseMode traverseMode
+    TraverseMode traverseMode,
+    Set<Edge> removedEdges
   ) {
     int nothru = 0, removed = 0, restricted = 0;
     //iterate over the street vertex of the subgraph
@@ -399,11 +404,11 @@ public class PruneIslands implements GraphBuilderModule {
       for (Edge e : outgoing) {
         if (e instanceof StreetEdge) {
           if (markIsolated) {
-            isolated.put(e, true);
+            isolated.add(e);
             stats.put("isolated", stats.get("isolated") + 1);
           } else {
             StreetEdge pse = (StreetEdge) e;
-            if (!isolated.containsKey(e)) {
+            if (!isolated.contains(e)) {
               boolean changed = false;
 
               // not a true island edge but has limited access
@@ -452,6 +457,7 @@ public class PruneIslands implements GraphBuilderModule {
                   // currently we must update spatial index manually, graph.removeEdge does not do that
                   vertexLinker.removePermanentEdgeFromIndex(pse);
                   graph.removeEdge(pse);
+                  removedEdges.add(pse);
                   stats.put("removed", stats.get("removed") + 1);
                   removed++;
                 } else {
@@ -483,6 +489,7 @@ public class PruneIslands implements GraphBuilderModule {
         edges.addAll(v.getIncoming());
         for (Edge e : edges) {
           graph.removeEdge(e);
+          removedEdges.add(e);
         }
       }
       if (island.stopSize() > 0) {
@@ -502,33 +509,44 @@ public class PruneIslands implements GraphBuilderModule {
     return true;
   }
 
+  /**
+   * Breadth first search from the start vertex. The visited array and the queue are reused for
+   * all searches, a vertex is visited in this search if it is marked with the start vertex.
+   */
   private Subgraph computeConnectedSubgraph(
-    Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
-    Vertex startVertex,
-    Map<Vertex, Subgraph> anchors,
-    Map<Vertex, Subgraph> alreadyMapped
+    StreetConnectivity connectivity,
+    boolean includeNoThruTraffic,
+    int startVertex,
+    int[] anchors,
+    int[] alreadyMapped,
+    int[] visited,
+    int[] queue
   ) {
     Subgraph subgraph = new Subgraph();
-    Queue<Vertex> q = new LinkedList<>();
-    Subgraph anchor = null;
+    int head = 0;
+    int tail = 0;
+    int anchor = NO_SUBGRAPH;
 
     if (anchors != null) {
       // anchor subgraph expansion to this subgraph
-      anchor = anchors.get(startVertex);
+      anchor = anchors[startVertex];
     }
-    q.add(startVertex);
-    while (!q.isEmpty()) {
-      Vertex vertex = q.poll();
-      for (Vertex neighbor : neighborsForVertex.get(vertex)) {
-        if (!subgraph.contains(neighbor) && !alreadyMapped.containsKey(neighbor)) {
-          if (anchor != null) {
-            Subgraph compare = anchors.get(neighbor);
-            if (compare != null && compare != anchor) { // do not enter a new island
+    queue[tail++] = startVertex;
+    while (head < tail) {
+      int vertex = queue[head++];
+      int end = connectivity.end(vertex, includeNoThruTraffic);
+      for (int i = connectivity.start(vertex); i < end; ++i) {
+        int neighbor = connectivity.neighbor(i);
+        if (visited[neighbor] != startVertex && alreadyMapped[neighbor] == NO_SUBGRAPH) {
+          if (anchor != NO_SUBGRAPH) {
+            int compare = anchors[neighbor];
+            if (compare != NO_SUBGRAPH && compare != anchor) { // do not enter a new island
               continue;
             }
           }
-          subgraph.addVertex(neighbor);
-          q.add(neighbor);
+          visited[neighbor] = startVertex;
+          subgraph.addVertex(vertices[neighbor]);
+          queue[tail++] = neighbor;
         }
       }
     }
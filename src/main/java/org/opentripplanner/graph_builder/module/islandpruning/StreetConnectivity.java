@@ -0,0 +1,156 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * The neighbours of each vertex for one traverse mode, stored in primitive arrays indexed by
+ * {@link Vertex#getIndex()}. The neighbours reached using no-thru-traffic street edges are kept
+ * after the other neighbours of each vertex, so the islands can be computed with and without them.
+ * <p>
+ * Edges are assumed to be bidirectional, so each traversable edge makes the two vertices
+ * neighbours of each other. The neighbours are in the same order as the edges in the graph.
+ * <p>
+ * The edges are collected with {@link #collect(Vertex[], TraverseMode)}, then
+ * {@link #index(Set)} must be called before the neighbours are used. Edges removed from the graph
+ * in the meantime are skipped by the index.
+ */
+class StreetConnectivity {
+
+  private final int nVertices;
+
+  /** The traversed edges, one entry for each state returned by the traversal. */
+  private final TIntArrayList fromVertices = new TIntArrayList();
+  private final TIntArrayList toVertices = new TIntArrayList();
+  private final List<Edge> edges = new ArrayList<>();
+  private final BitSet noThruTraffic = new BitSet();
+
+  /** The neighbours of vertex v are in {@code neighbors[offsets[v]] .. neighbors[offsets[v+1]]} */
+  private int[] offsets;
+  /** The first no-thru-traffic neighbour of each vertex */
+  private int[] noThruOffsets;
+  private int[] neighbors;
+
+  private StreetConnectivity(int nVertices) {
+    this.nVertices = nVertices;
+  }
+
+  /**
+   * Traverse all edges leaving a street vertex with the given mode. The index of each vertex must
+   * be its position in the given array.
+   */
+  static StreetConnectivity collect(Vertex[] vertices, TraverseMode traverseMode) {
+    StreetMode streetMode =
+      switch (traverseMode) {
+        case WALK -> StreetMode.WALK;
+        case BICYCLE -> StreetMode.BIKE;
+        case CAR -> StreetMode.CAR;
+        default -> throw new IllegalArgumentException();
+      };
+
+    StreetSearchRequest request = StreetSearchRequest.of().withMode(streetMode).build();
+    var connectivity = new StreetConnectivity(vertices.length);
+
+    for (Vertex gv : vertices) {
+      if (!(gv instanceof StreetVertex)) {
+        continue;
+      }
+      State s0 = new State(gv, request);
+      for (Edge e : gv.getOutgoing()) {
+        State[] states = e.traverse(s0);
+        if (State.isEmpty(states)) {
+          continue;
+        }
+        boolean noThru = e instanceof StreetEdge se && se.isNoThruTraffic(traverseMode);
+        for (State state : states) {
+          connectivity.add(gv, state.getVertex(), e, noThru);
+        }
+      }
+    }
+    return connectivity;
+  }
+
+  /**
+   * Build the neighbour arrays, the removed edges are skipped. The edges are released, so this can
+   * only be called once.
+   */
+  void index(Set<Edge> removedEdges) {
+    int n = edges.size();
+    int[] counts = new int[nVertices];
+    int[] noThruCounts = new int[nVertices];
+    for (int i = 0; i < n; ++i) {
+      if (removedEdges.contains(edges.get(i))) {
+        continue;
+      }
+      int[] c = noThruTraffic.get(i) ? noThruCounts : counts;
+      ++c[fromVertices.get(i)];
+      ++c[toVertices.get(i)];
+    }
+
+    offsets = new int[nVertices + 1];
+    noThruOffsets = new int[nVertices];
+    int[] next = new int[nVertices];
+    int[] noThruNext = new int[nVertices];
+    for (int v = 0; v < nVertices; ++v) {
+      noThruOffsets[v] = offsets[v] + counts[v];
+      offsets[v + 1] = noThruOffsets[v] + noThruCounts[v];
+      next[v] = offsets[v];
+      noThruNext[v] = noThruOffsets[v];
+    }
+
+    neighbors = new int[offsets[nVertices]];
+    for (int i = 0; i < n; ++i) {
+      if (removedEdges.contains(edges.get(i))) {
+        continue;
+      }
+      int[] p = noThruTraffic.get(i) ? noThruNext : next;
+      int from = fromVertices.get(i);
+      int to = toVertices.get(i);
+      neighbors[p[from]++] = to;
+      neighbors[p[to]++] = from;
+    }
+
+    fromVertices.clear(0);
+    toVertices.clear(0);
+    edges.clear();
+    noThruTraffic.clear();
+  }
+
+  /** The position of the first neighbour of the vertex in {@link #neighbor(int)}. */
+  int start(int v) {
+    return offsets[v];
+  }
+
+  /** The position after the last neighbour of the vertex in {@link #neighbor(int)}. */
+  int end(int v, boolean includeNoThruTraffic) {
+    return includeNoThruTraffic ? offsets[v + 1] : noThruOffsets[v];
+  }
+
+  int neighbor(int i) {
+    return neighbors[i];
+  }
+
+  boolean hasNeighbors(int v, boolean includeNoThruTraffic) {
+    return end(v, includeNoThruTraffic) > start(v);
+  }
+
+  private void add(Vertex from, Vertex to, Edge edge, boolean noThru) {
+    if (noThru) {
+      noThruTraffic.set(edges.size());
+    }
+    fromVertices.add(from.getIndex());
+    toVertices.add(to.getIndex());
+    edges.add(edge);
+  }
+}
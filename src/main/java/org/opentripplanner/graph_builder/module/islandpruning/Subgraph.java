@@ -1,8 +1,8 @@
 package org.opentripplanner.graph_builder.module.islandpruning;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -21,12 +21,13 @@ import org.opentripplanner.transit.model.basic.TransitMode;
 
 class Subgraph {
 
+  /** Insertion ordered, so the representative vertex does not depend on identity hash codes */
   private final Set<Vertex> streetVertexSet;
   private final Set<TransitStopVertex> stopsVertexSet;
 
   Subgraph() {
-    streetVertexSet = new HashSet<>();
-    stopsVertexSet = new HashSet<>();
+    streetVertexSet = new LinkedHashSet<>();
+    stopsVertexSet = new LinkedHashSet<>();
   }
 
   void addVertex(Vertex vertex) {
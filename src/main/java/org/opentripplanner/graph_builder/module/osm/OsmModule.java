@@ -1,6 +1,7 @@
 package org.opentripplanner.graph_builder.module.osm;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import gnu.trove.iterator.TLongIterator;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -45,6 +46,12 @@ public class OsmModule implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(OsmModule.class);
 
+  /**
+   * The number of area groups to find the visibility for in parallel, before the edges are
+   * created. This limits the memory used to keep the visible node pairs.
+   */
+  private static final int VISIBILITY_BATCH_SIZE = 16 * Runtime.getRuntime().availableProcessors();
+
   private final Map<Vertex, Double> elevationData = new HashMap<>();
 
   /**
@@ -227,11 +234,22 @@ public class OsmModule implements GraphBuilderModule {
         50,
         areaGroups.size()
       );
-      for (AreaGroup group : areaGroups) {
-        walkableAreaBuilder.buildWithVisibility(group);
-        //Keep lambda! A method-ref would log incorrect class and line number
-        //noinspection Convert2MethodRef
-        progress.step(m -> LOG.info(m));
+      // The visible node pairs are found in parallel, this does not change the graph. Then the
+      // edges are created in the same order as the area groups, so the result is deterministic.
+      for (List<AreaGroup> batch : Lists.partition(areaGroups, VISIBILITY_BATCH_SIZE)) {
+        // THIS CODE RUNS IN PARALLEL
+        var visibilities = batch
+          .parallelStream()
+          .map(walkableAreaBuilder::findVisibility)
+          .toList();
+        // END PARALLEL CODE
+
+        for (var visibility : visibilities) {
+          walkableAreaBuilder.buildWithVisibility(visibility);
+          //Keep lambda! A method-ref would log incorrect class and line number
+          //noinspection Convert2MethodRef
+          progress.step(m -> LOG.info(m));
+        }
       }
       LOG.info(progress.completeMessage());
     }
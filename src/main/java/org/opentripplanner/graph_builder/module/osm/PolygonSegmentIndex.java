@@ -0,0 +1,105 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import org.locationtech.jts.algorithm.LineIntersector;
+import org.locationtech.jts.algorithm.RobustLineIntersector;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineSegment;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+
+/**
+ * A spatial index (STR-tree) of the segments in the rings of a polygon, used to check if a
+ * straight line is inside the polygon. This is used to build the visibility graph of walkable
+ * areas, where all pairs of visibility nodes are tested. Using {@link Polygon#contains} for this
+ * is linear in the number of polygon nodes for each test, while a test using the index only looks
+ * at the segments close to the line.
+ * <p>
+ * Most lines either cross the boundary of the polygon, or only touch it at the end points. For the
+ * few lines passing through a polygon node, or following a ring segment, the exact (slow)
+ * {@link Polygon#contains} is used. Hence, the result is the same as for {@link Polygon#contains}.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, create one instance for each thread.
+ */
+class PolygonSegmentIndex {
+
+  private final Polygon polygon;
+  private final STRtree segments = new STRtree();
+  private final IndexedPointInAreaLocator locator;
+  private final LineIntersector intersector = new RobustLineIntersector();
+
+  PolygonSegmentIndex(Polygon polygon) {
+    this.polygon = polygon;
+    addRing(polygon.getExteriorRing());
+    for (int i = 0; i < polygon.getNumInteriorRing(); ++i) {
+      addRing(polygon.getInteriorRingN(i));
+    }
+    segments.build();
+    this.locator = new IndexedPointInAreaLocator(polygon);
+  }
+
+  /**
+   * Return {@code true} if the straight line from {@code from} to {@code to} is inside the polygon,
+   * this is the same as {@code polygon.contains(line)}.
+   */
+  boolean containsLine(Coordinate from, Coordinate to) {
+    if (from.equals2D(to)) {
+      return containsLineExact(from, to);
+    }
+    boolean touchesBoundary = false;
+
+    for (Object it : segments.query(new Envelope(from, to))) {
+      var segment = (LineSegment) it;
+      intersector.computeIntersection(from, to, segment.p0, segment.p1);
+      if (!intersector.hasIntersection()) {
+        continue;
+      }
+      // The line crosses the boundary, a part of it is outside the polygon
+      if (intersector.isProper()) {
+        return false;
+      }
+      if (
+        intersector.getIntersectionNum() == LineIntersector.COLLINEAR_INTERSECTION ||
+        !isEndpoint(intersector.getIntersection(0), from, to)
+      ) {
+        touchesBoundary = true;
+      }
+    }
+
+    if (touchesBoundary) {
+      return containsLineExact(from, to);
+    }
+
+    // The line does not touch the boundary, except at the end points. So, it is either inside or
+    // outside the polygon, and it is enough to check the middle of the line.
+    var middle = new Coordinate((from.x + to.x) / 2.0, (from.y + to.y) / 2.0);
+    return switch (locator.locate(middle)) {
+      case Location.INTERIOR -> true;
+      case Location.EXTERIOR -> false;
+      default -> containsLineExact(from, to);
+    };
+  }
+
+  private boolean containsLineExact(Coordinate from, Coordinate to) {
+    LineString line = GeometryUtils
+      .getGeometryFactory()
+      .createLineString(new Coordinate[] { from, to });
+    return polygon.contains(line);
+  }
+
+  private void addRing(LineString ring) {
+    Coordinate[] coordinates = ring.getCoordinates();
+    for (int i = 0; i + 1 < coordinates.length; ++i) {
+      var segment = new LineSegment(coordinates[i], coordinates[i + 1]);
+      segments.insert(new Envelope(segment.p0, segment.p1), segment);
+    }
+  }
+
+  private static boolean isEndpoint(Coordinate c, Coordinate from, Coordinate to) {
+    return c.equals2D(from) || c.equals2D(to);
+  }
+}
@@ -177,18 +177,19 @@ class WalkableAreaBuilder {
   }
 
   public void buildWithVisibility(AreaGroup group) {
-    // These sets contain the nodes/vertices which can be used to traverse from the rest of the
-    // street network onto the walkable area
-    Set<OSMNode> startingNodes = new HashSet<>();
-    Set<Vertex> startingVertices = new HashSet<>();
-
-    // List of edges belonging to the walkable area
-    Set<Edge> edges = new HashSet<>();
-
-    // Edges which are part of the rings. We want to keep there for linking even tough they
-    // might not be part of the visibility edges.
-    Set<Edge> ringEdges = new HashSet<>();
+    buildWithVisibility(findVisibility(group));
+  }
 
+  /**
+   * Select the nodes used to build the visibility graph for each outermost ring of the area group,
+   * and find the pairs of nodes that can see each other. This is the expensive part of building
+   * the visibility graph. It only reads the OSM data and does not change the graph, so it can run
+   * for many area groups in parallel. The edges are created afterwards, one group at the time, by
+   * {@link #buildWithVisibility(AreaGroupVisibility)}.
+   * <p>
+   * THIS METHOD IS THREAD-SAFE.
+   */
+  AreaGroupVisibility findVisibility(AreaGroup group) {
     // OSM ways that this area group consists of
     Set<Long> osmWayIds = group.areas
       .stream()
@@ -200,69 +201,62 @@ class WalkableAreaBuilder {
       )
       .collect(Collectors.toSet());
 
+    List<RingVisibility> rings = new ArrayList<>();
+    for (Ring ring : group.outermostRings) {
+      rings.add(findVisibility(group, ring, osmWayIds));
+    }
+    return new AreaGroupVisibility(group, rings);
+  }
+
+  void buildWithVisibility(AreaGroupVisibility visibility) {
+    AreaGroup group = visibility.group();
+
+    // These are the vertices which can be used to traverse from the rest of the street network
+    // onto the walkable area
+    Set<Vertex> startingVertices = new HashSet<>();
+
+    // List of edges belonging to the walkable area
+    Set<Edge> edges = new HashSet<>();
+
+    // Edges which are part of the rings. We want to keep there for linking even tough they
+    // might not be part of the visibility edges.
+    Set<Edge> ringEdges = new HashSet<>();
+
     var references = getStopReferences(group);
 
     // create polygon and accumulate nodes for area
-    for (Ring ring : group.outermostRings) {
+    for (RingVisibility ringVisibility : visibility.rings()) {
+      Ring ring = ringVisibility.ring();
       Polygon polygon = ring.jtsPolygon;
 
       AreaEdgeList edgeList = new AreaEdgeList(polygon, references);
 
-      // the points corresponding to concave or hole vertices
-      // or those linked to ways
-      HashSet<OSMNode> visibilityNodes = new HashSet<>();
       HashSet<NodeEdge> alreadyAddedEdges = new HashSet<>();
       HashSet<IntersectionVertex> platformLinkingVertices = new HashSet<>();
-      // we need to accumulate visibility points from all contained areas
-      // inside this ring, but only for shared nodes; we don't care about
-      // convexity, which we'll handle for the grouped area only.
-
-      GeometryFactory geometryFactory = GeometryUtils.getGeometryFactory();
 
       OSMWithTags areaEntity = group.getSomeOSMObject();
 
+      for (OSMNode node : ringVisibility.entrances()) {
+        var vertex = vertexBuilder.getVertexForOsmNode(node, areaEntity);
+        platformLinkingVertices.add(vertex);
+        edgeList.addVisibilityVertex(vertex);
+      }
+      for (OsmVertex v : ringVisibility.platformEndpoints()) {
+        platformLinkingVertices.add(v);
+        edgeList.addVisibilityVertex(v);
+      }
+      for (OSMNode node : ringVisibility.ringVisibilityNodes()) {
+        edgeList.addVisibilityVertex(vertexBuilder.getVertexForOsmNode(node, areaEntity));
+      }
+
       // we also want to fill in the edges of this area anyway, because we can,
       // and to avoid the numerical problems that they tend to cause
       for (Area area : group.areas) {
         if (!polygon.contains(area.jtsMultiPolygon)) {
           continue;
         }
-
-        // Add stops/entrances from public transit relations into the area
-        // they may provide the only entrance to a platform
-        // which otherwise would be pruned as unconnected island
-        Collection<OSMNode> entrances = osmdb.getStopsInArea(area.parent);
-        for (OSMNode node : entrances) {
-          var vertex = vertexBuilder.getVertexForOsmNode(node, areaEntity);
-          platformLinkingVertices.add(vertex);
-          visibilityNodes.add(node);
-          startingNodes.add(node);
-          edgeList.addVisibilityVertex(vertex);
-        }
-
         for (Ring outerRing : area.outermostRings) {
-          // variable to indicate if some additional entrance points have been added to area
-          boolean linkPointsAdded = !entrances.isEmpty();
-          // Add unconnected entries to area if platformEntriesLinking parameter is true
-          if (platformEntriesLinking && area.parent.isPlatform()) {
-            List<OsmVertex> endpointsWithin = platformLinkingEndpoints
-              .stream()
-              .filter(t ->
-                outerRing.jtsPolygon.contains(geometryFactory.createPoint(t.getCoordinate()))
-              )
-              .toList();
-            platformLinkingVertices.addAll(endpointsWithin);
-            for (OsmVertex v : endpointsWithin) {
-              OSMNode node = osmdb.getNode(v.nodeId);
-              visibilityNodes.add(node);
-              startingNodes.add(node);
-              edgeList.addVisibilityVertex(v);
-              linkPointsAdded = true;
-            }
-          }
-
           for (int i = 0; i < outerRing.nodes.size(); ++i) {
-            OSMNode node = outerRing.nodes.get(i);
             Set<AreaEdge> newEdges = createEdgesForRingSegment(
               edgeList,
               area,
@@ -272,42 +266,12 @@ class WalkableAreaBuilder {
             );
             edges.addAll(newEdges);
             ringEdges.addAll(newEdges);
-
-            // A node can only be a visibility node only if it is an entrance to the
-            // area or a convex point, i.e. the angle is over 180 degrees.
-            // Also, if additional linking points have been defined, add some points from outer
-            // edge to ensure that platform geometry gets connected
-            if (
-              outerRing.isNodeConvex(i) ||
-              (linkPointsAdded && (i == 0 || i == outerRing.nodes.size() / 2))
-            ) {
-              visibilityNodes.add(node);
-              edgeList.addVisibilityVertex(vertexBuilder.getVertexForOsmNode(node, areaEntity));
-            }
-            if (isStartingNode(node, osmWayIds)) {
-              visibilityNodes.add(node);
-              startingNodes.add(node);
-              edgeList.addVisibilityVertex(vertexBuilder.getVertexForOsmNode(node, areaEntity));
-            }
           }
           for (Ring innerRing : outerRing.getHoles()) {
             for (int j = 0; j < innerRing.nodes.size(); ++j) {
-              OSMNode node = innerRing.nodes.get(j);
               edges.addAll(
                 createEdgesForRingSegment(edgeList, area, innerRing, j, alreadyAddedEdges)
               );
-              // A node can only be a visibility node only if it is an entrance to the
-              // area or a convex point, i.e. the angle is over 180 degrees.
-              // For holes, the internal angle is calculated, so we must swap the sign
-              if (!innerRing.isNodeConvex(j)) {
-                visibilityNodes.add(node);
-                edgeList.addVisibilityVertex(vertexBuilder.getVertexForOsmNode(node, areaEntity));
-              }
-              if (isStartingNode(node, osmWayIds)) {
-                visibilityNodes.add(node);
-                startingNodes.add(node);
-                edgeList.addVisibilityVertex(vertexBuilder.getVertexForOsmNode(node, areaEntity));
-              }
             }
           }
         }
@@ -324,63 +288,182 @@ class WalkableAreaBuilder {
 
       createNamedAreas(edgeList, ring, group.areas);
 
-      if (visibilityNodes.size() > maxAreaNodes) {
-        issueStore.add(new AreaTooComplicated(group, visibilityNodes.size(), maxAreaNodes));
+      int nVisibilityNodes = ringVisibility.visibilityNodes().size();
+      if (nVisibilityNodes > maxAreaNodes) {
+        issueStore.add(new AreaTooComplicated(group, nVisibilityNodes, maxAreaNodes));
       }
 
-      // if area is too complex, consider only part of visibility nodes
-      // so that at least some edges passing through the area is added
-      // otherwise routing can use only area boundary edges
-      float skip_ratio = (float) maxAreaNodes / (float) visibilityNodes.size();
-      int i = 0;
-      float sum_i = 0;
-      for (OSMNode nodeI : visibilityNodes) {
-        sum_i += skip_ratio;
-        if (Math.floor(sum_i) < i + 1) {
-          continue;
+      for (OSMNode node : ringVisibility.startingNodes()) {
+        startingVertices.add(vertexBuilder.getVertexForOsmNode(node, areaEntity));
+      }
+
+      for (NodeEdge visible : ringVisibility.visibleNodePairs()) {
+        IntersectionVertex startEndpoint = vertexBuilder.getVertexForOsmNode(
+          visible.from(),
+          areaEntity
+        );
+        IntersectionVertex endEndpoint = vertexBuilder.getVertexForOsmNode(
+          visible.to(),
+          areaEntity
+        );
+        Set<AreaEdge> segments = createSegments(
+          startEndpoint,
+          endEndpoint,
+          group.areas,
+          edgeList
+        );
+        edges.addAll(segments);
+        if (platformLinkingVertices.contains(startEndpoint)) {
+          ringEdges.addAll(segments);
         }
-        i = (int) Math.floor(sum_i);
-        IntersectionVertex startEndpoint = vertexBuilder.getVertexForOsmNode(nodeI, areaEntity);
-        if (startingNodes.contains(nodeI)) {
-          startingVertices.add(startEndpoint);
+        if (platformLinkingVertices.contains(endEndpoint)) {
+          ringEdges.addAll(segments);
         }
-        int j = 0;
-        float sum_j = 0;
-        for (OSMNode nodeJ : visibilityNodes) {
-          sum_j += skip_ratio;
-          if (Math.floor(sum_j) < j + 1) {
-            continue;
+      }
+    }
+    pruneAreaEdges(startingVertices, edges, ringEdges);
+  }
+
+  private RingVisibility findVisibility(AreaGroup group, Ring ring, Set<Long> osmWayIds) {
+    Polygon polygon = ring.jtsPolygon;
+
+    // the points corresponding to concave or hole vertices
+    // or those linked to ways
+    HashSet<OSMNode> visibilityNodes = new HashSet<>();
+    Set<OSMNode> startingNodes = new HashSet<>();
+    List<OSMNode> entrances = new ArrayList<>();
+    List<OsmVertex> platformEndpoints = new ArrayList<>();
+    List<OSMNode> ringVisibilityNodes = new ArrayList<>();
+    Set<NodeEdge> ringNodeEdges = new HashSet<>();
+    // we need to accumulate visibility points from all contained areas
+    // inside this ring, but only for shared nodes; we don't care about
+    // convexity, which we'll handle for the grouped area only.
+
+    GeometryFactory geometryFactory = GeometryUtils.getGeometryFactory();
+
+    for (Area area : group.areas) {
+      if (!polygon.contains(area.jtsMultiPolygon)) {
+        continue;
+      }
+
+      // Add stops/entrances from public transit relations into the area
+      // they may provide the only entrance to a platform
+      // which otherwise would be pruned as unconnected island
+      Collection<OSMNode> areaEntrances = osmdb.getStopsInArea(area.parent);
+      for (OSMNode node : areaEntrances) {
+        entrances.add(node);
+        visibilityNodes.add(node);
+        startingNodes.add(node);
+      }
+
+      for (Ring outerRing : area.outermostRings) {
+        // variable to indicate if some additional entrance points have been added to area
+        boolean linkPointsAdded = !areaEntrances.isEmpty();
+        // Add unconnected entries to area if platformEntriesLinking parameter is true
+        if (platformEntriesLinking && area.parent.isPlatform()) {
+          List<OsmVertex> endpointsWithin = platformLinkingEndpoints
+            .stream()
+            .filter(t ->
+              outerRing.jtsPolygon.contains(geometryFactory.createPoint(t.getCoordinate()))
+            )
+            .toList();
+          for (OsmVertex v : endpointsWithin) {
+            OSMNode node = osmdb.getNode(v.nodeId);
+            platformEndpoints.add(v);
+            visibilityNodes.add(node);
+            startingNodes.add(node);
+            linkPointsAdded = true;
           }
-          j = (int) Math.floor(sum_j);
-          NodeEdge edge = new NodeEdge(nodeI, nodeJ);
-          if (alreadyAddedEdges.contains(edge)) continue;
-
-          IntersectionVertex endEndpoint = vertexBuilder.getVertexForOsmNode(nodeJ, areaEntity);
-
-          Coordinate[] coordinates = new Coordinate[] {
-            startEndpoint.getCoordinate(),
-            endEndpoint.getCoordinate(),
-          };
-          LineString line = geometryFactory.createLineString(coordinates);
-          if (polygon.contains(line)) {
-            Set<AreaEdge> segments = createSegments(
-              startEndpoint,
-              endEndpoint,
-              group.areas,
-              edgeList
-            );
-            edges.addAll(segments);
-            if (platformLinkingVertices.contains(startEndpoint)) {
-              ringEdges.addAll(segments);
+        }
+
+        for (int i = 0; i < outerRing.nodes.size(); ++i) {
+          OSMNode node = outerRing.nodes.get(i);
+          ringNodeEdges.add(ringNodeEdge(outerRing, i));
+
+          // A node can only be a visibility node only if it is an entrance to the
+          // area or a convex point, i.e. the angle is over 180 degrees.
+          // Also, if additional linking points have been defined, add some points from outer
+          // edge to ensure that platform geometry gets connected
+          if (
+            outerRing.isNodeConvex(i) ||
+            (linkPointsAdded && (i == 0 || i == outerRing.nodes.size() / 2))
+          ) {
+            visibilityNodes.add(node);
+            ringVisibilityNodes.add(node);
+          }
+          if (isStartingNode(node, osmWayIds)) {
+            visibilityNodes.add(node);
+            startingNodes.add(node);
+            ringVisibilityNodes.add(node);
+          }
+        }
+        for (Ring innerRing : outerRing.getHoles()) {
+          for (int j = 0; j < innerRing.nodes.size(); ++j) {
+            OSMNode node = innerRing.nodes.get(j);
+            ringNodeEdges.add(ringNodeEdge(innerRing, j));
+            // A node can only be a visibility node only if it is an entrance to the
+            // area or a convex point, i.e. the angle is over 180 degrees.
+            // For holes, the internal angle is calculated, so we must swap the sign
+            if (!innerRing.isNodeConvex(j)) {
+              visibilityNodes.add(node);
+              ringVisibilityNodes.add(node);
             }
-            if (platformLinkingVertices.contains(endEndpoint)) {
-              ringEdges.addAll(segments);
+            if (isStartingNode(node, osmWayIds)) {
+              visibilityNodes.add(node);
+              startingNodes.add(node);
+              ringVisibilityNodes.add(node);
             }
           }
         }
       }
     }
-    pruneAreaEdges(startingVertices, edges, ringEdges);
+
+    // if area is too complex, consider only part of visibility nodes
+    // so that at least some edges passing through the area is added
+    // otherwise routing can use only area boundary edges
+    List<OSMNode> sampledStartingNodes = new ArrayList<>();
+    List<NodeEdge> visibleNodePairs = new ArrayList<>();
+    PolygonSegmentIndex segmentIndex = visibilityNodes.isEmpty()
+      ? null
+      : new PolygonSegmentIndex(polygon);
+
+    float skip_ratio = (float) maxAreaNodes / (float) visibilityNodes.size();
+    int i = 0;
+    float sum_i = 0;
+    for (OSMNode nodeI : visibilityNodes) {
+      sum_i += skip_ratio;
+      if (Math.floor(sum_i) < i + 1) {
+        continue;
+      }
+      i = (int) Math.floor(sum_i);
+      if (startingNodes.contains(nodeI)) {
+        sampledStartingNodes.add(nodeI);
+      }
+      int j = 0;
+      float sum_j = 0;
+      for (OSMNode nodeJ : visibilityNodes) {
+        sum_j += skip_ratio;
+        if (Math.floor(sum_j) < j + 1) {
+          continue;
+        }
+        j = (int) Math.floor(sum_j);
+        NodeEdge edge = new NodeEdge(nodeI, nodeJ);
+        if (ringNodeEdges.contains(edge)) continue;
+
+        if (segmentIndex.containsLine(nodeI.getCoordinate(), nodeJ.getCoordinate())) {
+          visibleNodePairs.add(edge);
+        }
+      }
+    }
+    return new RingVisibility(
+      ring,
+      visibilityNodes,
+      sampledStartingNodes,
+      entrances,
+      platformEndpoints,
+      ringVisibilityNodes,
+      visibleNodePairs
+    );
   }
 
   private Set<String> getStopReferences(AreaGroup group) {
@@ -456,9 +539,9 @@ class WalkableAreaBuilder {
     int i,
     HashSet<NodeEdge> alreadyAddedEdges
   ) {
-    OSMNode node = ring.nodes.get(i);
-    OSMNode nextNode = ring.nodes.get((i + 1) % ring.nodes.size());
-    NodeEdge nodeEdge = new NodeEdge(node, nextNode);
+    NodeEdge nodeEdge = ringNodeEdge(ring, i);
+    OSMNode node = nodeEdge.from();
+    OSMNode nextNode = nodeEdge.to();
     if (alreadyAddedEdges.contains(nodeEdge)) {
       return Set.of();
     }
@@ -469,6 +552,10 @@ class WalkableAreaBuilder {
     return createSegments(startEndpoint, endEndpoint, List.of(area), edgeList);
   }
 
+  private static NodeEdge ringNodeEdge(Ring ring, int i) {
+    return new NodeEdge(ring.nodes.get(i), ring.nodes.get((i + 1) % ring.nodes.size()));
+  }
+
   private Set<AreaEdge> createSegments(
     IntersectionVertex startEndpoint,
     IntersectionVertex endEndpoint,
@@ -700,5 +787,26 @@ class WalkableAreaBuilder {
     }
   }
 
-  private record NodeEdge(OSMNode from, OSMNode to) {}
+  record NodeEdge(OSMNode from, OSMNode to) {}
+
+  /**
+   * The visibility nodes of a ring, and the pairs of them that can see each other.
+   *
+   * @param visibilityNodes all visibility nodes, including the nodes which are not used because
+   *                        the area is too complicated.
+   * @param startingNodes the nodes used to enter the area from the rest of the street network.
+   * @param ringVisibilityNodes the ring nodes that are visibility nodes.
+   * @param visibleNodePairs the pairs of nodes to connect with an edge, ring segments excluded.
+   */
+  record RingVisibility(
+    Ring ring,
+    Set<OSMNode> visibilityNodes,
+    List<OSMNode> startingNodes,
+    List<OSMNode> entrances,
+    List<OsmVertex> platformEndpoints,
+    List<OSMNode> ringVisibilityNodes,
+    List<NodeEdge> visibleNodePairs
+  ) {}
+
+  record AreaGroupVisibility(AreaGroup group, List<RingVisibility> rings) {}
 }
@@ -29,6 +29,7 @@ import org.locationtech.jts.linearref.LocationIndexedLine;
 import org.locationtech.jts.operation.buffer.BufferParameters;
 import org.locationtech.jts.operation.buffer.OffsetCurveBuilder;
 import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.inspector.raster.SimplifiedEdgeIndex.EdgeShape;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.model.vertex.StreetVertex;
@@ -68,11 +69,17 @@ public class EdgeVertexTileRenderer implements TileRenderer {
       .sorted(evRenderer::vertexSorter)
       .toList();
 
-    Collection<Edge> edges = streetIndex
-      .getEdgesForEnvelope(bboxWithMargins)
-      .stream()
-      .distinct()
-      .sorted(evRenderer::edgeSorter)
+    // Use the simplified geometries at low zoom levels
+    Collection<EdgeShape> edges = (
+      context.simplifiedEdges == null
+        ? streetIndex
+          .getEdgesForEnvelope(bboxWithMargins)
+          .stream()
+          .distinct()
+          .map(e -> new EdgeShape(e, e.getGeometry()))
+        : context.simplifiedEdges.getEdgesForEnvelope(bboxWithMargins).stream()
+    )
+      .sorted((a, b) -> evRenderer.edgeSorter(a.edge(), b.edge()))
       .toList();
 
     // Note: we do not use the transform inside the shapeWriter, but do it ourselves
@@ -126,16 +133,16 @@ public class EdgeVertexTileRenderer implements TileRenderer {
     bufParams.setJoinStyle(BufferParameters.JOIN_BEVEL);
 
     // Render all edges
-    for (Edge edge : edges) {
-      Geometry edgeGeom = edge.getGeometry();
-      boolean hasGeom = true;
+    for (EdgeShape shape : edges) {
+      Edge edge = shape.edge();
+      Geometry edgeGeom = shape.geometry();
+      boolean hasGeom = edge.getGeometry() != null;
       if (edgeGeom == null) {
         Coordinate[] coordinates = new Coordinate[] {
           edge.getFromVertex().getCoordinate(),
           edge.getToVertex().getCoordinate(),
         };
         edgeGeom = GeometryUtils.getGeometryFactory().createLineString(coordinates);
-        hasGeom = false;
       }
 
       var evAttrsOpt = evRenderer.renderEdge(edge);
@@ -0,0 +1,194 @@
+package org.opentripplanner.inspector.raster;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The encoded raster tiles of the graph inspector, the thread pool rendering them and the
+ * simplified edges used at low zoom levels. One instance is created for the graph of the server
+ * and shared by all requests, see {@link TileRendererManager}.
+ * <p>
+ * The tiles are cached with the least recently used tiles evicted first. A tile is rendered again
+ * if the permanent or real-time street graph changes, see {@link Graph#getEdgeGeneration()}.
+ * Tiles which are not in the cache are rendered by a small thread pool with a bounded queue, so
+ * the inspector cannot use all the CPUs of the server. The pool is created when the first tile is
+ * rendered, and must be shut down with {@link #shutdown()}.
+ * <p>
+ * The simplified edges are only created again when the permanent street graph changes, see
+ * {@link Graph#getPermanentEdgeGeneration()}. The rental vehicles and parking linked by the
+ * real-time updaters are not part of them.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class RasterTileCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RasterTileCache.class);
+
+  /** The default maximum size of the cached tiles. */
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  /** The default number of render threads, a quarter of the available processors. */
+  public static final int DEFAULT_RENDER_THREADS = Math.max(
+    1,
+    Runtime.getRuntime().availableProcessors() / 4
+  );
+
+  private static final int RENDER_QUEUE_SIZE = 64;
+
+  private final Graph graph;
+  private final int renderThreads;
+  private final Cache<TileKey, byte[]> tileCache;
+
+  /** The simplified edges for each zoom level, replaced when the permanent graph changes. */
+  private final AtomicReferenceArray<SimplifiedEdges> simplifiedEdges = new AtomicReferenceArray<>(
+    SimplifiedEdgeIndex.MAX_ZOOM + 1
+  );
+
+  /** One lock for each zoom level, so building one zoom level does not block the others. */
+  private final Object[] simplifiedEdgesLocks = new Object[SimplifiedEdgeIndex.MAX_ZOOM + 1];
+
+  private ThreadPoolExecutor renderPool;
+  private boolean shutdown = false;
+
+  public RasterTileCache(
+    Graph graph,
+    long maxBytes,
+    int renderThreads,
+    MeterRegistry meterRegistry
+  ) {
+    if (renderThreads < 1) {
+      throw new IllegalArgumentException("renderThreads must be positive: " + renderThreads);
+    }
+    this.graph = graph;
+    this.renderThreads = renderThreads;
+    this.tileCache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxBytes)
+        .<TileKey, byte[]>weigher((key, tile) -> tile.length)
+        .recordStats()
+        .build();
+    for (int i = 0; i < simplifiedEdgesLocks.length; ++i) {
+      simplifiedEdgesLocks[i] = new Object();
+    }
+    GuavaCacheMetrics.monitor(
+      meterRegistry,
+      tileCache,
+      "inspectorRasterTiles",
+      List.of(Tag.of("api", "inspector"))
+    );
+  }
+
+  /**
+   * Return the cached tile, or render it in the render pool if it is not in the cache.
+   *
+   * @throws RejectedExecutionException if too many tiles are being rendered, or if the cache is
+   *                                    shut down.
+   */
+  byte[] get(String layer, String imageFormat, int z, int x, int y, Callable<byte[]> renderer) {
+    var key = new TileKey(graph.getEdgeGeneration(), layer, imageFormat, z, x, y);
+    try {
+      return tileCache.get(key, () -> renderPool().submit(renderer).get());
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      // The thread pool wraps the exception of a failed render task in an ExecutionException
+      if (cause instanceof ExecutionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      Throwables.throwIfUnchecked(cause);
+      throw new RuntimeException(cause);
+    }
+  }
+
+  /**
+   * Return the simplified edges for the zoom level, they are created the first time a tile at the
+   * zoom level is rendered, and created again when the permanent street graph changes. Only the
+   * threads waiting for the same zoom level are blocked while the edges are created.
+   * Return {@code null} above {@link SimplifiedEdgeIndex#MAX_ZOOM}.
+   */
+  @Nullable
+  SimplifiedEdgeIndex simplifiedEdges(int zoom) {
+    if (zoom < 0 || zoom > SimplifiedEdgeIndex.MAX_ZOOM) {
+      return null;
+    }
+    long generation = graph.getPermanentEdgeGeneration();
+    var edges = simplifiedEdges.get(zoom);
+    if (edges != null && edges.generation() == generation) {
+      return edges.index();
+    }
+    synchronized (simplifiedEdgesLocks[zoom]) {
+      edges = simplifiedEdges.get(zoom);
+      if (edges == null || edges.generation() != generation) {
+        long start = System.currentTimeMillis();
+        edges = new SimplifiedEdges(generation, SimplifiedEdgeIndex.create(graph, zoom));
+        simplifiedEdges.set(zoom, edges);
+        LOG.info(
+          "Simplified edges for zoom level {} in {} ms",
+          zoom,
+          System.currentTimeMillis() - start
+        );
+      }
+      return edges.index();
+    }
+  }
+
+  /**
+   * Stop the render threads, tiles which are not cached are rejected after this.
+   */
+  public synchronized void shutdown() {
+    shutdown = true;
+    if (renderPool != null) {
+      renderPool.shutdown();
+    }
+  }
+
+  private synchronized ThreadPoolExecutor renderPool() {
+    if (shutdown) {
+      throw new RejectedExecutionException("The raster tile cache is shut down.");
+    }
+    if (renderPool == null) {
+      renderPool =
+        new ThreadPoolExecutor(
+          renderThreads,
+          renderThreads,
+          0,
+          TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(RENDER_QUEUE_SIZE),
+          new ThreadFactoryBuilder().setNameFormat("inspector-tile-%d").setDaemon(true).build()
+        );
+    }
+    return renderPool;
+  }
+
+  /**
+   * The key of a cached tile, with the edge generation of the graph when the tile is rendered.
+   */
+  private record TileKey(
+    long edgeGeneration,
+    String layer,
+    String imageFormat,
+    int z,
+    int x,
+    int y
+  ) {}
+
+  private record SimplifiedEdges(long generation, SimplifiedEdgeIndex index) {}
+}
@@ -0,0 +1,134 @@
+package org.opentripplanner.inspector.raster;
+
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.edge.Edge;
+
+/**
+ * The edges of a graph with the geometries simplified for rendering tiles at one zoom level. The
+ * geometries are simplified with a tolerance of half a pixel, and edges smaller than half a pixel
+ * are left out. At low zoom levels most edges are smaller than a pixel, so rendering a tile does
+ * not have to go through all the edges of the street index.
+ * <p>
+ * Edges removed from the graph after the index is built are filtered out when querying, the index
+ * is not updated.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class SimplifiedEdgeIndex {
+
+  /** The highest zoom level with simplified geometries, the full geometries are used above. */
+  public static final int MAX_ZOOM = 12;
+
+  private static final int TILE_SIZE_PIXELS = 256;
+
+  private final HashGridSpatialIndex<EdgeShape> index;
+
+  private SimplifiedEdgeIndex(HashGridSpatialIndex<EdgeShape> index) {
+    this.index = index;
+  }
+
+  /**
+   * Simplify the geometries of all edges in the graph for the given zoom level.
+   */
+  static SimplifiedEdgeIndex create(Graph graph, int zoom) {
+    double tileSizeDegrees = 360.0 / (1 << zoom);
+    double pixelSizeDegrees = tileSizeDegrees / TILE_SIZE_PIXELS;
+
+    // THIS CODE RUNS IN PARALLEL
+    List<EdgeShape> shapes = graph
+      .getEdges()
+      .parallelStream()
+      .map(edge -> simplify(edge, pixelSizeDegrees))
+      .filter(Objects::nonNull)
+      .toList();
+    // END PARALLEL CODE
+
+    // Use bins of a quarter tile, the default bins are made for high zoom levels
+    var index = new HashGridSpatialIndex<EdgeShape>(tileSizeDegrees / 4, tileSizeDegrees / 4);
+    for (EdgeShape shape : shapes) {
+      index.insert(shape.geometry(), shape);
+    }
+    index.compact();
+    return new SimplifiedEdgeIndex(index);
+  }
+
+  /**
+   * Return the edges intersecting with the envelope, and still in the graph.
+   */
+  List<EdgeShape> getEdgesForEnvelope(Envelope envelope) {
+    return index
+      .query(envelope)
+      .stream()
+      .filter(it ->
+        envelope.intersects(it.geometry().getEnvelopeInternal()) && isInGraph(it.edge())
+      )
+      .toList();
+  }
+
+  /**
+   * Unlike {@link Edge#isReachableFromGraph()} this does not log a warning, removed edges are
+   * expected here.
+   */
+  private static boolean isInGraph(Edge edge) {
+    return edge.getToVertex().getIncoming().contains(edge);
+  }
+
+  /**
+   * Simplify the geometry of the edge, return {@code null} if the edge is smaller than half a
+   * pixel. The pixel height in degrees is smaller than the width away from equator, in the web
+   * mercator projection.
+   */
+  @Nullable
+  private static EdgeShape simplify(Edge edge, double pixelWidthDegrees) {
+    LineString geometry = edge.getGeometry();
+    if (geometry == null) {
+      Coordinate[] coordinates = new Coordinate[] {
+        edge.getFromVertex().getCoordinate(),
+        edge.getToVertex().getCoordinate(),
+      };
+      geometry = GeometryUtils.getGeometryFactory().createLineString(coordinates);
+    }
+    Envelope envelope = geometry.getEnvelopeInternal();
+    double pixelHeightDegrees = pixelWidthDegrees * Math.cos(Math.toRadians(envelope.getMinY()));
+    double tolerance = pixelHeightDegrees / 2;
+    if (envelope.getWidth() < pixelWidthDegrees / 2 && envelope.getHeight() < tolerance) {
+      return null;
+    }
+    if (geometry.getNumPoints() > 2) {
+      geometry = (LineString) DouglasPeuckerSimplifier.simplify(geometry, tolerance);
+    }
+    return new EdgeShape(edge, geometry);
+  }
+
+  /**
+   * An edge with the geometry used for rendering it. Identity is used for equality, so the spatial
+   * index does not compare geometries.
+   */
+  public static final class EdgeShape {
+
+    private final Edge edge;
+    private final LineString geometry;
+
+    EdgeShape(Edge edge, LineString geometry) {
+      this.edge = edge;
+      this.geometry = geometry;
+    }
+
+    public Edge edge() {
+      return edge;
+    }
+
+    public LineString geometry() {
+      return geometry;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.inspector.raster;
 
 import java.awt.Graphics2D;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.util.AffineTransformation;
 import org.opentripplanner.routing.graph.Graph;
@@ -43,6 +44,10 @@ public interface TileRenderer {
     /** Tile size in pixels */
     public int tileWidth, tileHeight;
 
+    /** Edges with simplified geometries at low zoom levels, null if the full geometries are used */
+    @Nullable
+    public SimplifiedEdgeIndex simplifiedEdges;
+
     /** Expand the bounding box to add some margins, in pixel size. */
     public abstract Envelope expandPixels(double marginXPixels, double marginYPixels);
   }
@@ -1,11 +1,17 @@
 package org.opentripplanner.inspector.raster;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
+import javax.imageio.ImageIO;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.util.AffineTransformation;
 import org.opentripplanner.api.resource.GraphInspectorTileResource;
+import org.opentripplanner.api.resource.WebMercatorTile;
 import org.opentripplanner.inspector.raster.TileRenderer.TileRenderContext;
 import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
 import org.opentripplanner.routing.graph.Graph;
@@ -16,6 +22,13 @@ import org.slf4j.LoggerFactory;
  * Process slippy map tile rendering requests. Get the tile renderer for the given layer, setup a
  * tile rendering context (bounding box, image graphic context, affine transform, etc...) and call
  * the renderer to paint the tile.
+ * <p>
+ * The encoded tiles are cached and rendered in a bounded thread pool, see {@link RasterTileCache}.
+ * Tiles at low zoom levels are rendered using edges with simplified geometries, see
+ * {@link SimplifiedEdgeIndex}.
+ * <p>
+ * A new instance is created for each request, the {@link RasterTileCache} of the server is shared
+ * by all instances.
  *
  * @author laurent
  * @see GraphInspectorTileResource
@@ -25,12 +38,21 @@ public class TileRendererManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(TileRendererManager.class);
 
+  private static final int TILE_SIZE_PIXELS = 256;
+
   private final Map<String, TileRenderer> renderers = new HashMap<>();
 
   private final Graph graph;
 
-  public TileRendererManager(Graph graph, RoutingPreferences routingPreferences) {
+  private final RasterTileCache tileCache;
+
+  public TileRendererManager(
+    Graph graph,
+    RoutingPreferences routingPreferences,
+    RasterTileCache tileCache
+  ) {
     this.graph = graph;
+    this.tileCache = tileCache;
 
     // Register layers.
     renderers.put("bike-safety", new EdgeVertexTileRenderer(new BikeSafetyEdgeRenderer()));
@@ -50,7 +72,40 @@ public class TileRendererManager {
     renderers.put(layer, tileRenderer);
   }
 
+  /**
+   * Return the tile encoded in the given image format, from the cache if possible.
+   *
+   * @throws RejectedExecutionException if too many tiles are being rendered.
+   */
+  public byte[] getEncodedTile(int x, int y, int z, String layer, String imageFormat) {
+    if (!renderers.containsKey(layer)) {
+      throw new IllegalArgumentException("Unknown layer: " + layer);
+    }
+    return tileCache.get(
+      layer,
+      imageFormat,
+      z,
+      x,
+      y,
+      () -> encode(renderTile(x, y, z, layer), imageFormat)
+    );
+  }
+
   public BufferedImage renderTile(final MapTile mapTile, String layer) {
+    return renderTile(mapTile, layer, null);
+  }
+
+  private BufferedImage renderTile(int x, int y, int z, String layer) {
+    Envelope envelope = WebMercatorTile.tile2Envelope(x, y, z);
+    var mapTile = new MapTile(envelope, TILE_SIZE_PIXELS, TILE_SIZE_PIXELS);
+    return renderTile(mapTile, layer, tileCache.simplifiedEdges(z));
+  }
+
+  private BufferedImage renderTile(
+    final MapTile mapTile,
+    String layer,
+    @Nullable SimplifiedEdgeIndex simplifiedEdges
+  ) {
     TileRenderContext context = new TileRenderContext() {
       @Override
       public Envelope expandPixels(double marginXPixels, double marginYPixels) {
@@ -64,6 +119,7 @@ public class TileRendererManager {
     };
 
     context.graph = graph;
+    context.simplifiedEdges = simplifiedEdges;
 
     TileRenderer renderer = renderers.get(layer);
     if (renderer == null) throw new IllegalArgumentException("Unknown layer: " + layer);
@@ -95,6 +151,12 @@ public class TileRendererManager {
     return image;
   }
 
+  private static byte[] encode(BufferedImage image, String imageFormat) throws IOException {
+    var out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+    ImageIO.write(image, imageFormat, out);
+    return out.toByteArray();
+  }
+
   /**
    * Gets all renderers
    * <p>
@@ -19,6 +19,19 @@ import org.opentripplanner.framework.geometry.GeometryUtils;
  */
 public abstract class LayerBuilder<T> {
 
+  /**
+   * The data generation of a layer which does not change while the server is running. This is
+   * negative, so it is never the same as a counter starting at 0, like the generation of a
+   * realtime service before its first update.
+   */
+  public static final long STATIC_DATA = -2;
+
+  /**
+   * The data generation of a layer without a version of its data. These layers are only cached
+   * for the time given by {@link LayerParameters#cacheMaxSeconds()}.
+   */
+  public static final long UNVERSIONED_DATA = -1;
+
   private static final GeometryFactory GEOMETRY_FACTORY = GeometryUtils.getGeometryFactory();
   private final MvtLayerProps layerProps = new MvtLayerProps();
   private final VectorTile.Tile.Layer.Builder layerBuilder;
@@ -37,6 +50,16 @@ public abstract class LayerBuilder<T> {
    */
   protected abstract List<Geometry> getGeometries(Envelope query);
 
+  /**
+   * The generation of the data used by this layer. A cached tile is only used if the generation
+   * of each layer is the same as when the tile was built. Layers which only change when a new
+   * graph is loaded should return {@link #STATIC_DATA}, realtime layers should return a counter
+   * which is incremented when the data is updated.
+   */
+  protected long dataGeneration() {
+    return UNVERSIONED_DATA;
+  }
+
   final VectorTile.Tile.Layer build(Envelope envelope) {
     Envelope query = new Envelope(envelope);
     query.expandBy(envelope.getWidth() * expansionFactor, envelope.getHeight() * expansionFactor);
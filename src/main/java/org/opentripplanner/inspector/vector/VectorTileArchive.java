@@ -0,0 +1,296 @@
+package org.opentripplanner.inspector.vector;
+
+import edu.colorado.cires.cmg.mvt.VectorTile;
+import edu.colorado.cires.cmg.mvt.build.MvtLayerBuild;
+import edu.colorado.cires.cmg.mvt.build.MvtLayerParams;
+import gnu.trove.list.array.TLongArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.api.resource.WebMercatorTile;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+
+/**
+ * Vector tiles for layers which only change when the graph is built, rendered at graph build time.
+ * <p>
+ * Each tile of each layer is stored as an encoded {@link VectorTile.Tile} with one layer. Encoded
+ * tiles can be concatenated to form a tile with several layers, so a tile is served by copying the
+ * bytes of the archived layers, and only the realtime layers are built when the tile is requested.
+ * <p>
+ * All tiles are stored in one byte array, with a sorted array of tile keys and the position of each
+ * tile in the byte array. Only tiles with features are stored, the other tiles inside the zoom
+ * range of a layer are empty. The size of the archive is limited by the maximum size of a Java
+ * array, see {@link #MAX_SIZE_IN_BYTES}.
+ * <p>
+ * A layer is archived for a language, the properties of the features are translated. The tiles for
+ * other languages are built when requested. Only the language of a locale is used, so a layer
+ * archived for {@code nb-NO} is used for all requests in Norwegian Bokmål.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class VectorTileArchive implements Serializable {
+
+  /** The maximum zoom level, the tile x and y must fit in {@link #COORDINATE_BITS} bits. */
+  public static final int MAX_ZOOM = 20;
+
+  /**
+   * The maximum total size of the archived tiles, the largest byte array the JVM can allocate.
+   */
+  static final long MAX_SIZE_IN_BYTES = Integer.MAX_VALUE - 8;
+
+  private static final int COORDINATE_BITS = 21;
+  private static final int ZOOM_BITS = 5;
+
+  private final List<ArchivedLayer> layers;
+  private final Map<String, Integer> layerIndex;
+  private final long[] keys;
+  private final int[] offsets;
+  private final byte[] data;
+
+  private VectorTileArchive(Builder builder) {
+    this.layers = List.copyOf(builder.layers);
+    this.layerIndex = Map.copyOf(builder.layerIndex);
+
+    int n = builder.tiles.size();
+    Integer[] order = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+    Arrays.sort(order, (a, b) -> Long.compare(builder.keys.get(a), builder.keys.get(b)));
+
+    this.keys = new long[n];
+    this.offsets = new int[n + 1];
+    var out = new ByteArrayOutputStream();
+    for (int i = 0; i < n; ++i) {
+      keys[i] = builder.keys.get(order[i]);
+      offsets[i] = out.size();
+      out.writeBytes(builder.tiles.get(order[i]));
+    }
+    offsets[n] = out.size();
+    this.data = out.toByteArray();
+  }
+
+  public static Builder of() {
+    return new Builder();
+  }
+
+  /**
+   * Write the archived tile of the given layer to {@code out}, as an encoded
+   * {@link VectorTile.Tile} with one layer.
+   *
+   * @return {@code false} if the tile is not in the archive, and nothing is written.
+   */
+  public boolean writeTile(
+    LayerParameters<?> layerParameters,
+    Locale locale,
+    int z,
+    int x,
+    int y,
+    ByteArrayOutputStream out
+  ) {
+    Integer layer = layerIndex.get(layerId(layerParameters, locale.getLanguage()));
+    if (layer == null) {
+      return false;
+    }
+    ArchivedLayer archivedLayer = layers.get(layer);
+    if (z < archivedLayer.minZoom() || z > archivedLayer.maxZoom()) {
+      return false;
+    }
+    int i = Arrays.binarySearch(keys, key(layer, z, x, y));
+    if (i < 0) {
+      out.writeBytes(archivedLayer.emptyTile());
+    } else {
+      out.write(data, offsets[i], offsets[i + 1] - offsets[i]);
+    }
+    return true;
+  }
+
+  /** The number of archived tiles with features. */
+  public int size() {
+    return keys.length;
+  }
+
+  /** The total size of the archived tiles in bytes. */
+  public int sizeInBytes() {
+    return data.length;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(VectorTileArchive.class)
+      .addCol("layers", layers.stream().map(ArchivedLayer::id).toList())
+      .addNum("tiles", size())
+      .addNum("bytes", sizeInBytes())
+      .toString();
+  }
+
+  /**
+   * The layer name, type, mapper and expansion factor are used to identify the layer, so a tile is
+   * not used if the layer configuration is changed after the graph is built.
+   */
+  private static String layerId(LayerParameters<?> layerParameters, String language) {
+    return String.join(
+      "/",
+      layerParameters.name(),
+      layerParameters.type().name(),
+      layerParameters.mapper(),
+      Double.toString(layerParameters.expansionFactor()),
+      language
+    );
+  }
+
+  private static long key(int layer, int z, int x, int y) {
+    return (
+      ((long) layer << (ZOOM_BITS + 2 * COORDINATE_BITS)) |
+      ((long) z << (2 * COORDINATE_BITS)) |
+      ((long) x << COORDINATE_BITS) |
+      y
+    );
+  }
+
+  private record ArchivedLayer(String id, int minZoom, int maxZoom, byte[] emptyTile)
+    implements Serializable {}
+
+  public static class Builder {
+
+    private final List<ArchivedLayer> layers = new ArrayList<>();
+    private final Map<String, Integer> layerIndex = new HashMap<>();
+    private final TLongArrayList keys = new TLongArrayList();
+    private final List<byte[]> tiles = new ArrayList<>();
+    private final long maxSizeInBytes;
+    private long sizeInBytes = 0;
+
+    private Builder() {
+      this(MAX_SIZE_IN_BYTES);
+    }
+
+    Builder(long maxSizeInBytes) {
+      this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    /**
+     * Render the tiles of a layer from the minimum zoom level of the layer to {@code maxZoom}, or
+     * the maximum zoom level of the layer if lower. Only the tiles close to the geometries of the
+     * layer are rendered. Layers which are not static, see {@link LayerBuilder#STATIC_DATA}, are
+     * not archived.
+     *
+     * @param locale the locale used by the layer builders, the layer is archived for the language
+     *               of the locale.
+     * @param layerBuilderFactory create a new layer builder for each tile, layer builders can only
+     *                            be used once.
+     * @return the number of tiles with features.
+     * @throws IllegalStateException if the archive gets larger than the maximum size.
+     */
+    public int addLayer(
+      LayerParameters<?> layerParameters,
+      Locale locale,
+      int maxZoom,
+      Supplier<LayerBuilder<?>> layerBuilderFactory
+    ) {
+      int minZoom = layerParameters.minZoom();
+      maxZoom = Math.min(Math.min(maxZoom, layerParameters.maxZoom()), MAX_ZOOM);
+      String id = layerId(layerParameters, locale.getLanguage());
+      if (
+        layerIndex.containsKey(id) ||
+        minZoom > maxZoom ||
+        layerBuilderFactory.get().dataGeneration() != LayerBuilder.STATIC_DATA
+      ) {
+        return 0;
+      }
+
+      int layer = layers.size();
+      layerIndex.put(id, layer);
+      layers.add(new ArchivedLayer(id, minZoom, maxZoom, emptyTile(layerParameters.name())));
+
+      var world = new Envelope(-180, 180, -90, 90);
+      List<Envelope> envelopes = layerBuilderFactory
+        .get()
+        .getGeometries(world)
+        .stream()
+        .map(Geometry::getEnvelopeInternal)
+        .toList();
+      // A tile contains the geometries within expansionFactor tiles of the tile bounds
+      int margin = (int) Math.ceil(layerParameters.expansionFactor());
+
+      int count = 0;
+      for (int z = minZoom; z <= maxZoom; ++z) {
+        long[] tileKeys = tilesCovering(envelopes, layer, z, margin);
+
+        // THIS CODE RUNS IN PARALLEL
+        final int zoom = z;
+        byte[][] encoded = new byte[tileKeys.length][];
+        IntStream
+          .range(0, tileKeys.length)
+          .parallel()
+          .forEach(i -> {
+            int x = (int) (tileKeys[i] >>> COORDINATE_BITS) & ((1 << COORDINATE_BITS) - 1);
+            int y = (int) tileKeys[i] & ((1 << COORDINATE_BITS) - 1);
+            VectorTile.Tile.Layer tile = layerBuilderFactory
+              .get()
+              .build(WebMercatorTile.tile2Envelope(x, y, zoom));
+            if (tile.getFeaturesCount() > 0) {
+              encoded[i] = VectorTile.Tile.newBuilder().addLayers(tile).build().toByteArray();
+            }
+          });
+        // END PARALLEL CODE
+
+        for (int i = 0; i < tileKeys.length; ++i) {
+          if (encoded[i] != null) {
+            sizeInBytes += encoded[i].length;
+            if (sizeInBytes > maxSizeInBytes) {
+              throw new IllegalStateException(
+                "The static vector tiles are larger than %d bytes when adding zoom level %d of layer '%s'. Lower staticVectorTilesMaxZoom, or the max zoom of the layer.".formatted(
+                    maxSizeInBytes,
+                    zoom,
+                    layerParameters.name()
+                  )
+              );
+            }
+            keys.add(tileKeys[i]);
+            tiles.add(encoded[i]);
+            ++count;
+          }
+        }
+      }
+      return count;
+    }
+
+    public VectorTileArchive build() {
+      return new VectorTileArchive(this);
+    }
+
+    /** The sorted keys of the tiles close to the envelopes, without duplicates. */
+    private static long[] tilesCovering(List<Envelope> envelopes, int layer, int z, int margin) {
+      int max = (1 << z) - 1;
+      var result = new TLongArrayList();
+      for (Envelope e : envelopes) {
+        int minX = Math.max(WebMercatorTile.lon2tileX(e.getMinX(), z) - margin, 0);
+        int maxX = Math.min(WebMercatorTile.lon2tileX(e.getMaxX(), z) + margin, max);
+        // The tile y increases towards south
+        int minY = Math.max(WebMercatorTile.lat2tileY(e.getMaxY(), z) - margin, 0);
+        int maxY = Math.min(WebMercatorTile.lat2tileY(e.getMinY(), z) + margin, max);
+        for (int x = minX; x <= maxX; ++x) {
+          for (int y = minY; y <= maxY; ++y) {
+            result.add(key(layer, z, x, y));
+          }
+        }
+      }
+      long[] keys = result.toArray();
+      Arrays.sort(keys);
+      return Arrays.stream(keys).distinct().toArray();
+    }
+
+    /** The same tile as a layer builder creates for a tile without geometries. */
+    private static byte[] emptyTile(String layerName) {
+      var layer = MvtLayerBuild.newLayerBuilder(layerName, MvtLayerParams.DEFAULT).build();
+      return VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray();
+    }
+  }
+}
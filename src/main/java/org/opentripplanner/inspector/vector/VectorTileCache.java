@@ -0,0 +1,87 @@
+package org.opentripplanner.inspector.vector;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.graph.Graph;
+
+/**
+ * An in-memory cache of encoded vector tiles. The size of the cache is limited by the number of
+ * bytes in the cached tiles, the least recently used tiles are evicted first.
+ * <p>
+ * The key includes the data generation of each layer in the tile, see
+ * {@link LayerBuilder#dataGeneration()}. When a realtime layer is updated, the tiles containing it
+ * are no longer found in the cache, while the tiles with only static layers are still used. The
+ * stale tiles are evicted when the cache is full.
+ * <p>
+ * The cache hit and miss counts, the evictions and the size are registered as metrics named
+ * {@code cache.*} with the tag {@code cache=<name>}.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class VectorTileCache {
+
+  /** The default maximum size of the cached tiles. */
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private final Cache<Key, Tile> cache;
+
+  public VectorTileCache(String name, long maxBytes, MeterRegistry meterRegistry) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxBytes)
+        .<Key, Tile>weigher((key, tile) -> tile.data().length)
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(meterRegistry, cache, name, List.of(Tag.of("api", "vectorTiles")));
+  }
+
+  /**
+   * Return the cached tile for the key, or build, cache and return the tile if it is not in the
+   * cache.
+   */
+  Tile get(Key key, Supplier<Tile> tileBuilder) {
+    try {
+      return cache.get(key, tileBuilder::get);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** The number of tiles in the cache, used in tests. */
+  long size() {
+    return cache.size();
+  }
+
+  /**
+   * The key of a tile.
+   *
+   * @param graph the graph the tile is built from, tiles built from another graph are not used.
+   * @param layers the requested layers, in the requested order.
+   * @param generations the data generation of each layer in the tile.
+   */
+  record Key(
+    Graph graph,
+    List<String> layers,
+    int z,
+    int x,
+    int y,
+    Locale locale,
+    List<Long> generations
+  ) {}
+
+  /**
+   * An encoded tile.
+   *
+   * @param eTag the ETag of a tile with only static layers, computed when the tile is built.
+   */
+  record Tile(byte[] data, @Nullable String eTag) {}
+}
@@ -0,0 +1,17 @@
+package org.opentripplanner.inspector.vector;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The tile caches used by the vector tile APIs. The caches are created once, when the server
+ * starts, and shared by all requests. The vector tile API and the debug inspector have separate
+ * caches, so they are reported as separate metrics.
+ */
+public record VectorTileCaches(VectorTileCache vectorTiles, VectorTileCache inspector) {
+  public static VectorTileCaches of(long maxBytes, MeterRegistry meterRegistry) {
+    return new VectorTileCaches(
+      new VectorTileCache("vectorTiles", maxBytes, meterRegistry),
+      new VectorTileCache("inspectorVectorTiles", maxBytes, meterRegistry)
+    );
+  }
+}
@@ -1,12 +1,18 @@
 package org.opentripplanner.inspector.vector;
 
+import com.google.common.hash.Hashing;
 import edu.colorado.cires.cmg.mvt.VectorTile;
 import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.hc.core5.http.ContentType;
 import org.locationtech.jts.geom.Envelope;
 import org.opentripplanner.api.resource.WebMercatorTile;
@@ -15,9 +21,18 @@ import org.opentripplanner.standalone.api.OtpServerRequestContext;
 
 /**
  * Common functionality for creating a vector tile response.
+ * <p>
+ * The tiles are cached in a {@link VectorTileCache}. A tile with only static layers, see
+ * {@link LayerBuilder#STATIC_DATA}, gets a strong ETag, and the response is empty (304 Not
+ * Modified) if the client already has the tile.
+ * <p>
+ * Static layers rendered when the graph was built are copied from the {@link VectorTileArchive}.
  */
 public class VectorTileResponseFactory {
 
+  /** Used as data generation for layers which are not cached */
+  private static final long NOT_CACHED = Long.MIN_VALUE;
+
   public static <LayerType extends Enum<LayerType>> Response create(
     int x,
     int y,
@@ -26,11 +41,10 @@ public class VectorTileResponseFactory {
     List<String> requestedLayers,
     List<LayerParameters<LayerType>> availableLayers,
     LayerBuilderFactory<LayerType> layerBuilderFactory,
-    OtpServerRequestContext context
+    OtpServerRequestContext context,
+    VectorTileCache tileCache,
+    @Nullable String ifNoneMatch
   ) {
-    VectorTile.Tile.Builder mvtBuilder = VectorTile.Tile.newBuilder();
-    Envelope envelope = WebMercatorTile.tile2Envelope(x, y, z);
-
     int cacheMaxSeconds = Integer.MAX_VALUE;
 
     var availableLayerNames = availableLayers
@@ -50,6 +64,11 @@ public class VectorTileResponseFactory {
         .build();
     }
 
+    List<LayerParameters<LayerType>> layers = new ArrayList<>();
+    List<LayerBuilder<?>> layerBuilders = new ArrayList<>();
+    List<Long> generations = new ArrayList<>();
+    long now = System.currentTimeMillis() / 1000;
+
     for (LayerParameters<LayerType> layerParameters : availableLayers) {
       if (
         requestedLayers.contains(layerParameters.name()) &&
@@ -57,24 +76,98 @@ public class VectorTileResponseFactory {
         z <= layerParameters.maxZoom()
       ) {
         cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
-        VectorTile.Tile.Layer layer = layerBuilderFactory
-          .createLayerBuilder(layerParameters, locale, context)
-          .build(envelope);
-        mvtBuilder.addLayers(layer);
+        var layerBuilder = layerBuilderFactory.createLayerBuilder(
+          layerParameters,
+          locale,
+          context
+        );
+        layers.add(layerParameters);
+        layerBuilders.add(layerBuilder);
+        generations.add(dataGeneration(layerBuilder, layerParameters, now));
       }
     }
 
+    // An encoded tile with several layers is the concatenation of the tiles with one layer each
+    VectorTileArchive archive = context.graph().getVectorTileArchive();
+    Supplier<byte[]> buildTile = () -> {
+      var out = new ByteArrayOutputStream();
+      Envelope envelope = WebMercatorTile.tile2Envelope(x, y, z);
+      for (int i = 0; i < layerBuilders.size(); ++i) {
+        if (archive != null && archive.writeTile(layers.get(i), locale, z, x, y, out)) {
+          continue;
+        }
+        var layer = layerBuilders.get(i).build(envelope);
+        out.writeBytes(VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray());
+      }
+      return out.toByteArray();
+    };
+
+    // Only tiles with static layers are the same each time they are built
+    boolean staticTile = generations.stream().allMatch(it -> it == LayerBuilder.STATIC_DATA);
+
+    VectorTileCache.Tile tile;
+    if (generations.contains(NOT_CACHED)) {
+      tile = new VectorTileCache.Tile(buildTile.get(), null);
+    } else {
+      var key = new VectorTileCache.Key(
+        context.graph(),
+        requestedLayers,
+        z,
+        x,
+        y,
+        locale,
+        generations
+      );
+      // The ETag is computed once and cached with the tile
+      Supplier<VectorTileCache.Tile> buildCachedTile = () -> {
+        byte[] data = buildTile.get();
+        var eTag = staticTile ? Hashing.murmur3_128().hashBytes(data).toString() : null;
+        return new VectorTileCache.Tile(data, eTag);
+      };
+      tile = tileCache.get(key, buildCachedTile);
+    }
+
     CacheControl cacheControl = new CacheControl();
     if (cacheMaxSeconds != Integer.MAX_VALUE) {
       cacheControl.setMaxAge(cacheMaxSeconds);
     }
+
+    if (tile.eTag() == null) {
+      return Response
+        .status(Response.Status.OK)
+        .cacheControl(cacheControl)
+        .entity(tile.data())
+        .build();
+    }
+    var eTag = new EntityTag(tile.eTag());
+    if (ifNoneMatch != null && ifNoneMatch.contains(eTag.toString())) {
+      return Response.notModified(eTag).cacheControl(cacheControl).build();
+    }
     return Response
       .status(Response.Status.OK)
       .cacheControl(cacheControl)
-      .entity(mvtBuilder.build().toByteArray())
+      .tag(eTag)
+      .entity(tile.data())
       .build();
   }
 
+  /**
+   * The data generation of a layer, used in the cache key. A layer without a version of its data
+   * is cached for the time clients are allowed to cache it, or not at all.
+   */
+  private static long dataGeneration(
+    LayerBuilder<?> layerBuilder,
+    LayerParameters<?> layerParameters,
+    long nowEpochSeconds
+  ) {
+    long generation = layerBuilder.dataGeneration();
+    if (generation != LayerBuilder.UNVERSIONED_DATA) {
+      return generation;
+    }
+    int cacheMaxSeconds = layerParameters.cacheMaxSeconds();
+    return cacheMaxSeconds > 0 ? nowEpochSeconds / cacheMaxSeconds : NOT_CACHED;
+  }
+
   @FunctionalInterface
   public interface LayerBuilderFactory<LayerType extends Enum<LayerType>> {
     LayerBuilder<?> createLayerBuilder(
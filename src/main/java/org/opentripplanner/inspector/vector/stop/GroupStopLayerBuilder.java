@@ -43,6 +43,11 @@ public class GroupStopLayerBuilder extends LayerBuilder<StopLocation> {
         .toList();
   }
 
+  @Override
+  protected long dataGeneration() {
+    return STATIC_DATA;
+  }
+
   @Override
   protected List<Geometry> getGeometries(Envelope query) {
     return geometries;
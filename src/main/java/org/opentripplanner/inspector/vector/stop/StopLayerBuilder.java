@@ -34,6 +34,11 @@ public class StopLayerBuilder<T extends StopLocation> extends LayerBuilder<StopL
     this.findStops = findStops;
   }
 
+  @Override
+  protected long dataGeneration() {
+    return STATIC_DATA;
+  }
+
   @Override
   protected List<Geometry> getGeometries(Envelope query) {
     return findStops
@@ -1,20 +1,18 @@
 package org.opentripplanner.model;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.annotation.Nullable;
+import org.opentripplanner.framework.collection.PersistentHashMap;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.framework.Result;
@@ -62,6 +60,10 @@ import org.slf4j.LoggerFactory;
  * up timetables on this class could conceivably be replaced with snapshotting entire views of the
  * transit network. It would also be possible to make the realtime version of Timetables or
  * TripTimes the primary view, and include references back to their scheduled versions.
+ * <p>
+ * The maps of the snapshot are persistent maps, a change copies only the path to the changed entry
+ * and shares the rest with the maps of the previous commits. So committing does not copy anything,
+ * the committed snapshot references the maps of the buffer as they are at the time of the commit.
  */
 public class TimetableSnapshot {
 
@@ -80,8 +82,7 @@ public class TimetableSnapshot {
    * include ones from the scheduled GTFS, as well as ones added by realtime messages and
    * tracked by the TripPatternCache. <p>
    * Note that the keys do not include all scheduled TripPatterns, only those for which we have at
-   * least one update. The type of the field is specifically HashMap (rather than the more general
-   * Map interface) because we need to efficiently clone it. <p>
+   * least one update. <p>
    * The members of the SortedSet (the Timetable for a particular day) are treated as copy-on-write
    * when we're updating them. If an update will modify the timetable for a particular day, that
    * timetable is replicated before any modifications are applied to avoid affecting any previous
@@ -91,26 +92,27 @@ public class TimetableSnapshot {
    * The compound key approach better reflects the fact that there should be only one Timetable per
    * TripPattern and date.
    */
-  private HashMap<TripPattern, SortedSet<Timetable>> timetables = new HashMap();
+  private PersistentHashMap<TripPattern, SortedSet<Timetable>> timetables = PersistentHashMap.of();
 
   /**
    * For cases where the trip pattern (sequence of stops visited) has been changed by a realtime
    * update, a Map associating the updated trip pattern with a compound key of the feed-scoped
-   * trip ID and the service date. The type of this field is HashMap rather than the more general
-   * Map interface because we need to efficiently clone it whenever we start building up a new
-   * snapshot. TODO RT_AB: clarify if this is an index or the original source of truth.
+   * trip ID and the service date.
+   * TODO RT_AB: clarify if this is an index or the original source of truth.
    */
-  private HashMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = new HashMap<>();
+  private PersistentHashMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern =
+    PersistentHashMap.of();
 
   /**
    * This is an index of TripPatterns, not the primary collection. It tracks which TripPatterns
    * that were updated or newly created by realtime messages contain which stops. This allows them
    * to be readily found and included in API responses containing stop times at a specific stop.
-   * This is a SetMultimap, so that each pattern is only retained once per stop even if it's added
-   * more than once.
+   * The patterns of a stop are an unmodifiable Set, replaced when a pattern is added, so that each
+   * pattern is only retained once per stop even if it's added more than once.
    * TODO RT_AB: More general handling of all realtime indexes outside primary data structures.
    */
-  private SetMultimap<StopLocation, TripPattern> patternsForStop = HashMultimap.create();
+  private PersistentHashMap<StopLocation, Set<TripPattern>> patternsForStop =
+    PersistentHashMap.of();
 
   /**
    * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it
@@ -201,7 +203,7 @@ public class TimetableSnapshot {
         sortedTimetables.remove(old);
       }
       sortedTimetables.add(tt);
-      timetables.put(pattern, sortedTimetables);
+      timetables = timetables.plus(pattern, sortedTimetables);
       dirtyTimetables.add(tt);
       dirty = true;
     }
@@ -221,7 +223,7 @@ public class TimetableSnapshot {
       // Remember this pattern for the added trip id and service date
       FeedScopedId tripId = updatedTripTimes.getTrip().getId();
       TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-      realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
+      realtimeAddedTripPattern = realtimeAddedTripPattern.plus(tripIdAndServiceDate, pattern);
     }
 
     // To make these trip patterns visible for departureRow searches.
@@ -234,11 +236,11 @@ public class TimetableSnapshot {
 
   /**
    * This produces a small delay of typically around 50ms, which is almost entirely due to the
-   * indexing step. Cloning the map is much faster (2ms). It is perhaps better to index timetables
-   * as they are changed to avoid experiencing all this lag at once, but we want to avoid
-   * re-indexing when receiving multiple updates for the same timetable in rapid succession. This
-   * compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater. The indexing
-   * could be made much more efficient as well.
+   * indexing step. The maps are shared with the committed snapshot, not copied. It is perhaps
+   * better to index timetables as they are changed to avoid experiencing all this lag at once, but
+   * we want to avoid re-indexing when receiving multiple updates for the same timetable in rapid
+   * succession. This compromise is expressed by the maxSnapshotFrequency property of
+   * StoptimeUpdater. The indexing could be made much more efficient as well.
    *
    * @return an immutable copy of this TimetableSnapshot with all updates applied
    */
@@ -246,7 +248,6 @@ public class TimetableSnapshot {
     return commit(null, false);
   }
 
-  @SuppressWarnings("unchecked")
   public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
     if (readOnly) {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -256,9 +257,9 @@ public class TimetableSnapshot {
     if (!force && !this.isDirty()) {
       return null;
     }
-    ret.timetables = (HashMap<TripPattern, SortedSet<Timetable>>) this.timetables.clone();
-    ret.realtimeAddedTripPattern =
-      (HashMap<TripIdAndServiceDate, TripPattern>) this.realtimeAddedTripPattern.clone();
+    ret.timetables = this.timetables;
+    ret.realtimeAddedTripPattern = this.realtimeAddedTripPattern;
+    ret.patternsForStop = this.patternsForStop;
 
     if (transitLayerUpdater != null) {
       transitLayerUpdater.update(dirtyTimetables, timetables);
@@ -267,8 +268,6 @@ public class TimetableSnapshot {
     this.dirtyTimetables.clear();
     this.dirty = false;
 
-    ret.setPatternsForStop(HashMultimap.create(this.patternsForStop));
-
     ret.readOnly = true; // mark the snapshot as henceforth immutable
     return ret;
   }
@@ -310,7 +309,8 @@ public class TimetableSnapshot {
     if (pattern != null) {
       // Dissociate the given trip from any realtime-added pattern.
       // The trip will then fall back to its original scheduled pattern.
-      realtimeAddedTripPattern.remove(new TripIdAndServiceDate(tripId, serviceDate));
+      realtimeAddedTripPattern =
+        realtimeAddedTripPattern.minus(new TripIdAndServiceDate(tripId, serviceDate));
       // Remove times for the trip from any timetables
       // under that now-obsolete realtime-added pattern.
       SortedSet<Timetable> sortedTimetables = this.timetables.get(pattern);
@@ -330,12 +330,20 @@ public class TimetableSnapshot {
         }
 
         if (tripTimesToRemove != null) {
-          for (Timetable sortedTimetable : sortedTimetables) {
-            boolean isDirty = sortedTimetable.getTripTimes().remove(tripTimesToRemove);
-            if (isDirty) {
-              dirtyTimetables.add(sortedTimetable);
+          SortedSet<Timetable> updatedTimetables = new TreeSet<>(new SortedTimetableComparator());
+          for (Timetable timetable : sortedTimetables) {
+            if (timetable.getTripTimes().contains(tripTimesToRemove)) {
+              // Copy the timetable if it is not copied already, it may be in a committed snapshot
+              if (!dirtyTimetables.contains(timetable)) {
+                timetable = new Timetable(timetable, timetable.getServiceDate());
+                dirtyTimetables.add(timetable);
+              }
+              timetable.getTripTimes().remove(tripTimesToRemove);
+              dirty = true;
             }
+            updatedTimetables.add(timetable);
           }
+          timetables = timetables.plus(pattern, updatedTimetables);
         }
       }
       success = true;
@@ -355,37 +363,31 @@ public class TimetableSnapshot {
     }
 
     boolean modified = false;
-    for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();) {
-      TripPattern pattern = it.next();
-      SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+    // The map is immutable, so it is safe to iterate over it while replacing the field
+    for (Map.Entry<TripPattern, SortedSet<Timetable>> entry : timetables.entrySet()) {
       SortedSet<Timetable> toKeepTimetables = new TreeSet<>(new SortedTimetableComparator());
-      for (Timetable timetable : sortedTimetables) {
+      for (Timetable timetable : entry.getValue()) {
         if (serviceDate.compareTo(timetable.getServiceDate()) < 0) {
           toKeepTimetables.add(timetable);
-        } else {
-          modified = true;
         }
       }
 
-      if (toKeepTimetables.isEmpty()) {
-        it.remove();
-      } else {
-        timetables.put(pattern, toKeepTimetables);
+      if (toKeepTimetables.size() < entry.getValue().size()) {
+        modified = true;
+        timetables =
+          toKeepTimetables.isEmpty()
+            ? timetables.minus(entry.getKey())
+            : timetables.plus(entry.getKey(), toKeepTimetables);
       }
     }
 
     // Also remove last added trip pattern for days that are purged
-    for (
-      Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = realtimeAddedTripPattern
-        .entrySet()
-        .iterator();
-      iterator.hasNext();
-    ) {
-      TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
-      if (serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0) {
-        iterator.remove();
-        modified = true;
-      }
+    var purged = realtimeAddedTripPattern.minusIf(tripIdAndServiceDate ->
+      serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0
+    );
+    if (purged != realtimeAddedTripPattern) {
+      realtimeAddedTripPattern = purged;
+      modified = true;
     }
 
     return modified;
@@ -404,11 +406,7 @@ public class TimetableSnapshot {
   }
 
   public Collection<TripPattern> getPatternsForStop(StopLocation stop) {
-    return patternsForStop.get(stop);
-  }
-
-  public void setPatternsForStop(SetMultimap<StopLocation, TripPattern> patternsForStop) {
-    this.patternsForStop = patternsForStop;
+    return patternsForStop.getOrDefault(stop, Set.of());
   }
 
   /**
@@ -425,7 +423,10 @@ public class TimetableSnapshot {
    * @return true if the timetable changed as a result of the call
    */
   protected boolean clearTimetable(String feedId) {
-    return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    var cleared = timetables.minusIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    boolean modified = cleared != timetables;
+    timetables = cleared;
+    return modified;
   }
 
   /**
@@ -435,11 +436,12 @@ public class TimetableSnapshot {
    * @return true if the realtimeAddedTripPattern changed as a result of the call
    */
   protected boolean clearRealtimeAddedTripPattern(String feedId) {
-    return realtimeAddedTripPattern
-      .keySet()
-      .removeIf(realtimeAddedTripPattern ->
-        feedId.equals(realtimeAddedTripPattern.tripId().getFeedId())
-      );
+    var cleared = realtimeAddedTripPattern.minusIf(tripIdAndServiceDate ->
+      feedId.equals(tripIdAndServiceDate.tripId().getFeedId())
+    );
+    boolean modified = cleared != realtimeAddedTripPattern;
+    realtimeAddedTripPattern = cleared;
+    return modified;
   }
 
   /**
@@ -450,7 +452,12 @@ public class TimetableSnapshot {
       //TODO - SIRI: Add pattern to index?
 
       for (var stop : tripPattern.getStops()) {
-        patternsForStop.put(stop, tripPattern);
+        Set<TripPattern> patterns = patternsForStop.getOrDefault(stop, Set.of());
+        if (!patterns.contains(tripPattern)) {
+          var newPatterns = new HashSet<>(patterns);
+          newPatterns.add(tripPattern);
+          patternsForStop = patternsForStop.plus(stop, Collections.unmodifiableSet(newPatterns));
+        }
       }
     }
   }
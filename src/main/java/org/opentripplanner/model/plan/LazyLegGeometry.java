@@ -0,0 +1,34 @@
+package org.opentripplanner.model.plan;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.framework.lang.LazyValue;
+
+/**
+ * Create leg geometries on first access, and measure the work saved. The "deferred" counter is the
+ * number of legs created with a lazy geometry, the timer records the geometries actually computed.
+ * The difference in count, times the mean time of the timer, is the time saved by not creating
+ * the geometry of the legs removed by the itinerary filter chain.
+ */
+final class LazyLegGeometry {
+
+  private static final Counter DEFERRED = Counter
+    .builder("routing.legGeometry.deferred")
+    .description("Number of leg geometries created on first access")
+    .register(Metrics.globalRegistry);
+
+  private static final Timer COMPUTED = Timer
+    .builder("routing.legGeometry.computed")
+    .description("Time used to compute the leg geometries which are accessed")
+    .register(Metrics.globalRegistry);
+
+  private LazyLegGeometry() {}
+
+  static LazyValue<LineString> of(Supplier<LineString> geometry) {
+    DEFERRED.increment();
+    return LazyValue.of(() -> COMPUTED.record(geometry));
+  }
+}
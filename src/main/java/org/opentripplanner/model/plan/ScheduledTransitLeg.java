@@ -18,6 +18,7 @@ import org.opentripplanner.framework.geometry.GeometryUtils;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.framework.i18n.I18NString;
 import org.opentripplanner.framework.lang.DoubleUtils;
+import org.opentripplanner.framework.lang.LazyValue;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.model.PickDrop;
@@ -50,7 +51,7 @@ public class ScheduledTransitLeg implements TransitLeg {
 
   private final ZonedDateTime startTime;
   private final ZonedDateTime endTime;
-  private final LineString legGeometry;
+  private final LazyValue<LineString> legGeometry;
   private final Set<TransitAlert> transitAlerts = new HashSet<>();
   private final ConstrainedTransfer transferFromPrevLeg;
   private final ConstrainedTransfer transferToNextLeg;
@@ -91,7 +92,9 @@ public class ScheduledTransitLeg implements TransitLeg {
       builder.boardStopIndexInPattern(),
       builder.alightStopIndexInPattern()
     );
-    this.legGeometry = GeometryUtils.makeLineString(transitLegCoordinates);
+    // The geometry is only needed for itineraries returned to the client
+    this.legGeometry =
+      LazyLegGeometry.of(() -> GeometryUtils.makeLineString(transitLegCoordinates));
 
     setDistanceMeters(getDistanceFromCoordinates(transitLegCoordinates));
     this.directDistanceMeters =
@@ -287,7 +290,7 @@ public class ScheduledTransitLeg implements TransitLeg {
 
   @Override
   public LineString getLegGeometry() {
-    return legGeometry;
+    return legGeometry.get();
   }
 
   @Override
@@ -8,6 +8,7 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.framework.lang.DoubleUtils;
+import org.opentripplanner.framework.lang.LazyValue;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.model.fare.FareProductUse;
 import org.opentripplanner.street.model.note.StreetNote;
@@ -16,6 +17,9 @@ import org.opentripplanner.street.search.TraverseMode;
 /**
  * One leg of a trip -- that is, a temporally continuous piece of the journey that takes place using
  * mainly a single model on the street network.
+ * <p>
+ * The leg geometry is expensive to create and often not used, most itineraries are removed by the
+ * itinerary filter chain. It is created on first access.
  */
 public class StreetLeg implements Leg {
 
@@ -26,7 +30,7 @@ public class StreetLeg implements Leg {
   private final Place from;
   private final Place to;
   private final int generalizedCost;
-  private final LineString legGeometry;
+  private final LazyValue<LineString> legGeometry;
   private final List<WalkStep> walkSteps;
   private final Set<StreetNote> streetNotes;
   private final ElevationProfile elevationProfile;
@@ -104,7 +108,7 @@ public class StreetLeg implements Leg {
 
   @Override
   public LineString getLegGeometry() {
-    return legGeometry;
+    return legGeometry.get();
   }
 
   /**
@@ -185,6 +189,13 @@ public class StreetLeg implements Leg {
     return List.of();
   }
 
+  /**
+   * The geometry is computed on first access, this is used to copy the leg without computing it.
+   */
+  LazyValue<LineString> lazyLegGeometry() {
+    return legGeometry;
+  }
+
   public StreetLeg withAccessibilityScore(float accessibilityScore) {
     return StreetLegBuilder.of(this).withAccessibilityScore(accessibilityScore).build();
   }
@@ -4,7 +4,9 @@ import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.framework.lang.LazyValue;
 import org.opentripplanner.street.model.note.StreetNote;
 import org.opentripplanner.street.search.TraverseMode;
 
@@ -17,7 +19,7 @@ public class StreetLegBuilder {
   private Place to;
   private double distanceMeters;
   private int generalizedCost;
-  private LineString geometry;
+  private LazyValue<LineString> geometry = LazyValue.ofValue(null);
   private ElevationProfile elevationProfile;
   private List<WalkStep> walkSteps;
   private Boolean walkingBike;
@@ -37,7 +39,7 @@ public class StreetLegBuilder {
       .withTo(leg.getTo())
       .withDistanceMeters(leg.getDistanceMeters())
       .withGeneralizedCost(leg.getGeneralizedCost())
-      .withGeometry(leg.getLegGeometry())
+      .withGeometry(leg.lazyLegGeometry())
       .withElevationProfile(leg.getElevationProfile())
       .withWalkSteps(leg.getWalkSteps())
       .withWalkingBike(leg.getWalkingBike())
@@ -79,7 +81,7 @@ public class StreetLegBuilder {
     return generalizedCost;
   }
 
-  public LineString getGeometry() {
+  public LazyValue<LineString> getGeometry() {
     return geometry;
   }
 
@@ -147,7 +149,16 @@ public class StreetLegBuilder {
   }
 
   public StreetLegBuilder withGeometry(LineString geometry) {
-    this.geometry = geometry;
+    this.geometry = LazyValue.ofValue(geometry);
+    return this;
+  }
+
+  /**
+   * Set a geometry computed on first access.
+   */
+  public StreetLegBuilder withGeometry(Supplier<LineString> geometry) {
+    this.geometry =
+      geometry instanceof LazyValue<LineString> lazy ? lazy : LazyLegGeometry.of(geometry);
     return this;
   }
 
@@ -3,10 +3,16 @@ package org.opentripplanner.netex;
 import jakarta.xml.bind.JAXBException;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.framework.time.DurationUtils;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
 import org.opentripplanner.netex.config.NetexFeedParameters;
@@ -31,11 +37,22 @@ import org.slf4j.LoggerFactory;
  * NetexFeedParameters#sharedFilePattern()} and here {@link NetexDataSourceHierarchy}.
  * <p>
  * This class is also responsible for logging progress and exception handling.
+ * <p>
+ * The XML files are parsed in parallel, in batches of files, while populating the index and
+ * mapping to the OTP transit model is done in the same order as the files are listed. The XML
+ * parsing (JAXB) is the most expensive part, and each file is parsed independently of all other
+ * files. Hence, the result is the same as if the files were parsed one at the time.
  */
 public class NetexBundle implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(NetexBundle.class);
 
+  /**
+   * The number of independent files parsed in parallel before they are added to the index. The
+   * parsed documents are kept in memory until they are mapped, so this limits the memory usage.
+   */
+  private static final int PARSE_BATCH_SIZE = 4 * Runtime.getRuntime().availableProcessors();
+
   private final CompositeDataSource source;
 
   private final NetexDataSourceHierarchy hierarchy;
@@ -53,6 +70,10 @@ public class NetexBundle implements Closeable {
   /** maps the NeTEx XML document to OTP transit model. */
   private NetexMapper mapper;
   private NetexXmlParser xmlParser;
+  /** Time spent parsing XML, wall-clock and the sum for all files, used to report the speedup */
+  private long parseWallTimeNanos = 0;
+  private final LongAdder parseTotalTimeNanos = new LongAdder();
+  private boolean parallelParsing = true;
 
   public NetexBundle(
     String feedId,
@@ -108,6 +129,14 @@ public class NetexBundle implements Closeable {
     }
   }
 
+  /**
+   * Parse the files one at the time. This is used in tests to check that parsing in parallel gives
+   * the same result.
+   */
+  void disableParallelParsing() {
+    this.parallelParsing = false;
+  }
+
   /* private methods */
 
   @Override
@@ -127,16 +156,31 @@ public class NetexBundle implements Closeable {
         // Load shared group files
         loadFilesThenMapToOtpTransitModel("shared group file", group.sharedEntries());
 
-        for (DataSource entry : group.independentEntries()) {
-          scopeInputData(() -> {
-            // Load each independent file in group
-            loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
-          });
+        // Parse the independent files in group in parallel, then load each file
+        for (List<DataSource> batch : partition(group.independentEntries())) {
+          var docs = parseXmlDocs("group file", batch);
+          for (int i = 0; i < batch.size(); ++i) {
+            var entry = batch.get(i);
+            var doc = docs.get(i);
+            scopeInputData(() -> {
+              // Load each independent file in group
+              populateIndexThenMapToOtpTransitModel(List.of(entry), List.of(doc));
+            });
+          }
         }
       });
     }
     mapper.finishUp();
     NetexDocumentParser.finnishUp();
+
+    long totalMs = TimeUnit.NANOSECONDS.toMillis(parseTotalTimeNanos.sum());
+    long wallMs = TimeUnit.NANOSECONDS.toMillis(parseWallTimeNanos);
+    LOG.info(
+      "NeTEx XML parsing took {}, parsing the files one at the time took {} in total. Speedup: {}",
+      DurationUtils.msToSecondsStr(wallMs),
+      DurationUtils.msToSecondsStr(totalMs),
+      wallMs == 0 ? "-" : String.format(Locale.ROOT, "%.1f", (double) totalMs / wallMs)
+    );
   }
 
   /**
@@ -161,9 +205,22 @@ public class NetexBundle implements Closeable {
     String fileDescription,
     Iterable<DataSource> entries
   ) {
-    for (DataSource entry : entries) {
-      // Load entry and store it in the index
-      loadSingeFileEntry(fileDescription, entry);
+    List<DataSource> list = new ArrayList<>();
+    entries.forEach(list::add);
+    populateIndexThenMapToOtpTransitModel(list, parseXmlDocs(fileDescription, list));
+  }
+
+  /**
+   * Store the parsed documents in the index, then map the entries to OTP Transit model. The
+   * entries and documents lists must have the same order.
+   */
+  private void populateIndexThenMapToOtpTransitModel(
+    List<DataSource> entries,
+    List<PublicationDeliveryStructure> docs
+  ) {
+    for (int i = 0; i < entries.size(); ++i) {
+      // Store the entry in the index
+      populateIndex(entries.get(i), docs.get(i));
     }
 
     // Validate input data, and remove invalid data
@@ -173,17 +230,63 @@ public class NetexBundle implements Closeable {
     mapper.mapNetexToOtp(index.readOnlyView());
   }
 
-  /** Load a single entry and store it in the index for later */
-  private void loadSingeFileEntry(String fileDescription, DataSource entry) {
+  /**
+   * Parse the XML documents of the given entries in parallel. The returned list has the same order
+   * as the entries.
+   */
+  private List<PublicationDeliveryStructure> parseXmlDocs(
+    String fileDescription,
+    List<DataSource> entries
+  ) {
+    long start = System.nanoTime();
+    try {
+      if (entries.size() < 2 || !parallelParsing) {
+        return entries.stream().map(it -> parseXmlDoc(fileDescription, it)).toList();
+      }
+      // THIS CODE RUNS IN PARALLEL
+      return entries.parallelStream().map(it -> parseXmlDoc(fileDescription, it)).toList();
+      // END PARALLEL CODE
+    } finally {
+      parseWallTimeNanos += System.nanoTime() - start;
+    }
+  }
+
+  /** Parse a single entry, this is called in parallel */
+  private PublicationDeliveryStructure parseXmlDoc(String fileDescription, DataSource entry) {
+    long start = System.nanoTime();
     try {
       LOG.info("reading entity {}: {}", fileDescription, entry.name());
-      issueStore.startProcessingSource(entry.name());
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
-      NetexDocumentParser.parseAndPopulateIndex(index, doc, ignoreFareFrame);
+      return xmlParser.parseXmlDoc(entry.asInputStream());
     } catch (JAXBException e) {
       throw new RuntimeException(e.getMessage(), e);
+    } finally {
+      parseTotalTimeNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /** Store a parsed entry in the index for later */
+  private void populateIndex(DataSource entry, PublicationDeliveryStructure doc) {
+    try {
+      issueStore.startProcessingSource(entry.name());
+      NetexDocumentParser.parseAndPopulateIndex(index, doc, ignoreFareFrame);
     } finally {
       issueStore.stopProcessingSource();
     }
   }
+
+  private static List<List<DataSource>> partition(Collection<DataSource> entries) {
+    List<List<DataSource>> batches = new ArrayList<>();
+    List<DataSource> batch = new ArrayList<>();
+    for (DataSource entry : entries) {
+      batch.add(entry);
+      if (batch.size() == PARSE_BATCH_SIZE) {
+        batches.add(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
 }
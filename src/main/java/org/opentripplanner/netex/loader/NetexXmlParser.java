@@ -7,14 +7,20 @@ import jakarta.xml.bind.Unmarshaller;
 import java.io.InputStream;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE. The JAXB context is thread-safe and shared, while the unmarshaller
+ * is not, so each thread gets its own.
+ */
 public class NetexXmlParser {
 
-  /** used to parse the XML. */
-  private final Unmarshaller unmarshaller;
+  /** used to parse the XML, one for each thread. */
+  private final ThreadLocal<Unmarshaller> unmarshaller;
 
   public NetexXmlParser() {
-    this.unmarshaller = createUnmarshaller();
+    JAXBContext context = createContext();
+    this.unmarshaller = ThreadLocal.withInitial(() -> createUnmarshaller(context));
   }
 
   /**
@@ -24,15 +30,15 @@ public class NetexXmlParser {
     JAXBElement<PublicationDeliveryStructure> root;
 
     //noinspection unchecked
-    root = (JAXBElement<PublicationDeliveryStructure>) unmarshaller.unmarshal(stream);
+    root = (JAXBElement<PublicationDeliveryStructure>) unmarshaller.get().unmarshal(stream);
 
     return root.getValue();
   }
 
-  /** factory method for unmarshaller */
-  private static Unmarshaller createUnmarshaller() {
+  /** factory method for the JAXB context */
+  private static JAXBContext createContext() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return JAXBContext.newInstance(PublicationDeliveryStructure.class);
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
@@ -40,4 +46,14 @@ public class NetexXmlParser {
       throw new RuntimeException(e);
     }
   }
+
+  /** factory method for unmarshaller */
+  private static Unmarshaller createUnmarshaller(JAXBContext context) {
+    try {
+      return context.createUnmarshaller();
+    } catch (JAXBException e) {
+      // This is a programming error - not expected!
+      throw new RuntimeException(e);
+    }
+  }
 }
@@ -1,12 +1,13 @@
 package org.opentripplanner.openstreetmap;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import org.openstreetmap.osmosis.osmbinary.BinaryParser;
 import org.openstreetmap.osmosis.osmbinary.Osmformat;
-import org.opentripplanner.graph_builder.module.osm.OsmDatabase;
+import org.openstreetmap.osmosis.osmbinary.file.FileBlock;
 import org.opentripplanner.openstreetmap.model.OSMMemberType;
 import org.opentripplanner.openstreetmap.model.OSMNode;
 import org.opentripplanner.openstreetmap.model.OSMRelation;
@@ -15,20 +16,49 @@ import org.opentripplanner.openstreetmap.model.OSMTag;
 import org.opentripplanner.openstreetmap.model.OSMWay;
 
 /**
- * Parser for the OpenStreetMap PBF Format.
+ * Parser for the OpenStreetMap PBF Format. The parser decodes one block at the time, and only the
+ * entities of the given phases are created.
+ * <p>
+ * The parser is NOT thread-safe, each thread decoding blocks need its own parser. The string table
+ * is shared, and must be thread-safe.
  *
  * @since 0.4
  */
 class OpenStreetMapParser extends BinaryParser {
 
-  private final OsmDatabase osmdb;
-  private final Map<String, String> stringTable = new HashMap<>();
+  private final Map<String, String> stringTable;
   private final OsmProvider provider;
-  private OsmParserPhase parsePhase;
+  private final Set<OsmParserPhase> parsePhases;
 
-  public OpenStreetMapParser(OsmDatabase osmdb, OsmProvider provider) {
-    this.osmdb = Objects.requireNonNull(osmdb);
+  private List<OSMNode> parsedNodes;
+  private List<OSMWay> parsedWays;
+  private List<OSMRelation> parsedRelations;
+
+  public OpenStreetMapParser(
+    OsmProvider provider,
+    Set<OsmParserPhase> parsePhases,
+    Map<String, String> stringTable
+  ) {
     this.provider = Objects.requireNonNull(provider);
+    this.parsePhases = Objects.requireNonNull(parsePhases);
+    this.stringTable = Objects.requireNonNull(stringTable);
+  }
+
+  /**
+   * Decode a block and return the entities created.
+   */
+  public OsmPbfBlock parseBlock(FileBlock block) {
+    parsedNodes = new ArrayList<>();
+    parsedWays = new ArrayList<>();
+    parsedRelations = new ArrayList<>();
+    try {
+      handleBlock(block);
+      return new OsmPbfBlock(parsedNodes, parsedWays, parsedRelations);
+    } finally {
+      parsedNodes = null;
+      parsedWays = null;
+      parsedRelations = null;
+    }
   }
 
   // The strings are already being pulled from a string table in the PBF file,
@@ -36,12 +66,8 @@ class OpenStreetMapParser extends BinaryParser {
   // String.intern grinds to a halt on large PBF files (as it did on GTFS import), so
   // we implement our own.
   public String internalize(String s) {
-    String fromTable = stringTable.get(s);
-    if (fromTable == null) {
-      stringTable.put(s, s);
-      return s;
-    }
-    return fromTable;
+    String fromTable = stringTable.putIfAbsent(s, s);
+    return fromTable == null ? s : fromTable;
   }
 
   @Override
@@ -49,16 +75,9 @@ class OpenStreetMapParser extends BinaryParser {
     // Jump in circles
   }
 
-  /**
-   * Set the phase to be parsed
-   */
-  public void setPhase(OsmParserPhase phase) {
-    this.parsePhase = phase;
-  }
-
   @Override
   protected void parseRelations(List<Osmformat.Relation> rels) {
-    if (parsePhase != OsmParserPhase.Relations) {
+    if (!parsePhases.contains(OsmParserPhase.Relations)) {
       return;
     }
 
@@ -99,7 +118,7 @@ class OpenStreetMapParser extends BinaryParser {
         tmp.addMember(relMember);
       }
 
-      osmdb.addRelation(tmp);
+      parsedRelations.add(tmp);
     }
   }
 
@@ -108,7 +127,7 @@ class OpenStreetMapParser extends BinaryParser {
     long lastId = 0, lastLat = 0, lastLon = 0;
     int j = 0; // Index into the keysvals array.
 
-    if (parsePhase != OsmParserPhase.Nodes) {
+    if (!parsePhases.contains(OsmParserPhase.Nodes)) {
       return;
     }
 
@@ -144,13 +163,13 @@ class OpenStreetMapParser extends BinaryParser {
         j++; // Skip over the '0' delimiter.
       }
 
-      osmdb.addNode(tmp);
+      parsedNodes.add(tmp);
     }
   }
 
   @Override
   protected void parseNodes(List<Osmformat.Node> nodes) {
-    if (parsePhase != OsmParserPhase.Nodes) {
+    if (!parsePhases.contains(OsmParserPhase.Nodes)) {
       return;
     }
 
@@ -171,13 +190,13 @@ class OpenStreetMapParser extends BinaryParser {
         tmp.addTag(tag);
       }
 
-      osmdb.addNode(tmp);
+      parsedNodes.add(tmp);
     }
   }
 
   @Override
   protected void parseWays(List<Osmformat.Way> ways) {
-    if (parsePhase != OsmParserPhase.Ways) {
+    if (!parsePhases.contains(OsmParserPhase.Ways)) {
       return;
     }
 
@@ -201,7 +220,7 @@ class OpenStreetMapParser extends BinaryParser {
         lastId = j + lastId;
       }
 
-      osmdb.addWay(tmp);
+      parsedWays.add(tmp);
     }
   }
 
@@ -0,0 +1,11 @@
+package org.opentripplanner.openstreetmap;
+
+import java.util.List;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.opentripplanner.openstreetmap.model.OSMRelation;
+import org.opentripplanner.openstreetmap.model.OSMWay;
+
+/**
+ * The entities decoded from one block of a PBF file, in the same order as in the file.
+ */
+record OsmPbfBlock(List<OSMNode> nodes, List<OSMWay> ways, List<OSMRelation> relations) {}
@@ -5,7 +5,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.datastore.api.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -14,6 +21,7 @@ import org.opentripplanner.framework.logging.ProgressTracker;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.module.osm.OsmDatabase;
+import org.opentripplanner.openstreetmap.model.OSMWay;
 import org.opentripplanner.openstreetmap.tagmapping.OsmTagMapper;
 import org.opentripplanner.openstreetmap.tagmapping.OsmTagMapperSource;
 import org.opentripplanner.openstreetmap.wayproperty.WayPropertySet;
@@ -22,7 +30,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes: First the relations, then
- * the ways, then the nodes are also loaded.
+ * the ways, then the nodes are also loaded. The relations and ways can be read in a single pass,
+ * then all ways are kept in memory until the relations are processed.
+ * <p>
+ * The blocks of the file are decoded in parallel, see {@link ParallelPbfReader}.
  */
 public class OsmProvider {
 
@@ -30,6 +41,7 @@ public class OsmProvider {
 
   private final DataSource source;
   private final boolean cacheDataInMem;
+  private final boolean relationsAndWaysInSinglePass;
 
   private final ZoneId zoneId;
 
@@ -47,6 +59,7 @@ public class OsmProvider {
       OsmTagMapperSource.DEFAULT,
       null,
       cacheDataInMem,
+      false,
       DataImportIssueStore.NOOP
     );
   }
@@ -56,6 +69,7 @@ public class OsmProvider {
     OsmTagMapperSource tagMapperSource,
     ZoneId zoneId,
     boolean cacheDataInMem,
+    boolean relationsAndWaysInSinglePass,
     DataImportIssueStore issueStore
   ) {
     this.source = dataSource;
@@ -64,19 +78,49 @@ public class OsmProvider {
     this.wayPropertySet = new WayPropertySet(issueStore);
     osmTagMapper.populateProperties(wayPropertySet);
     this.cacheDataInMem = cacheDataInMem;
+    this.relationsAndWaysInSinglePass = relationsAndWaysInSinglePass;
   }
 
   public void readOSM(OsmDatabase osmdb) {
     try {
-      OpenStreetMapParser parser = new OpenStreetMapParser(osmdb, this);
-
-      parsePhase(parser, OsmParserPhase.Relations);
-      osmdb.doneFirstPhaseRelations();
+      // The string table is shared by all parser threads and phases
+      Map<String, String> stringTable = new ConcurrentHashMap<>();
+
+      if (relationsAndWaysInSinglePass) {
+        List<OSMWay> ways = new ArrayList<>();
+        parsePhases(
+          EnumSet.of(OsmParserPhase.Relations, OsmParserPhase.Ways),
+          stringTable,
+          block -> {
+            block.relations().forEach(osmdb::addRelation);
+            ways.addAll(block.ways());
+          }
+        );
+        osmdb.doneFirstPhaseRelations();
+
+        ways.forEach(osmdb::addWay);
+        osmdb.doneSecondPhaseWays();
+      } else {
+        parsePhases(
+          EnumSet.of(OsmParserPhase.Relations),
+          stringTable,
+          block -> block.relations().forEach(osmdb::addRelation)
+        );
+        osmdb.doneFirstPhaseRelations();
 
-      parsePhase(parser, OsmParserPhase.Ways);
-      osmdb.doneSecondPhaseWays();
+        parsePhases(
+          EnumSet.of(OsmParserPhase.Ways),
+          stringTable,
+          block -> block.ways().forEach(osmdb::addWay)
+        );
+        osmdb.doneSecondPhaseWays();
+      }
 
-      parsePhase(parser, OsmParserPhase.Nodes);
+      parsePhases(
+        EnumSet.of(OsmParserPhase.Nodes),
+        stringTable,
+        block -> block.nodes().forEach(osmdb::addNode)
+      );
       osmdb.doneThirdPhaseNodes();
     } catch (Exception ex) {
       throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
@@ -89,6 +133,7 @@ public class OsmProvider {
       .of(OsmProvider.class)
       .addObj("source", source)
       .addBool("cacheDataInMem", cacheDataInMem)
+      .addBool("relationsAndWaysInSinglePass", relationsAndWaysInSinglePass)
       .toString();
   }
 
@@ -98,39 +143,41 @@ public class OsmProvider {
     }
   }
 
+  /**
+   * The progress is tracked in bytes read, the complete message logs the throughput (bytes per
+   * second) for each phase.
+   */
   @SuppressWarnings("Convert2MethodRef")
-  private static InputStream track(OsmParserPhase phase, long size, InputStream inputStream) {
+  private static InputStream track(String phases, long size, InputStream inputStream) {
     // Keep logging lambda, replacing it with a method-ref will cause the
     // logging to report incorrect class and line number
-    return ProgressTracker.track("Parse OSM " + phase, 1000, size, inputStream, m -> LOG.info(m));
+    return ProgressTracker.track("Parse OSM " + phases, 1000, size, inputStream, m -> LOG.info(m));
   }
 
-  private void parsePhase(OpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
-    parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
-        }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
-      }
+  private void parsePhases(
+    Set<OsmParserPhase> phases,
+    Map<String, String> stringTable,
+    Consumer<OsmPbfBlock> consumer
+  ) throws IOException {
+    var reader = new ParallelPbfReader(
+      Runtime.getRuntime().availableProcessors(),
+      () -> new OpenStreetMapParser(this, phases, stringTable)
+    );
+    String phasesName = phases.stream().map(Enum::name).collect(Collectors.joining(" and "));
+
+    try (var in = createInputStream(phasesName)) {
+      reader.read(in, consumer);
     }
   }
 
-  private InputStream createInputStream(OsmParserPhase phase) {
+  private InputStream createInputStream(String phases) {
     if (cacheDataInMem) {
       if (cachedBytes == null) {
         cachedBytes = source.asBytes();
       }
-      return track(phase, cachedBytes.length, new ByteArrayInputStream(cachedBytes));
+      return track(phases, cachedBytes.length, new ByteArrayInputStream(cachedBytes));
     }
-    return track(phase, source.size(), source.asInputStream());
+    return track(phases, source.size(), source.asInputStream());
   }
 
   public ZoneId getZoneId() {
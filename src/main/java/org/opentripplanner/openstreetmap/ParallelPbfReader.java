@@ -0,0 +1,179 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.file.FileBlock;
+
+/**
+ * Read a PBF file and decode the blocks in parallel. The work is split in a pipeline:
+ * <ol>
+ *   <li>A reader thread reads the raw (compressed) blobs from the input stream.</li>
+ *   <li>A pool of worker threads inflate and decode the blobs into OSM entities.</li>
+ *   <li>The calling thread consumes the decoded blocks in the same order as they appear in the
+ *   file. Hence, the result is the same as if the file was parsed sequentially.</li>
+ * </ol>
+ * The number of blocks in the pipeline is bounded, this limits the memory used if the consumer is
+ * slower than the decoding.
+ * <p>
+ * Each worker thread has its own {@link OpenStreetMapParser}, the parser is not thread-safe.
+ */
+class ParallelPbfReader {
+
+  /** Limits from the PBF specification */
+  private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  /** Marks the end of the file in the queue */
+  private static final Future<OsmPbfBlock> END_OF_FILE = CompletableFuture.completedFuture(null);
+
+  private final int nWorkers;
+  private final ThreadLocal<OpenStreetMapParser> parser;
+
+  ParallelPbfReader(int nWorkers, Supplier<OpenStreetMapParser> parserFactory) {
+    this.nWorkers = Math.max(1, nWorkers);
+    this.parser = ThreadLocal.withInitial(parserFactory);
+  }
+
+  /**
+   * Read all blocks of the input stream, and pass the decoded blocks to the consumer in the same
+   * order as in the file. The consumer is called in the calling thread. The input stream is not
+   * closed.
+   */
+  void read(InputStream input, Consumer<OsmPbfBlock> consumer) throws IOException {
+    BlockingQueue<Future<OsmPbfBlock>> queue = new ArrayBlockingQueue<>(4 * nWorkers);
+    ExecutorService workers = Executors.newFixedThreadPool(
+      nWorkers,
+      new ThreadFactoryBuilder().setNameFormat("osm-pbf-decoder-%d").setDaemon(true).build()
+    );
+    ExecutorService reader = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("osm-pbf-reader").setDaemon(true).build()
+    );
+    try {
+      reader.execute(() -> readBlobs(new DataInputStream(input), workers, queue));
+
+      for (Future<OsmPbfBlock> next = queue.take(); next != END_OF_FILE; next = queue.take()) {
+        consumer.accept(next.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading OSM PBF data", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      // Stop the reader and the workers if the consumer fails
+      reader.shutdownNow();
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Read the blobs and submit a decode task for each of them. This runs in the reader thread. The
+   * queue is always terminated with {@link #END_OF_FILE}, a read error is passed on as a failed
+   * block.
+   */
+  private void readBlobs(
+    DataInputStream input,
+    ExecutorService workers,
+    BlockingQueue<Future<OsmPbfBlock>> queue
+  ) {
+    try {
+      try {
+        submitBlobs(input, workers, queue);
+      } catch (IOException | RuntimeException e) {
+        queue.put(CompletableFuture.failedFuture(e));
+      }
+      queue.put(END_OF_FILE);
+    } catch (InterruptedException e) {
+      // The consumer is done, or failed
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void submitBlobs(
+    DataInputStream input,
+    ExecutorService workers,
+    BlockingQueue<Future<OsmPbfBlock>> queue
+  ) throws IOException, InterruptedException {
+    while (true) {
+      int headerSize;
+      try {
+        headerSize = input.readInt();
+      } catch (EOFException e) {
+        return;
+      }
+      var header = Fileformat.BlobHeader.parseFrom(
+        readBytes(input, headerSize, MAX_BLOB_HEADER_SIZE)
+      );
+      byte[] blob = readBytes(input, header.getDatasize(), MAX_BLOB_SIZE);
+      String type = header.getType();
+      queue.put(workers.submit(() -> decode(type, blob)));
+    }
+  }
+
+  /**
+   * Inflate and decode a blob. This runs in one of the worker threads.
+   */
+  private OsmPbfBlock decode(String type, byte[] bytes) throws IOException {
+    var blob = Fileformat.Blob.parseFrom(bytes);
+    ByteString data;
+
+    if (blob.hasRaw()) {
+      data = blob.getRaw();
+    } else if (blob.hasZlibData()) {
+      data = inflate(blob.getZlibData(), blob.getRawSize());
+    } else {
+      throw new IOException("Unsupported OSM PBF blob compression, only zlib is supported.");
+    }
+    return parser.get().parseBlock(FileBlock.newInstance(type, data, null));
+  }
+
+  private static ByteString inflate(ByteString zlibData, int rawSize) throws IOException {
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(zlibData.asReadOnlyByteBuffer());
+      byte[] buffer = new byte[rawSize];
+      int size = inflater.inflate(buffer);
+      if (size != rawSize || !inflater.finished()) {
+        throw new IOException("OSM PBF blob inflated to the wrong size: " + size);
+      }
+      return UnsafeByteOperations.unsafeWrap(buffer);
+    } catch (DataFormatException e) {
+      throw new IOException("Unable to inflate OSM PBF blob: " + e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream input, int size, int maxSize)
+    throws IOException {
+    if (size < 0 || size > maxSize) {
+      throw new IOException("Invalid OSM PBF block size: " + size);
+    }
+    byte[] bytes = new byte[size];
+    input.readFully(bytes);
+    return bytes;
+  }
+}
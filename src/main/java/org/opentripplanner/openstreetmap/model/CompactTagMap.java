@@ -0,0 +1,96 @@
+package org.opentripplanner.openstreetmap.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map for the tags of an OSM entity. The keys and values are stored in one array, and a
+ * lookup is a linear search. OSM entities usually have few tags, so this is fast and uses a lot
+ * less memory than a {@link java.util.HashMap}. The keys and values are interned by the parser, so
+ * the strings are shared by all entities.
+ * <p>
+ * Tags can be added and replaced, but not removed.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+final class CompactTagMap extends AbstractMap<String, String> {
+
+  /** Keys at even and values at odd indexes, the array has no unused space. */
+  private String[] keysAndValues = new String[0];
+
+  @Override
+  public int size() {
+    return keysAndValues.length / 2;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public String get(Object key) {
+    int i = indexOf(key);
+    return i < 0 ? null : keysAndValues[i + 1];
+  }
+
+  @Override
+  public String put(String key, String value) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      String old = keysAndValues[i + 1];
+      keysAndValues[i + 1] = value;
+      return old;
+    }
+    int n = keysAndValues.length;
+    keysAndValues = Arrays.copyOf(keysAndValues, n + 2);
+    keysAndValues[n] = key;
+    keysAndValues[n + 1] = value;
+    return null;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, String>> iterator() {
+        return new Iterator<>() {
+          private int i = 0;
+
+          @Override
+          public boolean hasNext() {
+            return i < keysAndValues.length;
+          }
+
+          @Override
+          public Entry<String, String> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            var e = new SimpleImmutableEntry<>(keysAndValues[i], keysAndValues[i + 1]);
+            i += 2;
+            return e;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompactTagMap.this.size();
+      }
+    };
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      if (keysAndValues[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
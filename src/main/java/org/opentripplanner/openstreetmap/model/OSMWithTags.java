@@ -50,7 +50,7 @@ public class OSMWithTags {
   private static final Set<String> DEFAULT_LEVEL = Set.of("0");
 
   /* To save memory this is only created when an entity actually has tags. */
-  private Map<String, String> tags;
+  private CompactTagMap tags;
 
   protected long id;
 
@@ -84,7 +84,7 @@ public class OSMWithTags {
    * Adds a tag.
    */
   public void addTag(OSMTag tag) {
-    if (tags == null) tags = new HashMap<>();
+    if (tags == null) tags = new CompactTagMap();
 
     tags.put(tag.getK().toLowerCase(), tag.getV());
   }
@@ -98,7 +98,7 @@ public class OSMWithTags {
     }
 
     if (tags == null) {
-      tags = new HashMap<>();
+      tags = new CompactTagMap();
     }
 
     tags.put(key.toLowerCase(), value);
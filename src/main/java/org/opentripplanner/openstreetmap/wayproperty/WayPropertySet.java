@@ -3,7 +3,9 @@ package org.opentripplanner.openstreetmap.wayproperty;
 import static org.opentripplanner.openstreetmap.wayproperty.WayPropertiesBuilder.withModes;
 import static org.opentripplanner.street.model.StreetTraversalPermission.ALL;
 
+import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -12,6 +14,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.functional.FunctionUtils.TriFunction;
 import org.opentripplanner.framework.i18n.I18NString;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
@@ -31,11 +34,48 @@ import org.slf4j.LoggerFactory;
  * WayPropertyPickers, CreativeNamePickers, SlopeOverridePickers, and SpeedPickers are applied to ways based on how well
  * their OSMSpecifiers match a given OSM way. Generally one OSMSpecifier will win out over all the others based on the
  * number of exact, partial, and wildcard tag matches. See OSMSpecifier for more details on the matching process.
+ * <p>
+ * Many ways have the same tags, so the way properties, car speeds and slope overrides are cached
+ * by the tags of the entity. The values of free-text tags, like names, are not part of the cache
+ * key, see {@link #FREE_TEXT_KEYS}. The size of the caches is limited. The creative names and notes
+ * use the tag values, and are not cached.
  */
 public class WayPropertySet {
 
   private static final Logger LOG = LoggerFactory.getLogger(WayPropertySet.class);
 
+  private static final int MAX_CACHED_TAG_SETS = 10_000;
+
+  /**
+   * Tags with free-text values, the values are never used by the specifiers and speed parsing, so
+   * they are replaced by an empty string in the cache keys. The keys are kept, since specifiers
+   * may check if a tag is present, for example {@code name}.
+   */
+  private static final Set<String> FREE_TEXT_KEYS = Set.of(
+    "name",
+    "alt_name",
+    "old_name",
+    "official_name",
+    "short_name",
+    "loc_name",
+    "ref",
+    "description",
+    "fixme",
+    "source",
+    "created_by",
+    "wikidata",
+    "wikipedia"
+  );
+  private static final List<String> FREE_TEXT_KEY_PREFIXES = List.of(
+    "name:",
+    "alt_name:",
+    "old_name:",
+    "official_name:",
+    "addr:",
+    "source:",
+    "wikipedia:"
+  );
+
   /** Sets 1.0 as default safety value for all permissions. */
   private final TriFunction<StreetTraversalPermission, Float, OSMWithTags, Double> DEFAULT_SAFETY_RESOLVER =
     ((permission, speedLimit, osmWay) -> 1.0);
@@ -71,6 +111,12 @@ public class WayPropertySet {
   private final WayProperties defaultProperties;
   private final DataImportIssueStore issueStore;
 
+  /* Cached values for entities with the same tags, the caches are cleared if the set is changed. */
+  private final Map<TagsKey, WayProperties> wayPropertiesCache = newCache();
+  private final Map<TagsKey, CarSpeed> forwardCarSpeedCache = newCache();
+  private final Map<TagsKey, CarSpeed> backwardCarSpeedCache = newCache();
+  private final Map<TagsKey, Boolean> slopeOverrideCache = newCache();
+
   public List<MixinProperties> getMixins() {
     return mixins;
   }
@@ -106,6 +152,10 @@ public class WayPropertySet {
    * that are mixins will have their safety values applied if they match at all.
    */
   public WayProperties getDataForWay(OSMWithTags way) {
+    return wayPropertiesCache.computeIfAbsent(TagsKey.of(way), k -> computeDataForWay(way));
+  }
+
+  private WayProperties computeDataForWay(OSMWithTags way) {
     WayProperties backwardResult = defaultProperties;
     WayProperties forwardResult = defaultProperties;
     int bestBackwardScore = 0;
@@ -209,6 +259,27 @@ public class WayPropertySet {
    * Calculate the automobile speed, in meters per second, for this way.
    */
   public float getCarSpeedForWay(OSMWithTags way, boolean backward) {
+    var cache = backward ? backwardCarSpeedCache : forwardCarSpeedCache;
+    var carSpeed = cache.computeIfAbsent(TagsKey.of(way), k -> computeCarSpeed(way, backward));
+
+    // The issue is reported for each entity with the invalid speed limit
+    if (carSpeed.invalidSpeedLimit() != null) {
+      var id = way.getId();
+      var link = way.url();
+      issueStore.add(
+        "InvalidCarSpeedLimit",
+        "OSM object with id '%s' (%s) has an invalid maxspeed value (%f), that speed will be ignored",
+        id,
+        link,
+        carSpeed.invalidSpeedLimit()
+      );
+    }
+    return carSpeed.speed();
+  }
+
+  private CarSpeed computeCarSpeed(OSMWithTags way, boolean backward) {
+    Float invalidSpeedLimit = null;
+
     // first, check for maxspeed tags
     Float speed = null;
     Float currentSpeed;
@@ -244,20 +315,12 @@ public class WayPropertySet {
       // we use default speed limits for the way type in that case.
       // The small epsilon is to account for possible rounding errors.
       if (speed < 1.387 || speed > maxPossibleCarSpeed + 0.0001) {
-        var id = way.getId();
-        var link = way.url();
-        issueStore.add(
-          "InvalidCarSpeedLimit",
-          "OSM object with id '%s' (%s) has an invalid maxspeed value (%f), that speed will be ignored",
-          id,
-          link,
-          speed
-        );
+        invalidSpeedLimit = speed;
       } else {
         if (speed > maxUsedCarSpeed) {
           maxUsedCarSpeed = speed;
         }
-        return speed;
+        return new CarSpeed(speed, null);
       }
     }
 
@@ -282,9 +345,9 @@ public class WayPropertySet {
       if (bestSpeed > maxUsedCarSpeed) {
         maxUsedCarSpeed = bestSpeed;
       }
-      return bestSpeed;
+      return new CarSpeed(bestSpeed, invalidSpeedLimit);
     } else {
-      return this.defaultCarSpeed;
+      return new CarSpeed(this.defaultCarSpeed, invalidSpeedLimit);
     }
   }
 
@@ -301,6 +364,10 @@ public class WayPropertySet {
   }
 
   public boolean getSlopeOverride(OSMWithTags way) {
+    return slopeOverrideCache.computeIfAbsent(TagsKey.of(way), k -> computeSlopeOverride(way));
+  }
+
+  private boolean computeSlopeOverride(OSMWithTags way) {
     boolean result = false;
     int bestScore = 0;
     for (SlopeOverridePicker picker : slopeOverrides) {
@@ -316,10 +383,12 @@ public class WayPropertySet {
 
   public void addMixin(MixinProperties mixin) {
     mixins.add(mixin);
+    clearCaches();
   }
 
   public void addProperties(OsmSpecifier spec, WayProperties properties) {
     wayProperties.add(new WayPropertyPicker(spec, properties));
+    clearCaches();
   }
 
   public void addCreativeNamer(OsmSpecifier spec, CreativeNamer namer) {
@@ -332,6 +401,7 @@ public class WayPropertySet {
 
   public void setSlopeOverride(OsmSpecifier spec, boolean override) {
     slopeOverrides.add(new SlopeOverridePicker(spec, override));
+    clearCaches();
   }
 
   public int hashCode() {
@@ -358,6 +428,7 @@ public class WayPropertySet {
 
   public void addSpeedPicker(SpeedPicker picker) {
     this.speedPickers.add(picker);
+    clearCaches();
   }
 
   public Float getMetersSecondFromSpeed(String speed) {
@@ -424,6 +495,7 @@ public class WayPropertySet {
       throw new IllegalStateException("A custom default walk safety resolver was already set");
     }
     this.defaultWalkSafetyForPermission = defaultWalkSafetyForPermission;
+    clearCaches();
   }
 
   /**
@@ -437,6 +509,7 @@ public class WayPropertySet {
       throw new IllegalStateException("A custom default cycling safety resolver was already set");
     }
     this.defaultBicycleSafetyForPermission = defaultBicycleSafetyForPermission;
+    clearCaches();
   }
 
   public void setMixinProperties(OsmSpecifier spec, MixinPropertiesBuilder builder) {
@@ -532,4 +605,85 @@ public class WayPropertySet {
       .walkSafety(forwardWalk, backWalk)
       .build();
   }
+
+  private void clearCaches() {
+    wayPropertiesCache.clear();
+    forwardCarSpeedCache.clear();
+    backwardCarSpeedCache.clear();
+    slopeOverrideCache.clear();
+  }
+
+  /**
+   * The size of each cache is limited, since ways with tags that are close to unique, like
+   * {@code tiger:*} or {@code check_date}, get an entry each.
+   */
+  private static <V> Map<TagsKey, V> newCache() {
+    return CacheBuilder
+      .newBuilder()
+      .maximumSize(MAX_CACHED_TAG_SETS)
+      .<TagsKey, V>build()
+      .asMap();
+  }
+
+  private static boolean isFreeTextKey(String key) {
+    if (FREE_TEXT_KEYS.contains(key)) {
+      return true;
+    }
+    for (String prefix : FREE_TEXT_KEY_PREFIXES) {
+      if (key.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The cache key for an entity: the type and the tags, with the values of free-text tags
+   * removed. The keys and values are stored in one array sorted by key.
+   * <p>
+   * The key can not be limited to the tags used by the specifiers, since the permission overrides
+   * and the safety resolvers of a tag mapper may read any tag.
+   */
+  private record TagsKey(Class<?> type, String[] keysAndValues) {
+    static TagsKey of(OSMWithTags entity) {
+      var tags = entity.getTags();
+      var keysAndValues = new String[tags.size() * 2];
+      int n = 0;
+      for (var e : tags.entrySet()) {
+        String key = e.getKey();
+        String value = isFreeTextKey(key) ? "" : e.getValue();
+        // Insertion sort by key, the number of tags is small
+        int i = n;
+        while (i > 0 && keysAndValues[i - 2].compareTo(key) > 0) {
+          keysAndValues[i] = keysAndValues[i - 2];
+          keysAndValues[i + 1] = keysAndValues[i - 1];
+          i -= 2;
+        }
+        keysAndValues[i] = key;
+        keysAndValues[i + 1] = value;
+        n += 2;
+      }
+      return new TagsKey(entity.getClass(), keysAndValues);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return (
+        o instanceof TagsKey other &&
+        type == other.type &&
+        Arrays.equals(keysAndValues, other.keysAndValues)
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + Arrays.hashCode(keysAndValues);
+    }
+  }
+
+  /**
+   * The car speed and the invalid speed limit, if the entity has one. The invalid speed limit is
+   * reported as an issue each time the speed is used.
+   */
+  private record CarSpeed(float speed, @Nullable Float invalidSpeedLimit) {}
 }
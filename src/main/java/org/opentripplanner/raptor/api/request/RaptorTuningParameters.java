@@ -1,5 +1,7 @@
 package org.opentripplanner.raptor.api.request;
 
+import java.time.Duration;
+
 /**
  * Tuning parameters - changing these parameters change the performance (speed and/or memory
  * consumption).
@@ -25,6 +27,16 @@ public interface RaptorTuningParameters {
     return 0;
   }
 
+  /** see {@link org.opentripplanner.standalone.config.routerconfig.TransitRoutingConfig} **/
+  default int heuristicsCacheMaxSize() {
+    return 0;
+  }
+
+  /** see {@link org.opentripplanner.standalone.config.routerconfig.TransitRoutingConfig} **/
+  default Duration heuristicsCacheTimeToLive() {
+    return Duration.ofMinutes(5);
+  }
+
   /**
    * Coefficients used to calculate raptor-search-window parameters dynamically  from heuristics.
    */
@@ -0,0 +1,149 @@
+package org.opentripplanner.raptor.configure;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+
+/**
+ * Cache the result of REVERSE heuristic searches across requests. The reverse heuristic is used
+ * for destination pruning and is the same for all requests going to the same destination, as long
+ * as the transit data, the egress paths and the rest of the request is the same. This is the case
+ * for paging (next/previous page) and repeated queries to popular destinations.
+ * <p>
+ * The earliest-departure-time(EDT) is the only parameter which usually changes between pages. In
+ * a reverse search it is only used as a time-limit, so a heuristic calculated with an EDT is also
+ * valid for any request with a later EDT - the heuristic is a bit less tight, but still a lower
+ * bound. Hence, the EDT is not part of the cache key, but kept with the cached value.
+ * <p>
+ * The cache is bounded by size and entries expire after a given time-to-live. The cache key holds
+ * on to the transit data (e.g. a real-time transit layer), so expired entries are removed from
+ * the whole cache each time a new entry is added - not only when their own key is read again.
+ * This releases transit data replaced by a real-time update after the time-to-live, even if the
+ * cache is not full. The cache is disabled if the max size is zero, or if the transit data does
+ * not provide a {@link RaptorTransitDataProvider#cacheKey()}.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+public class HeuristicsCache<T extends RaptorTripSchedule> {
+
+  private final int maxSize;
+  private final long timeToLiveMillis;
+  private final Map<CacheKey, Entry> cache;
+
+  HeuristicsCache(int maxSize, Duration timeToLive) {
+    this.maxSize = maxSize;
+    this.timeToLiveMillis = timeToLive.toMillis();
+    // Use access-order to evict the least recently used entries first
+    this.cache =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+          return size() > HeuristicsCache.this.maxSize;
+        }
+      };
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Find a cached heuristic for the given heuristic search request. Returns {@code null} if no
+   * valid heuristic is cached.
+   */
+  @Nullable
+  public Heuristics get(RaptorTransitDataProvider<T> transitData, RaptorRequest<T> request) {
+    var key = createKey(transitData, request);
+    if (key == null) {
+      return null;
+    }
+    synchronized (cache) {
+      var entry = cache.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.isExpired(System.currentTimeMillis(), timeToLiveMillis)) {
+        cache.remove(key);
+        return null;
+      }
+      // The cached heuristic is valid if it is calculated with the same or an earlier EDT
+      int edt = request.searchParams().earliestDepartureTime();
+      return entry.earliestDepartureTime <= edt ? entry.heuristics : null;
+    }
+  }
+
+  /**
+   * Add the heuristic to the cache. If an entry already exist, the entry with the earliest EDT is
+   * kept, since it is valid for more requests.
+   */
+  public void put(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Heuristics heuristics
+  ) {
+    var key = createKey(transitData, request);
+    if (key == null) {
+      return;
+    }
+    var newEntry = new Entry(
+      request.searchParams().earliestDepartureTime(),
+      heuristics,
+      System.currentTimeMillis()
+    );
+    synchronized (cache) {
+      removeExpiredEntries(newEntry.createdTime);
+      var existing = cache.get(key);
+      if (
+        existing == null ||
+        newEntry.earliestDepartureTime <= existing.earliestDepartureTime
+      ) {
+        cache.put(key, newEntry);
+      }
+    }
+  }
+
+  /** The number of entries in the cache, including entries not yet removed after expiry. */
+  int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /** Must be called while holding the lock on the cache. */
+  private void removeExpiredEntries(long now) {
+    cache.values().removeIf(it -> it.isExpired(now, timeToLiveMillis));
+  }
+
+  @Nullable
+  private CacheKey createKey(RaptorTransitDataProvider<T> transitData, RaptorRequest<T> request) {
+    if (!isEnabled() || request.searchDirection().isForward()) {
+      return null;
+    }
+    var transitDataKey = transitData.cacheKey();
+    if (transitDataKey == null) {
+      return null;
+    }
+    var requestWithoutEdt = request
+      .mutate()
+      .searchParams()
+      .earliestDepartureTime(RaptorConstants.TIME_NOT_SET)
+      .build();
+    return new CacheKey(transitDataKey, requestWithoutEdt);
+  }
+
+  private record CacheKey(Object transitDataKey, RaptorRequest<?> request) {}
+
+  private record Entry(int earliestDepartureTime, Heuristics heuristics, long createdTime) {
+    boolean isExpired(long now, long timeToLiveMillis) {
+      return now - createdTime > timeToLiveMillis;
+    }
+  }
+}
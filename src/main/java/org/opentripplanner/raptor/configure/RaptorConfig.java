@@ -33,6 +33,7 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
 
   private final ExecutorService threadPool;
   private final RaptorTuningParameters tuningParameters;
+  private final HeuristicsCache<T> heuristicsCache;
 
   /** The service is not final, because it depends on the request. */
   private PassThroughPointsService passThroughPointsService = null;
@@ -40,6 +41,11 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
   public RaptorConfig(RaptorTuningParameters tuningParameters) {
     this.tuningParameters = tuningParameters;
     this.threadPool = createNewThreadPool(tuningParameters.searchThreadPoolSize());
+    this.heuristicsCache =
+      new HeuristicsCache<>(
+        tuningParameters.heuristicsCacheMaxSize(),
+        tuningParameters.heuristicsCacheTimeToLive()
+      );
   }
 
   public static <T extends RaptorTripSchedule> RaptorConfig<T> defaultConfigForTest() {
@@ -100,6 +106,10 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return threadPool;
   }
 
+  public HeuristicsCache<T> heuristicsCache() {
+    return heuristicsCache;
+  }
+
   public void shutdown() {
     if (threadPool != null) {
       threadPool.shutdown();
@@ -16,6 +16,19 @@ class HeuristicToRunResolver {
     RaptorRequest<?> req,
     Runnable turnFwdOn,
     Runnable turnRevOn
+  ) {
+    resolveHeuristicToRunBasedOnOptimizationsAndSearchParameters(req, false, turnFwdOn, turnRevOn);
+  }
+
+  /**
+   * Same as above, but the REV heuristics is not needed for destination pruning if precomputed
+   * destination heuristics exist. It is still needed to find the EDT.
+   */
+  static void resolveHeuristicToRunBasedOnOptimizationsAndSearchParameters(
+    RaptorRequest<?> req,
+    boolean precomputedDestinationHeuristicsExist,
+    Runnable turnFwdOn,
+    Runnable turnRevOn
   ) {
     if (!req.profile().isOneOf(STANDARD, MULTI_CRITERIA)) {
       return;
@@ -28,7 +41,7 @@ class HeuristicToRunResolver {
 
     if (req.profile().is(MULTI_CRITERIA)) {
       // REV heuristics is required to do destination pruning
-      if (req.useDestinationPruning()) {
+      if (req.useDestinationPruning() && !precomputedDestinationHeuristicsExist) {
         reverse = true;
       }
     }
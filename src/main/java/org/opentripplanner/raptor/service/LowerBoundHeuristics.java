@@ -0,0 +1,202 @@
+package org.opentripplanner.raptor.service;
+
+import static org.opentripplanner.raptor.api.model.RaptorConstants.UNREACHED_HIGH;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.lang.IntUtils;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.rangeraptor.internalapi.HeuristicAtStop;
+import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
+import org.opentripplanner.raptor.spi.RaptorCostCalculator;
+import org.opentripplanner.raptor.spi.RaptorStopToStopLowerBound;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+
+/**
+ * Destination heuristics created from a precomputed {@link RaptorStopToStopLowerBound}, instead of
+ * running a REVERSE heuristic search. The heuristic at a stop is the best lower bound to one of the
+ * egress stops plus the egress duration. The values are computed on demand, the
+ * {@code HeuristicsProvider} caches the result for each stop.
+ * <p>
+ * The heuristics are admissible, but less tight than the heuristics calculated by a search. They
+ * are only used for destination pruning, not to calculate the search-window.
+ */
+class LowerBoundHeuristics implements Heuristics {
+
+  private final RaptorStopToStopLowerBound lowerBound;
+  private final RaptorCostCalculator<?> costCalculator;
+  private final int nStops;
+  private final Collection<RaptorAccessEgress> accessPaths;
+
+  /** The egress stops and the shortest egress duration for each of them */
+  private final int[] egressStops;
+  private final int[] egressDurations;
+
+  private LowerBoundHeuristics(
+    RaptorStopToStopLowerBound lowerBound,
+    RaptorCostCalculator<?> costCalculator,
+    int nStops,
+    Collection<RaptorAccessEgress> accessPaths,
+    Collection<RaptorAccessEgress> egressPaths
+  ) {
+    this.lowerBound = lowerBound;
+    this.costCalculator = costCalculator;
+    this.nStops = nStops;
+    this.accessPaths = accessPaths;
+
+    int[] stops = egressPaths.stream().mapToInt(RaptorAccessEgress::stop).distinct().toArray();
+    this.egressStops = stops;
+    this.egressDurations = IntUtils.intArray(stops.length, UNREACHED_HIGH);
+    for (RaptorAccessEgress it : egressPaths) {
+      int i = indexOf(stops, it.stop());
+      egressDurations[i] = Math.min(egressDurations[i], it.durationInSeconds());
+    }
+  }
+
+  /**
+   * Create destination heuristics for the given request, if the transit data provides a lower
+   * bound. Only the forward multi-criteria search is supported, return {@code null} if not
+   * possible.
+   */
+  @Nullable
+  static <T extends RaptorTripSchedule> LowerBoundHeuristics create(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request
+  ) {
+    if (!request.useDestinationPruning() || request.searchDirection().isInReverse()) {
+      return null;
+    }
+    var lowerBound = transitData.stopToStopLowerBound();
+    if (lowerBound == null) {
+      return null;
+    }
+    return new LowerBoundHeuristics(
+      lowerBound,
+      transitData.multiCriteriaCostCalculator(),
+      transitData.numberOfStops(),
+      request.searchParams().accessPaths(),
+      request.searchParams().egressPaths()
+    );
+  }
+
+  /**
+   * Return {@code true} if none of the access stops can reach any of the egress stops.
+   */
+  boolean isDestinationUnreachable() {
+    return accessPaths.stream().allMatch(it -> minTravelDuration(it.stop()) == UNREACHED_HIGH);
+  }
+
+  @Override
+  public HeuristicAtStop createHeuristicAtStop(int stop) {
+    int minTravelDuration = UNREACHED_HIGH;
+    int minNumTransitLegs = UNREACHED_HIGH;
+
+    for (int i = 0; i < egressStops.length; ++i) {
+      int duration = lowerBound.minTravelDuration(stop, egressStops[i]);
+      if (duration == UNREACHED_HIGH) {
+        continue;
+      }
+      minTravelDuration = Math.min(minTravelDuration, duration + egressDurations[i]);
+      minNumTransitLegs =
+        Math.min(minNumTransitLegs, lowerBound.minNumberOfTransitLegs(stop, egressStops[i]));
+    }
+    if (minTravelDuration == UNREACHED_HIGH) {
+      return HeuristicAtStop.UNREACHED;
+    }
+    // The number of transfers is one less than the number of transit legs. This is -1 if no
+    // transit legs are needed, the same as in the heuristic search.
+    int minNumTransfers = minNumTransitLegs - 1;
+    return new HeuristicAtStop(
+      minTravelDuration,
+      minNumTransfers,
+      costCalculator.calculateRemainingMinCost(minTravelDuration, minNumTransfers, stop)
+    );
+  }
+
+  @Override
+  public int[] bestTravelDurationToIntArray(int unreached) {
+    return toIntArray(unreached, this::minTravelDuration);
+  }
+
+  @Override
+  public int[] bestNumOfTransfersToIntArray(int unreached) {
+    return toIntArray(unreached, s -> createHeuristicAtStop(s).minNumTransfers());
+  }
+
+  @Override
+  public int[] bestGeneralizedCostToIntArray(int unreached) {
+    return toIntArray(unreached, s -> createHeuristicAtStop(s).minCost());
+  }
+
+  @Override
+  public int size() {
+    return nStops;
+  }
+
+  @Override
+  public int bestOverallJourneyTravelDuration() {
+    return minOverAccessPaths(a -> a.durationInSeconds() + minTravelDuration(a.stop()));
+  }
+
+  @Override
+  public int bestOverallJourneyNumOfTransfers() {
+    return minOverAccessPaths(a -> Math.max(0, createHeuristicAtStop(a.stop()).minNumTransfers()));
+  }
+
+  /**
+   * The wait-time is not known without performing a search, zero is returned.
+   */
+  @Override
+  public int minWaitTimeForJourneysReachingDestination() {
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(LowerBoundHeuristics.class)
+      .addObj("lowerBound", lowerBound)
+      .addCol("egressStops", Arrays.stream(egressStops).boxed().limit(20).toList())
+      .toString();
+  }
+
+  private int minTravelDuration(int stop) {
+    return createHeuristicAtStop(stop).minTravelDuration();
+  }
+
+  private int minOverAccessPaths(ToIntFunction<RaptorAccessEgress> f) {
+    int min = UNREACHED_HIGH;
+    for (RaptorAccessEgress it : accessPaths) {
+      if (minTravelDuration(it.stop()) != UNREACHED_HIGH) {
+        min = Math.min(min, f.applyAsInt(it));
+      }
+    }
+    return min;
+  }
+
+  private int[] toIntArray(int unreached, IntUnaryOperator supplier) {
+    int[] a = IntUtils.intArray(nStops, unreached);
+    for (int i = 0; i < a.length; i++) {
+      int v = supplier.applyAsInt(i);
+      if (v != UNREACHED_HIGH) {
+        a[i] = v;
+      }
+    }
+    return a;
+  }
+
+  private static int indexOf(int[] values, int value) {
+    for (int i = 0; i < values.length; ++i) {
+      if (values[i] == value) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Value not found: " + value);
+  }
+}
@@ -32,6 +32,10 @@ import org.slf4j.LoggerFactory;
  * <p>
  * If possible the forward and reverse heuristics will be run in parallel.
  * <p>
+ * If the transit data provides a precomputed stop-to-stop lower bound, it is used to create the
+ * destination heuristics for the multi-criteria search. Then the reverse heuristic search is only
+ * performed if needed to calculate the earliest-departure-time.
+ * <p>
  * Depending on which optimization is enabled and which search parameters are set a forward and/or a
  * reverse "single-iteration" raptor search is performed and heuristics are collected. This is used
  * to configure the "main" multi-iteration RangeRaptor search.
@@ -48,6 +52,12 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
   private final HeuristicSearchTask<T> fwdHeuristics;
   private final HeuristicSearchTask<T> revHeuristics;
 
+  /**
+   * Destination heuristics created from a precomputed lower bound, {@code null} if not available.
+   */
+  @Nullable
+  private final LowerBoundHeuristics lowerBoundHeuristics;
+
   public RangeRaptorDynamicSearch(
     RaptorConfig<T> config,
     RaptorTransitDataProvider<T> transitData,
@@ -61,12 +71,24 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
 
     this.fwdHeuristics = new HeuristicSearchTask<>(FORWARD, "Forward", config, transitData);
     this.revHeuristics = new HeuristicSearchTask<>(REVERSE, "Reverse", config, transitData);
+    this.lowerBoundHeuristics =
+      originalRequest.profile().is(MULTI_CRITERIA)
+        ? LowerBoundHeuristics.create(transitData, originalRequest)
+        : null;
   }
 
   public RaptorResponse<T> route() {
     try {
       enableHeuristicSearchBasedOnOptimizationsAndSearchParameters();
 
+      if (
+        lowerBoundHeuristics != null &&
+        !revHeuristics.isEnabled() &&
+        lowerBoundHeuristics.isDestinationUnreachable()
+      ) {
+        throw new DestinationNotReachedException();
+      }
+
       // Run heuristics, if no destination is reached
       runHeuristics();
 
@@ -97,6 +119,10 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
       return null;
     }
     LOG.debug("RangeRaptor - Destination pruning enabled.");
+    // The REVERSE heuristic search gives the best heuristics, use it if performed
+    if (lowerBoundHeuristics != null && !revHeuristics.isEnabled()) {
+      return lowerBoundHeuristics;
+    }
     return revHeuristics.result();
   }
 
@@ -108,6 +134,7 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
     // We delegate this to a static method to be able to write unit test on this logic
     resolveHeuristicToRunBasedOnOptimizationsAndSearchParameters(
       originalRequest,
+      lowerBoundHeuristics != null,
       fwdHeuristics::enable,
       revHeuristics::enable
     );
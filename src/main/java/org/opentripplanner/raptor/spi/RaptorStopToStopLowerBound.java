@@ -0,0 +1,32 @@
+package org.opentripplanner.raptor.spi;
+
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+
+/**
+ * A precomputed, request independent, lower bound on the travel duration and the number of
+ * transit legs between two stops. Raptor uses this to create admissible heuristics for
+ * destination pruning without running a heuristic search, see
+ * {@link RaptorTransitDataProvider#stopToStopLowerBound()}.
+ * <p>
+ * The bounds MUST be admissible: they can never be larger than the best possible value found by
+ * Raptor for ANY request using the transit data. Waiting time, board- and alight-slack and
+ * transfer-slack is NOT included.
+ * <p>
+ * Implementations must be thread-safe, the same instance is used by all requests.
+ */
+public interface RaptorStopToStopLowerBound {
+  /**
+   * The lower bound on the travel duration from the {@code fromStop} to the {@code toStop}. Return
+   * {@link RaptorConstants#UNREACHED_HIGH} if it is impossible to travel between the stops.
+   * <p>
+   * Unit: seconds.
+   */
+  int minTravelDuration(int fromStop, int toStop);
+
+  /**
+   * The lower bound on the number of transit legs needed to travel from the {@code fromStop} to
+   * the {@code toStop}. Zero if the stops are the same or connected by transfers only. Return
+   * {@link RaptorConstants#UNREACHED_HIGH} if it is impossible to travel between the stops.
+   */
+  int minNumberOfTransitLegs(int fromStop, int toStop);
+}
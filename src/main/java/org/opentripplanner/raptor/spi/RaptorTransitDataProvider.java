@@ -2,12 +2,14 @@ package org.opentripplanner.raptor.spi;
 
 import java.util.Iterator;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.raptor.api.model.RaptorTransferConstraint;
 import org.opentripplanner.raptor.api.model.RaptorTripPattern;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.api.path.RaptorStopNameResolver;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 
 /**
  * This interface defines the data needed by Raptor. It is the main/top-level interface and together
@@ -150,4 +152,31 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
    * REVERSE search.
    */
   RaptorConstrainedBoardingSearch<T> transferConstraintsReverseSearch(int routeIndex);
+
+  /**
+   * Return a key identifying the transit data AND all request specific parameters used to create
+   * this provider. Two providers with equal keys must provide Raptor with exactly the same data.
+   * Raptor uses the key to reuse heuristics across requests, see
+   * {@link RaptorTuningParameters#heuristicsCacheMaxSize()}. The key must implement
+   * {@code equals()} and {@code hashCode()}.
+   * <p>
+   * Return {@code null} to disable caching, this is the default.
+   */
+  @Nullable
+  default Object cacheKey() {
+    return null;
+  }
+
+  /**
+   * Return a precomputed lower bound on travel duration and number of transit legs between stops.
+   * If available, Raptor uses it to create the destination pruning heuristics of a multi-criteria
+   * search, instead of running a REVERSE heuristic search. The bound must be admissible for the
+   * data provided by this instance.
+   * <p>
+   * Return {@code null} if not available, this is the default.
+   */
+  @Nullable
+  default RaptorStopToStopLowerBound stopToStopLowerBound() {
+    return null;
+  }
 }
@@ -19,9 +19,7 @@ public final class DecorateFilter implements ItineraryListFilter {
 
   @Override
   public List<Itinerary> filter(List<Itinerary> itineraries) {
-    for (var it : itineraries) {
-      decorator.decorate(it);
-    }
+    decorator.decorate(itineraries);
     return itineraries;
   }
 }
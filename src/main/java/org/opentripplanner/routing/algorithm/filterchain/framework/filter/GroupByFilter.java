@@ -1,7 +1,13 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.filter;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.filterchain.framework.spi.GroupId;
@@ -10,6 +16,11 @@ import org.opentripplanner.routing.algorithm.filterchain.framework.spi.Itinerary
 /**
  * This filter groups the itineraries using a group-id and filter each group by the given {@code
  * filter}.
+ * <p>
+ * The groups are looked up using the {@link GroupId#signatureKeys()}, so each itinerary is only
+ * compared with the groups it may match. When an itinerary matches more than one group, the groups
+ * are merged into the first group created. The merged groups are kept in a union-find structure, so
+ * the keys registered for a merged group lead to the group it is merged into.
  *
  * @see GroupId on how to group itineraries
  */
@@ -25,15 +36,42 @@ public class GroupByFilter<T extends GroupId<T>> implements ItineraryListFilter
 
   @Override
   public final List<Itinerary> filter(List<Itinerary> itineraries) {
-    List<Entry<T>> groups = new ArrayList<>();
+    var groups = new Groups<T>();
 
     for (Itinerary it : itineraries) {
-      T groupId = groupingBy.apply(it);
+      groups.add(groupingBy.apply(it), it);
+    }
+
+    List<Itinerary> result = new ArrayList<>();
+    for (Entry<T> e : groups.result()) {
+      List<Itinerary> groupResult = e.itineraries;
+      for (ItineraryListFilter filter : nestedFilters) {
+        groupResult = filter.filter(groupResult);
+      }
+      result.addAll(groupResult);
+    }
+    return result;
+  }
+
+  /**
+   * The groups in the order they are created, with an index from the signature keys of the
+   * group-ids to the groups.
+   */
+  private static class Groups<T extends GroupId<T>> {
+
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Map<Object, List<Entry<T>>> index = new HashMap<>();
+
+    /** Groups with a group-id without signature keys, these may match any group-id. */
+    private final List<Entry<T>> matchAny = new ArrayList<>();
+
+    void add(T groupId, Itinerary it) {
+      Collection<?> keys = groupId.signatureKeys();
       Entry<T> matchFound = null;
 
-      for (Entry<T> e : groups) {
-        // ignore empty groups - they are merged into another group
-        if (e.itineraries.isEmpty()) {
+      for (Entry<T> e : keys == null ? entries : candidates(keys)) {
+        // ignore merged groups - they are part of another group
+        if (e.isMerged()) {
           continue;
         }
 
@@ -47,29 +85,62 @@ public class GroupByFilter<T extends GroupId<T>> implements ItineraryListFilter
         }
       }
       if (matchFound == null) {
-        groups.add(new Entry<>(groupId, it));
+        matchFound = new Entry<>(entries.size(), groupId, it);
+        entries.add(matchFound);
       }
+      register(matchFound, keys);
     }
-    // Remove leftover of group mergeAndClear operations
-    groups.removeIf(g -> g.itineraries.isEmpty());
 
-    List<Itinerary> result = new ArrayList<>();
-    for (Entry<T> e : groups) {
-      List<Itinerary> groupResult = e.itineraries;
-      for (ItineraryListFilter filter : nestedFilters) {
-        groupResult = filter.filter(groupResult);
+    /** The groups left after merging, in the order they were created. */
+    List<Entry<T>> result() {
+      return entries.stream().filter(e -> !e.isMerged()).toList();
+    }
+
+    /**
+     * Find the groups registered for any of the keys, and the groups which may match any group-id.
+     * The groups are returned in the order they were created, the same order as when all groups
+     * are compared.
+     */
+    private List<Entry<T>> candidates(Collection<?> keys) {
+      Set<Entry<T>> found = new HashSet<>();
+      for (Object key : keys) {
+        for (Entry<T> e : index.getOrDefault(key, List.of())) {
+          found.add(e.find());
+        }
+      }
+      for (Entry<T> e : matchAny) {
+        found.add(e.find());
+      }
+      var result = new ArrayList<>(found);
+      result.sort(Comparator.comparingInt(e -> e.index));
+      return result;
+    }
+
+    private void register(Entry<T> entry, Collection<?> keys) {
+      if (keys == null) {
+        matchAny.add(entry);
+        return;
+      }
+      for (Object key : keys) {
+        var list = index.computeIfAbsent(key, k -> new ArrayList<>());
+        if (list.isEmpty() || list.get(list.size() - 1) != entry) {
+          list.add(entry);
+        }
       }
-      result.addAll(groupResult);
     }
-    return result;
   }
 
   private static class Entry<T extends GroupId<T>> {
 
+    final int index;
     T groupId;
     List<Itinerary> itineraries = new ArrayList<>();
 
-    Entry(T groupId, Itinerary it) {
+    /** The group this group is merged into, {@code null} if not merged. */
+    Entry<T> mergedInto = null;
+
+    Entry(int index, T groupId, Itinerary it) {
+      this.index = index;
       this.groupId = groupId;
       add(it);
     }
@@ -83,6 +154,20 @@ public class GroupByFilter<T extends GroupId<T>> implements ItineraryListFilter
       this.groupId = this.groupId.merge(other.groupId);
       this.itineraries.addAll(other.itineraries);
       other.itineraries.clear();
+      other.mergedInto = this;
+    }
+
+    boolean isMerged() {
+      return mergedInto != null;
+    }
+
+    /** Find the group this group is merged into, compressing the path on the way. */
+    Entry<T> find() {
+      if (mergedInto == null) {
+        return this;
+      }
+      mergedInto = mergedInto.find();
+      return mergedInto;
     }
 
     boolean match(T groupId) {
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.groupids;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.opentripplanner.model.plan.Itinerary;
@@ -53,5 +54,11 @@ public class GroupByAllSameStations implements GroupId<GroupByAllSameStations> {
     return this;
   }
 
+  @Override
+  public Collection<?> signatureKeys() {
+    // Itineraries without transit do not match any other itinerary
+    return keySet.isEmpty() ? List.of() : List.of(keySet);
+  }
+
   private record FeedScopedIdPair(FeedScopedId id0, FeedScopedId id1) {}
 }
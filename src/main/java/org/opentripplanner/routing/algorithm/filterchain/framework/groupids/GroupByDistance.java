@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.groupids;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
@@ -74,6 +75,19 @@ public class GroupByDistance implements GroupId<GroupByDistance> {
     return size() <= other.size() ? this : other;
   }
 
+  /**
+   * Two matching group-ids have at least one leg in common, so the keys are the trips of the
+   * transit legs and the modes of the street legs in the key-set. An empty key-set is contained in
+   * all other key-sets, so {@code null} is returned to match all group-ids.
+   */
+  @Override
+  public Collection<?> signatureKeys() {
+    if (keySet.isEmpty()) {
+      return null;
+    }
+    return keySet.stream().map(GroupByDistance::signatureKey).distinct().toList();
+  }
+
   @Override
   public String toString() {
     return ToStringBuilder
@@ -133,6 +147,20 @@ public class GroupByDistance implements GroupId<GroupByDistance> {
     return true;
   }
 
+  /**
+   * Legs which are partially the same have the same key, see {@link Leg#isPartiallySameLeg(Leg)}.
+   */
+  private static Object signatureKey(Leg leg) {
+    if (leg instanceof StreetLeg streetLeg) {
+      return streetLeg.getMode();
+    }
+    if (leg instanceof TransitLeg && leg.getTrip() != null) {
+      return leg.getTrip().getId();
+    }
+    // Other legs are not the same as any other leg
+    return leg;
+  }
+
   private void assertPIsValid(double p) {
     if (p > 0.99 || p < 0.50) {
       throw new IllegalArgumentException("'p' is not between 0.01 and 0.99: " + p);
@@ -1,5 +1,7 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.groupids;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -40,6 +42,18 @@ public class GroupBySameFirstOrLastTrip implements GroupId<GroupBySameFirstOrLas
     return this;
   }
 
+  @Override
+  public Collection<?> signatureKeys() {
+    // Itineraries without transit do not match any other itinerary
+    if (keySet.isEmpty()) {
+      return List.of();
+    }
+    return List.of(
+      TripKey.of(true, keySet.get(0)),
+      TripKey.of(false, keySet.get(keySet.size() - 1))
+    );
+  }
+
   /**
    * Read-only access to key-set to allow unit-tests access.
    */
@@ -66,4 +80,12 @@ public class GroupBySameFirstOrLastTrip implements GroupId<GroupBySameFirstOrLas
 
     return Objects.equals(a.getServiceDate(), b.getServiceDate());
   }
+
+  /** The trip and service date of the first or last transit leg. */
+  private record TripKey(boolean first, FeedScopedId tripId, LocalDate serviceDate) {
+    static TripKey of(boolean first, Leg leg) {
+      var tripId = leg.getTrip() != null ? leg.getTrip().getId() : null;
+      return new TripKey(first, tripId, leg.getServiceDate());
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.groupids;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
 import org.opentripplanner.model.plan.Itinerary;
@@ -53,4 +54,10 @@ public class GroupBySameRoutesAndStops implements GroupId<GroupBySameRoutesAndSt
   public GroupBySameRoutesAndStops merge(GroupBySameRoutesAndStops other) {
     return this;
   }
+
+  @Override
+  public Collection<?> signatureKeys() {
+    // Itineraries without transit do not match any other itinerary
+    return keySet.isEmpty() ? List.of() : List.of(keySet);
+  }
 }
@@ -1,5 +1,8 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.spi;
 
+import java.util.Collection;
+import javax.annotation.Nullable;
+
 /**
  * A group-id identify a group of elements(itineraries). Group-ids can be arranged in a hierarchy
  * where the top level groups match all elements for all decedent group-ids of children,
@@ -81,4 +84,18 @@ public interface GroupId<T extends GroupId<T>> {
    * to represent the biggest set of trips.
    */
   T merge(T other);
+
+  /**
+   * Return a set of hashable keys, so the group-ids matching this group-id can be looked up
+   * instead of comparing this group-id with all other group-ids. If two group-ids match, they
+   * MUST have at least one key in common. Group-ids with a key in common do not need to match,
+   * the keys are only used to find the candidates to call {@link #match(GroupId)} on.
+   * <p>
+   * An empty collection means that this group-id does not match any other group-id. The default
+   * is {@code null}, which means that this group-id may match any other group-id.
+   */
+  @Nullable
+  default Collection<?> signatureKeys() {
+    return null;
+  }
 }
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.spi;
 
+import java.util.List;
 import org.opentripplanner.model.plan.Itinerary;
 
 /**
@@ -10,4 +11,14 @@ public interface ItineraryDecorator {
    * Implement this to decorate each itinerary in the result.
    */
   void decorate(Itinerary itinerary);
+
+  /**
+   * Decorate all itineraries in the result. The default implementation decorates one itinerary
+   * at a time, override this to decorate them in parallel or to measure the whole list.
+   */
+  default void decorate(List<Itinerary> itineraries) {
+    for (var it : itineraries) {
+      decorate(it);
+    }
+  }
 }
@@ -9,6 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
@@ -340,7 +341,10 @@ public class GraphPathToItineraryMapper {
   }
 
   /**
-   * Generate one leg of an itinerary from a list of {@link State}.
+   * Generate one leg of an itinerary from a list of {@link State}. The geometry is created on first
+   * access, see {@link StreetLeg}. The walk steps are not, they depend on the edges connected to
+   * the vertices of the path, and the temporary edges of the request are removed when the routing
+   * is done.
    *
    * @param states       The list of states to base the leg on
    * @param previousStep the previous walk step, so that the first relative turn direction is
@@ -364,7 +368,8 @@ public class GraphPathToItineraryMapper {
 
     double distanceMeters = edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
 
-    LineString geometry = GeometryUtils.concatenateLineStrings(edges, Edge::getGeometry);
+    Supplier<LineString> geometry = () ->
+      GeometryUtils.concatenateLineStrings(edges, Edge::getGeometry);
 
     var statesToWalkStepsMapper = new StatesToWalkStepsMapper(
       states,
@@ -151,6 +151,7 @@ public class TransitRouter {
         raptorRequest.multiCriteria()
       );
       paths = service.optimize(transitResponse.paths());
+      debugTimingAggregator.finishedTransferOptimization();
     }
 
     // Create itineraries
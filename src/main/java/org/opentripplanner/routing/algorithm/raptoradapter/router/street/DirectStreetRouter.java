@@ -44,7 +44,8 @@ public class DirectStreetRouter {
       GraphPathFinder gpFinder = new GraphPathFinder(
         serverContext.traverseVisitor(),
         serverContext.dataOverlayContext(request),
-        maxCarSpeed
+        maxCarSpeed,
+        serverContext.graph().getStreetLandmarks()
       );
       List<GraphPath<State, Edge, Vertex>> paths = gpFinder.graphPathFinderEntryPoint(
         directRequest,
@@ -8,10 +8,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound.LandmarkLowerBound;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.transit.model.site.StopLocation;
@@ -62,10 +64,18 @@ public class TransitLayer {
   @Nullable
   private final int[] stopBoardAlightTransferCosts;
 
+  /**
+   * Precomputed stop-to-stop lower bound used by Raptor for destination pruning. It is calculated
+   * after the TransitLayer is created, and set when ready. It is only valid for this instance and
+   * is NOT copied to new instances.
+   */
+  @Nullable
+  private volatile LandmarkLowerBound stopToStopLowerBound;
+
   /**
    * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
    * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace entire
-   * keys and their values in the map.
+   * keys and their values in the map. The stop-to-stop lower bound is not copied.
    */
   public TransitLayer(TransitLayer transitLayer) {
     this(
@@ -131,6 +141,21 @@ public class TransitLayer {
     return stopModel.stopIndexSize();
   }
 
+  /**
+   * Stream the trip patterns for all running dates. A trip pattern with more than one running date
+   * is returned once for each running date.
+   */
+  public Stream<TripPatternForDate> streamTripPatternsForAllRunningDates() {
+    return tripPatternsRunningOnDate.values().stream().flatMap(List::stream);
+  }
+
+  /**
+   * Index of outer list is from stop index, inner list index has no specific meaning.
+   */
+  public List<List<Transfer>> getTransfersByStopIndex() {
+    return transfersByStopIndex;
+  }
+
   /**
    * Returns a copy of the list of trip patterns for the given running date. Running date is not
    * necessarily the same as the service date. A Trip "runs through" a date if any of its arrivals
@@ -205,4 +230,17 @@ public class TransitLayer {
   public void setConstrainedTransfers(ConstrainedTransfersForPatterns constrainedTransfers) {
     this.constrainedTransfers = constrainedTransfers;
   }
+
+  /**
+   * Return the stop-to-stop lower bound for this TransitLayer, {@code null} if not calculated
+   * (yet).
+   */
+  @Nullable
+  public LandmarkLowerBound getStopToStopLowerBound() {
+    return stopToStopLowerBound;
+  }
+
+  public void setStopToStopLowerBound(LandmarkLowerBound stopToStopLowerBound) {
+    this.stopToStopLowerBound = stopToStopLowerBound;
+  }
 }
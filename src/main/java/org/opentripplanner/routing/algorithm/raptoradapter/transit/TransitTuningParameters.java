@@ -124,4 +124,26 @@ public interface TransitTuningParameters {
    * {@link org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache}
    */
   List<RouteRequest> transferCacheRequests();
+
+  /**
+   * The number of landmarks used to precompute a stop-to-stop lower bound for travel duration and
+   * number of transfers. The lower bound is used for destination pruning in the multi-criteria
+   * search instead of running a heuristic search for each request. Zero disables the feature.
+   * <p>
+   * The default value is 0.
+   */
+  default int lowerBoundLandmarks() {
+    return 0;
+  }
+
+  /**
+   * The minimum time between two rebuilds of the stop-to-stop lower bound for the realtime
+   * transit data. The lower bound is only rebuilt if a realtime update makes a trip faster than
+   * the trips the lower bound is built from.
+   * <p>
+   * The default value is 1 minute.
+   */
+  default Duration lowerBoundMinRebuildInterval() {
+    return Duration.ofMinutes(1);
+  }
 }
@@ -0,0 +1,181 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound;
+
+import java.util.Map;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.spi.RaptorStopToStopLowerBound;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * A stop-to-stop lower bound based on landmarks (ALT - A*, Landmarks and Triangle inequality). For
+ * a small set of landmark stops the shortest travel duration and the minimum number of transit
+ * legs to and from all other stops are precomputed on a static graph. The graph is built from the
+ * minimum hop-time of each pattern and the transfers, so it does not depend on the time of day.
+ * <p>
+ * Given the precomputed values {@code d(s, L)} and {@code d(L, s)} the triangle inequality gives
+ * the lower bound:
+ * <pre>
+ * d(s, t) >= max over L of ( d(s, L) - d(t, L), d(L, t) - d(L, s) )
+ * </pre>
+ * The table is also used to detect unreachable stops: if {@code s} can not reach {@code L}, but
+ * {@code t} can, then {@code s} can not reach {@code t}. The same is true if {@code L} can reach
+ * {@code s}, but not {@code t}.
+ * <p>
+ * The values are stored in flat arrays, with the values for all landmarks next to each other for
+ * each stop. This keeps the lookup for a pair of stops within a few cache lines.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class LandmarkLowerBound implements RaptorStopToStopLowerBound {
+
+  /** Used internally to mark a stop not reachable from/to a landmark */
+  static final int UNREACHED = Integer.MAX_VALUE;
+
+  /**
+   * The transfer durations in the table are calculated using this speed (m/s). It must be faster
+   * than the transfer speed of any request using the table, see
+   * {@link #isAdmissibleForTransferSpeed(double)}.
+   */
+  static final double TRANSFER_SPEED_UPPER_BOUND = 10.0;
+
+  /**
+   * The duration of a transfer may be shorter than the distance divided by the speed, walking or
+   * cycling downhill is faster than on flat ground. We add a safety margin for this.
+   */
+  private static final double SLOPE_SPEED_FACTOR = 1.5;
+
+  private final int nStops;
+  private final int[] landmarks;
+
+  /** Indexed by {@code stop * nLandmarks + landmark} */
+  private final int[] durationToLandmark;
+  private final int[] durationFromLandmark;
+  private final int[] transitLegsToLandmark;
+  private final int[] transitLegsFromLandmark;
+
+  /** The minimum hop-time of each pattern the table is built from, see {@link #isValidFor} */
+  private final Map<RoutingTripPattern, int[]> minHopDurations;
+
+  LandmarkLowerBound(
+    int nStops,
+    int[] landmarks,
+    int[] durationToLandmark,
+    int[] durationFromLandmark,
+    int[] transitLegsToLandmark,
+    int[] transitLegsFromLandmark,
+    Map<RoutingTripPattern, int[]> minHopDurations
+  ) {
+    this.nStops = nStops;
+    this.landmarks = landmarks;
+    this.durationToLandmark = durationToLandmark;
+    this.durationFromLandmark = durationFromLandmark;
+    this.transitLegsToLandmark = transitLegsToLandmark;
+    this.transitLegsFromLandmark = transitLegsFromLandmark;
+    this.minHopDurations = minHopDurations;
+  }
+
+  /**
+   * The table can only be used if the transfer speed used by the request is low enough to keep the
+   * bound admissible.
+   *
+   * @param transferSpeed the walk or bicycle speed (m/s) used to calculate transfers
+   */
+  public boolean isAdmissibleForTransferSpeed(double transferSpeed) {
+    return transferSpeed * SLOPE_SPEED_FACTOR <= TRANSFER_SPEED_UPPER_BOUND;
+  }
+
+  /**
+   * Return {@code true} if the table is still a lower bound after the TripPatternForDate of the
+   * same pattern is replaced with the given one. This is the case if no trip has a hop shorter
+   * than the minimum hop-time the table is built from. Patterns not part of the table, like
+   * patterns created by the realtime updaters, are not valid.
+   */
+  public boolean isValidFor(TripPatternForDate tripPatternForDate) {
+    int[] minHops = minHopDurations.get(tripPatternForDate.getTripPattern());
+    if (minHops == null) {
+      return false;
+    }
+    for (TripTimes tripTimes : tripPatternForDate.tripTimes()) {
+      if (hasShorterHop(minHops, tripTimes)) {
+        return false;
+      }
+    }
+    for (var frequency : tripPatternForDate.getFrequencies()) {
+      if (hasShorterHop(minHops, frequency.tripTimes)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int numberOfLandmarks() {
+    return landmarks.length;
+  }
+
+  @Override
+  public int minTravelDuration(int fromStop, int toStop) {
+    return lowerBound(fromStop, toStop, durationToLandmark, durationFromLandmark);
+  }
+
+  @Override
+  public int minNumberOfTransitLegs(int fromStop, int toStop) {
+    return lowerBound(fromStop, toStop, transitLegsToLandmark, transitLegsFromLandmark);
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(LandmarkLowerBound.class)
+      .addNum("nStops", nStops)
+      .addNum("nLandmarks", landmarks.length)
+      .toString();
+  }
+
+  private static boolean hasShorterHop(int[] minHops, TripTimes tripTimes) {
+    for (int i = 0; i < minHops.length; ++i) {
+      int d = tripTimes.getArrivalTime(i + 1) - tripTimes.getDepartureTime(i);
+      if (Math.max(0, d) < minHops[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int lowerBound(int fromStop, int toStop, int[] toLandmark, int[] fromLandmark) {
+    // Stops added after the table was created are not part of the table
+    if (fromStop == toStop || fromStop >= nStops || toStop >= nStops) {
+      return 0;
+    }
+    final int n = landmarks.length;
+    final int s = fromStop * n;
+    final int t = toStop * n;
+    int best = 0;
+
+    for (int i = 0; i < n; ++i) {
+      int sToL = toLandmark[s + i];
+      int tToL = toLandmark[t + i];
+
+      if (sToL == UNREACHED) {
+        if (tToL != UNREACHED) {
+          return RaptorConstants.UNREACHED_HIGH;
+        }
+      } else if (tToL != UNREACHED) {
+        best = Math.max(best, sToL - tToL);
+      }
+
+      int lToS = fromLandmark[s + i];
+      int lToT = fromLandmark[t + i];
+
+      if (lToT == UNREACHED) {
+        if (lToS != UNREACHED) {
+          return RaptorConstants.UNREACHED_HIGH;
+        }
+      } else if (lToS != UNREACHED) {
+        best = Math.max(best, lToT - lToS);
+      }
+    }
+    return best;
+  }
+}
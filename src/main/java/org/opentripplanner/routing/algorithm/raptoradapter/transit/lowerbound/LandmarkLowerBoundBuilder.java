@@ -0,0 +1,437 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound;
+
+import static org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound.LandmarkLowerBound.TRANSFER_SPEED_UPPER_BOUND;
+import static org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound.LandmarkLowerBound.UNREACHED;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.opentripplanner.framework.collection.IntMinHeap;
+import org.opentripplanner.framework.lang.IntUtils;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build a {@link LandmarkLowerBound} from a {@link TransitLayer}.
+ * <p>
+ * The static graph used has one node for each stop. Each pattern adds an edge between each pair of
+ * consecutive stops, with the minimum hop-time for all trips on all days as the duration. Each
+ * transfer adds an edge, with the transfer distance divided by
+ * {@link LandmarkLowerBound#TRANSFER_SPEED_UPPER_BOUND} as the duration. Waiting, dwell-time,
+ * slack and boarding/alighting restrictions are ignored, so every path found by Raptor exists in
+ * this graph with the same or a longer duration.
+ * <p>
+ * The landmarks are selected using the "farthest" heuristic: the next landmark is the stop with
+ * the longest duration to or from all the selected landmarks. Only stops connected to the first
+ * landmark are selected. A landmark in the main network is still able to detect that a stop in a
+ * disconnected network can not reach it.
+ * <p>
+ * CONCURRENCY: The landmarks and durations are computed sequentially, then the number of transit
+ * legs is computed in parallel with one task for each landmark.
+ */
+public class LandmarkLowerBoundBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LandmarkLowerBoundBuilder.class);
+
+  private final int nStops;
+
+  /** The stop indexes for each pattern */
+  private final int[][] patternStops;
+
+  /** The minimum hop-time for each pattern, from stop position i to i+1 */
+  private final int[][] patternHopDurations;
+
+  /** The same minimum hop-times indexed by pattern, kept in the table */
+  private final Map<RoutingTripPattern, int[]> minHopDurations;
+
+  /** For each stop a list of pairs [pattern, stopPosInPattern] */
+  private final int[][] patternsByStop;
+
+  /** For each stop a list of pairs [stop, duration] */
+  private final int[][] transfersFromStop;
+  private final int[][] transfersToStop;
+
+  private LandmarkLowerBoundBuilder(TransitLayer transitLayer) {
+    this.nStops = transitLayer.getStopCount();
+
+    this.minHopDurations = mapPatterns(transitLayer);
+    this.patternStops = new int[minHopDurations.size()][];
+    this.patternHopDurations = new int[minHopDurations.size()][];
+    int i = 0;
+    for (var it : minHopDurations.entrySet()) {
+      patternStops[i] = stopIndexes(it.getKey());
+      patternHopDurations[i] = it.getValue();
+      ++i;
+    }
+    this.patternsByStop = indexPatternsByStop();
+
+    var transfers = transitLayer.getTransfersByStopIndex();
+    this.transfersFromStop = indexTransfers(transfers, true);
+    this.transfersToStop = indexTransfers(transfers, false);
+  }
+
+  /**
+   * Build a lower bound table for the given transit layer, using the given number of landmarks.
+   */
+  public static LandmarkLowerBound build(TransitLayer transitLayer, int nLandmarks) {
+    long start = System.currentTimeMillis();
+    var table = new LandmarkLowerBoundBuilder(transitLayer).build(nLandmarks);
+    LOG.info(
+      "Stop-to-stop lower bound created with {} landmarks. Took: {}",
+      table.numberOfLandmarks(),
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - start)
+    );
+    return table;
+  }
+
+  private LandmarkLowerBound build(int nLandmarks) {
+    var landmarks = new TIntArrayList();
+    var fromLandmarks = new ArrayList<int[]>();
+    var toLandmarks = new ArrayList<int[]>();
+    selectLandmarks(nLandmarks, landmarks, fromLandmarks, toLandmarks);
+    int n = landmarks.size();
+
+    int[][] legsFromLandmarks = new int[n][];
+    int[][] legsToLandmarks = new int[n][];
+
+    // THIS CODE RUNS IN PARALLEL
+    IntStream
+      .range(0, n)
+      .parallel()
+      .forEach(i -> {
+        int landmark = landmarks.get(i);
+        legsFromLandmarks[i] = minTransitLegs(landmark, true);
+        legsToLandmarks[i] = minTransitLegs(landmark, false);
+      });
+    // END PARALLEL CODE
+
+    return new LandmarkLowerBound(
+      nStops,
+      landmarks.toArray(),
+      interleave(toLandmarks.toArray(int[][]::new)),
+      interleave(fromLandmarks.toArray(int[][]::new)),
+      interleave(legsToLandmarks),
+      interleave(legsFromLandmarks),
+      minHopDurations
+    );
+  }
+
+  /**
+   * Select landmarks and add the shortest durations from and to each of them.
+   */
+  private void selectLandmarks(
+    int nLandmarks,
+    TIntArrayList landmarks,
+    List<int[]> fromLandmarks,
+    List<int[]> toLandmarks
+  ) {
+    if (nLandmarks == 0 || patternStops.length == 0) {
+      return;
+    }
+    int[] minDurations = IntUtils.intArray(nStops, UNREACHED);
+
+    // Start with the stop farthest away from the stop with most patterns
+    int seed = findStopWithMostPatterns();
+    int candidate = findFarthestStop(shortestDurations(seed, true));
+    if (candidate == -1) {
+      candidate = seed;
+    }
+
+    while (landmarks.size() < nLandmarks && candidate != -1) {
+      int[] from = shortestDurations(candidate, true);
+      int[] to = shortestDurations(candidate, false);
+      landmarks.add(candidate);
+      fromLandmarks.add(from);
+      toLandmarks.add(to);
+
+      for (int s = 0; s < nStops; ++s) {
+        minDurations[s] = Math.min(minDurations[s], Math.min(from[s], to[s]));
+      }
+      // Landmarks have a duration of zero, so they are never selected again
+      candidate = findFarthestStop(minDurations);
+    }
+  }
+
+  /**
+   * Return the reached stop with the longest duration. Only stops visited by a pattern are
+   * included, stops with a zero duration are skipped. Return -1 if no stop exist.
+   */
+  private int findFarthestStop(int[] durations) {
+    int farthest = -1;
+    for (int s = 0; s < nStops; ++s) {
+      if (patternsByStop[s].length == 0 || durations[s] == 0 || durations[s] == UNREACHED) {
+        continue;
+      }
+      if (farthest == -1 || durations[s] > durations[farthest]) {
+        farthest = s;
+      }
+    }
+    return farthest;
+  }
+
+  private int findStopWithMostPatterns() {
+    int best = 0;
+    for (int s = 1; s < nStops; ++s) {
+      if (patternsByStop[s].length > patternsByStop[best].length) {
+        best = s;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Dijkstra's shortest path. If forward, return the duration from the source to all stops,
+   * if not the duration from all stops to the source.
+   */
+  private int[] shortestDurations(int source, boolean forward) {
+    int[] durations = IntUtils.intArray(nStops, UNREACHED);
+    var queue = new IntMinHeap();
+    durations[source] = 0;
+    queue.add(0, source);
+
+    while (!queue.isEmpty()) {
+      long next = queue.poll();
+      int duration = IntMinHeap.key(next);
+      int stop = IntMinHeap.value(next);
+
+      if (duration > durations[stop]) {
+        continue;
+      }
+      int[] patterns = patternsByStop[stop];
+      for (int i = 0; i < patterns.length; i += 2) {
+        int p = patterns[i];
+        int pos = patterns[i + 1];
+        int[] stops = patternStops[p];
+
+        if (forward && pos + 1 < stops.length) {
+          relax(durations, queue, stops[pos + 1], duration + patternHopDurations[p][pos]);
+        } else if (!forward && pos > 0) {
+          relax(durations, queue, stops[pos - 1], duration + patternHopDurations[p][pos - 1]);
+        }
+      }
+      int[] transfers = forward ? transfersFromStop[stop] : transfersToStop[stop];
+      for (int i = 0; i < transfers.length; i += 2) {
+        relax(durations, queue, transfers[i], duration + transfers[i + 1]);
+      }
+    }
+    return durations;
+  }
+
+  private static void relax(int[] durations, IntMinHeap queue, int stop, int duration) {
+    if (duration < durations[stop]) {
+      durations[stop] = duration;
+      queue.add(duration, stop);
+    }
+  }
+
+  /**
+   * Breadth-first search, round by round like Raptor. If forward, return the minimum number of
+   * transit legs from the source to all stops, if not from all stops to the source. Transfers are
+   * free and can be chained.
+   */
+  private int[] minTransitLegs(int source, boolean forward) {
+    int[] legs = IntUtils.intArray(nStops, UNREACHED);
+    int[] boardPos = IntUtils.intArray(patternStops.length, -1);
+    var touchedPatterns = new TIntArrayList();
+    var current = new TIntArrayList();
+
+    legs[source] = 0;
+    current.add(source);
+    addStopsReachedByTransfers(current, legs, 0, forward);
+
+    for (int round = 1; !current.isEmpty(); ++round) {
+      // Find the first (forward) or last (reverse) position each pattern can be boarded at
+      for (int i = 0; i < current.size(); ++i) {
+        int[] patterns = patternsByStop[current.get(i)];
+        for (int j = 0; j < patterns.length; j += 2) {
+          int p = patterns[j];
+          int pos = patterns[j + 1];
+          if (boardPos[p] == -1) {
+            touchedPatterns.add(p);
+            boardPos[p] = pos;
+          } else {
+            boardPos[p] = forward ? Math.min(boardPos[p], pos) : Math.max(boardPos[p], pos);
+          }
+        }
+      }
+
+      var next = new TIntArrayList();
+      for (int i = 0; i < touchedPatterns.size(); ++i) {
+        int p = touchedPatterns.get(i);
+        int[] stops = patternStops[p];
+        if (forward) {
+          for (int pos = boardPos[p] + 1; pos < stops.length; ++pos) {
+            visit(stops[pos], round, legs, next);
+          }
+        } else {
+          for (int pos = boardPos[p] - 1; pos >= 0; --pos) {
+            visit(stops[pos], round, legs, next);
+          }
+        }
+        boardPos[p] = -1;
+      }
+      touchedPatterns.resetQuick();
+      addStopsReachedByTransfers(next, legs, round, forward);
+      current = next;
+    }
+    return legs;
+  }
+
+  private void addStopsReachedByTransfers(
+    TIntArrayList stops,
+    int[] legs,
+    int round,
+    boolean forward
+  ) {
+    // The list grows while iterating, this allows chaining transfers
+    for (int i = 0; i < stops.size(); ++i) {
+      int[] transfers = forward ? transfersFromStop[stops.get(i)] : transfersToStop[stops.get(i)];
+      for (int j = 0; j < transfers.length; j += 2) {
+        visit(transfers[j], round, legs, stops);
+      }
+    }
+  }
+
+  private static void visit(int stop, int round, int[] legs, TIntArrayList reached) {
+    if (legs[stop] == UNREACHED) {
+      legs[stop] = round;
+      reached.add(stop);
+    }
+  }
+
+  /**
+   * Find the minimum hop-time for each pattern across all trips and running dates.
+   */
+  private static Map<RoutingTripPattern, int[]> mapPatterns(TransitLayer transitLayer) {
+    Map<RoutingTripPattern, int[]> hopDurations = new IdentityHashMap<>();
+    // The same TripPatternForDate and TripTimes are referenced from many dates
+    Set<TripPatternForDate> visitedPatterns = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<TripTimes> visitedTrips = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    transitLayer
+      .streamTripPatternsForAllRunningDates()
+      .filter(visitedPatterns::add)
+      .forEach(tripPatternForDate -> {
+        var pattern = tripPatternForDate.getTripPattern();
+        int[] hops = hopDurations.computeIfAbsent(
+          pattern,
+          p -> IntUtils.intArray(p.numberOfStopsInPattern() - 1, UNREACHED)
+        );
+        for (TripTimes tripTimes : tripPatternForDate.tripTimes()) {
+          if (visitedTrips.add(tripTimes)) {
+            updateMinHopDurations(hops, tripTimes);
+          }
+        }
+        for (var frequency : tripPatternForDate.getFrequencies()) {
+          if (visitedTrips.add(frequency.tripTimes)) {
+            updateMinHopDurations(hops, frequency.tripTimes);
+          }
+        }
+      });
+
+    // Patterns without trips are not used by Raptor, remove the hops
+    for (int[] hops : hopDurations.values()) {
+      for (int i = 0; i < hops.length; ++i) {
+        if (hops[i] == UNREACHED) {
+          hops[i] = 0;
+        }
+      }
+    }
+    return hopDurations;
+  }
+
+  private static void updateMinHopDurations(int[] hops, TripTimes tripTimes) {
+    for (int i = 0; i < hops.length; ++i) {
+      int d = tripTimes.getArrivalTime(i + 1) - tripTimes.getDepartureTime(i);
+      hops[i] = Math.min(hops[i], Math.max(0, d));
+    }
+  }
+
+  private static int[] stopIndexes(RoutingTripPattern pattern) {
+    int[] stops = new int[pattern.numberOfStopsInPattern()];
+    for (int i = 0; i < stops.length; ++i) {
+      stops[i] = pattern.stopIndex(i);
+    }
+    return stops;
+  }
+
+  private int[][] indexPatternsByStop() {
+    var index = new TIntArrayList[nStops];
+    for (int p = 0; p < patternStops.length; ++p) {
+      int[] stops = patternStops[p];
+      for (int pos = 0; pos < stops.length; ++pos) {
+        if (index[stops[pos]] == null) {
+          index[stops[pos]] = new TIntArrayList();
+        }
+        index[stops[pos]].add(p);
+        index[stops[pos]].add(pos);
+      }
+    }
+    return toArrays(index);
+  }
+
+  /**
+   * Index the transfers by the stop they start from (forward) or by the stop they end at.
+   */
+  private int[][] indexTransfers(List<List<Transfer>> transfers, boolean forward) {
+    var index = new TIntArrayList[nStops];
+
+    for (int fromStop = 0; fromStop < transfers.size() && fromStop < nStops; ++fromStop) {
+      for (Transfer it : transfers.get(fromStop)) {
+        int toStop = it.getToStop();
+        if (toStop >= nStops) {
+          continue;
+        }
+        int duration = (int) (it.getDistanceMeters() / TRANSFER_SPEED_UPPER_BOUND);
+        if (forward) {
+          add(index, fromStop, toStop, duration);
+        } else {
+          add(index, toStop, fromStop, duration);
+        }
+      }
+    }
+    return toArrays(index);
+  }
+
+  private static void add(TIntArrayList[] index, int stop, int otherStop, int duration) {
+    if (index[stop] == null) {
+      index[stop] = new TIntArrayList();
+    }
+    index[stop].add(otherStop);
+    index[stop].add(duration);
+  }
+
+  private static int[][] toArrays(TIntArrayList[] lists) {
+    int[][] result = new int[lists.length][];
+    for (int i = 0; i < lists.length; ++i) {
+      result[i] = lists[i] == null ? new int[0] : lists[i].toArray();
+    }
+    return result;
+  }
+
+  /**
+   * Convert {@code [landmark][stop]} to a flat array indexed by
+   * {@code stop * nLandmarks + landmark}.
+   */
+  private int[] interleave(int[][] values) {
+    int n = values.length;
+    int[] result = new int[nStops * n];
+    for (int l = 0; l < n; ++l) {
+      for (int s = 0; s < nStops; ++s) {
+        result[s * n + l] = values[l][s];
+      }
+    }
+    return result;
+  }
+}
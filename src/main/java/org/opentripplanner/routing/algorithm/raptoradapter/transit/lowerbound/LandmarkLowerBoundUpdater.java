@@ -0,0 +1,113 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Create the {@link LandmarkLowerBound} for a {@link TransitLayer} and set it on the layer when
+ * ready. The realtime TransitLayer is replaced every time realtime updates are applied. The table
+ * of the previous layer is kept if none of the updated patterns got a shorter hop-time, if not the
+ * table is rebuilt in the background. Until the table is ready, Raptor falls back to the REVERSE
+ * heuristic search.
+ * <p>
+ * Only the latest TransitLayer is built, if more than one layer is published while a table is
+ * computed, only the last one is processed. A build is not started before the minimum rebuild
+ * interval has passed since the previous build started.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class LandmarkLowerBoundUpdater {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LandmarkLowerBoundUpdater.class);
+
+  private final int nLandmarks;
+  private final long minRebuildIntervalNanos;
+  private final AtomicReference<TransitLayer> pending = new AtomicReference<>();
+  private final ScheduledThreadPoolExecutor executor;
+
+  /** The {@link System#nanoTime()} the last build started */
+  private volatile long lastBuildStart;
+
+  public LandmarkLowerBoundUpdater(int nLandmarks, Duration minRebuildInterval) {
+    this.nLandmarks = nLandmarks;
+    this.minRebuildIntervalNanos = minRebuildInterval.toNanos();
+    this.lastBuildStart = System.nanoTime() - minRebuildIntervalNanos;
+    this.executor =
+      new ScheduledThreadPoolExecutor(
+        1,
+        new ThreadFactoryBuilder().setNameFormat("lower-bound-builder").setDaemon(true).build()
+      );
+    // A build waiting for the minimum rebuild interval is cancelled on shutdown
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /**
+   * Build the lower bound table for the given layer in the calling thread.
+   */
+  public void build(TransitLayer transitLayer) {
+    lastBuildStart = System.nanoTime();
+    transitLayer.setStopToStopLowerBound(LandmarkLowerBoundBuilder.build(transitLayer, nLandmarks));
+  }
+
+  /**
+   * Set the lower bound table on a new realtime layer, before it is published. The table of the
+   * previous layer is reused if it is still a lower bound for all the updated patterns, if not
+   * the table is rebuilt in the background.
+   *
+   * @param previousLayer the layer the new layer is copied from
+   * @param updatedPatterns the TripPatternForDates replaced or added in the new layer
+   */
+  public void update(
+    TransitLayer previousLayer,
+    TransitLayer transitLayer,
+    Collection<TripPatternForDate> updatedPatterns
+  ) {
+    var lowerBound = previousLayer.getStopToStopLowerBound();
+    if (lowerBound != null && updatedPatterns.stream().allMatch(lowerBound::isValidFor)) {
+      transitLayer.setStopToStopLowerBound(lowerBound);
+    } else {
+      refreshInBackground(transitLayer);
+    }
+  }
+
+  /**
+   * Build the lower bound table for the given layer in the background. Any pending layer not yet
+   * processed is replaced.
+   */
+  public void refreshInBackground(TransitLayer transitLayer) {
+    if (executor.isShutdown()) {
+      return;
+    }
+    if (pending.getAndSet(transitLayer) == null) {
+      long delay = lastBuildStart + minRebuildIntervalNanos - System.nanoTime();
+      executor.schedule(this::buildPending, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Stop the background thread. A table being computed is completed, pending layers are ignored.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void buildPending() {
+    var transitLayer = pending.getAndSet(null);
+    if (transitLayer == null) {
+      return;
+    }
+    try {
+      build(transitLayer);
+    } catch (RuntimeException e) {
+      LOG.error("Failed to build stop-to-stop lower bound: " + e.getMessage(), e);
+    }
+  }
+}
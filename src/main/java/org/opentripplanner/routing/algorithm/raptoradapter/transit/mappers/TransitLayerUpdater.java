@@ -12,11 +12,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound.LandmarkLowerBoundUpdater;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.timetable.TripIdAndServiceDate;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -58,12 +60,37 @@ public class TransitLayerUpdater {
 
   private final Map<LocalDate, Set<TripPatternForDate>> tripPatternsRunningOnDateMapCache = new HashMap<>();
 
+  /**
+   * Keep or rebuild the stop-to-stop lower bound for each new realtime TransitLayer, {@code null}
+   * if the lower bound is not enabled.
+   */
+  @Nullable
+  private final LandmarkLowerBoundUpdater lowerBoundUpdater;
+
   public TransitLayerUpdater(
     TransitModel transitModel,
     Map<LocalDate, TIntSet> serviceCodesRunningForDate
+  ) {
+    this(transitModel, serviceCodesRunningForDate, null);
+  }
+
+  public TransitLayerUpdater(
+    TransitModel transitModel,
+    Map<LocalDate, TIntSet> serviceCodesRunningForDate,
+    @Nullable LandmarkLowerBoundUpdater lowerBoundUpdater
   ) {
     this.transitModel = transitModel;
     this.serviceCodesRunningForDate = serviceCodesRunningForDate;
+    this.lowerBoundUpdater = lowerBoundUpdater;
+  }
+
+  /**
+   * Release the resources used to update the TransitLayer in the background.
+   */
+  public void shutdown() {
+    if (lowerBoundUpdater != null) {
+      lowerBoundUpdater.shutdown();
+    }
   }
 
   public void update(
@@ -78,7 +105,8 @@ public class TransitLayerUpdater {
 
     // Make a shallow copy of the realtime transit layer. Only the objects that are copied will be
     // changed during this update process.
-    TransitLayer realtimeTransitLayer = new TransitLayer(transitModel.getRealtimeTransitLayer());
+    TransitLayer previousTransitLayer = transitModel.getRealtimeTransitLayer();
+    TransitLayer realtimeTransitLayer = new TransitLayer(previousTransitLayer);
 
     // Instantiate a TripPatternForDateMapper with the new TripPattern mappings
     TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
@@ -227,6 +255,14 @@ public class TransitLayerUpdater {
       realtimeTransitLayer.setConstrainedTransfers(transferIndexGenerator.generateTransfers());
     }
 
+    if (lowerBoundUpdater != null) {
+      lowerBoundUpdater.update(
+        previousTransitLayer,
+        realtimeTransitLayer,
+        newTripPatternsForDate.values()
+      );
+    }
+
     // Switch out the reference with the updated realtimeTransitLayer. This is synchronized to
     // guarantee that the reference is set after all the fields have been updated.
     transitModel.setRealtimeTransitLayer(realtimeTransitLayer);
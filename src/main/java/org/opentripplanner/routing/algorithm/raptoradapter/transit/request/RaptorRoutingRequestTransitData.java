@@ -4,6 +4,7 @@ import java.time.ZonedDateTime;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPFeature;
@@ -18,6 +19,7 @@ import org.opentripplanner.raptor.spi.RaptorCostCalculator;
 import org.opentripplanner.raptor.spi.RaptorPathConstrainedTransferSearch;
 import org.opentripplanner.raptor.spi.RaptorRoute;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
+import org.opentripplanner.raptor.spi.RaptorStopToStopLowerBound;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 import org.opentripplanner.raptor.util.BitSetIterator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransferIndex;
@@ -29,6 +31,10 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtr
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.CostCalculatorFactory;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.GeneralizedCostParametersMapper;
 import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.routing.api.request.request.filter.TransitGroupSelect;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
 
 /**
@@ -69,6 +75,11 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
   private final int validTransitDataEndTime;
 
+  private final CacheKey cacheKey;
+
+  /** The walk or bicycle speed used to calculate transfers, see {@link #stopToStopLowerBound()} */
+  private final double transferSpeed;
+
   public RaptorRoutingRequestTransitData(
     TransitLayer transitLayer,
     ZonedDateTime transitSearchTimeZero,
@@ -125,6 +136,27 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
         this.transitSearchTimeZero,
         this.transitSearchTimeZero.plusDays(additionalFutureSearchDays + 1).toInstant()
       );
+
+    this.transferSpeed =
+      request.journey().transfer().mode() == StreetMode.BIKE
+        ? request.preferences().bike().speed()
+        : request.preferences().walk().speed();
+
+    this.cacheKey =
+      new CacheKey(
+        transitLayer,
+        transitSearchTimeZero,
+        additionalPastSearchDays,
+        additionalFutureSearchDays,
+        filter,
+        request.wheelchair(),
+        request.journey().transfer().mode(),
+        request.preferences(),
+        Set.copyOf(request.journey().transit().unpreferredRoutes()),
+        Set.copyOf(request.journey().transit().unpreferredAgencies()),
+        request.journey().transit().priorityGroupsByAgency(),
+        request.journey().transit().priorityGroupsGlobal()
+      );
   }
 
   @Override
@@ -217,6 +249,24 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     return validTransitDataEndTime;
   }
 
+  @Override
+  public Object cacheKey() {
+    return cacheKey;
+  }
+
+  /**
+   * The lower bound is computed for the TransitLayer instance used by this request, but it is only
+   * admissible if the transfers are not too fast.
+   */
+  @Nullable
+  @Override
+  public RaptorStopToStopLowerBound stopToStopLowerBound() {
+    var lowerBound = transitLayer.getStopToStopLowerBound();
+    return lowerBound != null && lowerBound.isAdmissibleForTransferSpeed(transferSpeed)
+      ? lowerBound
+      : null;
+  }
+
   @Override
   public RaptorConstrainedBoardingSearch<TripSchedule> transferConstraintsForwardSearch(
     int routeIndex
@@ -253,4 +303,24 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
       transitRequest.priorityGroupsGlobal()
     );
   }
+
+  /**
+   * This contains all the input used to create this class. The transit layer is compared by
+   * identity, a new instance is created for each real-time update. The filter must implement
+   * equals/hashCode to be able to match requests, if not only the same instance will match.
+   */
+  private record CacheKey(
+    TransitLayer transitLayer,
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter,
+    boolean wheelchair,
+    StreetMode transferMode,
+    RoutingPreferences preferences,
+    Set<FeedScopedId> unpreferredRoutes,
+    Set<FeedScopedId> unpreferredAgencies,
+    List<TransitGroupSelect> priorityGroupsByAgency,
+    List<TransitGroupSelect> priorityGroupsGlobal
+  ) {}
 }
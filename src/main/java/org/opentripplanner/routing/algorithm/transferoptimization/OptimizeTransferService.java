@@ -1,8 +1,8 @@
 package org.opentripplanner.routing.algorithm.transferoptimization;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.logging.Throttle;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.api.path.RaptorPath;
@@ -47,11 +47,16 @@ public class OptimizeTransferService<T extends RaptorTripSchedule> {
 
     long start = LOG.isDebugEnabled() ? System.currentTimeMillis() : 0;
 
-    List<RaptorPath<T>> results = new ArrayList<>();
+    // The paths are optimized independently of each other, the order of the result is kept
+    var stream = OTPFeature.ParallelRouting.isOn() && paths.size() > 1
+      ? paths.parallelStream()
+      : paths.stream();
 
-    for (var path : paths) {
-      results.addAll(optimize(path));
-    }
+    // THIS CODE RUNS IN PARALLEL
+    List<RaptorPath<T>> results = stream
+      .<RaptorPath<T>>flatMap(path -> optimize(path).stream())
+      .toList();
+    // END PARALLEL CODE
 
     if (LOG.isDebugEnabled()) {
       LOG.debug("Optimized transfers done in {} ms.", System.currentTimeMillis() - start);
@@ -3,12 +3,13 @@ package org.opentripplanner.routing.algorithm.via;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.RouteViaRequest;
@@ -28,6 +29,13 @@ public class ViaRoutingWorker {
   // TODO: This constant already exists in RoutingRequestToFilterChainMapper, so when POC is done use only constant
   private static final int MAX_NUMBER_OF_ITINERARIES = 200;
 
+  /**
+   * For each segment ending at a via location, the itineraries which can be reached from the
+   * segment before it, or all itineraries for the first segment. Only these are used to prepare
+   * the next search and are combined with the next segment.
+   */
+  private final List<List<Itinerary>> reachableItinerariesBySegment = new ArrayList<>();
+
   public ViaRoutingWorker(
     RouteViaRequest request,
     Function<RouteRequest, RoutingResponse> routingWorker
@@ -73,8 +81,22 @@ public class ViaRoutingWorker {
       return response;
     }
 
-    var firstArrival = firstArrival(response).orElseThrow(this::createRoutingException);
-    var lastArrival = lastArrival(response).orElseThrow(this::createRoutingException);
+    // Itineraries which can not be combined with any itinerary of the previous segment are
+    // dead ends, so they do not need to be continued by the next search
+    var itineraries = itineraries(response);
+    int segment = reachableItinerariesBySegment.size();
+    if (segment > 0) {
+      itineraries =
+        reachableItineraries(
+          reachableItinerariesBySegment.get(segment - 1),
+          request.viaSegment().get(segment - 1).viaLocation(),
+          itineraries
+        );
+    }
+    reachableItinerariesBySegment.add(itineraries);
+
+    var firstArrival = firstArrival(itineraries).orElseThrow(this::createRoutingException);
+    var lastArrival = lastArrival(itineraries).orElseThrow(this::createRoutingException);
     var maxSlack = v.viaLocation().maxSlack();
     // Prepare next search
     var searchWindow = Duration.between(firstArrival, lastArrival).plus(maxSlack);
@@ -89,7 +111,8 @@ public class ViaRoutingWorker {
 
   /**
    * For each itinerary from list element find itinerraries that can be combined to next list
-   * element.
+   * element. Itineraries which can not be reached from the previous list element are dead ends and
+   * are left out.
    */
   private ViaRoutingResponse combineRoutingResponse(List<RoutingResponse> routingResponses) {
     var res = new HashMap<Itinerary, List<Itinerary>>();
@@ -102,11 +125,15 @@ public class ViaRoutingWorker {
         routingErrors.addAll(errors);
       }
 
-      for (Itinerary itinerary : routingResponses.get(i).getTripPlan().itineraries) {
-        var filteredTransits = filterTransits(
-          itinerary,
-          routingResponses.get(i + 1).getTripPlan().itineraries,
-          this.viaRequest.viaSegment().get(i).viaLocation()
+      var nextItineraries = new ItinerariesByStartTime(
+        routingResponses.get(i + 1).getTripPlan().itineraries
+      );
+      var viaLocation = this.viaRequest.viaSegment().get(i).viaLocation();
+
+      for (Itinerary itinerary : reachableItinerariesBySegment.get(i)) {
+        var filteredTransits = nextItineraries.startingBetween(
+          itinerary.endTime().plus(viaLocation.minSlack()),
+          itinerary.endTime().plus(viaLocation.maxSlack())
         );
 
         if (!filteredTransits.isEmpty()) {
@@ -118,40 +145,106 @@ public class ViaRoutingWorker {
     return new ViaRoutingResponse(res, routingResponses, routingErrors);
   }
 
-  private List<Itinerary> filterTransits(
-    Itinerary i,
-    List<Itinerary> itineraries,
-    ViaLocation viaLocation
-  ) {
-    return itineraries.stream().filter(withinSlackTest(i, viaLocation)).toList();
-  }
-
   /**
-   * Only allow departures within min/max slack time.
+   * Return the itineraries which start within min/max slack time after the end of any of the
+   * previous itineraries, in the original order.
    */
-  private Predicate<Itinerary> withinSlackTest(Itinerary i, ViaLocation v) {
-    var earliestDeparturetime = i.endTime().plus(v.minSlack());
-    var latestDeparturetime = i.endTime().plus(v.maxSlack());
+  private static List<Itinerary> reachableItineraries(
+    List<Itinerary> previousItineraries,
+    ViaLocation v,
+    List<Itinerary> itineraries
+  ) {
+    var arrivals = previousItineraries
+      .stream()
+      .mapToLong(it -> it.endTime().toEpochSecond())
+      .sorted()
+      .toArray();
+    var minSlack = v.minSlack().toSeconds();
+    var maxSlack = v.maxSlack().toSeconds();
 
-    // Not before earlist and not after latest to include equal time
-    return j ->
-      !j.startTime().isBefore(earliestDeparturetime) && !j.startTime().isAfter(latestDeparturetime);
+    return itineraries
+      .stream()
+      .filter(j -> {
+        long departure = j.startTime().toEpochSecond();
+        // The first arrival which is not too early, it must not be too late either
+        int index = lowerBound(arrivals, departure - maxSlack);
+        return index < arrivals.length && arrivals[index] <= departure - minSlack;
+      })
+      .toList();
   }
 
-  private Optional<ZonedDateTime> firstArrival(RoutingResponse response) {
+  private static List<Itinerary> itineraries(RoutingResponse response) {
     return Optional
       .ofNullable(response.getTripPlan())
       .map(t -> t.itineraries)
-      .flatMap(i -> i.stream().min(Comparator.comparing(Itinerary::endTime)))
-      .map(Itinerary::endTime);
+      .orElse(List.of());
   }
 
-  private Optional<ZonedDateTime> lastArrival(RoutingResponse response) {
-    return Optional
-      .ofNullable(response.getTripPlan())
-      .map(t -> t.itineraries)
-      .flatMap(i -> i.stream().max(Comparator.comparing(Itinerary::endTime)))
-      .map(Itinerary::endTime);
+  private static Optional<ZonedDateTime> firstArrival(List<Itinerary> itineraries) {
+    return itineraries.stream().map(Itinerary::endTime).min(Comparator.naturalOrder());
+  }
+
+  private static Optional<ZonedDateTime> lastArrival(List<Itinerary> itineraries) {
+    return itineraries.stream().map(Itinerary::endTime).max(Comparator.naturalOrder());
+  }
+
+  /**
+   * Return the index of the first value which is equal to or greater than the given value, or
+   * the length of the array if there is none.
+   */
+  private static int lowerBound(long[] sortedValues, long value) {
+    int index = Arrays.binarySearch(sortedValues, value);
+    if (index < 0) {
+      return -index - 1;
+    }
+    // Step back to the first of equal values
+    while (index > 0 && sortedValues[index - 1] == value) {
+      --index;
+    }
+    return index;
+  }
+
+  /**
+   * The itineraries of a segment sorted by start time, so the itineraries within the slack of an
+   * arrival can be found without checking all of them.
+   */
+  private static final class ItinerariesByStartTime {
+
+    private final List<Itinerary> itineraries;
+    private final long[] startTimes;
+    private final int[] indexes;
+
+    ItinerariesByStartTime(List<Itinerary> itineraries) {
+      this.itineraries = itineraries;
+      this.indexes =
+        IntStream
+          .range(0, itineraries.size())
+          .boxed()
+          .sorted(Comparator.comparing(i -> itineraries.get(i).startTime()))
+          .mapToInt(Integer::intValue)
+          .toArray();
+      this.startTimes =
+        Arrays
+          .stream(indexes)
+          .mapToLong(i -> itineraries.get(i).startTime().toEpochSecond())
+          .toArray();
+    }
+
+    /**
+     * Return the itineraries starting in the given period, both ends included, in the original
+     * order.
+     */
+    List<Itinerary> startingBetween(ZonedDateTime earliest, ZonedDateTime latest) {
+      long latestSeconds = latest.toEpochSecond();
+      var result = new ArrayList<Integer>();
+      int i = lowerBound(startTimes, earliest.toEpochSecond());
+      while (i < startTimes.length && startTimes[i] <= latestSeconds) {
+        result.add(indexes[i]);
+        ++i;
+      }
+      result.sort(Comparator.naturalOrder());
+      return result.stream().map(itineraries::get).toList();
+    }
   }
 
   private RoutingValidationException createRoutingException() {
@@ -40,6 +40,7 @@ public class DebugTimingAggregator {
   private final Timer tripPatternFilterTimer;
   private final Timer accessEgressTimer;
   private final Timer raptorSearchTimer;
+  private final Timer transferOptimizationTimer;
   private final Timer itineraryCreationTimer;
   private final Timer transitRouterTimer;
   private final Timer filteringTimer;
@@ -56,6 +57,7 @@ public class DebugTimingAggregator {
   private Timer.Sample finishedPatternFiltering;
   private Timer.Sample finishedAccessEgress;
   private Timer.Sample finishedRaptorSearch;
+  private Timer.Sample finishedTransferOptimization;
   private Timer.Sample finishedRouters;
   private Timer.Sample finishedFiltering;
   private Timer.Sample startedAccessCalculating;
@@ -69,6 +71,7 @@ public class DebugTimingAggregator {
   private long tripPatternFilterTime;
   private long accessEgressTime;
   private long raptorSearchTime;
+  private long transferOptimizationTime;
   private long itineraryCreationTime;
   private long transitRouterTime;
   private long filteringTime;
@@ -92,6 +95,8 @@ public class DebugTimingAggregator {
     itineraryCreationTimer =
       Timer.builder("routing.itineraryCreation").tags(tags).register(registry);
     raptorSearchTimer = Timer.builder(ROUTING_RAPTOR).tags(tags).register(registry);
+    transferOptimizationTimer =
+      Timer.builder("routing.transferOptimization").tags(tags).register(registry);
     accessEgressTimer = Timer.builder("routing.accessEgress").tags(tags).register(registry);
     tripPatternFilterTimer =
       Timer.builder("routing.tripPatternFiltering").tags(tags).register(registry);
@@ -213,14 +218,29 @@ public class DebugTimingAggregator {
     raptorSearchTime = finishedAccessEgress.stop(raptorSearchTimer);
   }
 
+  /**
+   * Record the time when we are finished optimizing the transfers of the raptor paths. This is
+   * optional, if it is not called the optimization is included in the itinerary creation.
+   */
+  public void finishedTransferOptimization() {
+    finishedTransferOptimization = Timer.start(clock);
+    if (finishedRaptorSearch == null) {
+      return;
+    }
+    transferOptimizationTime = finishedRaptorSearch.stop(transferOptimizationTimer);
+  }
+
   /**
    * Record the time when we have created internal itinerary objects from the raptor responses.
    */
   public void finishedItineraryCreation() {
-    if (finishedRaptorSearch == null) {
+    var started = finishedTransferOptimization != null
+      ? finishedTransferOptimization
+      : finishedRaptorSearch;
+    if (started == null) {
       return;
     }
-    itineraryCreationTime = finishedRaptorSearch.stop(itineraryCreationTimer);
+    itineraryCreationTime = started.stop(itineraryCreationTimer);
   }
 
   /** Record the time when we finished the transit router search */
@@ -251,6 +271,9 @@ public class DebugTimingAggregator {
       log("│├ Egress routing (" + numEgresses + " egresses)", egressTime);
       log("││ Access/Egress routing", accessEgressTime);
       log("│├ Main routing", raptorSearchTime);
+      if (transferOptimizationTime > 0) {
+        log("│├ Optimizing transfers", transferOptimizationTime);
+      }
       log("│├ Creating itineraries", itineraryCreationTime);
       log("├┴ Transit routing total", transitRouterTime);
     }
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -19,12 +20,15 @@ import org.opentripplanner.ext.dataoverlay.configuration.DataOverlayParameterBin
 import org.opentripplanner.ext.geocoder.LuceneIndex;
 import org.opentripplanner.framework.geometry.CompactElevationProfile;
 import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.inspector.vector.VectorTileArchive;
 import org.opentripplanner.model.calendar.openinghours.OpeningHoursCalendarService;
 import org.opentripplanner.routing.fares.FareService;
 import org.opentripplanner.routing.graph.index.StreetIndex;
+import org.opentripplanner.routing.linking.Scope;
 import org.opentripplanner.routing.linking.VertexLinker;
 import org.opentripplanner.routing.services.notes.StreetNotesService;
 import org.opentripplanner.routing.vehicle_parking.VehicleParkingService;
+import org.opentripplanner.street.model.StreetLandmarks;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
@@ -76,6 +80,20 @@ public class Graph implements Serializable {
 
   public final Instant buildTime = Instant.now();
 
+  /**
+   * Incremented when the permanent or real-time street graph changes. This is used to find out if
+   * cached renderings of the street graph are stale. The temporary edges of a routing request are
+   * not included.
+   */
+  private final transient AtomicLong edgeGeneration = new AtomicLong();
+
+  /**
+   * Incremented when the permanent street graph changes. Unlike {@link #edgeGeneration}, this is
+   * not changed by real-time updaters linking and unlinking rental vehicles and parking, so it can
+   * be used to find out if data derived from the permanent streets is stale.
+   */
+  private final transient AtomicLong permanentEdgeGeneration = new AtomicLong();
+
   @Nullable
   private final OpeningHoursCalendarService openingHoursCalendarService;
 
@@ -122,6 +140,20 @@ public class Graph implements Serializable {
   private final VehicleParkingService vehicleParkingService = new VehicleParkingService();
   private FareService fareService;
 
+  /**
+   * Precomputed distances to and from landmarks, used by the street search heuristic. Null if not
+   * enabled in the build config.
+   */
+  @Nullable
+  private StreetLandmarks streetLandmarks;
+
+  /**
+   * Vector tiles of static layers rendered at graph build time. Null if not enabled in the build
+   * config.
+   */
+  @Nullable
+  private VectorTileArchive vectorTileArchive;
+
   /**
    * Hack. I've tried three different ways of generating unique labels. Previously we were just
    * tolerating edge label collisions. For some reason we're repeatedly generating splits on the
@@ -184,6 +216,35 @@ public class Graph implements Serializable {
     }
   }
 
+  /**
+   * A number which is changed every time the permanent or real-time street graph changes, see
+   * {@link #incrementEdgeGeneration(Scope)}.
+   */
+  public long getEdgeGeneration() {
+    return edgeGeneration.get();
+  }
+
+  /**
+   * A number which is changed every time the permanent street graph changes, but not when the
+   * real-time street graph changes, see {@link #incrementEdgeGeneration(Scope)}.
+   */
+  public long getPermanentEdgeGeneration() {
+    return permanentEdgeGeneration.get();
+  }
+
+  /**
+   * Call this after edges or vertices are added to or removed from the street graph. Changes
+   * made for a single routing request, with the {@link Scope#REQUEST} scope, are ignored.
+   */
+  public void incrementEdgeGeneration(Scope scope) {
+    if (scope == Scope.PERMANENT) {
+      permanentEdgeGeneration.incrementAndGet();
+    }
+    if (scope != Scope.REQUEST) {
+      edgeGeneration.incrementAndGet();
+    }
+  }
+
   /**
    * Fetching a vertex by its by label. This is convenient in tests and such, but avoid using in general.
    *
@@ -384,6 +445,24 @@ public class Graph implements Serializable {
     this.fareService = fareService;
   }
 
+  @Nullable
+  public StreetLandmarks getStreetLandmarks() {
+    return streetLandmarks;
+  }
+
+  public void setStreetLandmarks(@Nullable StreetLandmarks streetLandmarks) {
+    this.streetLandmarks = streetLandmarks;
+  }
+
+  @Nullable
+  public VectorTileArchive getVectorTileArchive() {
+    return vectorTileArchive;
+  }
+
+  public void setVectorTileArchive(@Nullable VectorTileArchive vectorTileArchive) {
+    this.vectorTileArchive = vectorTileArchive;
+  }
+
   public LuceneIndex getLuceneIndex() {
     return luceneIndex;
   }
@@ -16,6 +16,7 @@ import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.preference.StreetPreferences;
 import org.opentripplanner.routing.error.PathNotFoundException;
 import org.opentripplanner.street.model.StreetConstants;
+import org.opentripplanner.street.model.StreetLandmarks;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.StreetSearchBuilder;
@@ -23,6 +24,7 @@ import org.opentripplanner.street.search.TemporaryVerticesContainer;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,18 +61,23 @@ public class GraphPathFinder {
 
   private final float maxCarSpeed;
 
+  @Nullable
+  private final StreetLandmarks streetLandmarks;
+
   public GraphPathFinder(@Nullable TraverseVisitor<State, Edge> traverseVisitor) {
-    this(traverseVisitor, null, StreetConstants.DEFAULT_MAX_CAR_SPEED);
+    this(traverseVisitor, null, StreetConstants.DEFAULT_MAX_CAR_SPEED, null);
   }
 
   public GraphPathFinder(
     @Nullable TraverseVisitor<State, Edge> traverseVisitor,
     @Nullable DataOverlayContext dataOverlayContext,
-    float maxCarSpeed
+    float maxCarSpeed,
+    @Nullable StreetLandmarks streetLandmarks
   ) {
     this.traverseVisitor = traverseVisitor;
     this.dataOverlayContext = dataOverlayContext;
     this.maxCarSpeed = maxCarSpeed;
+    this.streetLandmarks = streetLandmarks;
   }
 
   /**
@@ -86,7 +93,7 @@ public class GraphPathFinder {
 
     StreetSearchBuilder aStar = StreetSearchBuilder
       .of()
-      .setHeuristic(new EuclideanRemainingWeightHeuristic(maxCarSpeed))
+      .setHeuristic(createHeuristic())
       .setSkipEdgeStrategy(
         new DurationSkipEdgeStrategy(
           preferences.maxDirectDuration().valueOf(request.journey().direct().mode())
@@ -171,4 +178,13 @@ public class GraphPathFinder {
 
     return paths;
   }
+
+  /**
+   * Use the landmark heuristic if the graph contains street landmarks.
+   */
+  private EuclideanRemainingWeightHeuristic createHeuristic() {
+    return streetLandmarks == null
+      ? new EuclideanRemainingWeightHeuristic(maxCarSpeed)
+      : new LandmarkRemainingWeightHeuristic(maxCarSpeed, streetLandmarks);
+  }
 }
@@ -52,5 +52,6 @@ public class DisposableEdgeCollection {
       graph.removeIfUnconnected(v);
     }
     edges.clear();
+    graph.incrementEdgeGeneration(scope);
   }
 }
@@ -219,6 +219,7 @@ public class VertexLinker {
       throw e;
     }
 
+    graph.incrementEdgeGeneration(scope);
     return tempEdges;
   }
 
@@ -27,6 +27,12 @@ public interface VehicleRentalService {
 
   boolean hasRentalBikes();
 
+  /**
+   * A counter which is incremented each time a rental place is added, updated or removed. It can
+   * be used to find out if data derived from the rental places, like cached map tiles, is stale.
+   */
+  long getGeneration();
+
   /**
    * Gets all the vehicle rental stations inside the envelope. This is currently done by iterating
    * over a set, but we could use a spatial index if the number of vehicle rental stations is high
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
@@ -24,6 +25,7 @@ public class DefaultVehicleRentalService implements VehicleRentalService, Vehicl
   public DefaultVehicleRentalService() {}
 
   private final Map<FeedScopedId, VehicleRentalPlace> rentalPlaces = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
 
   @Override
   public Collection<VehicleRentalPlace> getVehicleRentalPlaces() {
@@ -69,11 +71,18 @@ public class DefaultVehicleRentalService implements VehicleRentalService, Vehicl
   @Override
   public void addVehicleRentalStation(VehicleRentalPlace vehicleRentalStation) {
     rentalPlaces.put(vehicleRentalStation.getId(), vehicleRentalStation);
+    generation.incrementAndGet();
   }
 
   @Override
   public void removeVehicleRentalStation(FeedScopedId vehicleRentalStationId) {
     rentalPlaces.remove(vehicleRentalStationId);
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public long getGeneration() {
+    return generation.get();
   }
 
   @Override
@@ -10,6 +10,7 @@ import org.opentripplanner.framework.application.ApplicationShutdownSupport;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.inspector.raster.RasterTileCache;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.graph.SerializedGraphObject;
 import org.opentripplanner.standalone.config.CommandLineParameters;
@@ -205,7 +206,11 @@ public class OTPMain {
     if (params.doServe()) {
       GrizzlyServer grizzlyServer = app.createGrizzlyServer();
 
-      registerShutdownHookToGracefullyShutDownServer(app.transitModel(), app.raptorConfig());
+      registerShutdownHookToGracefullyShutDownServer(
+        app.transitModel(),
+        app.raptorConfig(),
+        app.rasterTileCache()
+      );
 
       // Loop to restart server on uncaught fatal exceptions.
       while (true) {
@@ -233,7 +238,8 @@ public class OTPMain {
    */
   private static void registerShutdownHookToGracefullyShutDownServer(
     TransitModel transitModel,
-    RaptorConfig<?> raptorConfig
+    RaptorConfig<?> raptorConfig,
+    RasterTileCache rasterTileCache
   ) {
     ApplicationShutdownSupport.addShutdownHook(
       "server-shutdown",
@@ -241,6 +247,7 @@ public class OTPMain {
         LOG.info("OTP shutdown started...");
         UpdaterConfigurator.shutdownGraph(transitModel);
         raptorConfig.shutdown();
+        rasterTileCache.shutdown();
         WeakCollectionCleaner.DEFAULT.exit();
         DeferredAuthorityFactory.exit();
         LOG.info("OTP shutdown: resources released...");
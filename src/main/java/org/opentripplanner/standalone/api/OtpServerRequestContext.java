@@ -12,6 +12,7 @@ import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.inspector.raster.TileRendererManager;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
@@ -128,6 +129,12 @@ public interface OtpServerRequestContext {
 
   VectorTileConfig vectorTileConfig();
 
+  /** The tile cache of the vector tile API, shared by all requests. */
+  VectorTileCache vectorTileCache();
+
+  /** The tile cache of the debug inspector vector tiles, shared by all requests. */
+  VectorTileCache inspectorVectorTileCache();
+
   default DataOverlayContext dataOverlayContext(RouteRequest request) {
     return OTPFeature.DataOverlay.isOnElseNull(() ->
       new DataOverlayContext(
@@ -6,6 +6,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.MissingNode;
@@ -146,6 +147,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final boolean osmCacheDataInMem;
 
+  public final boolean osmRelationsAndWaysInSinglePass;
+
   /** See {@link IslandPruningConfig}. */
   public final IslandPruningConfig islandPruning;
 
@@ -160,6 +163,12 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final int maxAreaNodes;
 
+  public final int streetLandmarks;
+
+  public final int staticVectorTilesMaxZoom;
+
+  public final List<String> staticVectorTilesLanguages;
+
   public final DataOverlayConfig dataOverlay;
   public final double maxStopToShapeSnapDistance;
   public final Set<String> boardingLocationTags;
@@ -332,6 +341,21 @@ all of the elevation values in the street edges.
       """
         )
         .asBoolean(false);
+    osmRelationsAndWaysInSinglePass =
+      root
+        .of("osmRelationsAndWaysInSinglePass")
+        .since(V2_6)
+        .summary("Read the OSM relations and ways in a single pass.")
+        .description(
+          """
+          The OSM relations must be processed before the ways. The relations are usually stored last in
+          the file, so by default the file is read once for the relations and once for the ways. If this
+          parameter is `true` both are read in the same pass, and all ways are kept in memory until all
+          relations are processed. This saves reading and decoding the file one time, but uses more memory
+          while loading the OSM data.
+          """
+        )
+        .asBoolean(false);
     platformEntriesLinking =
       root
         .of("platformEntriesLinking")
@@ -477,6 +501,58 @@ recommended.
           "Visibility calculations for an area will not be done if there are more nodes than this limit."
         )
         .asInt(150);
+    streetLandmarks =
+      root
+        .of("streetLandmarks")
+        .since(V2_6)
+        .summary("The number of landmarks used to speed up long car and bicycle street searches.")
+        .description(
+          """
+        For each landmark the shortest car duration and bicycle distance to and from every vertex in the
+        street graph are computed and stored in the graph. The street search uses these to calculate a
+        lower bound for the remaining duration, which is much better than the straight line distance in
+        large graphs with mountains, fjords or islands. This makes long direct car and bicycle searches
+        faster.
+
+        Each landmark adds 16 bytes for each vertex to the graph size, and the landmarks are computed at
+        the end of the street graph build. Between 8 and 16 landmarks is usually a good choice. Set to `0`
+        to disable.
+        """
+        )
+        .asInt(0);
+    staticVectorTilesMaxZoom =
+      root
+        .of("staticVectorTilesMaxZoom")
+        .since(V2_6)
+        .summary("The maximum zoom level of the vector tiles rendered when the graph is built.")
+        .description(
+          """
+        The stop, station and area stop layers of the vector tiles API only change when the graph is
+        built. If this is set, the tiles of these layers, from the minimum zoom level of the layer to
+        this zoom level, are rendered at the end of the graph build and stored in the graph. The layers
+        are taken from the `vectorTiles` section of the router config used to build the graph. When
+        a tile is requested, the archived layers are copied into the response and only the realtime
+        layers are built. If the layer configuration is changed, the archived tiles are not used.
+
+        Only the tiles close to stops and stations are stored, but each zoom level multiplies the
+        number of tiles by four. A maximum of 14 to 16 is usually a good choice. Set to `0` to
+        disable. The `SandboxAPIMapboxVectorTilesApi` feature must be enabled.
+        """
+        )
+        .asInt(0);
+    staticVectorTilesLanguages =
+      root
+        .of("staticVectorTilesLanguages")
+        .since(V2_6)
+        .summary("The languages of the vector tiles rendered when the graph is built.")
+        .description(
+          """
+        The names in the tiles are translated to the language of the request. The tiles are rendered
+        for each of these languages, see `staticVectorTilesMaxZoom`. Requests in other languages are
+        built when requested.
+        """
+        )
+        .asStringList(List.of("en"));
     maxElevationPropagationMeters =
       root
         .of("maxElevationPropagationMeters")
@@ -1,18 +1,24 @@
 package org.opentripplanner.standalone.config.routerconfig;
 
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_4;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import java.time.Duration;
 import java.util.List;
 import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.inspector.raster.RasterTileCache;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
 import org.opentripplanner.standalone.server.OTPWebApplicationParameters;
 import org.opentripplanner.standalone.server.RequestTraceParameter;
 
 public class ServerConfig implements OTPWebApplicationParameters {
 
+  private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+
   private final Duration apiProcessingTimeout;
   private final List<RequestTraceParameter> traceParameters;
+  private final int inspectorTileCacheMaxMegabytes;
+  private final int inspectorTileRenderThreads;
 
   public ServerConfig(String parameterName, NodeAdapter root) {
     NodeAdapter c = root
@@ -99,6 +105,35 @@ Only log4j and logback support this.
               .asBoolean(false)
           )
         );
+
+    this.inspectorTileCacheMaxMegabytes =
+      c
+        .of("inspectorTileCacheMaxMegabytes")
+        .since(V2_6)
+        .summary(
+          "The maximum size of the in-memory cache of the debug raster tiles, in megabytes."
+        )
+        .description(
+          """
+The raster tiles of the graph inspector in the debug client are cached until the street graph
+changes. The least recently used tiles are evicted first.
+"""
+        )
+        .asInt((int) (RasterTileCache.DEFAULT_MAX_BYTES / BYTES_PER_MEGABYTE));
+
+    this.inspectorTileRenderThreads =
+      c
+        .of("inspectorTileRenderThreads")
+        .since(V2_6)
+        .summary("The number of threads rendering debug raster tiles.")
+        .description(
+          """
+Tiles which are not cached are rendered by a thread pool with a bounded queue, so the debug client
+cannot use all the CPUs of the server. When the queue is full, new tiles are rejected. The default
+is `0`, which uses a quarter of the available processors.
+"""
+        )
+        .asInt(0);
   }
 
   public Duration apiProcessingTimeout() {
@@ -120,6 +155,16 @@ Only log4j and logback support this.
     }
   }
 
+  public long inspectorTileCacheMaxBytes() {
+    return (long) inspectorTileCacheMaxMegabytes * BYTES_PER_MEGABYTE;
+  }
+
+  public int inspectorTileRenderThreads() {
+    return inspectorTileRenderThreads > 0
+      ? inspectorTileRenderThreads
+      : RasterTileCache.DEFAULT_RENDER_THREADS;
+  }
+
   @Override
   public List<RequestTraceParameter> traceParameters() {
     return traceParameters;
@@ -6,6 +6,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_4;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import java.time.Duration;
 import java.util.List;
@@ -27,6 +28,10 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int scheduledTripBinarySearchThreshold;
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
+  private final int heuristicsCacheMaxSize;
+  private final Duration heuristicsCacheTimeToLive;
+  private final int lowerBoundLandmarks;
+  private final Duration lowerBoundMinRebuildInterval;
   private final int transferCacheMaxSize;
   private final List<RouteRequest> transferCacheRequests;
   private final List<Duration> pagingSearchWindowAdjustments;
@@ -113,6 +118,73 @@ no extra threads are started and the search is done in one thread.
 """
         )
         .asInt(dft.searchThreadPoolSize());
+    this.heuristicsCacheMaxSize =
+      c
+        .of("heuristicsCacheMaxSize")
+        .since(V2_6)
+        .summary("The maximum number of destination heuristics to cache across requests.")
+        .description(
+          """
+Raptor performs a reverse heuristic search from the destination to prune the multi-criteria
+search. The result is the same for all requests with the same destination(egress), transit data
+and request parameters. This is the case when paging using the next/previous page cursor, or
+for repeated requests to popular destinations. Caching the heuristics allows these requests to
+skip the reverse heuristic search. Each entry holds a few arrays with one element for each stop,
+so the memory overhead is small, but not negligible for large networks. If 0, caching is
+disabled.
+"""
+        )
+        .asInt(dft.heuristicsCacheMaxSize());
+    this.heuristicsCacheTimeToLive =
+      c
+        .of("heuristicsCacheTimeToLive")
+        .since(V2_6)
+        .summary("How long a cached destination heuristic is kept.")
+        .description(
+          """
+The cache is short-lived, it is meant for requests following each other like paging. Cached
+heuristics are also invalidated when the transit data is updated by real-time updaters. See
+`heuristicsCacheMaxSize`.
+"""
+        )
+        .asDuration(dft.heuristicsCacheTimeToLive());
+    this.lowerBoundLandmarks =
+      c
+        .of("lowerBoundLandmarks")
+        .since(V2_6)
+        .summary("The number of landmarks used to precompute a stop-to-stop lower bound.")
+        .description(
+          """
+Raptor performs a reverse heuristic search from the destination to prune the multi-criteria
+search. If this parameter is set, OTP precomputes the shortest travel time and the minimum number
+of transit legs to and from a set of landmark stops, and use these to calculate a lower bound
+between any pair of stops. The heuristic search is then skipped, unless it is needed to calculate
+the earliest-departure-time. The lower bound is less tight than the heuristic search, so the
+multi-criteria search prunes less, but every multi-criteria request saves the time to run the
+heuristic search.
+
+The table is computed when the server starts. When real-time updates make a trip faster than the
+trips the table is built from, it is recomputed in the background, see
+`lowerBoundMinRebuildInterval`. The memory used is 16 bytes per stop for each landmark. A value
+between 8 and 16 is a good starting point. If 0, the lower bound is not computed.
+"""
+        )
+        .asInt(TransitTuningParameters.super.lowerBoundLandmarks());
+    this.lowerBoundMinRebuildInterval =
+      c
+        .of("lowerBoundMinRebuildInterval")
+        .since(V2_6)
+        .summary("The minimum time between two rebuilds of the stop-to-stop lower bound.")
+        .description(
+          """
+The stop-to-stop lower bound, see `lowerBoundLandmarks`, is kept when real-time updates only
+delay trips. If an update makes a trip faster than the trips the table is built from, the table
+is dropped and rebuilt in the background. Until the new table is ready, requests use the heuristic
+search. This parameter limits how often the table is rebuilt, if the real-time data often makes
+trips faster.
+"""
+        )
+        .asDuration(TransitTuningParameters.super.lowerBoundMinRebuildInterval());
     // Dynamic Search Window
     this.stopBoardAlightDuringTransferCost =
       c
@@ -249,6 +321,26 @@ for more info."
     return searchThreadPoolSize;
   }
 
+  @Override
+  public int heuristicsCacheMaxSize() {
+    return heuristicsCacheMaxSize;
+  }
+
+  @Override
+  public Duration heuristicsCacheTimeToLive() {
+    return heuristicsCacheTimeToLive;
+  }
+
+  @Override
+  public int lowerBoundLandmarks() {
+    return lowerBoundLandmarks;
+  }
+
+  @Override
+  public Duration lowerBoundMinRebuildInterval() {
+    return lowerBoundMinRebuildInterval;
+  }
+
   @Override
   public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
     return dynamicSearchWindowCoefficients;
@@ -6,6 +6,7 @@ import static org.opentripplanner.inspector.vector.LayerParameters.MAX_ZOOM;
 import static org.opentripplanner.inspector.vector.LayerParameters.MIN_ZOOM;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_0;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import java.util.Collection;
 import java.util.List;
@@ -13,12 +14,20 @@ import java.util.Optional;
 import javax.annotation.Nullable;
 import org.opentripplanner.ext.vectortiles.VectorTilesResource;
 import org.opentripplanner.inspector.vector.LayerParameters;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
 
 public class VectorTileConfig
   implements VectorTilesResource.LayersParameters<VectorTilesResource.LayerType> {
 
-  public static final VectorTileConfig DEFAULT = new VectorTileConfig(List.of(), null, null);
+  private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  public static final VectorTileConfig DEFAULT = new VectorTileConfig(
+    List.of(),
+    null,
+    null,
+    (int) (VectorTileCache.DEFAULT_MAX_BYTES / BYTES_PER_MEGABYTE)
+  );
   private final List<LayerParameters<VectorTilesResource.LayerType>> layers;
 
   @Nullable
@@ -27,14 +36,18 @@ public class VectorTileConfig
   @Nullable
   private final String attribution;
 
+  private final int cacheMaxMegabytes;
+
   VectorTileConfig(
     Collection<? extends LayerParameters<VectorTilesResource.LayerType>> layers,
     @Nullable String basePath,
-    @Nullable String attribution
+    @Nullable String attribution,
+    int cacheMaxMegabytes
   ) {
     this.layers = List.copyOf(layers);
     this.basePath = basePath;
     this.attribution = attribution;
+    this.cacheMaxMegabytes = cacheMaxMegabytes;
   }
 
   @Override
@@ -50,6 +63,11 @@ public class VectorTileConfig
     return Optional.ofNullable(attribution);
   }
 
+  /** The maximum size of the cached tiles in bytes. */
+  public long cacheMaxBytes() {
+    return cacheMaxMegabytes * BYTES_PER_MEGABYTE;
+  }
+
   public static VectorTileConfig mapVectorTilesParameters(NodeAdapter node, String paramName) {
     var root = node.of(paramName).summary("Vector tile configuration").asObject();
     return new VectorTileConfig(
@@ -96,7 +114,18 @@ public class VectorTileConfig
           for example `<a href='https://trimet.org/mod'>Regional Partners</a>`.
           """
         )
-        .asString(DEFAULT.attribution)
+        .asString(DEFAULT.attribution),
+      root
+        .of("cacheMaxMegabytes")
+        .since(V2_6)
+        .summary("The maximum size of the in-memory cache of encoded tiles, in megabytes.")
+        .description(
+          """
+          The tiles of this API and of the debug client are cached separately, each cache uses up to
+          this size. The least recently used tiles are evicted first.
+          """
+        )
+        .asInt(DEFAULT.cacheMaxMegabytes)
     );
   }
 
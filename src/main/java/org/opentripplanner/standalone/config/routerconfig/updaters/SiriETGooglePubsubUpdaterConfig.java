@@ -1,8 +1,11 @@
 package org.opentripplanner.standalone.config.routerconfig.updaters;
 
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_BATCH_SIZE;
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_PENDING_JOURNEYS;
 import static org.opentripplanner.ext.siri.updater.google.SiriETGooglePubsubUpdaterParameters.INITIAL_GET_DATA_TIMEOUT;
 import static org.opentripplanner.ext.siri.updater.google.SiriETGooglePubsubUpdaterParameters.RECONNECT_PERIOD;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import org.opentripplanner.ext.siri.updater.google.SiriETGooglePubsubUpdaterParameters;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
@@ -79,7 +82,29 @@ public class SiriETGooglePubsubUpdaterConfig {
         .of("fuzzyTripMatching")
         .since(V2_1)
         .summary("If the trips should be matched fuzzily.")
-        .asBoolean(false)
+        .asBoolean(false),
+      c
+        .of("maxBatchSize")
+        .since(V2_6)
+        .summary("The maximum number of journeys applied in one graph-writer task.")
+        .description(
+          """
+          Incoming messages are buffered, and only the latest version of each journey is applied.
+          All buffered journeys are applied together, in batches of at most this size.
+          """
+        )
+        .asInt(DEFAULT_MAX_BATCH_SIZE),
+      c
+        .of("maxPendingJourneys")
+        .since(V2_6)
+        .summary("The maximum number of journeys waiting to be applied.")
+        .description(
+          """
+          When the limit is reached, the updater stops receiving messages until the buffered
+          journeys are applied.
+          """
+        )
+        .asInt(DEFAULT_MAX_PENDING_JOURNEYS)
     );
   }
 }
@@ -1,7 +1,10 @@
 package org.opentripplanner.standalone.config.routerconfig.updaters.azure;
 
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_BATCH_SIZE;
+import static org.opentripplanner.ext.siri.updater.CoalescingEstimatedTimetableBuffer.DEFAULT_MAX_PENDING_JOURNEYS;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.NA;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_6;
 
 import org.opentripplanner.ext.siri.updater.azure.SiriAzureETUpdaterParameters;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
@@ -11,6 +14,32 @@ public class SiriAzureETUpdaterConfig extends SiriAzureUpdaterConfig {
   public static SiriAzureETUpdaterParameters create(String configRef, NodeAdapter c) {
     SiriAzureETUpdaterParameters parameters = new SiriAzureETUpdaterParameters();
     populateConfig(parameters, configRef, c);
+    parameters.setMaxBatchSize(
+      c
+        .of("maxBatchSize")
+        .since(V2_6)
+        .summary("The maximum number of journeys applied in one graph-writer task.")
+        .description(
+          """
+          Incoming messages are buffered, and only the latest version of each journey is applied.
+          All buffered journeys are applied together, in batches of at most this size.
+          """
+        )
+        .asInt(DEFAULT_MAX_BATCH_SIZE)
+    );
+    parameters.setMaxPendingJourneys(
+      c
+        .of("maxPendingJourneys")
+        .since(V2_6)
+        .summary("The maximum number of journeys waiting to be applied.")
+        .description(
+          """
+          When the limit is reached, the updater stops receiving messages until the buffered
+          journeys are applied.
+          """
+        )
+        .asInt(DEFAULT_MAX_PENDING_JOURNEYS)
+    );
 
     if (c.exist("history")) {
       NodeAdapter history = c
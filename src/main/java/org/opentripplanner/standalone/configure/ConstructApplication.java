@@ -13,10 +13,12 @@ import org.opentripplanner.framework.logging.ProgressTracker;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.inspector.raster.RasterTileCache;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound.LandmarkLowerBoundUpdater;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.graph.Graph;
@@ -123,6 +125,7 @@ public class ConstructApplication {
     LOG.info("Wiring up and configuring graph builder task.");
     return GraphBuilder.create(
       buildConfig(),
+      routerConfig().vectorTileConfig(),
       graphBuilderDataSources,
       graph(),
       transitModel(),
@@ -208,12 +211,27 @@ public class ConstructApplication {
       );
     }
     LOG.info("Creating transit layer for Raptor routing.");
-    transitModel.setTransitLayer(TransitLayerMapper.map(tuningParameters, transitModel));
-    transitModel.setRealtimeTransitLayer(new TransitLayer(transitModel.getTransitLayer()));
+    var transitLayer = TransitLayerMapper.map(tuningParameters, transitModel);
+    var realtimeTransitLayer = new TransitLayer(transitLayer);
+
+    LandmarkLowerBoundUpdater lowerBoundUpdater = null;
+    if (tuningParameters.lowerBoundLandmarks() > 0) {
+      lowerBoundUpdater =
+        new LandmarkLowerBoundUpdater(
+          tuningParameters.lowerBoundLandmarks(),
+          tuningParameters.lowerBoundMinRebuildInterval()
+        );
+      lowerBoundUpdater.build(transitLayer);
+      // The realtime layer is a copy with the same data, so the lower bound is valid for it too
+      realtimeTransitLayer.setStopToStopLowerBound(transitLayer.getStopToStopLowerBound());
+    }
+    transitModel.setTransitLayer(transitLayer);
+    transitModel.setRealtimeTransitLayer(realtimeTransitLayer);
     transitModel.setTransitLayerUpdater(
       new TransitLayerUpdater(
         transitModel,
-        transitModel.getTransitModelIndex().getServiceCodesRunningForDate()
+        transitModel.getTransitModelIndex().getServiceCodesRunningForDate(),
+        lowerBoundUpdater
       )
     );
   }
@@ -287,6 +305,10 @@ public class ConstructApplication {
     return factory.raptorConfig();
   }
 
+  public RasterTileCache rasterTileCache() {
+    return factory.rasterTileCache();
+  }
+
   public GraphVisualizer graphVisualizer() {
     return factory.graphVisualizer();
   }
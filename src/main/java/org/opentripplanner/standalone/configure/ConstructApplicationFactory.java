@@ -11,6 +11,7 @@ import org.opentripplanner.ext.ridehailing.configure.RideHailingServicesModule;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationRepository;
 import org.opentripplanner.ext.stopconsolidation.configure.StopConsolidationServiceModule;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.inspector.raster.RasterTileCache;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.graph.Graph;
@@ -80,6 +81,8 @@ public interface ConstructApplicationFactory {
   TransitService transitService();
   OtpServerRequestContext createServerContext();
 
+  RasterTileCache rasterTileCache();
+
   MetricsLogging metricsLogging();
 
   @Nullable
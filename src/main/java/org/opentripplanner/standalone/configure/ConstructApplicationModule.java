@@ -3,6 +3,7 @@ package org.opentripplanner.standalone.configure;
 import dagger.Module;
 import dagger.Provides;
 import io.micrometer.core.instrument.Metrics;
+import jakarta.inject.Singleton;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.opentripplanner.astar.spi.TraverseVisitor;
@@ -10,6 +11,8 @@ import org.opentripplanner.ext.emissions.EmissionsService;
 import org.opentripplanner.ext.interactivelauncher.api.LauncherRequestDecorator;
 import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
+import org.opentripplanner.inspector.raster.RasterTileCache;
+import org.opentripplanner.inspector.vector.VectorTileCaches;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.graph.Graph;
@@ -40,7 +43,9 @@ public class ConstructApplicationModule {
     StreetLimitationParametersService streetLimitationParametersService,
     @Nullable TraverseVisitor<?, ?> traverseVisitor,
     EmissionsService emissionsService,
-    LauncherRequestDecorator launcherRequestDecorator
+    LauncherRequestDecorator launcherRequestDecorator,
+    RasterTileCache rasterTileCache,
+    VectorTileCaches vectorTileCaches
   ) {
     var defaultRequest = launcherRequestDecorator.intercept(routerConfig.routingRequestDefaults());
 
@@ -52,6 +57,8 @@ public class ConstructApplicationModule {
       transitService,
       Metrics.globalRegistry,
       routerConfig.vectorTileConfig(),
+      vectorTileCaches,
+      rasterTileCache,
       worldEnvelopeService,
       realtimeVehicleService,
       vehicleRentalService,
@@ -64,6 +71,27 @@ public class ConstructApplicationModule {
     );
   }
 
+  @Provides
+  @Singleton
+  RasterTileCache rasterTileCache(RouterConfig routerConfig, Graph graph) {
+    var serverConfig = routerConfig.server();
+    return new RasterTileCache(
+      graph,
+      serverConfig.inspectorTileCacheMaxBytes(),
+      serverConfig.inspectorTileRenderThreads(),
+      Metrics.globalRegistry
+    );
+  }
+
+  @Provides
+  @Singleton
+  VectorTileCaches vectorTileCaches(RouterConfig routerConfig) {
+    return VectorTileCaches.of(
+      routerConfig.vectorTileConfig().cacheMaxBytes(),
+      Metrics.globalRegistry
+    );
+  }
+
   @Provides
   @Nullable
   TraverseVisitor<?, ?> traverseVisitor(@Nullable GraphVisualizer graphVisualizer) {
@@ -9,7 +9,10 @@ import org.opentripplanner.ext.emissions.EmissionsService;
 import org.opentripplanner.ext.flex.FlexParameters;
 import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
+import org.opentripplanner.inspector.raster.RasterTileCache;
 import org.opentripplanner.inspector.raster.TileRendererManager;
+import org.opentripplanner.inspector.vector.VectorTileCache;
+import org.opentripplanner.inspector.vector.VectorTileCaches;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
@@ -41,6 +44,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   private final RaptorConfig<TripSchedule> raptorConfig;
   private final TileRendererManager tileRendererManager;
   private final VectorTileConfig vectorTileConfig;
+  private final VectorTileCaches vectorTileCaches;
   private final FlexParameters flexParameters;
   private final TraverseVisitor traverseVisitor;
   private final WorldEnvelopeService worldEnvelopeService;
@@ -62,6 +66,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     RaptorConfig<TripSchedule> raptorConfig,
     TileRendererManager tileRendererManager,
     VectorTileConfig vectorTileConfig,
+    VectorTileCaches vectorTileCaches,
     WorldEnvelopeService worldEnvelopeService,
     RealtimeVehicleService realtimeVehicleService,
     VehicleRentalService vehicleRentalService,
@@ -79,6 +84,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     this.raptorConfig = raptorConfig;
     this.tileRendererManager = tileRendererManager;
     this.vectorTileConfig = vectorTileConfig;
+    this.vectorTileCaches = vectorTileCaches;
     this.vehicleRentalService = vehicleRentalService;
     this.flexParameters = flexParameters;
     this.traverseVisitor = traverseVisitor;
@@ -102,6 +108,8 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     TransitService transitService,
     MeterRegistry meterRegistry,
     VectorTileConfig vectorTileConfig,
+    VectorTileCaches vectorTileCaches,
+    RasterTileCache rasterTileCache,
     WorldEnvelopeService worldEnvelopeService,
     RealtimeVehicleService realtimeVehicleService,
     VehicleRentalService vehicleRentalService,
@@ -119,8 +127,9 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
       routeRequestDefaults,
       meterRegistry,
       raptorConfig,
-      new TileRendererManager(graph, routeRequestDefaults.preferences()),
+      new TileRendererManager(graph, routeRequestDefaults.preferences(), rasterTileCache),
       vectorTileConfig,
+      vectorTileCaches,
       worldEnvelopeService,
       realtimeVehicleService,
       vehicleRentalService,
@@ -235,6 +244,16 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     return vectorTileConfig;
   }
 
+  @Override
+  public VectorTileCache vectorTileCache() {
+    return vectorTileCaches.vectorTiles();
+  }
+
+  @Override
+  public VectorTileCache inspectorVectorTileCache() {
+    return vectorTileCaches.inspector();
+  }
+
   @Override
   public EmissionsService emissionsService() {
     return emissionsService;
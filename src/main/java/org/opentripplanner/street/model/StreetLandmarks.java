@@ -0,0 +1,142 @@
+package org.opentripplanner.street.model;
+
+import java.io.Serializable;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * Precomputed street network distances to and from a small set of landmark vertices, used to
+ * calculate a lower bound for the remaining weight in the street A* search (ALT - A*, Landmarks
+ * and Triangle inequality). Given the precomputed values {@code d(v, L)} and {@code d(L, v)} the
+ * triangle inequality gives the lower bound:
+ * <pre>
+ * d(s, t) >= max over L of ( d(s, L) - d(t, L), d(L, t) - d(L, s) )
+ * </pre>
+ * Two metrics are stored:
+ * <ul>
+ *   <li>The car duration in milliseconds, using the car speed of each street edge. Only edges
+ *   traversable by car are used.</li>
+ *   <li>The bicycle distance in decimeters. Edges traversable by bicycle or on foot are used, since
+ *   the bicycle can be walked. The distance is the shortest of the real and the effective bike
+ *   distance, the effective distance is shorter in downhill slopes.</li>
+ * </ul>
+ * All other edges, like links and elevators, are free. The edge costs are rounded down, so the
+ * precomputed values are always equal to or less than the real values.
+ * <p>
+ * The values are stored in flat arrays indexed by {@code vertex * nLandmarks + landmark}, using
+ * the {@link Vertex#getIndex()} set when the landmarks were created. Vertices without an index
+ * have no values.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class StreetLandmarks implements Serializable {
+
+  /** Used to mark a vertex not reachable from/to a landmark */
+  public static final int UNREACHED = Integer.MAX_VALUE;
+
+  public static final int CAR_DURATION_UNITS_PER_SECOND = 1000;
+  public static final int BICYCLE_DISTANCE_UNITS_PER_METER = 10;
+
+  private final int nVertices;
+  private final int nLandmarks;
+
+  private final int[] carDurationToLandmark;
+  private final int[] carDurationFromLandmark;
+  private final int[] bicycleDistanceToLandmark;
+  private final int[] bicycleDistanceFromLandmark;
+
+  public StreetLandmarks(
+    int nVertices,
+    int nLandmarks,
+    int[] carDurationToLandmark,
+    int[] carDurationFromLandmark,
+    int[] bicycleDistanceToLandmark,
+    int[] bicycleDistanceFromLandmark
+  ) {
+    this.nVertices = nVertices;
+    this.nLandmarks = nLandmarks;
+    this.carDurationToLandmark = carDurationToLandmark;
+    this.carDurationFromLandmark = carDurationFromLandmark;
+    this.bicycleDistanceToLandmark = bicycleDistanceToLandmark;
+    this.bicycleDistanceFromLandmark = bicycleDistanceFromLandmark;
+  }
+
+  public int numberOfLandmarks() {
+    return nLandmarks;
+  }
+
+  /**
+   * Return {@code true} if the vertex has precomputed values.
+   */
+  public boolean contains(Vertex v) {
+    int index = v.getIndex();
+    return index >= 0 && index < nVertices;
+  }
+
+  /**
+   * The minimum duration (seconds) driving from one vertex to the other. Return
+   * {@link Double#POSITIVE_INFINITY} if it is not possible to drive from one to the other, and zero
+   * if one of the vertices is not in the table.
+   */
+  public double minCarDuration(Vertex from, Vertex to) {
+    int value = lowerBound(from, to, carDurationToLandmark, carDurationFromLandmark);
+    return toDouble(value, CAR_DURATION_UNITS_PER_SECOND);
+  }
+
+  /**
+   * The minimum distance (meters) cycling from one vertex to the other. Return
+   * {@link Double#POSITIVE_INFINITY} if it is not possible to cycle from one to the other, and zero
+   * if one of the vertices is not in the table.
+   */
+  public double minBicycleDistance(Vertex from, Vertex to) {
+    int value = lowerBound(from, to, bicycleDistanceToLandmark, bicycleDistanceFromLandmark);
+    return toDouble(value, BICYCLE_DISTANCE_UNITS_PER_METER);
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(StreetLandmarks.class)
+      .addNum("nVertices", nVertices)
+      .addNum("nLandmarks", nLandmarks)
+      .toString();
+  }
+
+  private int lowerBound(Vertex from, Vertex to, int[] toLandmark, int[] fromLandmark) {
+    if (from == to || !contains(from) || !contains(to)) {
+      return 0;
+    }
+    final int s = from.getIndex() * nLandmarks;
+    final int t = to.getIndex() * nLandmarks;
+    int best = 0;
+
+    for (int i = 0; i < nLandmarks; ++i) {
+      int sToL = toLandmark[s + i];
+      int tToL = toLandmark[t + i];
+
+      if (sToL == UNREACHED) {
+        if (tToL != UNREACHED) {
+          return UNREACHED;
+        }
+      } else if (tToL != UNREACHED) {
+        best = Math.max(best, sToL - tToL);
+      }
+
+      int lToS = fromLandmark[s + i];
+      int lToT = fromLandmark[t + i];
+
+      if (lToT == UNREACHED) {
+        if (lToS != UNREACHED) {
+          return UNREACHED;
+        }
+      } else if (lToS != UNREACHED) {
+        best = Math.max(best, lToT - lToS);
+      }
+    }
+    return best;
+  }
+
+  private static double toDouble(int value, int unitsPerBaseUnit) {
+    return value == UNREACHED ? Double.POSITIVE_INFINITY : (double) value / unitsPerBaseUnit;
+  }
+}
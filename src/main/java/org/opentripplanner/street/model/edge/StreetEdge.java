@@ -10,6 +10,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import org.opentripplanner.framework.geometry.CompactLineStringUtils;
@@ -53,6 +54,9 @@ public class StreetEdge
 
   private static final double SAFEST_STREETS_SAFETY_FACTOR = 0.1;
 
+  /** Used as index for edges not indexed, see {@link #getIndex()}. */
+  public static final int NO_INDEX = -1;
+
   /** If you have more than 16 flags, increase flags to short or int */
   static final int BACK_FLAG_INDEX = 0;
   static final int ROUNDABOUT_FLAG_INDEX = 1;
@@ -132,6 +136,19 @@ public class StreetEdge
    */
   private List<TurnRestriction> turnRestrictions = Collections.emptyList();
 
+  /**
+   * The index of this edge in per-edge primitive arrays, like the {@link StreetEdgeCostCache}.
+   * Edges created after the index was assigned, like temporary and split edges, have no index.
+   */
+  private int index = NO_INDEX;
+
+  /**
+   * The edge in the opposite direction between the same two vertices, set when the graph is
+   * built. This is null if there is no such edge, if there is more than one, or if this edge was
+   * created after the graph was built.
+   */
+  private StreetEdge reverseEdge;
+
   protected StreetEdge(StreetEdgeBuilder<?> builder) {
     super(builder.fromVertex(), builder.toVertex());
     this.flags = builder.getFlags();
@@ -490,7 +507,11 @@ public class StreetEdge
   @Override
   public StreetEdge clone() {
     try {
-      return (StreetEdge) super.clone();
+      var clone = (StreetEdge) super.clone();
+      // The index and the reverse edge belong to this edge, not the copy
+      clone.index = NO_INDEX;
+      clone.reverseEdge = null;
+      return clone;
     } catch (CloneNotSupportedException e) {
       throw new RuntimeException(e);
     }
@@ -616,6 +637,26 @@ public class StreetEdge
     this.costExtension = costExtension;
   }
 
+  /**
+   * Return the index of this edge, or {@link #NO_INDEX} if the edge has no index.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
+  @Nullable
+  public StreetEdge getReverseEdge() {
+    return reverseEdge;
+  }
+
+  public void setReverseEdge(@Nullable StreetEdge reverseEdge) {
+    this.reverseEdge = reverseEdge;
+  }
+
   /**
    * This method is not thread-safe!
    */
@@ -1067,17 +1108,26 @@ public class StreetEdge
   private StateEditor doTraverse(State s0, TraverseMode traverseMode, boolean walkingBike) {
     Edge backEdge = s0.getBackEdge();
     if (backEdge != null) {
-      // No illegal U-turns.
-      // NOTE(flamholz): we check both directions because both edges get a chance to decide
-      // if they are the reverse of the other. Also, because it doesn't matter which direction
-      // we are searching in - these traversals are always disallowed (they are U-turns in one direction
-      // or the other).
-      // TODO profiling indicates that this is a hot spot.
-      if (this.isReverseOf(backEdge) || backEdge.isReverseOf(this)) {
+      // No illegal U-turns. It doesn't matter which direction we are searching in - these
+      // traversals are always disallowed (they are U-turns in one direction or the other).
+      // This is a hot spot, keep it cheap. When the graph has linked the only edge in the
+      // opposite direction, it is enough to compare the references. Otherwise, like for
+      // temporary edges, compare the vertices. Edge#isReverseOf is symmetric, so there is no
+      // need to ask the back edge as well.
+      if (reverseEdge != null ? backEdge == reverseEdge : isReverseOf(backEdge)) {
         return null;
       }
     }
 
+    // Apply turn restrictions before creating the state editor, so a forbidden turn does not
+    // allocate a new state
+    if (
+      backEdge instanceof StreetEdge backPSE &&
+      !canTurn(backPSE, s0, s0.getBackMode(), traverseMode)
+    ) {
+      return null;
+    }
+
     var s1 = createEditor(s0, this, traverseMode, walkingBike);
 
     if (isTraversalBlockedByNoThruTraffic(traverseMode, backEdge, s0, s1)) {
@@ -1097,36 +1147,34 @@ public class StreetEdge
     // Automobiles have variable speeds depending on the edge type
     double speed = calculateSpeed(preferences, traverseMode, walkingBike);
 
-    var traversalCosts =
-      switch (traverseMode) {
-        case BICYCLE, SCOOTER -> bicycleOrScooterTraversalCost(preferences, traverseMode, speed);
-        case WALK -> walkingTraversalCosts(
-          preferences,
-          traverseMode,
-          speed,
-          walkingBike,
-          s0.getRequest().wheelchair()
-        );
-        default -> otherTraversalCosts(preferences, traverseMode, walkingBike, speed);
-      };
-
-    int time = (int) Math.ceil(traversalCosts.time());
-    var weight = traversalCosts.weight();
+    // The duration and weight of the edge only depend on the request, so they are computed once
+    // for each mode and looked up in the cost cache of the request after that
+    var costTable = index == NO_INDEX
+      ? null
+      : s0.getRequest().edgeCostCache().table(traverseMode, walkingBike);
+    int time = costTable == null ? StreetEdgeCostCache.NOT_COMPUTED : costTable.duration(index);
+    double weight;
+    if (time != StreetEdgeCostCache.NOT_COMPUTED) {
+      weight = costTable.weight(index);
+    } else {
+      var traversalCosts = traversalCosts(
+        preferences,
+        traverseMode,
+        speed,
+        walkingBike,
+        s0.getRequest().wheelchair()
+      );
+      time = (int) Math.ceil(traversalCosts.time());
+      weight = traversalCosts.weight();
+      if (costTable != null) {
+        costTable.put(index, time, weight);
+      }
+    }
 
     /* Compute turn cost. */
     if (backEdge instanceof StreetEdge backPSE) {
       TraverseMode backMode = s0.getBackMode();
       final boolean arriveBy = s0.getRequest().arriveBy();
-
-      // Apply turn restrictions
-      if (
-        arriveBy
-          ? !canTurnOnto(backPSE, s0, backMode)
-          : !backPSE.canTurnOnto(this, s0, traverseMode)
-      ) {
-        return null;
-      }
-
       double backSpeed = backPSE.calculateSpeed(preferences, backMode, s0.isBackWalkingBike());
       final double turnDuration; // Units are seconds.
 
@@ -1194,6 +1242,21 @@ public class StreetEdge
     return s1;
   }
 
+  @Nonnull
+  private TraversalCosts traversalCosts(
+    RoutingPreferences preferences,
+    TraverseMode traverseMode,
+    double speed,
+    boolean walkingBike,
+    boolean wheelchair
+  ) {
+    return switch (traverseMode) {
+      case BICYCLE, SCOOTER -> bicycleOrScooterTraversalCost(preferences, traverseMode, speed);
+      case WALK -> walkingTraversalCosts(preferences, traverseMode, speed, walkingBike, wheelchair);
+      default -> otherTraversalCosts(preferences, traverseMode, walkingBike, speed);
+    };
+  }
+
   @Nonnull
   private TraversalCosts otherTraversalCosts(
     RoutingPreferences preferences,
@@ -1308,6 +1371,21 @@ public class StreetEdge
     return new TraversalCosts(time, weight);
   }
 
+  /**
+   * Check the turn restrictions of the turn from the back edge onto this edge. In an arrive-by
+   * search the turn is traversed in reverse, so the restrictions of this edge apply.
+   */
+  private boolean canTurn(
+    StreetEdge backEdge,
+    State s0,
+    TraverseMode backMode,
+    TraverseMode traverseMode
+  ) {
+    return s0.getRequest().arriveBy()
+      ? canTurnOnto(backEdge, s0, backMode)
+      : backEdge.canTurnOnto(this, s0, traverseMode);
+  }
+
   /* The no-thru traffic support works by not allowing a transition from a no-thru area out of it.
    * It allows starting in a no-thru area by checking for a transition from a "normal"
    * (thru-traffic allowed) edge to a no-thru edge. Once a transition is recorded
@@ -0,0 +1,128 @@
+package org.opentripplanner.street.model.edge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.opentripplanner.street.search.TraverseMode;
+
+/**
+ * A lazily filled cache of the traversal duration and weight of the street edges, for one street
+ * search request. The duration and weight of an edge only depend on the routing preferences and
+ * the wheelchair flag of the request, the traverse mode and if the bicycle is walked. They are
+ * computed the first time the edge is traversed, and looked up when the same edge is traversed
+ * again, for example from another back edge or in another state. There is one table for each
+ * traverse mode and walking bicycle flag.
+ * <p>
+ * Only edges with an index are cached, see {@link StreetEdge#getIndex()}. Temporary edges and
+ * edges created after the graph was built compute the costs every time. The turn costs and the
+ * cost extensions depend on the state, and are not cached.
+ * <p>
+ * The tables are split into pages of {@link #PAGE_SIZE} edges, and a page is allocated the first
+ * time one of its edges is traversed. The edge index follows the location of the edges, so a
+ * search only allocates the pages of the area it visits.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE. The same request may be used by several searches in parallel, like
+ * when the transfers are generated.
+ */
+public final class StreetEdgeCostCache {
+
+  /** Returned by {@link Table#duration(int)} if the costs of the edge are not in the table. */
+  static final int NOT_COMPUTED = -1;
+
+  private static final int PAGE_BITS = 10;
+  static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  private final AtomicReferenceArray<Table> tables = new AtomicReferenceArray<>(
+    TraverseMode.values().length * 2
+  );
+
+  /**
+   * Return the table for the given traverse mode, the table is created if it does not exist.
+   */
+  Table table(TraverseMode traverseMode, boolean walkingBike) {
+    int i = traverseMode.ordinal() * 2 + (walkingBike ? 1 : 0);
+    Table table = tables.get(i);
+    if (table == null) {
+      tables.compareAndSet(i, null, new Table());
+      table = tables.get(i);
+    }
+    return table;
+  }
+
+  /**
+   * The duration and weight of the edges for one traverse mode.
+   */
+  static final class Table {
+
+    /** The pages are only added or replaced by a larger array while holding the lock. */
+    private volatile Page[] pages = new Page[0];
+
+    /**
+     * Return the duration in seconds of the edge with the given index, or {@link #NOT_COMPUTED}
+     * if the edge is not in the table. The duration is never negative.
+     */
+    int duration(int edgeIndex) {
+      Page[] p = pages;
+      int pageIndex = edgeIndex >>> PAGE_BITS;
+      if (pageIndex >= p.length || p[pageIndex] == null) {
+        return NOT_COMPUTED;
+      }
+      return p[pageIndex].durations.getAcquire(edgeIndex & PAGE_MASK);
+    }
+
+    /**
+     * Return the weight of the edge with the given index. Only call this after
+     * {@link #duration(int)} has returned a duration for the same edge.
+     */
+    double weight(int edgeIndex) {
+      return pages[edgeIndex >>> PAGE_BITS].weights[edgeIndex & PAGE_MASK];
+    }
+
+    void put(int edgeIndex, int duration, double weight) {
+      Page page = page(edgeIndex >>> PAGE_BITS);
+      int i = edgeIndex & PAGE_MASK;
+      // The duration is written last, so a reader seeing the duration also sees the weight
+      page.weights[i] = weight;
+      page.durations.setRelease(i, duration);
+    }
+
+    /** The number of allocated pages, used in tests. */
+    int numberOfPages() {
+      return (int) Arrays.stream(pages).filter(it -> it != null).count();
+    }
+
+    private Page page(int pageIndex) {
+      Page[] p = pages;
+      if (pageIndex < p.length && p[pageIndex] != null) {
+        return p[pageIndex];
+      }
+      synchronized (this) {
+        p = pages;
+        if (pageIndex >= p.length) {
+          p = Arrays.copyOf(p, Math.max(pageIndex + 1, 2 * p.length));
+        }
+        if (p[pageIndex] == null) {
+          p[pageIndex] = new Page();
+        }
+        pages = p;
+        return p[pageIndex];
+      }
+    }
+  }
+
+  /**
+   * The fields are final, so the initial values are visible to all threads reading the page.
+   */
+  private static final class Page {
+
+    private final AtomicIntegerArray durations;
+    private final double[] weights = new double[PAGE_SIZE];
+
+    private Page() {
+      int[] values = new int[PAGE_SIZE];
+      Arrays.fill(values, NOT_COMPUTED);
+      this.durations = new AtomicIntegerArray(values);
+    }
+  }
+}
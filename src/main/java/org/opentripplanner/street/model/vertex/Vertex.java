@@ -29,6 +29,9 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
   public static final I18NString NO_NAME = I18NString.of("(no name provided)");
   private static final Logger LOG = LoggerFactory.getLogger(Vertex.class);
 
+  /** Used as index for vertices not indexed, see {@link #getIndex()}. */
+  public static final int NO_INDEX = -1;
+
   private final double x;
   private final double y;
 
@@ -37,6 +40,12 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
   private transient Edge[] outgoing = new Edge[0];
   private RentalRestrictionExtension rentalRestrictions = RentalRestrictionExtension.NO_RESTRICTION;
 
+  /**
+   * The index of this vertex in per-vertex primitive arrays, like the street landmarks. Vertices
+   * created after the index was assigned, like temporary vertices, have no index.
+   */
+  private int index = NO_INDEX;
+
   /* CONSTRUCTORS */
 
   protected Vertex(double x, double y) {
@@ -224,6 +233,17 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
     rentalRestrictions = rentalRestrictions.add(ext);
   }
 
+  /**
+   * Return the index of this vertex, or {@link #NO_INDEX} if the vertex has no index.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
   public RentalRestrictionExtension rentalRestrictions() {
     return rentalRestrictions;
   }
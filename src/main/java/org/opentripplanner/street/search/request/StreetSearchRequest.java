@@ -12,6 +12,7 @@ import org.opentripplanner.model.GenericLocation;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
 import org.opentripplanner.street.search.state.State;
@@ -49,6 +50,12 @@ public class StreetSearchRequest implements AStarRequest {
 
   private DataOverlayContext dataOverlayContext;
 
+  /**
+   * The traversal costs of the street edges depend only on the request, so they are cached for
+   * the lifetime of the request.
+   */
+  private final StreetEdgeCostCache edgeCostCache = new StreetEdgeCostCache();
+
   /**
    * Constructor only used for creating a default instance.
    */
@@ -127,6 +134,10 @@ public class StreetSearchRequest implements AStarRequest {
     return dataOverlayContext;
   }
 
+  public StreetEdgeCostCache edgeCostCache() {
+    return edgeCostCache;
+  }
+
   public StreetSearchRequestBuilder copyOfReversed(Instant time) {
     return copyOf(this).withStartTime(time).withArriveBy(!arriveBy);
   }
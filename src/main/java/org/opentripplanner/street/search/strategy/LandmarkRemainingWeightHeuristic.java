@@ -0,0 +1,123 @@
+package org.opentripplanner.street.search.strategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * A remaining weight strategy using the precomputed {@link StreetLandmarks} (ALT). The estimate is
+ * the largest of the Euclidean estimate and the landmark lower bound. The landmark lower bound is
+ * only used for the {@link StreetMode#CAR} and {@link StreetMode#BIKE} modes, all other modes
+ * may park, rent or switch vehicle, and only the Euclidean estimate is used.
+ * <p>
+ * Like the Euclidean estimate, the weight is assumed to be equal to or greater than the duration.
+ * For cars the landmark lower bound is the duration driving at the speed limit of each street. For
+ * bicycles it is the distance divided by the fastest of the cycling and bike walking speed.
+ * <p>
+ * The origin and destination are usually temporary vertices not in the landmark table. The
+ * closest vertices in the table are found by searching the street graph from the destination, all
+ * paths to the destination pass through one of them. The lower bound is the minimum for all of
+ * them. For the same reason the Euclidean estimate is used for states at temporary vertices.
+ */
+public class LandmarkRemainingWeightHeuristic extends EuclideanRemainingWeightHeuristic {
+
+  /**
+   * If the destination is not close to vertices in the landmark table, the landmark lower bound is
+   * not used.
+   */
+  private static final int MAX_VERTICES_VISITED_FINDING_TARGETS = 1000;
+
+  private final StreetLandmarks landmarks;
+
+  private boolean arriveBy;
+  private boolean driving;
+  private double bicycleSpeed;
+
+  /** The vertices in the landmark table closest to the destination, null if not used. */
+  private List<Vertex> targets;
+
+  public LandmarkRemainingWeightHeuristic(Float maxCarSpeed, StreetLandmarks landmarks) {
+    super(maxCarSpeed);
+    this.landmarks = landmarks;
+  }
+
+  @Override
+  public void initialize(
+    StreetMode streetMode,
+    Set<Vertex> toVertices,
+    boolean arriveBy,
+    RoutingPreferences preferences
+  ) {
+    super.initialize(streetMode, toVertices, arriveBy, preferences);
+    this.arriveBy = arriveBy;
+    this.driving = streetMode == StreetMode.CAR;
+    this.bicycleSpeed = Math.max(preferences.bike().speed(), preferences.bike().walking().speed());
+    this.targets =
+      streetMode == StreetMode.CAR || streetMode == StreetMode.BIKE
+        ? findTargetsInLandmarkTable(toVertices)
+        : null;
+  }
+
+  @Override
+  public double estimateRemainingWeight(State s) {
+    double estimate = super.estimateRemainingWeight(s);
+    Vertex v = s.getVertex();
+
+    if (targets == null || !landmarks.contains(v)) {
+      return estimate;
+    }
+    double lowerBound = Double.POSITIVE_INFINITY;
+    for (Vertex target : targets) {
+      lowerBound = Math.min(lowerBound, lowerBound(v, target));
+    }
+    return Math.max(estimate, lowerBound);
+  }
+
+  private double lowerBound(Vertex v, Vertex target) {
+    // In an arriveBy search the remaining path is from the target (origin) to the vertex
+    Vertex from = arriveBy ? target : v;
+    Vertex to = arriveBy ? v : target;
+
+    return driving
+      ? landmarks.minCarDuration(from, to)
+      : landmarks.minBicycleDistance(from, to) / bicycleSpeed;
+  }
+
+  /**
+   * Search backwards from the destination (forwards if arriveBy) until a vertex in the landmark
+   * table is found on each path. Return {@code null} if the search visits too many vertices.
+   */
+  private List<Vertex> findTargetsInLandmarkTable(Set<Vertex> toVertices) {
+    List<Vertex> result = new ArrayList<>();
+    Set<Vertex> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    var queue = new ArrayDeque<>(toVertices);
+    visited.addAll(toVertices);
+
+    while (!queue.isEmpty()) {
+      Vertex v = queue.poll();
+      if (landmarks.contains(v)) {
+        result.add(v);
+        continue;
+      }
+      for (Edge e : arriveBy ? v.getOutgoing() : v.getIncoming()) {
+        Vertex next = arriveBy ? e.getToVertex() : e.getFromVertex();
+        if (visited.add(next)) {
+          if (visited.size() > MAX_VERTICES_VISITED_FINDING_TARGETS) {
+            return null;
+          }
+          queue.add(next);
+        }
+      }
+    }
+    return result.isEmpty() ? null : result;
+  }
+}
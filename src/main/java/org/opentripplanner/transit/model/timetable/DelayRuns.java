@@ -0,0 +1,135 @@
+package org.opentripplanner.transit.model.timetable;
+
+import java.util.Arrays;
+
+/**
+ * The real-time delays of a trip, run-length encoded. A delay is usually propagated from the
+ * stop it is reported for to all following stops, so most trips have one or a few runs of stops
+ * with the same delay. Storing the runs, instead of the arrival and departure time for each stop,
+ * keeps the size of an updated trip close to the size of the scheduled trip.
+ * <p>
+ * The arrival and departure delays are stored in one sequence, the arrival delay of stop {@code s}
+ * at position {@code 2s} and the departure delay at position {@code 2s + 1}. A run is the first
+ * position of the run and the delay, and ends where the next run starts. Two following runs
+ * never have the same delay.
+ * <p>
+ * Setting the delays in stop order, as done when applying an update, only extends or adds a run
+ * at the end, so this is O(1) for each stop in most cases.
+ */
+final class DelayRuns {
+
+  private final int length;
+  private int[] starts;
+  private int[] delays;
+  private int size;
+
+  private DelayRuns(int length) {
+    this.length = length;
+    this.starts = new int[2];
+    this.delays = new int[2];
+    this.size = 1;
+  }
+
+  /** Create the delays for a trip with the given number of stops, all delays are zero. */
+  static DelayRuns ofNumberOfStops(int numStops) {
+    return new DelayRuns(2 * numStops);
+  }
+
+  int getArrivalDelay(int stop) {
+    return get(2 * stop);
+  }
+
+  int getDepartureDelay(int stop) {
+    return get(2 * stop + 1);
+  }
+
+  void setArrivalDelay(int stop, int delay) {
+    set(2 * stop, delay);
+  }
+
+  void setDepartureDelay(int stop, int delay) {
+    set(2 * stop + 1, delay);
+  }
+
+  /** The number of runs, used in tests. */
+  int numberOfRuns() {
+    return size;
+  }
+
+  private int get(int pos) {
+    return delays[run(pos)];
+  }
+
+  private void set(int pos, int delay) {
+    if (pos < 0 || pos >= length) {
+      throw new IndexOutOfBoundsException(pos);
+    }
+    int r = run(pos);
+    if (delays[r] == delay) {
+      return;
+    }
+    int end = r + 1 < size ? starts[r + 1] : length;
+    boolean first = pos == starts[r];
+    boolean last = pos == end - 1;
+    boolean joinPrev = first && r > 0 && delays[r - 1] == delay;
+    boolean joinNext = last && r + 1 < size && delays[r + 1] == delay;
+
+    if (first && last) {
+      // The run has one position only
+      if (joinPrev && joinNext) {
+        removeRuns(r, 2);
+      } else if (joinPrev) {
+        removeRuns(r, 1);
+      } else if (joinNext) {
+        starts[r + 1] = pos;
+        removeRuns(r, 1);
+      } else {
+        delays[r] = delay;
+      }
+    } else if (first) {
+      if (joinPrev) {
+        starts[r] = pos + 1;
+      } else {
+        insertRun(r, pos, delay);
+        starts[r + 1] = pos + 1;
+      }
+    } else if (last) {
+      if (joinNext) {
+        starts[r + 1] = pos;
+      } else {
+        insertRun(r + 1, pos, delay);
+      }
+    } else {
+      // Split the run in three
+      insertRun(r + 1, pos, delay);
+      insertRun(r + 2, pos + 1, delays[r]);
+    }
+  }
+
+  /** The index of the run containing the position. */
+  private int run(int pos) {
+    if (size == 1) {
+      return 0;
+    }
+    int i = Arrays.binarySearch(starts, 0, size, pos);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  private void insertRun(int index, int start, int delay) {
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, 2 * size);
+      delays = Arrays.copyOf(delays, 2 * size);
+    }
+    System.arraycopy(starts, index, starts, index + 1, size - index);
+    System.arraycopy(delays, index, delays, index + 1, size - index);
+    starts[index] = start;
+    delays[index] = delay;
+    ++size;
+  }
+
+  private void removeRuns(int index, int n) {
+    System.arraycopy(starts, index + n, starts, index, size - index - n);
+    System.arraycopy(delays, index + n, delays, index, size - index - n);
+    size -= n;
+  }
+}
@@ -4,10 +4,8 @@ import static org.opentripplanner.transit.model.timetable.TimetableValidationErr
 import static org.opentripplanner.transit.model.timetable.TimetableValidationError.ErrorCode.NEGATIVE_HOP_TIME;
 
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
-import java.util.function.IntUnaryOperator;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.i18n.I18NString;
 import org.opentripplanner.transit.model.basic.Accessibility;
@@ -19,17 +17,29 @@ import org.opentripplanner.transit.model.timetable.booking.BookingInfo;
  * carried along by States when routing to ensure that they have a consistent, fast view of the trip
  * when realtime updates have been applied. All times are expressed as seconds since midnight (as in
  * GTFS).
+ * <p>
+ * The real-time times are stored as run-length encoded delays on top of the scheduled times, see
+ * {@link DelayRuns}, and the stop real-time state and occupancy status of each stop are packed into
+ * one byte. Nothing is allocated before the first real-time update of the trip.
  */
 public final class RealTimeTripTimes implements TripTimes {
 
   private ScheduledTripTimes scheduledTripTimes;
 
-  private int[] arrivalTimes;
-  private int[] departureTimes;
+  private static final StopRealTimeState[] STOP_REAL_TIME_STATES = StopRealTimeState.values();
+  private static final OccupancyStatus[] OCCUPANCY_STATUSES = OccupancyStatus.values();
+  private static final int OCCUPANCY_STATUS_SHIFT = 4;
+  private static final int STOP_REAL_TIME_STATE_MASK = (1 << OCCUPANCY_STATUS_SHIFT) - 1;
+
+  private DelayRuns delays;
   private RealTimeState realTimeState;
-  private StopRealTimeState[] stopRealTimeStates;
+
+  /**
+   * The {@link StopRealTimeState} ordinal in the lower 4 bits and the {@link OccupancyStatus}
+   * ordinal in the upper 4 bits, for each stop. Zero is DEFAULT and NO_DATA_AVAILABLE.
+   */
+  private byte[] stopStates;
   private I18NString[] headsigns;
-  private OccupancyStatus[] occupancyStatus;
   private Accessibility wheelchairAccessibility;
 
   RealTimeTripTimes(ScheduledTripTimes scheduledTripTimes) {
@@ -38,7 +48,6 @@ public final class RealTimeTripTimes implements TripTimes {
       scheduledTripTimes.getRealTimeState(),
       null,
       null,
-      null,
       scheduledTripTimes.getWheelchairAccessibility()
     );
   }
@@ -47,9 +56,8 @@ public final class RealTimeTripTimes implements TripTimes {
     this(
       scheduledTripTimes,
       original.realTimeState,
-      original.stopRealTimeStates,
+      original.stopStates,
       original.headsigns,
-      original.occupancyStatus,
       original.wheelchairAccessibility
     );
   }
@@ -57,22 +65,18 @@ public final class RealTimeTripTimes implements TripTimes {
   private RealTimeTripTimes(
     ScheduledTripTimes scheduledTripTimes,
     RealTimeState realTimeState,
-    StopRealTimeState[] stopRealTimeStates,
+    byte[] stopStates,
     I18NString[] headsigns,
-    OccupancyStatus[] occupancyStatus,
     Accessibility wheelchairAccessibility
   ) {
     this.scheduledTripTimes = scheduledTripTimes;
     this.realTimeState = realTimeState;
-    this.stopRealTimeStates = stopRealTimeStates;
+    this.stopStates = stopStates;
     this.headsigns = headsigns;
-    this.occupancyStatus = occupancyStatus;
     this.wheelchairAccessibility = wheelchairAccessibility;
 
-    // We set these to null to indicate that this is a non-updated/scheduled TripTimes.
-    // We cannot point to the scheduled times because we do not want to make an unnecessary copy.
-    this.arrivalTimes = null;
-    this.departureTimes = null;
+    // We set this to null to indicate that this is a non-updated/scheduled TripTimes.
+    this.delays = null;
   }
 
   public static RealTimeTripTimes of(ScheduledTripTimes scheduledTripTimes) {
@@ -142,7 +146,7 @@ public final class RealTimeTripTimes implements TripTimes {
    */
   @Override
   public int getArrivalTime(final int stop) {
-    return getOrElse(stop, arrivalTimes, scheduledTripTimes::getScheduledArrivalTime);
+    return scheduledTripTimes.getScheduledArrivalTime(stop) + getArrivalDelay(stop);
   }
 
   /**
@@ -151,19 +155,19 @@ public final class RealTimeTripTimes implements TripTimes {
    */
   @Override
   public int getDepartureTime(final int stop) {
-    return getOrElse(stop, departureTimes, scheduledTripTimes::getScheduledDepartureTime);
+    return scheduledTripTimes.getScheduledDepartureTime(stop) + getDepartureDelay(stop);
   }
 
   /** @return the difference between the scheduled and actual arrival times at this stop. */
   @Override
   public int getArrivalDelay(final int stop) {
-    return getArrivalTime(stop) - scheduledTripTimes.getScheduledArrivalTime(stop);
+    return delays == null ? 0 : delays.getArrivalDelay(stop);
   }
 
   /** @return the difference between the scheduled and actual departure times at this stop. */
   @Override
   public int getDepartureDelay(final int stop) {
-    return getDepartureTime(stop) - scheduledTripTimes.getScheduledDepartureTime(stop);
+    return delays == null ? 0 : delays.getDepartureDelay(stop);
   }
 
   public void setRecorded(int stop) {
@@ -200,7 +204,8 @@ public final class RealTimeTripTimes implements TripTimes {
 
   public void setOccupancyStatus(int stop, OccupancyStatus occupancyStatus) {
     prepareForRealTimeUpdates();
-    this.occupancyStatus[stop] = occupancyStatus;
+    int state = stopStates[stop] & STOP_REAL_TIME_STATE_MASK;
+    stopStates[stop] = (byte) (state | (occupancyStatus.ordinal() << OCCUPANCY_STATUS_SHIFT));
   }
 
   /**
@@ -208,10 +213,10 @@ public final class RealTimeTripTimes implements TripTimes {
    */
   @Override
   public OccupancyStatus getOccupancyStatus(int stop) {
-    if (this.occupancyStatus == null) {
+    if (stopStates == null) {
       return OccupancyStatus.NO_DATA_AVAILABLE;
     }
-    return this.occupancyStatus[stop];
+    return OCCUPANCY_STATUSES[(stopStates[stop] & 0xFF) >>> OCCUPANCY_STATUS_SHIFT];
   }
 
   @Override
@@ -300,23 +305,21 @@ public final class RealTimeTripTimes implements TripTimes {
   }
 
   public void updateDepartureTime(final int stop, final int time) {
-    prepareForRealTimeUpdates();
-    departureTimes[stop] = time;
+    updateDepartureDelay(stop, time - scheduledTripTimes.getScheduledDepartureTime(stop));
   }
 
   public void updateDepartureDelay(final int stop, final int delay) {
     prepareForRealTimeUpdates();
-    departureTimes[stop] = scheduledTripTimes.getScheduledDepartureTime(stop) + delay;
+    delays.setDepartureDelay(stop, delay);
   }
 
   public void updateArrivalTime(final int stop, final int time) {
-    prepareForRealTimeUpdates();
-    arrivalTimes[stop] = time;
+    updateArrivalDelay(stop, time - scheduledTripTimes.getScheduledArrivalTime(stop));
   }
 
   public void updateArrivalDelay(final int stop, final int delay) {
     prepareForRealTimeUpdates();
-    arrivalTimes[stop] = scheduledTripTimes.getScheduledArrivalTime(stop) + delay;
+    delays.setArrivalDelay(stop, delay);
   }
 
   @Nullable
@@ -340,7 +343,7 @@ public final class RealTimeTripTimes implements TripTimes {
    * now (frequency trips don't have updates).
    */
   public TripTimes timeShift(final int stop, final int time, final boolean depart) {
-    if (arrivalTimes != null || departureTimes != null) {
+    if (delays != null) {
       return null;
     }
     // Adjust 0-based times to match desired stoptime.
@@ -536,7 +539,8 @@ public final class RealTimeTripTimes implements TripTimes {
 
   private void setStopRealTimeStates(int stop, StopRealTimeState state) {
     prepareForRealTimeUpdates();
-    this.stopRealTimeStates[stop] = state;
+    int occupancyStatus = stopStates[stop] & ~STOP_REAL_TIME_STATE_MASK;
+    stopStates[stop] = (byte) (occupancyStatus | state.ordinal());
   }
 
   /**
@@ -546,44 +550,47 @@ public final class RealTimeTripTimes implements TripTimes {
    * This is only for API-purposes (does not affect routing).
    */
   private boolean isStopRealTimeStates(int stop, StopRealTimeState state) {
-    return stopRealTimeStates != null && stopRealTimeStates[stop] == state;
+    return (
+      stopStates != null &&
+      STOP_REAL_TIME_STATES[stopStates[stop] & STOP_REAL_TIME_STATE_MASK] == state
+    );
   }
 
+  /**
+   * The headsigns are only copied when a headsign is set, a {@code null} headsign falls back to
+   * the scheduled headsign of the stop. Setting the scheduled headsign of the stop is a no-op.
+   */
   public void setHeadsign(int index, I18NString headsign) {
     if (headsigns == null) {
-      if (headsign.equals(getTrip().getHeadsign())) {
+      if (headsign.equals(scheduledTripTimes.getHeadsign(index))) {
         return;
       }
-      this.headsigns = scheduledTripTimes.copyHeadsigns(() -> new I18NString[getNumStops()]);
+      this.headsigns = new I18NString[getNumStops()];
       this.headsigns[index] = headsign;
       return;
     }
 
     prepareForRealTimeUpdates();
+    if (headsigns == null) {
+      this.headsigns = new I18NString[getNumStops()];
+    }
     headsigns[index] = headsign;
   }
 
-  private static int getOrElse(int index, int[] array, IntUnaryOperator defaultValue) {
-    return array != null ? array[index] : defaultValue.applyAsInt(index);
-  }
-
   /**
-   * If they don't already exist, create arrays for updated arrival and departure times that are
-   * just time-shifted copies of the zero-based scheduled departure times.
+   * If they don't already exist, create the real-time delays, all zero, and the stop states. The
+   * stop states and headsigns may be shared with the trip times this is copied from, so they are
+   * replaced, not changed.
    * <p>
    * Also sets the realtime state to UPDATED.
    */
   private void prepareForRealTimeUpdates() {
-    if (arrivalTimes == null) {
-      this.arrivalTimes = scheduledTripTimes.copyArrivalTimes();
-      this.departureTimes = scheduledTripTimes.copyDepartureTimes();
+    if (delays == null) {
+      this.delays = DelayRuns.ofNumberOfStops(getNumStops());
       // Update the real-time state
       this.realTimeState = RealTimeState.UPDATED;
-      this.stopRealTimeStates = new StopRealTimeState[arrivalTimes.length];
-      Arrays.fill(stopRealTimeStates, StopRealTimeState.DEFAULT);
-      this.headsigns = scheduledTripTimes.copyHeadsigns(() -> null);
-      this.occupancyStatus = new OccupancyStatus[arrivalTimes.length];
-      Arrays.fill(occupancyStatus, OccupancyStatus.NO_DATA_AVAILABLE);
+      this.stopStates = new byte[getNumStops()];
+      this.headsigns = null;
       // skip immutable types: scheduledTripTimes & wheelchairAccessibility
     }
   }
@@ -4,12 +4,10 @@ import static org.opentripplanner.transit.model.timetable.TimetableValidationErr
 import static org.opentripplanner.transit.model.timetable.TimetableValidationError.ErrorCode.NEGATIVE_HOP_TIME;
 
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.OptionalInt;
-import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.error.OtpError;
 import org.opentripplanner.framework.i18n.I18NString;
@@ -309,10 +307,6 @@ public final class ScheduledTripTimes implements TripTimes {
     return IntUtils.shiftArray(timeShift, departureTimes);
   }
 
-  I18NString[] copyHeadsigns(Supplier<I18NString[]> defaultValue) {
-    return headsigns == null ? defaultValue.get() : Arrays.copyOf(headsigns, headsigns.length);
-  }
-
   /* private methods */
 
   private void validate() {
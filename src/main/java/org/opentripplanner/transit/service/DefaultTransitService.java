@@ -539,6 +539,11 @@ public class DefaultTransitService implements TransitEditorService {
     return this.transitModelIndex.getFlexIndex();
   }
 
+  @Override
+  public TripStartTimeIndex getTripStartTimeIndex() {
+    return this.transitModelIndex.getTripStartTimeIndex();
+  }
+
   @Override
   public ZonedDateTime getTransitServiceEnds() {
     return transitModel.getTransitServiceEnds();
@@ -59,6 +59,12 @@ public class TransitModelIndex {
   private final Map<FeedScopedId, GroupOfRoutes> groupOfRoutesForId = new HashMap<>();
   private FlexIndex flexIndex = null;
 
+  /**
+   * Created the first time it is used, it is only needed for matching realtime updates without a
+   * trip id.
+   */
+  private volatile TripStartTimeIndex tripStartTimeIndex = null;
+
   TransitModelIndex(TransitModel transitModel) {
     LOG.info("Transit model index init...");
 
@@ -215,6 +221,20 @@ public class TransitModelIndex {
     return flexIndex;
   }
 
+  public TripStartTimeIndex getTripStartTimeIndex() {
+    var index = tripStartTimeIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = tripStartTimeIndex;
+        if (index == null) {
+          index = new TripStartTimeIndex(patternsForRoute.values());
+          tripStartTimeIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
   private void initalizeServiceCodesForDate(TransitModel transitModel) {
     CalendarService calendarService = transitModel.getCalendarService();
 
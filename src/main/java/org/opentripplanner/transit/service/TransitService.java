@@ -195,6 +195,8 @@ public interface TransitService {
 
   FlexIndex getFlexIndex();
 
+  TripStartTimeIndex getTripStartTimeIndex();
+
   ZonedDateTime getTransitServiceEnds();
 
   ZonedDateTime getTransitServiceStarts();
@@ -0,0 +1,77 @@
+package org.opentripplanner.transit.service;
+
+import gnu.trove.set.TIntSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Direction;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * An index of the scheduled trips by route, direction and scheduled departure time from the first
+ * stop. This is used to find the trip of a realtime update without a trip id, see
+ * {@link org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher}.
+ * <p>
+ * Only the trips of the scheduled timetables are indexed, realtime updates do not change the
+ * index.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class TripStartTimeIndex {
+
+  private final Map<Key, Candidate[]> trips;
+
+  /**
+   * @param patterns the patterns in the order they are searched, if more than one trip match the
+   *                 first is returned.
+   */
+  TripStartTimeIndex(Collection<TripPattern> patterns) {
+    var builder = new HashMap<Key, List<Candidate>>();
+    for (TripPattern pattern : patterns) {
+      Route route = pattern.getRoute();
+      Direction direction = pattern.getDirection();
+      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
+        builder
+          .computeIfAbsent(
+            new Key(route, direction, times.getScheduledDepartureTime(0)),
+            k -> new ArrayList<>(1)
+          )
+          .add(new Candidate(times.getTrip(), times.getServiceCode()));
+      }
+    }
+    this.trips = new HashMap<>(builder.size() * 4 / 3 + 1);
+    builder.forEach((key, candidates) -> trips.put(key, candidates.toArray(Candidate[]::new)));
+  }
+
+  /**
+   * Find the trip of the route and direction leaving the first stop at the given time, and running
+   * one of the given services.
+   *
+   * @param startTime the scheduled departure time from the first stop, in seconds after the
+   *                  start of the service date.
+   * @return {@code null} if no trip is found.
+   */
+  @Nullable
+  public Trip getTrip(Route route, Direction direction, int startTime, TIntSet serviceCodes) {
+    Candidate[] candidates = trips.get(new Key(route, direction, startTime));
+    if (candidates == null) {
+      return null;
+    }
+    for (Candidate candidate : candidates) {
+      if (serviceCodes.contains(candidate.serviceCode())) {
+        return candidate.trip();
+      }
+    }
+    return null;
+  }
+
+  private record Key(Route route, Direction direction, int startTime) {}
+
+  private record Candidate(Trip trip, int serviceCode) {}
+}
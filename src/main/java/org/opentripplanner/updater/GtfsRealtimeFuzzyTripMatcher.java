@@ -2,19 +2,22 @@ package org.opentripplanner.updater;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
 import gnu.trove.set.TIntSet;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.text.ParseException;
 import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.framework.time.TimeUtils;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.gtfs.mapping.DirectionMapper;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.Route;
-import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.timetable.Direction;
 import org.opentripplanner.transit.model.timetable.Trip;
-import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.transit.service.TripStartTimeIndex;
 
 /**
  * This class is used for matching TripDescriptors without trip_ids to scheduled GTFS data and to
@@ -22,9 +25,16 @@ import org.opentripplanner.transit.service.TransitService;
  * <p>
  * The class should only be used if we know that the feed producer is unable to produce trip_ids in
  * the GTFS-RT feed.
+ * <p>
+ * The trips are looked up in the {@link TripStartTimeIndex} of the transit model, which is shared
+ * by all matchers, so this class is thread-safe. The time used to match a TripDescriptor is
+ * published by result, matched or not, so the hit rate is the ratio of the counts.
  */
 public class GtfsRealtimeFuzzyTripMatcher {
 
+  private static final Timer MATCHED_TIMER = matchTimer("matched");
+  private static final Timer NOT_MATCHED_TIMER = matchTimer("not_matched");
+
   private final TransitService transitService;
 
   // TODO: replace this with a runtime solution
@@ -47,17 +57,39 @@ public class GtfsRealtimeFuzzyTripMatcher {
       return trip;
     }
 
+    long start = System.nanoTime();
+    Trip matchedTrip = findTrip(feedId, trip);
+    var timer = matchedTrip == null ? NOT_MATCHED_TIMER : MATCHED_TIMER;
+    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    if (matchedTrip == null) {
+      return trip;
+    }
+
+    // If everything succeeds, build a new TripDescriptor with the matched trip_id
+    return trip.toBuilder().setTripId(matchedTrip.getId().getId()).build();
+  }
+
+  public Trip getTrip(Route route, Direction direction, int startTime, LocalDate date) {
+    TIntSet servicesRunningForDate = transitService.getServiceCodesRunningForDate(date);
+    return transitService
+      .getTripStartTimeIndex()
+      .getTrip(route, direction, startTime, servicesRunningForDate);
+  }
+
+  @Nullable
+  private Trip findTrip(String feedId, TripDescriptor trip) {
     FeedScopedId routeId = new FeedScopedId(feedId, trip.getRouteId());
     int time = TimeUtils.time(trip.getStartTime());
     LocalDate date;
     try {
       date = ServiceDateUtils.parseString(trip.getStartDate());
     } catch (ParseException e) {
-      return trip;
+      return null;
     }
     Route route = transitService.getRouteForId(routeId);
     if (route == null) {
-      return trip;
+      return null;
     }
     Direction direction = directionMapper.map(trip.getDirectionId());
 
@@ -69,33 +101,14 @@ public class GtfsRealtimeFuzzyTripMatcher {
       time += 24 * 60 * 60;
       matchedTrip = getTrip(route, direction, time, date);
     }
-
-    if (matchedTrip == null) {
-      return trip;
-    }
-
-    // If everything succeeds, build a new TripDescriptor with the matched trip_id
-    return trip.toBuilder().setTripId(matchedTrip.getId().getId()).build();
+    return matchedTrip;
   }
 
-  public synchronized Trip getTrip(
-    Route route,
-    Direction direction,
-    int startTime,
-    LocalDate date
-  ) {
-    TIntSet servicesRunningForDate = transitService.getServiceCodesRunningForDate(date);
-    for (TripPattern pattern : transitService.getPatternsForRoute(route)) {
-      if (pattern.getDirection() != direction) continue;
-      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
-        if (
-          times.getScheduledDepartureTime(0) == startTime &&
-          servicesRunningForDate.contains(times.getServiceCode())
-        ) {
-          return times.getTrip();
-        }
-      }
-    }
-    return null;
+  private static Timer matchTimer(String result) {
+    return Timer
+      .builder("fuzzyTripMatcher.match")
+      .description("Time used to match a TripDescriptor without trip_id to a scheduled trip")
+      .tag("result", result)
+      .register(Metrics.globalRegistry);
   }
 }
@@ -12,6 +12,7 @@ import org.opentripplanner.ext.vehiclerentalservicedirectory.VehicleRentalServic
 import org.opentripplanner.ext.vehiclerentalservicedirectory.api.VehicleRentalServiceDirectoryFetcherParameters;
 import org.opentripplanner.framework.io.OtpHttpClientFactory;
 import org.opentripplanner.model.calendar.openinghours.OpeningHoursCalendarService;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.service.realtimevehicles.RealtimeVehicleRepository;
 import org.opentripplanner.service.vehiclerental.VehicleRentalRepository;
@@ -111,6 +112,10 @@ public class UpdaterConfigurator {
     if (updaterManager != null) {
       updaterManager.stop();
     }
+    TransitLayerUpdater transitLayerUpdater = transitModel.getTransitLayerUpdater();
+    if (transitLayerUpdater != null) {
+      transitLayerUpdater.shutdown();
+    }
   }
 
   /* private methods */
@@ -3,6 +3,7 @@ package org.opentripplanner.updater.spi;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import java.time.Duration;
 import java.util.List;
 import org.opentripplanner.transit.model.framework.Result;
 
@@ -10,18 +11,22 @@ import org.opentripplanner.transit.model.framework.Result;
  * An aggregation of results of the application of realtime updates which makes it easy to get
  * an overview of what the success rate of the update was and which specific problems were
  * encountered.
+ *
+ * @param lockHoldTime The time the timetable snapshot buffer was locked to apply the updates, zero
+ *                     if not measured.
  */
 public record UpdateResult(
   int successful,
   int failed,
   Multimap<UpdateError.UpdateErrorType, UpdateError> failures,
-  List<UpdateSuccess.WarningType> warnings
+  List<UpdateSuccess.WarningType> warnings,
+  Duration lockHoldTime
 ) {
   /**
    * Create an empty result.
    */
   public static UpdateResult empty() {
-    return new UpdateResult(0, 0, ArrayListMultimap.create(), List.of());
+    return new UpdateResult(0, 0, ArrayListMultimap.create(), List.of(), Duration.ZERO);
   }
 
   /**
@@ -32,6 +37,10 @@ public record UpdateResult(
     var successes = results.stream().filter(Result::isSuccess).map(Result::successValue).toList();
     var warnings = successes.stream().flatMap(s -> s.warnings().stream()).toList();
     var errorIndex = Multimaps.index(errors, UpdateError::errorType);
-    return new UpdateResult(successes.size(), errors.size(), errorIndex, warnings);
+    return new UpdateResult(successes.size(), errors.size(), errorIndex, warnings, Duration.ZERO);
+  }
+
+  public UpdateResult withLockHoldTime(Duration lockHoldTime) {
+    return new UpdateResult(successful, failed, failures, warnings, lockHoldTime);
   }
 }
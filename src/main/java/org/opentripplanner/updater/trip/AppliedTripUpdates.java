@@ -0,0 +1,68 @@
+package org.opentripplanner.updater.trip;
+
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.model.framework.Result;
+import org.opentripplanner.transit.model.timetable.TripIdAndServiceDate;
+import org.opentripplanner.updater.spi.UpdateError;
+import org.opentripplanner.updater.spi.UpdateSuccess;
+
+/**
+ * The trip updates of the last FULL_DATASET message of a feed, and the result of applying them.
+ * The next message of the feed is compared with these, and only the trips which have changed are
+ * applied again.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+final class AppliedTripUpdates {
+
+  private final Map<TripIdAndServiceDate, AppliedTripUpdate> updates;
+
+  AppliedTripUpdates(Map<TripIdAndServiceDate, AppliedTripUpdate> updates) {
+    this.updates = Map.copyOf(updates);
+  }
+
+  /**
+   * The content of a trip update used to detect changes. The timestamp of the update is not used
+   * by OTP, and is left out so that a new timestamp alone is not a change.
+   */
+  static TripUpdate content(TripUpdate tripUpdate) {
+    return tripUpdate.hasTimestamp() ? tripUpdate.toBuilder().clearTimestamp().build() : tripUpdate;
+  }
+
+  /**
+   * Return the applied update of the trip if the content is unchanged, or {@code null} if the trip
+   * was not in the last message, was in it more than once or the content has changed.
+   *
+   * @param content the content of the trip update, see {@link #content(TripUpdate)}.
+   */
+  @Nullable
+  AppliedTripUpdate findUnchanged(TripIdAndServiceDate trip, TripUpdate content) {
+    var applied = updates.get(trip);
+    if (
+      applied == null ||
+      applied.content() == null ||
+      applied.content().hashCode() != content.hashCode() ||
+      !applied.content().equals(content)
+    ) {
+      return null;
+    }
+    return applied;
+  }
+
+  Set<TripIdAndServiceDate> trips() {
+    return updates.keySet();
+  }
+
+  /**
+   * @param content the content of the applied trip update, {@code null} if the trip had more than
+   *                one update in the message. The trip is then never unchanged, and is always
+   *                applied again or reverted by the next message.
+   */
+  record AppliedTripUpdate(
+    @Nullable TripUpdate content,
+    Result<UpdateSuccess, UpdateError> result
+  ) {}
+}
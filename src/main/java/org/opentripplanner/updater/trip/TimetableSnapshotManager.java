@@ -1,5 +1,8 @@
 package org.opentripplanner.updater.trip;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
@@ -29,6 +32,16 @@ import org.slf4j.LoggerFactory;
 public final class TimetableSnapshotManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(TimetableSnapshotManager.class);
+
+  /**
+   * The time used to commit the buffer, including updating the transit layer used in routing.
+   */
+  private static final Timer COMMIT_TIMER = Timer
+    .builder("timetableSnapshot.commit")
+    .description("Time used to commit a new timetable snapshot")
+    .publishPercentiles(0.5, 0.95, 0.99)
+    .register(Metrics.globalRegistry);
+
   private final TransitLayerUpdater transitLayerUpdater;
   /**
    * Lock to indicate that buffer is in use
@@ -127,7 +140,7 @@ public final class TimetableSnapshotManager {
     if (force || snapshotFrequencyThrottle.timeIsUp()) {
       if (force || buffer.isDirty()) {
         LOG.debug("Committing {}", buffer);
-        snapshot = buffer.commit(transitLayerUpdater, force);
+        snapshot = COMMIT_TIMER.record(() -> buffer.commit(transitLayerUpdater, force));
 
         // We only reset the timer when the snapshot is updated. This will cause the first
         // update to be committed after a silent period. This should not have any effect in
@@ -210,9 +223,12 @@ public final class TimetableSnapshotManager {
    * Execute a {@code Runnable} with a locked snapshot buffer and release the lock afterwards. While
    * the action of locking and unlocking is not complicated to do for calling code, this method
    * exists so that the lock instance is a private field.
+   *
+   * @return the time the lock was held.
    */
-  public void withLock(Runnable action) {
+  public Duration withLock(Runnable action) {
     bufferLock.lock();
+    long start = System.nanoTime();
 
     try {
       action.run();
@@ -220,6 +236,7 @@ public final class TimetableSnapshotManager {
       // Always release lock
       bufferLock.unlock();
     }
+    return Duration.ofNanos(System.nanoTime() - start);
   }
 
   /**
@@ -23,16 +23,20 @@ import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
 import de.mfdz.MfdzRealtimeExtensions;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.i18n.I18NString;
 import org.opentripplanner.framework.i18n.NonLocalizedString;
 import org.opentripplanner.framework.lang.StringUtils;
@@ -42,6 +46,7 @@ import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.TimetableSnapshotProvider;
+import org.opentripplanner.model.TripTimesPatch;
 import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.DataValidationException;
 import org.opentripplanner.transit.model.framework.Deduplicator;
@@ -55,6 +60,8 @@ import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.model.timetable.RealTimeState;
 import org.opentripplanner.transit.model.timetable.RealTimeTripTimes;
 import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripIdAndServiceDate;
+import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.model.timetable.TripTimesFactory;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitEditorService;
@@ -67,6 +74,7 @@ import org.opentripplanner.updater.spi.ResultLogger;
 import org.opentripplanner.updater.spi.UpdateError;
 import org.opentripplanner.updater.spi.UpdateResult;
 import org.opentripplanner.updater.spi.UpdateSuccess;
+import org.opentripplanner.updater.trip.AppliedTripUpdates.AppliedTripUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,6 +105,13 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   private final TimetableSnapshotManager snapshotManager;
   private final Supplier<LocalDate> localDateNow;
 
+  /**
+   * The trip updates of the last FULL_DATASET message by feed id. This is removed when the buffer
+   * is changed by another message of the feed, and the buffer is then cleared by the next
+   * FULL_DATASET message.
+   */
+  private final Map<String, AppliedTripUpdates> fullDatasetTripUpdates = new ConcurrentHashMap<>();
+
   public TimetableSnapshotSource(
     TimetableSnapshotSourceParameters parameters,
     TransitModel transitModel
@@ -131,6 +146,14 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
    * <p>
    * However, multi-feed support is not completed and we currently assume there is only one static
    * feed when matching IDs.
+   * <p>
+   * The updates are applied in two stages. First the trips are resolved and the updated trip times
+   * of SCHEDULED trips are computed, in parallel and without holding the buffer lock. Then the
+   * prepared updates are validated against the buffer and applied in order, holding the lock.
+   * <p>
+   * A FULL_DATASET message is compared with the last message of the feed. Only the trips which are
+   * new or changed are applied, after reverting the trip to the state before the last message.
+   * The trips which are removed are reverted, and the unchanged trips are not touched.
    *
    * @param backwardsDelayPropagationType Defines when delays are propagated to previous stops and
    *                                      if these stops are given the NO_DATA flag.
@@ -153,57 +176,67 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     Map<TripDescriptor.ScheduleRelationship, Integer> failuresByRelationship = new HashMap<>();
     List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
 
-    snapshotManager.withLock(() -> {
+    final AppliedTripUpdates lastFullDataset = updateIncrementality == FULL_DATASET
+      ? fullDatasetTripUpdates.get(feedId)
+      : null;
+
+    // THIS CODE RUNS IN PARALLEL
+    List<PreparedTripUpdate> preparedUpdates = updates
+      .parallelStream()
+      .map(tripUpdate ->
+        prepareTripUpdate(
+          fuzzyTripMatcher,
+          backwardsDelayPropagationType,
+          updateIncrementality,
+          lastFullDataset,
+          tripUpdate,
+          feedId
+        )
+      )
+      .filter(Objects::nonNull)
+      .toList();
+    // END PARALLEL CODE
+
+    Duration lockHoldTime = snapshotManager.withLock(() -> {
+      Set<TripIdAndServiceDate> duplicatedTrips = Set.of();
       if (updateIncrementality == FULL_DATASET) {
-        // Remove all updates from the buffer
-        snapshotManager.clearBuffer(feedId);
+        if (lastFullDataset == null) {
+          // Remove all updates from the buffer
+          snapshotManager.clearBuffer(feedId);
+        } else {
+          revertRemovedTrips(lastFullDataset, preparedUpdates);
+        }
+        duplicatedTrips = findDuplicatedTrips(preparedUpdates);
+      } else {
+        fullDatasetTripUpdates.remove(feedId);
       }
 
       LOG.debug("message contains {} trip updates", updates.size());
+      var appliedTripUpdates = new HashMap<TripIdAndServiceDate, AppliedTripUpdate>();
+      var revertedTrips = new HashSet<TripIdAndServiceDate>();
       int uIndex = 0;
-      for (TripUpdate tripUpdate : updates) {
-        if (!tripUpdate.hasTrip()) {
-          debug(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
-          continue;
-        }
-
-        if (fuzzyTripMatcher != null) {
-          final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
-          tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
-        }
-
+      for (PreparedTripUpdate preparedUpdate : preparedUpdates) {
+        final TripUpdate tripUpdate = preparedUpdate.tripUpdate();
         final TripDescriptor tripDescriptor = tripUpdate.getTrip();
-
-        if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
-          debug(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
+        final FeedScopedId tripId = preparedUpdate.tripId();
+        final LocalDate serviceDate = preparedUpdate.serviceDate();
+        final var tripScheduleRelationship = preparedUpdate.scheduleRelationship();
+        final var trip = new TripIdAndServiceDate(tripId, serviceDate);
+        final boolean duplicated = duplicatedTrips.contains(trip);
+
+        if (preparedUpdate.unchanged() != null && !duplicated) {
+          // Keep the trip as applied by the last message, and report the same result
+          var result = preparedUpdate.unchanged().result();
+          results.add(result);
+          appliedTripUpdates.put(trip, preparedUpdate.unchanged());
+          countFailure(failuresByRelationship, tripScheduleRelationship, result);
           continue;
         }
 
-        FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
-
-        LocalDate serviceDate;
-        if (tripDescriptor.hasStartDate()) {
-          try {
-            serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
-          } catch (final ParseException e) {
-            debug(
-              tripId,
-              "Failed to parse start date in gtfs-rt trip update: {}",
-              tripDescriptor.getStartDate()
-            );
-            continue;
-          }
-        } else {
-          // TODO: figure out the correct service date. For the special case that a trip
-          // starts for example at 40:00, yesterday would probably be a better guess.
-          serviceDate = localDateNow.get();
-        }
-        // Determine what kind of trip update this is
-        final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
-          tripDescriptor
-        );
         if (updateIncrementality == DIFFERENTIAL) {
           purgePatternModifications(tripScheduleRelationship, tripId, serviceDate);
+        } else if (lastFullDataset != null && revertedTrips.add(trip)) {
+          revertTripUpdates(tripId, serviceDate);
         }
 
         uIndex += 1;
@@ -215,10 +248,16 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
           result =
             switch (tripScheduleRelationship) {
               case SCHEDULED -> handleScheduledTrip(
-                tripUpdate,
+                preparedUpdate.scheduledTripUpdate() != null
+                  ? preparedUpdate.scheduledTripUpdate()
+                  : prepareScheduledTrip(
+                    tripUpdate,
+                    tripId,
+                    serviceDate,
+                    backwardsDelayPropagationType
+                  ),
                 tripId,
-                serviceDate,
-                backwardsDelayPropagationType
+                serviceDate
               );
               case ADDED -> validateAndHandleAddedTrip(
                 tripUpdate,
@@ -255,19 +294,27 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         if (result.isFailure()) {
           debug(tripId, "Failed to apply TripUpdate.");
           LOG.trace(" Contents: {}", tripUpdate);
-          if (failuresByRelationship.containsKey(tripScheduleRelationship)) {
-            var c = failuresByRelationship.get(tripScheduleRelationship);
-            failuresByRelationship.put(tripScheduleRelationship, ++c);
-          } else {
-            failuresByRelationship.put(tripScheduleRelationship, 1);
-          }
         }
+        countFailure(failuresByRelationship, tripScheduleRelationship, result);
+
+        // A trip with more than one update is recorded without content, so that it is always
+        // applied again or reverted by the next message
+        if (updateIncrementality == FULL_DATASET) {
+          appliedTripUpdates.put(
+            trip,
+            new AppliedTripUpdate(duplicated ? null : preparedUpdate.content(), result)
+          );
+        }
+      }
+
+      if (updateIncrementality == FULL_DATASET) {
+        fullDatasetTripUpdates.put(feedId, new AppliedTripUpdates(appliedTripUpdates));
       }
 
       snapshotManager.purgeAndCommit();
     });
 
-    var updateResult = UpdateResult.ofResults(results);
+    var updateResult = UpdateResult.ofResults(results).withLockHoldTime(lockHoldTime);
 
     if (updateIncrementality == FULL_DATASET) {
       logUpdateResult(feedId, failuresByRelationship, updateResult);
@@ -275,6 +322,157 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     return updateResult;
   }
 
+  /**
+   * Resolve the trip of the update, and compute the updated trip times of a SCHEDULED trip. This
+   * only uses the static transit data, not the timetable snapshot buffer, so it is done for all
+   * updates in parallel before the buffer is locked.
+   *
+   * @return {@code null} if the trip or the service date can not be resolved, the update is then
+   * skipped.
+   */
+  @Nullable
+  private PreparedTripUpdate prepareTripUpdate(
+    @Nullable GtfsRealtimeFuzzyTripMatcher fuzzyTripMatcher,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    UpdateIncrementality updateIncrementality,
+    @Nullable AppliedTripUpdates lastFullDataset,
+    TripUpdate tripUpdate,
+    String feedId
+  ) {
+    if (!tripUpdate.hasTrip()) {
+      debug(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    if (fuzzyTripMatcher != null) {
+      final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
+      tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
+    }
+
+    final TripDescriptor tripDescriptor = tripUpdate.getTrip();
+
+    if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
+      debug(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
+
+    LocalDate serviceDate;
+    if (tripDescriptor.hasStartDate()) {
+      try {
+        serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
+      } catch (final ParseException e) {
+        debug(
+          tripId,
+          "Failed to parse start date in gtfs-rt trip update: {}",
+          tripDescriptor.getStartDate()
+        );
+        return null;
+      }
+    } else {
+      // TODO: figure out the correct service date. For the special case that a trip
+      // starts for example at 40:00, yesterday would probably be a better guess.
+      serviceDate = localDateNow.get();
+    }
+    // Determine what kind of trip update this is
+    final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
+      tripDescriptor
+    );
+
+    TripUpdate content = null;
+    AppliedTripUpdate unchanged = null;
+    if (updateIncrementality == FULL_DATASET) {
+      content = AppliedTripUpdates.content(tripUpdate);
+      if (lastFullDataset != null) {
+        var trip = new TripIdAndServiceDate(tripId, serviceDate);
+        unchanged = lastFullDataset.findUnchanged(trip, content);
+      }
+    }
+
+    Result<ScheduledTripUpdate, UpdateError> scheduledTripUpdate = null;
+    if (
+      unchanged == null && tripScheduleRelationship == TripDescriptor.ScheduleRelationship.SCHEDULED
+    ) {
+      try {
+        scheduledTripUpdate =
+          prepareScheduledTrip(tripUpdate, tripId, serviceDate, backwardsDelayPropagationType);
+      } catch (DataValidationException e) {
+        scheduledTripUpdate = DataValidationExceptionMapper.toResult(e);
+      }
+    }
+    return new PreparedTripUpdate(
+      tripUpdate,
+      tripId,
+      serviceDate,
+      tripScheduleRelationship,
+      content,
+      unchanged,
+      scheduledTripUpdate
+    );
+  }
+
+  /**
+   * Revert the trips of the last FULL_DATASET message of the feed which are not in this message.
+   */
+  private void revertRemovedTrips(
+    AppliedTripUpdates lastFullDataset,
+    List<PreparedTripUpdate> preparedUpdates
+  ) {
+    var trips = new HashSet<>(lastFullDataset.trips());
+    for (PreparedTripUpdate preparedUpdate : preparedUpdates) {
+      trips.remove(new TripIdAndServiceDate(preparedUpdate.tripId(), preparedUpdate.serviceDate()));
+    }
+    for (TripIdAndServiceDate trip : trips) {
+      revertTripUpdates(trip.tripId(), trip.serviceDate());
+    }
+  }
+
+  /**
+   * Remove the realtime updates of a trip from the buffer, leaving the trip as if the buffer was
+   * cleared. The trip is removed from any realtime added pattern, and the scheduled trip times
+   * are restored in the scheduled pattern.
+   */
+  private void revertTripUpdates(FeedScopedId tripId, LocalDate serviceDate) {
+    snapshotManager.revertTripToScheduledTripPattern(tripId, serviceDate);
+
+    final TripPattern pattern = getPatternForTripId(tripId);
+    if (pattern == null) {
+      return;
+    }
+    TripTimes scheduledTripTimes = pattern.getScheduledTimetable().getTripTimes(tripId);
+    if (
+      scheduledTripTimes != null &&
+      snapshotManager.resolve(pattern, serviceDate).getTripTimes(tripId) != scheduledTripTimes
+    ) {
+      snapshotManager.updateBuffer(pattern, scheduledTripTimes, serviceDate);
+    }
+  }
+
+  private static Set<TripIdAndServiceDate> findDuplicatedTrips(
+    List<PreparedTripUpdate> preparedUpdates
+  ) {
+    var trips = new HashSet<TripIdAndServiceDate>();
+    var duplicated = new HashSet<TripIdAndServiceDate>();
+    for (PreparedTripUpdate preparedUpdate : preparedUpdates) {
+      var trip = new TripIdAndServiceDate(preparedUpdate.tripId(), preparedUpdate.serviceDate());
+      if (!trips.add(trip)) {
+        duplicated.add(trip);
+      }
+    }
+    return duplicated;
+  }
+
+  private static void countFailure(
+    Map<TripDescriptor.ScheduleRelationship, Integer> failuresByRelationship,
+    TripDescriptor.ScheduleRelationship tripScheduleRelationship,
+    Result<UpdateSuccess, UpdateError> result
+  ) {
+    if (result.isFailure()) {
+      failuresByRelationship.merge(tripScheduleRelationship, 1, Integer::sum);
+    }
+  }
+
   /**
    * Remove previous realtime updates for this trip. This is necessary to avoid previous stop
    * pattern modifications from persisting. If a trip was previously added with the
@@ -366,7 +564,11 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     return tripScheduleRelationship;
   }
 
-  private Result<UpdateSuccess, UpdateError> handleScheduledTrip(
+  /**
+   * Validate a SCHEDULED trip update and compute the updated trip times from the scheduled
+   * timetable. The result is applied to the buffer by {@link #handleScheduledTrip}.
+   */
+  private Result<ScheduledTripUpdate, UpdateError> prepareScheduledTrip(
     TripUpdate tripUpdate,
     FeedScopedId tripId,
     LocalDate serviceDate,
@@ -411,8 +613,20 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       // necessary so the success type is correct
       return result.toFailureResult();
     }
+    return Result.success(new ScheduledTripUpdate(pattern, result.successValue()));
+  }
 
-    var tripTimesPatch = result.successValue();
+  private Result<UpdateSuccess, UpdateError> handleScheduledTrip(
+    Result<ScheduledTripUpdate, UpdateError> scheduledTripUpdate,
+    FeedScopedId tripId,
+    LocalDate serviceDate
+  ) {
+    if (scheduledTripUpdate.isFailure()) {
+      return scheduledTripUpdate.toFailureResult();
+    }
+
+    final TripPattern pattern = scheduledTripUpdate.successValue().pattern();
+    var tripTimesPatch = scheduledTripUpdate.successValue().tripTimesPatch();
 
     List<Integer> skippedStopIndices = tripTimesPatch.getSkippedStopIndices();
 
@@ -1114,4 +1328,25 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     CANCEL,
     DELETE,
   }
+
+  /**
+   * A trip update with the trip resolved, prepared before the buffer is locked.
+   *
+   * @param content             the content used to detect changes, for FULL_DATASET messages only.
+   * @param unchanged           the update of the trip in the last FULL_DATASET message, if the
+   *                            content is the same.
+   * @param scheduledTripUpdate the updated trip times, or the reason the update is rejected, for
+   *                            changed SCHEDULED trips only.
+   */
+  private record PreparedTripUpdate(
+    TripUpdate tripUpdate,
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    TripDescriptor.ScheduleRelationship scheduleRelationship,
+    @Nullable TripUpdate content,
+    @Nullable AppliedTripUpdate unchanged,
+    @Nullable Result<ScheduledTripUpdate, UpdateError> scheduledTripUpdate
+  ) {}
+
+  private record ScheduledTripUpdate(TripPattern pattern, TripTimesPatch tripTimesPatch) {}
 }
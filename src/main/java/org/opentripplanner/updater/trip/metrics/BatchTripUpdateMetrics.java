@@ -4,6 +4,7 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +29,7 @@ public class BatchTripUpdateMetrics extends TripUpdateMetrics {
   private final AtomicInteger successfulGauge;
   private final AtomicInteger failureGauge;
   private final AtomicInteger warningsGauge;
+  private final Timer lockHoldTimer;
   private final Map<UpdateError.UpdateErrorType, AtomicInteger> failuresByType = new HashMap<>();
   private final Map<UpdateSuccess.WarningType, AtomicInteger> warningsByType = new HashMap<>();
 
@@ -43,12 +45,19 @@ public class BatchTripUpdateMetrics extends TripUpdateMetrics {
 
     this.warningsGauge =
       getGauge("warnings", "Number of warnings when successfully applying trip updates");
+    this.lockHoldTimer =
+      Timer
+        .builder(METRICS_PREFIX + ".lockHoldTime")
+        .description("Time the timetable snapshot was locked to apply the most recent update")
+        .tags(baseTags)
+        .register(Metrics.globalRegistry);
   }
 
   public void setGauges(UpdateResult result) {
     this.successfulGauge.set(result.successful());
     this.failureGauge.set(result.failed());
     this.warningsGauge.set(result.warnings().size());
+    this.lockHoldTimer.record(result.lockHoldTime());
 
     setFailureTypes(result);
 
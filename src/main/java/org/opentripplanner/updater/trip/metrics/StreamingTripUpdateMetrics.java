@@ -4,6 +4,7 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +29,7 @@ public class StreamingTripUpdateMetrics extends TripUpdateMetrics {
   private final Counter successfulCounter;
   private final Counter failureCounter;
   private final Counter warningsCounter;
+  private final Timer lockHoldTimer;
   private final Map<UpdateError.UpdateErrorType, Counter> failuresByType = new HashMap<>();
   private final Map<UpdateSuccess.WarningType, Counter> warningsByType = new HashMap<>();
 
@@ -36,12 +38,19 @@ public class StreamingTripUpdateMetrics extends TripUpdateMetrics {
     this.successfulCounter = getCounter("successful", "Total successfully applied trip updates");
     this.failureCounter = getCounter("failed", "Total failed trip updates");
     this.warningsCounter = getCounter("warnings", "Total warnings for successful trip updates");
+    this.lockHoldTimer =
+      Timer
+        .builder(METRICS_PREFIX + ".lockHoldTime")
+        .description("Time the timetable snapshot was locked to apply trip updates")
+        .tags(baseTags)
+        .register(Metrics.globalRegistry);
   }
 
   public void setCounters(UpdateResult result) {
     this.successfulCounter.increment(result.successful());
     this.failureCounter.increment(result.failed());
     this.warningsCounter.increment(result.warnings().size());
+    this.lockHoldTimer.record(result.lockHoldTime());
 
     setFailures(result);
     setWarnings(result);
@@ -12,6 +12,7 @@ import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.linking.DisposableEdgeCollection;
 import org.opentripplanner.routing.linking.LinkingDirection;
+import org.opentripplanner.routing.linking.Scope;
 import org.opentripplanner.routing.linking.VertexLinker;
 import org.opentripplanner.routing.vehicle_parking.VehicleParking;
 import org.opentripplanner.routing.vehicle_parking.VehicleParkingHelper;
@@ -155,6 +156,11 @@ public class VehicleParkingUpdater extends PollingGraphUpdater {
         tempEdgesByPark.put(updatedVehicleParking, disposableEdgeCollectionsForVertex);
       }
 
+      // The parking edges are not added or removed by the linker
+      if (!toLink.isEmpty() || !toRemove.isEmpty()) {
+        graph.incrementEdgeGeneration(Scope.REALTIME);
+      }
+
       vehicleParkingService.updateVehicleParking(toAdd, toRemove);
 
       oldVehicleParkings.removeAll(toRemove);
@@ -18,6 +18,7 @@ import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.linking.DisposableEdgeCollection;
 import org.opentripplanner.routing.linking.LinkingDirection;
+import org.opentripplanner.routing.linking.Scope;
 import org.opentripplanner.routing.linking.VertexLinker;
 import org.opentripplanner.service.vehiclerental.VehicleRentalRepository;
 import org.opentripplanner.service.vehiclerental.model.GeofencingZone;
@@ -211,6 +212,8 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
           }
           verticesByStation.put(station.getId(), vehicleRentalVertex);
           tempEdgesByStation.put(station.getId(), tempEdges);
+          // The rental edges are added after the station is linked
+          graph.incrementEdgeGeneration(Scope.REALTIME);
         } else {
           vehicleRentalVertex.setStation(station);
         }
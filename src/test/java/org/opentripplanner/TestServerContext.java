@@ -7,6 +7,9 @@ import java.util.List;
 import org.opentripplanner.ext.emissions.DefaultEmissionsService;
 import org.opentripplanner.ext.emissions.EmissionsDataModel;
 import org.opentripplanner.ext.emissions.EmissionsService;
+import org.opentripplanner.inspector.raster.RasterTileCache;
+import org.opentripplanner.inspector.vector.VectorTileCache;
+import org.opentripplanner.inspector.vector.VectorTileCaches;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.service.realtimevehicles.RealtimeVehicleService;
@@ -47,6 +50,8 @@ public class TestServerContext {
       new DefaultTransitService(transitModel),
       Metrics.globalRegistry,
       routerConfig.vectorTileConfig(),
+      createVectorTileCaches(),
+      createRasterTileCache(graph),
       createWorldEnvelopeService(),
       createRealtimeVehicleService(transitService),
       createVehicleRentalService(),
@@ -85,6 +90,14 @@ public class TestServerContext {
     return new DefaultEmissionsService(new EmissionsDataModel());
   }
 
+  public static VectorTileCaches createVectorTileCaches() {
+    return VectorTileCaches.of(VectorTileCache.DEFAULT_MAX_BYTES, Metrics.globalRegistry);
+  }
+
+  public static RasterTileCache createRasterTileCache(Graph graph) {
+    return new RasterTileCache(graph, RasterTileCache.DEFAULT_MAX_BYTES, 1, Metrics.globalRegistry);
+  }
+
   public static StreetLimitationParametersService createStreetLimitationParametersService() {
     return new DefaultStreetLimitationParametersService(new StreetLimitationParameters());
   }
@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.opentripplanner.TestServerContext;
 import org.opentripplanner._support.time.ZoneIds;
 import org.opentripplanner.apis.transmodel.TransmodelRequestContext;
 import org.opentripplanner.ext.emissions.DefaultEmissionsService;
@@ -138,6 +139,8 @@ public class TripRequestMapperTest implements PlanTestConstants {
           transitService,
           Metrics.globalRegistry,
           RouterConfig.DEFAULT.vectorTileConfig(),
+          TestServerContext.createVectorTileCaches(),
+          TestServerContext.createRasterTileCache(graph),
           new DefaultWorldEnvelopeService(new DefaultWorldEnvelopeRepository()),
           new DefaultRealtimeVehicleService(transitService),
           new DefaultVehicleRentalService(),
@@ -0,0 +1,45 @@
+package org.opentripplanner.framework.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IntMinHeapTest {
+
+  @Test
+  void pollInKeyOrder() {
+    var subject = new IntMinHeap();
+    assertTrue(subject.isEmpty());
+
+    int[] keys = { 7, 3, 9, 0, 3, 12, 5 };
+    for (int i = 0; i < keys.length; ++i) {
+      subject.add(keys[i], i);
+    }
+    assertEquals(keys.length, subject.size());
+
+    List<String> result = new ArrayList<>();
+    while (!subject.isEmpty()) {
+      long e = subject.poll();
+      result.add(IntMinHeap.key(e) + ":" + IntMinHeap.value(e));
+    }
+    assertEquals(List.of("0:3", "3:1", "3:4", "5:6", "7:0", "9:2", "12:5"), result);
+  }
+
+  @Test
+  void growBeyondInitialCapacity() {
+    var subject = new IntMinHeap();
+    for (int i = 1000; i > 0; --i) {
+      subject.add(i, -i);
+    }
+    for (int i = 1; i <= 1000; ++i) {
+      long e = subject.poll();
+      assertEquals(i, IntMinHeap.key(e));
+      assertEquals(-i, IntMinHeap.value(e));
+    }
+    assertFalse(subject.size() > 0);
+  }
+}
@@ -0,0 +1,88 @@
+package org.opentripplanner.framework.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PersistentHashMapTest {
+
+  @Test
+  void plusAndMinusDoNotChangeTheOriginal() {
+    PersistentHashMap<String, Integer> empty = PersistentHashMap.of();
+    var ab = empty.plus("A", 1).plus("B", 2);
+    var abc = ab.plus("C", 3);
+    var ac = abc.minus("B");
+
+    assertTrue(empty.isEmpty());
+    assertEquals(Map.of("A", 1, "B", 2), ab);
+    assertEquals(Map.of("A", 1, "B", 2, "C", 3), abc);
+    assertEquals(Map.of("A", 1, "C", 3), ac);
+    assertEquals(2, ac.size());
+    assertNull(ac.get("B"));
+  }
+
+  @Test
+  void unchangedMapIsReturned() {
+    Integer one = 1;
+    var subject = PersistentHashMap.<String, Integer>of().plus("A", one);
+    assertSame(subject, subject.plus("A", one));
+    assertSame(subject, subject.minus("B"));
+    assertSame(subject, subject.minusIf(it -> it.equals("B")));
+  }
+
+  @Test
+  void keysWithTheSameHash() {
+    // "Aa" and "BB" have the same hash code
+    var subject = PersistentHashMap.<String, Integer>of().plus("Aa", 1).plus("BB", 2).plus("C", 3);
+    assertEquals(Map.of("Aa", 1, "BB", 2, "C", 3), subject);
+    assertEquals(Map.of("BB", 2, "C", 3), subject.minus("Aa"));
+    assertEquals(Map.of("Aa", 4, "BB", 2, "C", 3), subject.plus("Aa", 4));
+    assertEquals(Map.of("C", 3), subject.minusIf(it -> it.length() == 2));
+  }
+
+  @Test
+  void mutatorsAreNotSupported() {
+    var subject = PersistentHashMap.<String, Integer>of().plus("A", 1);
+    assertThrows(UnsupportedOperationException.class, () -> subject.put("B", 2));
+    assertThrows(UnsupportedOperationException.class, () -> subject.remove("A"));
+    assertThrows(UnsupportedOperationException.class, () -> subject.keySet().clear());
+  }
+
+  @Test
+  void sameContentAsHashMap() {
+    var random = new Random(7);
+    var expected = new HashMap<Integer, Integer>();
+    PersistentHashMap<Integer, Integer> subject = PersistentHashMap.of();
+
+    for (int i = 0; i < 20_000; ++i) {
+      // Use a key range with many equal keys, and hash codes using all bits
+      int key = random.nextInt(5_000) * 0x9E3779B1;
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        subject = subject.minus(key);
+      } else {
+        expected.put(key, i);
+        subject = subject.plus(key, i);
+      }
+      assertEquals(expected.size(), subject.size());
+    }
+    assertEquals(expected, subject);
+    assertEquals(expected.hashCode(), subject.hashCode());
+    for (Integer key : expected.keySet()) {
+      assertEquals(expected.get(key), subject.get(key));
+    }
+
+    // Removing all keys gives the empty map
+    for (Integer key : expected.keySet()) {
+      subject = subject.minus(key);
+    }
+    assertSame(PersistentHashMap.of(), subject);
+  }
+}
@@ -0,0 +1,51 @@
+package org.opentripplanner.framework.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LazyValueTest {
+
+  @Test
+  void computeOnFirstAccessOnly() {
+    var counter = new IntBox(0);
+    var subject = LazyValue.of(() -> {
+      counter.set(counter.get() + 1);
+      return "A";
+    });
+
+    assertFalse(subject.isComputed());
+    assertEquals("<not computed>", subject.toString());
+    assertEquals(0, counter.get());
+
+    assertEquals("A", subject.get());
+    assertEquals("A", subject.get());
+    assertTrue(subject.isComputed());
+    assertEquals(1, counter.get());
+    assertEquals("A", subject.toString());
+  }
+
+  @Test
+  void nullValue() {
+    var counter = new IntBox(0);
+    LazyValue<String> subject = LazyValue.of(() -> {
+      counter.set(counter.get() + 1);
+      return null;
+    });
+
+    assertNull(subject.get());
+    assertNull(subject.get());
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  void ofValue() {
+    var subject = LazyValue.ofValue("A");
+    assertTrue(subject.isComputed());
+    assertEquals("A", subject.get());
+    assertNull(LazyValue.ofValue(null).get());
+  }
+}
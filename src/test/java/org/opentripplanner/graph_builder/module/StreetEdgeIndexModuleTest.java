@@ -0,0 +1,81 @@
+package org.opentripplanner.graph_builder.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.StreetEdge;
+
+class StreetEdgeIndexModuleTest extends GraphRoutingTest {
+
+  private Graph graph;
+  private List<StreetEdge> ab, bc;
+  private StreetEdge cd1, cd2, dc, farAway;
+
+  /**
+   * The network: A - B - C is a street in both directions. C - D is two parallel one-way streets
+   * with one street in the opposite direction. E - F is a one-way street far away.
+   */
+  @BeforeEach
+  void setUp() {
+    graph =
+      modelOf(
+        new Builder() {
+          @Override
+          public void build() {
+            var A = intersection("A", 60.0, 10.00);
+            var B = intersection("B", 60.0, 10.01);
+            var C = intersection("C", 60.0, 10.02);
+            var D = intersection("D", 60.0, 10.03);
+            var E = intersection("E", 61.0, 10.00);
+            var F = intersection("F", 61.0, 10.01);
+
+            ab = street(A, B, 100, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+            farAway = street(E, F, 100, StreetTraversalPermission.ALL);
+            bc = street(B, C, 100, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+            cd1 = street(C, D, 100, StreetTraversalPermission.ALL);
+            cd2 = street(C, D, 100, StreetTraversalPermission.ALL);
+            dc = street(D, C, 100, StreetTraversalPermission.ALL);
+          }
+        }
+      )
+        .graph();
+
+    new StreetEdgeIndexModule(graph).buildGraph();
+  }
+
+  @Test
+  void edgesAreIndexedByLocation() {
+    var indexes = graph.getStreetEdges().stream().mapToInt(StreetEdge::getIndex).sorted();
+    assertEquals(
+      IntStream.range(0, graph.getStreetEdges().size()).boxed().toList(),
+      indexes.boxed().toList()
+    );
+
+    // The edge far away is last, even if it was created before the others
+    assertEquals(graph.getStreetEdges().size() - 1, farAway.getIndex());
+  }
+
+  @Test
+  void reverseEdgesAreLinked() {
+    assertSame(ab.get(1), ab.get(0).getReverseEdge());
+    assertSame(ab.get(0), ab.get(1).getReverseEdge());
+    assertSame(bc.get(1), bc.get(0).getReverseEdge());
+    assertSame(bc.get(0), bc.get(1).getReverseEdge());
+
+    // The reverse edge of a one-way street is not set
+    assertNull(farAway.getReverseEdge());
+
+    // The reverse edge is only linked if there is one edge in the opposite direction
+    assertSame(dc, cd1.getReverseEdge());
+    assertSame(dc, cd2.getReverseEdge());
+    assertNull(dc.getReverseEdge());
+  }
+}
@@ -0,0 +1,118 @@
+package org.opentripplanner.graph_builder.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+class StreetLandmarkModuleTest extends GraphRoutingTest {
+
+  private static final double DELTA = 0.01;
+
+  private Graph graph;
+  private IntersectionVertex A, B, C, D;
+
+  /**
+   * The network: A - B - C is a street for cars and pedestrians, 1000 meters between each vertex
+   * with a car speed of 10 m/s. C - D is a 500 meter footway.
+   */
+  @BeforeEach
+  void setUp() {
+    graph =
+      modelOf(
+        new Builder() {
+          @Override
+          public void build() {
+            A = intersection("A", 60.0, 10.00);
+            B = intersection("B", 60.0, 10.01);
+            C = intersection("C", 60.0, 10.02);
+            D = intersection("D", 60.0, 10.03);
+
+            carStreet(A, B);
+            carStreet(B, A);
+            carStreet(B, C);
+            carStreet(C, B);
+            street(
+              C,
+              D,
+              500,
+              StreetTraversalPermission.PEDESTRIAN,
+              StreetTraversalPermission.PEDESTRIAN
+            );
+          }
+
+          private void carStreet(IntersectionVertex from, IntersectionVertex to) {
+            streetBuilder(from, to, 1000, StreetTraversalPermission.PEDESTRIAN_AND_CAR)
+              .withCarSpeed(10f)
+              .buildAndConnect();
+          }
+        }
+      )
+        .graph();
+  }
+
+  @Test
+  void noLandmarksBeforeBuild() {
+    assertNull(graph.getStreetLandmarks());
+    assertEquals(Vertex.NO_INDEX, A.getIndex());
+  }
+
+  @Test
+  void buildLandmarks() {
+    var subject = build(4);
+
+    // Only vertices in the car network are selected
+    assertEquals(3, subject.numberOfLandmarks());
+    for (Vertex v : graph.getVertices()) {
+      assertTrue(subject.contains(v));
+    }
+    assertNotEquals(A.getIndex(), D.getIndex());
+  }
+
+  @Test
+  void minCarDuration() {
+    var subject = build(4);
+
+    assertEquals(0.0, subject.minCarDuration(A, A), DELTA);
+    // With all vertices in the car network as landmarks the bound is exact
+    assertEquals(100.0, subject.minCarDuration(A, B), DELTA);
+    assertEquals(200.0, subject.minCarDuration(A, C), DELTA);
+    assertEquals(200.0, subject.minCarDuration(C, A), DELTA);
+    // D is only reachable on foot
+    assertEquals(Double.POSITIVE_INFINITY, subject.minCarDuration(A, D));
+  }
+
+  @Test
+  void minBicycleDistance() {
+    var subject = build(4);
+
+    assertEquals(2000.0, subject.minBicycleDistance(A, C), DELTA);
+    // The bicycle can be walked on the footway
+    assertEquals(2500.0, subject.minBicycleDistance(A, D), DELTA);
+    assertEquals(2500.0, subject.minBicycleDistance(D, A), DELTA);
+  }
+
+  @Test
+  void boundIsAdmissibleWithFewerLandmarks() {
+    var subject = build(1);
+
+    assertEquals(1, subject.numberOfLandmarks());
+    assertTrue(subject.minCarDuration(A, C) <= 200.0 + DELTA);
+    assertTrue(subject.minCarDuration(B, C) <= 100.0 + DELTA);
+    assertTrue(subject.minBicycleDistance(B, D) <= 1500.0 + DELTA);
+  }
+
+  private StreetLandmarks build(int nLandmarks) {
+    new StreetLandmarkModule(graph, nLandmarks).buildGraph();
+    return graph.getStreetLandmarks();
+  }
+}
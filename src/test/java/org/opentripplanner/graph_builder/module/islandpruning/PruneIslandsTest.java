@@ -0,0 +1,210 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdgeBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.StreetTransitStopLink;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.service.StopModel;
+import org.opentripplanner.transit.service.TransitModel;
+
+/**
+ * Prune a small street graph with a main network and a few islands, and check the changes to the
+ * graph and the reported issues.
+ */
+class PruneIslandsTest {
+
+  private final Graph graph = new Graph();
+  private final TransitModelForTest testModel = TransitModelForTest.of();
+  private final DefaultDataImportIssueStore issueStore = new DefaultDataImportIssueStore();
+
+  @Test
+  void pruneIslands() {
+    // The main network, a chain of 6 intersections
+    var main = chain("M", 60.0, 6, StreetTraversalPermission.ALL);
+
+    // Only reachable by car through an edge pair with no through traffic
+    var noThru = chain("N", 60.01, 2, StreetTraversalPermission.ALL);
+    edgePair(main.get(5), noThru.get(0), StreetTraversalPermission.ALL, true);
+
+    // An island for all modes
+    chain("I", 60.1, 2, StreetTraversalPermission.ALL);
+
+    // An island only for pedestrians
+    chain("P", 60.2, 3, StreetTraversalPermission.PEDESTRIAN);
+
+    // An island with a stop
+    var withStop = chain("S", 60.3, 2, StreetTraversalPermission.ALL);
+    var stop = TransitStopVertex
+      .of()
+      .withStop(testModel.stop("Stop").withCoordinate(60.3, 10.0).build())
+      .build();
+    graph.addVertex(stop);
+    StreetTransitStopLink.createStreetTransitStopLink(stop, withStop.get(0));
+    StreetTransitStopLink.createStreetTransitStopLink(withStop.get(0), stop);
+
+    var transitModel = new TransitModel(new StopModel(), graph.deduplicator);
+    transitModel.index();
+    graph.index(transitModel.getStopModel());
+
+    var subject = new PruneIslands(graph, transitModel, issueStore, null);
+    subject.setPruningThresholdIslandWithoutStops(4);
+    subject.setPruningThresholdIslandWithStops(3);
+    subject.setAdaptivePruningFactor(1.0);
+    subject.setAdaptivePruningDistance(250);
+    subject.buildGraph();
+
+    assertEquals(
+      List.of(
+        "M0->M1 ALL",
+        "M1->M0 ALL",
+        "M1->M2 ALL",
+        "M2->M1 ALL",
+        "M2->M3 ALL",
+        "M3->M2 ALL",
+        "M3->M4 ALL",
+        "M4->M3 ALL",
+        "M4->M5 ALL",
+        "M5->M4 ALL",
+        "M5->N0 ALL noThru[car]",
+        "N0->M5 ALL noThru[car]",
+        "N0->N1 ALL noThru[car]",
+        "N1->N0 ALL noThru[car]"
+      ),
+      streetEdges()
+    );
+    assertEquals(List.of(), stop.getOutgoing().stream().toList());
+    assertEquals(List.of(), stop.getIncoming().stream().toList());
+
+    assertEquals(
+      List.of(
+        "GraphConnectivity: BICYCLE graph connectivity: found 4 islands, 1 islands with stops, " +
+        "modified 1 islands with stops, removed 0 isolated edges, " +
+        "removed traverse mode from 4 edges, converted 0 edges to no through traffic",
+        "GraphConnectivity: CAR graph connectivity: found 4 islands, 0 islands with stops, " +
+        "modified 0 islands with stops, removed 4 isolated edges, " +
+        "removed traverse mode from 0 edges, converted 2 edges to no through traffic",
+        "GraphConnectivity: WALK graph connectivity: found 4 islands, 1 islands with stops, " +
+        "modified 1 islands with stops, removed 4 isolated edges, " +
+        "removed traverse mode from 4 edges, converted 0 edges to no through traffic",
+        "GraphIslandBICYCLE: " +
+        "Pruned BICYCLE subgraph I1 containing vertex '{I1 lat,lng=60.1,10.001}' at (10.001000, " +
+        "60.100000) of 2 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "2 to no traversal, 0 erased",
+        "GraphIslandBICYCLE: " +
+        "Pruned BICYCLE subgraph P1 containing vertex '{P1 lat,lng=60.2,10.001}' at (10.001000, " +
+        "60.200000) of 3 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "0 to no traversal, 0 erased",
+        "GraphIslandBICYCLE: " +
+        "Pruned BICYCLE subgraph S1 containing vertex '{S1 lat,lng=60.3,10.001}' at (10.001000, " +
+        "60.300000) of 2 street vertices and 1 stops. Edge changes: 0 to nothru, " +
+        "2 to no traversal, 0 erased",
+        "GraphIslandCAR: " +
+        "Pruned CAR subgraph I1 containing vertex '{I1 lat,lng=60.1,10.001}' at (10.001000, " +
+        "60.100000) of 2 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "0 to no traversal, 2 erased",
+        "GraphIslandCAR: " +
+        "Pruned CAR subgraph S1 containing vertex '{S1 lat,lng=60.3,10.001}' at (10.001000, " +
+        "60.300000) of 2 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "0 to no traversal, 2 erased",
+        "GraphIslandCARNoThroughTraffic: " +
+        "Pruned CAR subgraph N1 containing vertex '{N1 lat,lng=60.01,10.001}' at (10.001000, " +
+        "60.010000) of 2 street vertices and 0 stops. Edge changes: 2 to nothru, " +
+        "0 to no traversal, 0 erased",
+        "GraphIslandWALK: " +
+        "Pruned WALK subgraph I1 containing vertex '{I1 lat,lng=60.1,10.001}' at (10.001000, " +
+        "60.100000) of 2 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "2 to no traversal, 0 erased",
+        "GraphIslandWALK: " +
+        "Pruned WALK subgraph P1 containing vertex '{P1 lat,lng=60.2,10.001}' at (10.001000, " +
+        "60.200000) of 3 street vertices and 0 stops. Edge changes: 0 to nothru, " +
+        "0 to no traversal, 4 erased",
+        "GraphIslandWALK: " +
+        "Pruned WALK subgraph S1 containing vertex '{S1 lat,lng=60.3,10.001}' at (10.001000, " +
+        "60.300000) of 2 street vertices and 1 stops. Edge changes: 0 to nothru, " +
+        "2 to no traversal, 0 erased",
+        "PrunedStopIsland: " +
+        "Unlinked stops from pruned walk subgraph S1 of 2 street vertices and 1 stops F:Stop. " +
+        "Edge changes: 0 to nothru, 2 to no walking, 0 erased"
+      ),
+      issues()
+    );
+  }
+
+  /**
+   * Create a chain of intersections from west to east, connected by edges in both directions.
+   */
+  private List<IntersectionVertex> chain(
+    String name,
+    double lat,
+    int size,
+    StreetTraversalPermission permission
+  ) {
+    var vertices = new ArrayList<IntersectionVertex>();
+    for (int i = 0; i < size; ++i) {
+      var v = intersectionVertex(name + i, lat, 10.0 + i * 0.001);
+      graph.addVertex(v);
+      vertices.add(v);
+    }
+    for (int i = 1; i < size; ++i) {
+      edgePair(vertices.get(i - 1), vertices.get(i), permission, false);
+    }
+    return vertices;
+  }
+
+  private static void edgePair(
+    IntersectionVertex a,
+    IntersectionVertex b,
+    StreetTraversalPermission permission,
+    boolean motorVehicleNoThruTraffic
+  ) {
+    streetEdgeBuilder(a, b, 100, permission)
+      .withMotorVehicleNoThruTraffic(motorVehicleNoThruTraffic)
+      .buildAndConnect();
+    streetEdgeBuilder(b, a, 100, permission)
+      .withMotorVehicleNoThruTraffic(motorVehicleNoThruTraffic)
+      .buildAndConnect();
+  }
+
+  private List<String> streetEdges() {
+    return graph
+      .getStreetEdges()
+      .stream()
+      .map(e -> e.getFromVertex().getLabel() + "->" + e.getToVertex().getLabel() + " " + flags(e))
+      .sorted()
+      .toList();
+  }
+
+  private static String flags(StreetEdge e) {
+    var noThru = new ArrayList<String>();
+    if (e.isWalkNoThruTraffic()) {
+      noThru.add("walk");
+    }
+    if (e.isBicycleNoThruTraffic()) {
+      noThru.add("bicycle");
+    }
+    if (e.isMotorVehicleNoThruTraffic()) {
+      noThru.add("car");
+    }
+    return e.getPermission() + (noThru.isEmpty() ? "" : " noThru" + noThru);
+  }
+
+  private List<String> issues() {
+    return issueStore
+      .listIssues()
+      .stream()
+      .map(it -> it.getType() + ": " + it.getMessage())
+      .sorted()
+      .toList();
+  }
+}
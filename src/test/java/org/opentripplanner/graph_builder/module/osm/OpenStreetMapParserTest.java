@@ -5,11 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gnu.trove.list.TLongList;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
 import org.junit.jupiter.api.Test;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.openstreetmap.OsmProvider;
+import org.opentripplanner.openstreetmap.model.OSMLevel;
 import org.opentripplanner.openstreetmap.model.OSMNode;
 import org.opentripplanner.openstreetmap.model.OSMWay;
+import org.opentripplanner.openstreetmap.tagmapping.OsmTagMapperSource;
 import org.opentripplanner.test.support.ResourceLoader;
 
 public class OpenStreetMapParserTest {
@@ -43,4 +52,102 @@ public class OpenStreetMapParserTest {
     assertEquals("Potlatch 0.9a", wayA.getTag("created_by"));
     assertEquals("secondary", wayA.getTag("highway"));
   }
+
+  @Test
+  public void testRelationsAndWaysInSinglePass() {
+    OsmDatabase osmdb = read("map.osm.pbf", true);
+
+    assertEquals(2297, osmdb.nodeCount());
+    assertEquals(545, osmdb.wayCount());
+    assertEquals("secondary", osmdb.getWay(13490353L).getTag("highway"));
+  }
+
+  /**
+   * Reading the relations and ways in a single pass must give the same ways, areas and relations
+   * as reading them in two passes.
+   */
+  @Test
+  public void singlePassGivesTheSameResultAsTwoPasses() {
+    // With walkable areas, bike parking and park and ride areas, and turn restrictions
+    var files = List.of("map.osm.pbf", "lund-station-sweden.osm.pbf", "wendlingen-bahnhof.osm.pbf");
+    for (String file : files) {
+      var expected = summary(read(file, false));
+      var actual = summary(read(file, true));
+      assertEquals(expected, actual, file);
+    }
+  }
+
+  private OsmDatabase read(String file, boolean relationsAndWaysInSinglePass) {
+    File osmFile = ResourceLoader.of(this).file(file);
+    OsmProvider pr = new OsmProvider(
+      new FileDataSource(osmFile, FileType.OSM),
+      OsmTagMapperSource.DEFAULT,
+      null,
+      false,
+      relationsAndWaysInSinglePass,
+      DataImportIssueStore.NOOP
+    );
+    OsmDatabase osmdb = new OsmDatabase(DataImportIssueStore.NOOP);
+    pr.readOSM(osmdb);
+    osmdb.postLoad();
+    return osmdb;
+  }
+
+  /**
+   * The ways with their tags, nodes and level, the areas and the turn restrictions of the
+   * database, in a stable order.
+   */
+  private static List<String> summary(OsmDatabase osmdb) {
+    var summary = new ArrayList<String>();
+    osmdb
+      .getWays()
+      .stream()
+      .sorted(Comparator.comparingLong(OSMWay::getId))
+      .forEach(way ->
+        summary.add(
+          "way %d %s %s %s".formatted(
+              way.getId(),
+              new TreeMap<>(way.getTags()),
+              way.getNodeRefs(),
+              level(osmdb.getLevelForWay(way))
+            )
+        )
+      );
+    addAreas(summary, "walkable", osmdb.getWalkableAreas());
+    addAreas(summary, "park and ride", osmdb.getParkAndRideAreas());
+    addAreas(summary, "bike parking", osmdb.getBikeParkingAreas());
+    osmdb
+      .getTurnRestrictionWayIds()
+      .stream()
+      .sorted()
+      .forEach(wayId ->
+        summary.add(
+          "restriction %d from %s to %s".formatted(
+              wayId,
+              osmdb.getFromWayTurnRestrictions(wayId),
+              osmdb.getToWayTurnRestrictions(wayId)
+            )
+        )
+      );
+    return summary;
+  }
+
+  private static void addAreas(List<String> summary, String type, Collection<Area> areas) {
+    areas
+      .stream()
+      .map(area ->
+        "%s area %d %s %s".formatted(
+            type,
+            area.parent.getId(),
+            new TreeMap<>(area.parent.getTags()),
+            area.jtsMultiPolygon.norm().toText()
+          )
+      )
+      .sorted()
+      .forEach(summary::add);
+  }
+
+  private static String level(OSMLevel level) {
+    return level.shortName + "/" + level.longName + "/" + level.floorNumber;
+  }
 }
@@ -0,0 +1,73 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+
+class PolygonSegmentIndexTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryUtils.getGeometryFactory();
+
+  /**
+   * A U-shaped polygon, with collinear nodes on the bottom and a square hole in the right leg.
+   */
+  private static final Polygon POLYGON = GEOMETRY_FACTORY.createPolygon(
+    ring(0, 0, 2, 0, 4, 0, 6, 0, 6, 6, 4, 6, 4, 2, 2, 2, 2, 6, 0, 6, 0, 0),
+    new LinearRing[] { ring(4.5, 3, 5.5, 3, 5.5, 4, 4.5, 4, 4.5, 3) }
+  );
+
+  @Test
+  void containsLine() {
+    var subject = new PolygonSegmentIndex(POLYGON);
+
+    // Inside, touching the boundary at the end points only
+    assertTrue(subject.containsLine(c(0, 0), c(2, 6)));
+    // Crossing the opening of the U
+    assertFalse(subject.containsLine(c(0, 6), c(6, 6)));
+    // Following the boundary, passing through a node
+    assertFalse(subject.containsLine(c(0, 0), c(6, 0)));
+    // Passing through the hole
+    assertFalse(subject.containsLine(c(4, 6), c(6, 1)));
+    // Touching a node of the hole
+    assertTrue(subject.containsLine(c(4, 3.5), c(5, 2.5)));
+  }
+
+  @Test
+  void sameResultAsPolygonContains() {
+    List<Coordinate> points = new ArrayList<>(List.of(POLYGON.getCoordinates()));
+    points.add(c(1, 1));
+    points.add(c(3, 1));
+    points.add(c(5, 5));
+    points.add(c(3, 4));
+
+    var subject = new PolygonSegmentIndex(POLYGON);
+
+    for (Coordinate from : points) {
+      for (Coordinate to : points) {
+        var line = GEOMETRY_FACTORY.createLineString(new Coordinate[] { from, to });
+        assertEquals(POLYGON.contains(line), subject.containsLine(from, to), line.toString());
+      }
+    }
+  }
+
+  private static LinearRing ring(double... xy) {
+    var coordinates = new Coordinate[xy.length / 2];
+    for (int i = 0; i < coordinates.length; ++i) {
+      coordinates[i] = c(xy[2 * i], xy[2 * i + 1]);
+    }
+    return GEOMETRY_FACTORY.createLinearRing(coordinates);
+  }
+
+  private static Coordinate c(double x, double y) {
+    return new Coordinate(x, y);
+  }
+}
@@ -0,0 +1,84 @@
+package org.opentripplanner.inspector.raster;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.linking.Scope;
+
+class RasterTileCacheTest {
+
+  private static final int ZOOM = 10;
+  private static final byte[] TILE = { 1, 2, 3 };
+
+  private final Graph graph = new Graph();
+  private final RasterTileCache subject = new RasterTileCache(
+    graph,
+    RasterTileCache.DEFAULT_MAX_BYTES,
+    1,
+    new SimpleMeterRegistry()
+  );
+
+  {
+    var a = intersectionVertex("A", 60.0, 10.0);
+    var b = intersectionVertex("B", 60.1, 10.1);
+    graph.addVertex(a);
+    graph.addVertex(b);
+    streetEdge(a, b);
+  }
+
+  @Test
+  void simplifiedEdgesAreKeptOnRealTimeChanges() {
+    var edges = subject.simplifiedEdges(ZOOM);
+
+    graph.incrementEdgeGeneration(Scope.REALTIME);
+    assertSame(edges, subject.simplifiedEdges(ZOOM));
+
+    graph.incrementEdgeGeneration(Scope.PERMANENT);
+    assertNotSame(edges, subject.simplifiedEdges(ZOOM));
+  }
+
+  @Test
+  void noSimplifiedEdgesAboveMaxZoom() {
+    assertNull(subject.simplifiedEdges(SimplifiedEdgeIndex.MAX_ZOOM + 1));
+  }
+
+  @Test
+  void tilesAreCachedUntilTheGraphChanges() {
+    assertArrayEquals(TILE, subject.get("layer", "png", ZOOM, 1, 2, () -> TILE));
+    assertSame(
+      TILE,
+      subject.get(
+        "layer",
+        "png",
+        ZOOM,
+        1,
+        2,
+        () -> {
+          throw new IllegalStateException("The tile is cached");
+        }
+      )
+    );
+
+    graph.incrementEdgeGeneration(Scope.REALTIME);
+    var tile = new byte[] { 4 };
+    assertSame(tile, subject.get("layer", "png", ZOOM, 1, 2, () -> tile));
+  }
+
+  @Test
+  void tilesAreRejectedAfterShutdown() {
+    subject.shutdown();
+    assertThrows(
+      RejectedExecutionException.class,
+      () -> subject.get("layer", "png", ZOOM, 1, 2, () -> TILE)
+    );
+  }
+}
@@ -0,0 +1,56 @@
+package org.opentripplanner.inspector.raster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.api.resource.WebMercatorTile;
+import org.opentripplanner.routing.graph.Graph;
+
+class SimplifiedEdgeIndexTest {
+
+  private static final int ZOOM = 10;
+
+  @Test
+  void edgesSmallerThanHalfAPixelAreLeftOut() {
+    var graph = new Graph();
+    var a = intersectionVertex("A", 60.0, 10.0);
+    var b = intersectionVertex("B", 60.1, 10.1);
+    var c = intersectionVertex("C", 60.0, 10.00001);
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.addVertex(c);
+    var longEdge = streetEdge(a, b);
+    streetEdge(a, c);
+
+    var subject = SimplifiedEdgeIndex.create(graph, ZOOM);
+    var envelope = new Envelope(9.9, 10.2, 59.9, 60.2);
+
+    var edges = subject.getEdgesForEnvelope(envelope);
+    assertEquals(1, edges.size());
+    assertEquals(longEdge, edges.get(0).edge());
+  }
+
+  @Test
+  void edgesRemovedFromTheGraphAreLeftOut() {
+    var graph = new Graph();
+    var a = intersectionVertex("A", 60.0, 10.0);
+    var b = intersectionVertex("B", 60.1, 10.1);
+    graph.addVertex(a);
+    graph.addVertex(b);
+    var edge = streetEdge(a, b);
+    var envelope = WebMercatorTile.tile2Envelope(
+      WebMercatorTile.lon2tileX(10.0, ZOOM),
+      WebMercatorTile.lat2tileY(60.0, ZOOM),
+      ZOOM
+    );
+
+    var subject = SimplifiedEdgeIndex.create(graph, ZOOM);
+    assertEquals(1, subject.getEdgesForEnvelope(envelope).size());
+
+    graph.removeEdge(edge);
+    assertEquals(0, subject.getEdgesForEnvelope(envelope).size());
+  }
+}
@@ -0,0 +1,127 @@
+package org.opentripplanner.inspector.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import edu.colorado.cires.cmg.mvt.VectorTile;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.api.resource.WebMercatorTile;
+import org.opentripplanner.inspector.vector.stop.StopLayerBuilder;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.site.RegularStop;
+
+class VectorTileArchiveTest {
+
+  private static final RegularStop STOP = TransitModelForTest.of().stop("A", 60.0, 10.0).build();
+
+  private static final int Z = 12;
+  private static final int X = WebMercatorTile.lon2tileX(10.0, Z);
+  private static final int Y = WebMercatorTile.lat2tileY(60.0, Z);
+
+  enum LayerType {
+    STOPS,
+  }
+
+  private record LayerParams(String name, String mapper) implements LayerParameters<LayerType> {
+    @Override
+    public LayerType type() {
+      return LayerType.STOPS;
+    }
+  }
+
+  private static final LayerParams LAYER = new LayerParams("stops", "Default");
+
+  private final VectorTileArchive subject = createArchive();
+
+  @Test
+  void tileWithFeatures() throws InvalidProtocolBufferException {
+    var out = new ByteArrayOutputStream();
+    assertTrue(subject.writeTile(LAYER, Locale.ENGLISH, Z, X, Y, out));
+
+    // The archived tile is the same as the tile built on request
+    var layer = stopLayerBuilder().build(WebMercatorTile.tile2Envelope(X, Y, Z));
+    var expected = VectorTile.Tile.newBuilder().addLayers(layer).build();
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+
+    var tile = VectorTile.Tile.parseFrom(out.toByteArray());
+    assertEquals(1, tile.getLayers(0).getFeaturesCount());
+  }
+
+  @Test
+  void emptyTile() throws InvalidProtocolBufferException {
+    var out = new ByteArrayOutputStream();
+    assertTrue(subject.writeTile(LAYER, Locale.ENGLISH, Z, X + 10, Y, out));
+
+    var tile = VectorTile.Tile.parseFrom(out.toByteArray());
+    assertEquals("stops", tile.getLayers(0).getName());
+    assertEquals(0, tile.getLayers(0).getFeaturesCount());
+  }
+
+  @Test
+  void tileNotInArchive() {
+    var out = new ByteArrayOutputStream();
+    // Outside the zoom range
+    assertFalse(subject.writeTile(LAYER, Locale.ENGLISH, Z + 1, 2 * X, 2 * Y, out));
+    assertFalse(subject.writeTile(LAYER, Locale.ENGLISH, 8, X / 16, Y / 16, out));
+    // Another language
+    assertFalse(subject.writeTile(LAYER, Locale.GERMAN, Z, X, Y, out));
+    // Another layer configuration
+    assertFalse(
+      subject.writeTile(new LayerParams("stops", "Other"), Locale.ENGLISH, Z, X, Y, out)
+    );
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  void onlyTheLanguageOfTheLocaleIsUsed() {
+    var builder = VectorTileArchive.of();
+    builder.addLayer(
+      LAYER,
+      Locale.forLanguageTag("nb-NO"),
+      Z,
+      VectorTileArchiveTest::stopLayerBuilder
+    );
+    var archive = builder.build();
+
+    var out = new ByteArrayOutputStream();
+    assertTrue(archive.writeTile(LAYER, Locale.forLanguageTag("nb-NO"), Z, X, Y, out));
+    assertTrue(archive.writeTile(LAYER, Locale.forLanguageTag("nb"), Z, X, Y, out));
+    assertFalse(archive.writeTile(LAYER, Locale.forLanguageTag("nn-NO"), Z, X, Y, out));
+  }
+
+  @Test
+  void onlyTilesCloseToTheStopsAreStored() {
+    // The expansion factor is 0.25, so the stop is in 1 to 4 tiles on each zoom level
+    int zoomLevels = Z - LayerParameters.MIN_ZOOM + 1;
+    assertTrue(subject.size() >= zoomLevels, subject.toString());
+    assertTrue(subject.size() <= 4 * zoomLevels, subject.toString());
+  }
+
+  @Test
+  void failWhenTheArchiveIsTooLarge() {
+    var builder = new VectorTileArchive.Builder(10);
+    var e = assertThrows(
+      IllegalStateException.class,
+      () -> builder.addLayer(LAYER, Locale.ENGLISH, Z, VectorTileArchiveTest::stopLayerBuilder)
+    );
+    assertTrue(e.getMessage().contains("zoom level " + LayerParameters.MIN_ZOOM), e.getMessage());
+    assertTrue(e.getMessage().contains("layer 'stops'"), e.getMessage());
+  }
+
+  private static VectorTileArchive createArchive() {
+    var builder = VectorTileArchive.of();
+    builder.addLayer(LAYER, Locale.ENGLISH, Z, VectorTileArchiveTest::stopLayerBuilder);
+    return builder.build();
+  }
+
+  private static LayerBuilder<?> stopLayerBuilder() {
+    return new StopLayerBuilder<>(LAYER, Locale.ENGLISH, e -> List.of(STOP));
+  }
+}
@@ -1,7 +1,10 @@
 package org.opentripplanner.inspector.vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import java.util.List;
@@ -9,6 +12,7 @@ import java.util.Locale;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.TestServerContext;
 import org.opentripplanner.inspector.vector.geofencing.GeofencingZonesLayerBuilder;
+import org.opentripplanner.inspector.vector.stop.StopLayerBuilder;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.transit.service.TransitModel;
@@ -23,6 +27,7 @@ class VectorTileResponseFactoryTest {
   enum LayerType {
     RED,
     GREEN,
+    BLUE,
   }
 
   private record LayerParams(String name, LayerType type) implements LayerParameters<LayerType> {
@@ -34,7 +39,14 @@ class VectorTileResponseFactoryTest {
 
   private static final List<LayerParameters<LayerType>> LAYERS = List.of(
     new LayerParams("red", LayerType.RED),
-    new LayerParams("green", LayerType.GREEN)
+    new LayerParams("green", LayerType.GREEN),
+    new LayerParams("blue", LayerType.BLUE)
+  );
+
+  private final VectorTileCache tileCache = new VectorTileCache(
+    "test",
+    VectorTileCache.DEFAULT_MAX_BYTES,
+    new SimpleMeterRegistry()
   );
 
   private static LayerBuilder<?> createLayerBuilder(
@@ -42,10 +54,26 @@ class VectorTileResponseFactoryTest {
     Locale locale,
     OtpServerRequestContext context
   ) {
-    return new GeofencingZonesLayerBuilder(context.graph(), layerParameters);
+    return switch (layerParameters.type()) {
+      // Without a data version, and not cached by the clients
+      case RED -> new GeofencingZonesLayerBuilder(context.graph(), layerParameters);
+      // Static data
+      case GREEN -> new StopLayerBuilder<>(layerParameters, locale, e -> List.of());
+      // Realtime data before the first update
+      case BLUE -> new StopLayerBuilder<>(layerParameters, locale, e -> List.of()) {
+        @Override
+        protected long dataGeneration() {
+          return 0;
+        }
+      };
+    };
   }
 
-  private static Response computeResponse(List<String> layers) {
+  private Response computeResponse(List<String> layers) {
+    return computeResponse(layers, null);
+  }
+
+  private Response computeResponse(List<String> layers, String ifNoneMatch) {
     return VectorTileResponseFactory.create(
       1,
       1,
@@ -54,30 +82,32 @@ class VectorTileResponseFactoryTest {
       layers,
       LAYERS,
       VectorTileResponseFactoryTest::createLayerBuilder,
-      SERVER_CONTEXT
+      SERVER_CONTEXT,
+      tileCache,
+      ifNoneMatch
     );
   }
 
   @Test
   void return404WhenAllLayersNotFound() {
-    var resp = computeResponse(List.of("yellow", "blue"));
+    var resp = computeResponse(List.of("yellow", "purple"));
 
     assertEquals(404, resp.getStatus());
     assertEquals("text/plain; charset=UTF-8", resp.getHeaderString(HttpHeaders.CONTENT_TYPE));
     assertEquals(
-      "Could not find vector tile layer(s). Requested layers: [yellow, blue]. Available layers: [red, green].",
+      "Could not find vector tile layer(s). Requested layers: [yellow, purple]. Available layers: [red, green, blue].",
       resp.getEntity()
     );
   }
 
   @Test
   void return404WhenOneLayerNotFound() {
-    var resp = computeResponse(List.of("red", "blue"));
+    var resp = computeResponse(List.of("red", "yellow"));
 
     assertEquals(404, resp.getStatus());
     assertEquals("text/plain; charset=UTF-8", resp.getHeaderString(HttpHeaders.CONTENT_TYPE));
     assertEquals(
-      "Could not find vector tile layer(s). Requested layers: [red, blue]. Available layers: [red, green].",
+      "Could not find vector tile layer(s). Requested layers: [red, yellow]. Available layers: [red, green, blue].",
       resp.getEntity()
     );
   }
@@ -89,4 +119,38 @@ class VectorTileResponseFactoryTest {
     assertEquals(null, resp.getHeaderString(HttpHeaders.CONTENT_TYPE));
     assertEquals(Response.Status.OK.getStatusCode(), resp.getStatus());
   }
+
+  @Test
+  void cacheTilesWithVersionedData() {
+    computeResponse(List.of("red"));
+    assertEquals(0, tileCache.size());
+
+    computeResponse(List.of("green"));
+    computeResponse(List.of("green"));
+    assertEquals(1, tileCache.size());
+  }
+
+  @Test
+  void return304WhenStaticTileIsNotModified() {
+    var resp = computeResponse(List.of("green"));
+    var eTag = resp.getHeaderString(HttpHeaders.ETAG);
+    assertNotNull(eTag);
+
+    resp = computeResponse(List.of("green"), eTag);
+    assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), resp.getStatus());
+
+    // Tiles with realtime data have no ETag
+    resp = computeResponse(List.of("red", "green"));
+    assertNull(resp.getHeaderString(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void realtimeTileBeforeTheFirstUpdateIsNotStatic() {
+    var resp = computeResponse(List.of("blue"));
+    assertNull(resp.getHeaderString(HttpHeaders.ETAG));
+
+    // The tile is still cached until the realtime data is updated
+    computeResponse(List.of("blue"));
+    assertEquals(1, tileCache.size());
+  }
 }
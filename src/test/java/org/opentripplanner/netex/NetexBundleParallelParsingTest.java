@@ -0,0 +1,139 @@
+package org.opentripplanner.netex;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.ZipFileDataSource;
+import org.opentripplanner.graph_builder.ConfiguredDataSource;
+import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
+import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
+import org.opentripplanner.netex.configure.NetexConfigure;
+import org.opentripplanner.standalone.config.OtpConfigLoader;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.service.StopModel;
+
+/**
+ * The independent files of a group are parsed in parallel. The entities must still be added to
+ * the index and mapped in the order of the files, so the result is the same as when the files are
+ * parsed one at the time. This is visible when the same entity id is used in more than one file.
+ */
+class NetexBundleParallelParsingTest {
+
+  private static final String NETEX_NORDIC_DIR = "src/test/resources/netex/nordic";
+  private static final String LINE_4_FILE = "RUT_RUT-Line-4_4_Vestli---Bergkrystallen.xml";
+
+  private File netexZipFile;
+
+  /**
+   * Copy the minimal NeTEx data set, and add two more files to the same group. They redefine the
+   * line, the journey patterns and the service journeys of line 4 with other names.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    netexZipFile = File.createTempFile("netex_parallel_parsing", ".zip");
+
+    try (
+      var in = new ZipFile(new File(NETEX_NORDIC_DIR, "netex_minimal.zip"));
+      var out = new ZipOutputStream(new FileOutputStream(netexZipFile))
+    ) {
+      String line4 = null;
+      for (var entry : in.stream().toList()) {
+        byte[] content = in.getInputStream(entry).readAllBytes();
+        if (entry.getName().equals(LINE_4_FILE)) {
+          line4 = new String(content, UTF_8);
+        }
+        addEntry(out, entry.getName(), content);
+      }
+      for (String name : List.of("A", "B")) {
+        var copy = line4.replace(
+          "<Name>Vestli - Bergkrystallen</Name>",
+          "<Name>Copy " + name + "</Name>"
+        );
+        addEntry(out, "RUT_RUT-Line-4_4_Copy-" + name + ".xml", copy.getBytes(UTF_8));
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    assertTrue(netexZipFile.delete());
+  }
+
+  @Test
+  void parallelParsingGivesTheSameResultAsSequentialParsing() throws IOException {
+    var sequential = load(false);
+    var parallel = load(true);
+
+    // The line of the last file, and the service journeys of the first file are kept
+    assertTrue(sequential.contains("route EN:RUT:Line:4 Copy B"), sequential.toString());
+    assertTrue(
+      sequential.contains(
+        "trip EN:RUT:ServiceJourney:4-101468-583 Vestli - Bergkrystallen EN:S000002"
+      ),
+      sequential.toString()
+    );
+    assertEquals(sequential, parallel);
+  }
+
+  /**
+   * Load the bundle, and return the routes, the trips and the issues.
+   */
+  private List<String> load(boolean parallelParsing) throws IOException {
+    var buildConfig = new OtpConfigLoader(new File(NETEX_NORDIC_DIR)).loadBuildConfig();
+    var dataSource = new ZipFileDataSource(netexZipFile, FileType.NETEX);
+    var configuredDataSource = new ConfiguredDataSource<>(dataSource, buildConfig.netexDefaults);
+    var issueStore = new DefaultDataImportIssueStore();
+    var transitBuilder = new OtpTransitServiceBuilder(new StopModel(), issueStore);
+
+    try (
+      var bundle = new NetexConfigure(buildConfig).netexBundle(transitBuilder, configuredDataSource)
+    ) {
+      if (!parallelParsing) {
+        bundle.disableParallelParsing();
+      }
+      bundle.loadBundle(new Deduplicator(), issueStore);
+    }
+
+    var result = new ArrayList<String>();
+    transitBuilder
+      .getRoutes()
+      .values()
+      .stream()
+      .map(it -> "route " + it.getId() + " " + it.getLongName())
+      .sorted()
+      .forEach(result::add);
+    transitBuilder
+      .getTripsById()
+      .values()
+      .stream()
+      .map(it -> "trip " + it.getId() + " " + it.getRoute().getLongName() + " " + it.getServiceId())
+      .sorted()
+      .forEach(result::add);
+    issueStore
+      .listIssues()
+      .stream()
+      .map(it -> "issue " + it.getType() + " " + it.getMessage())
+      .forEach(result::add);
+    return result;
+  }
+
+  private static void addEntry(ZipOutputStream out, String name, byte[] content)
+    throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content);
+    out.closeEntry();
+  }
+}
@@ -0,0 +1,52 @@
+package org.opentripplanner.openstreetmap.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompactTagMapTest {
+
+  @Test
+  void putAndGet() {
+    var subject = new CompactTagMap();
+    assertTrue(subject.isEmpty());
+
+    assertNull(subject.put("highway", "primary"));
+    assertNull(subject.put("name", "Main Street"));
+
+    assertEquals(2, subject.size());
+    assertEquals("primary", subject.get("highway"));
+    assertEquals("Main Street", subject.get("name"));
+    assertTrue(subject.containsKey("highway"));
+    assertFalse(subject.containsKey("oneway"));
+    assertNull(subject.get("oneway"));
+  }
+
+  @Test
+  void replaceValue() {
+    var subject = new CompactTagMap();
+    subject.put("highway", "primary");
+
+    assertEquals("primary", subject.put("highway", "secondary"));
+
+    assertEquals(1, subject.size());
+    assertEquals("secondary", subject.get("highway"));
+  }
+
+  @Test
+  void equalsAndHashCodeIgnoreOrder() {
+    var subject = new CompactTagMap();
+    subject.put("highway", "primary");
+    subject.put("oneway", "yes");
+
+    var expected = Map.of("oneway", "yes", "highway", "primary");
+
+    assertEquals(expected, subject);
+    assertEquals(subject, expected);
+    assertEquals(expected.hashCode(), subject.hashCode());
+  }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.openstreetmap.wayproperty;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.openstreetmap.wayproperty.MixinPropertiesBuilder.ofBicycleSafety;
 import static org.opentripplanner.openstreetmap.wayproperty.WayPropertiesBuilder.withModes;
@@ -69,6 +70,41 @@ class WayPropertySetTest {
       assertEquals(motorWaySpeed, wps.maxUsedCarSpeed, delta);
     }
 
+    @Test
+    void cachedByTagsIgnoringFreeTextValues() {
+      WayPropertySet wps = wps();
+
+      OSMWithTags mainStreet = new OSMWithTags();
+      mainStreet.addTag("highway", "primary");
+      mainStreet.addTag("name", "Main Street");
+
+      OSMWithTags highStreet = new OSMWithTags();
+      highStreet.addTag("highway", "primary");
+      highStreet.addTag("name", "High Street");
+
+      assertSame(wps.getDataForWay(mainStreet), wps.getDataForWay(highStreet));
+
+      // The cache is keyed on the current tags
+      highStreet.addTag("cycleway", "lane");
+      var expected = new SafetyFeatures(5, 5);
+      assertEquals(expected, wps.getDataForWay(highStreet).bicycleSafety());
+    }
+
+    @Test
+    void cachedByTagsInAnyOrder() {
+      WayPropertySet wps = wps();
+
+      OSMWithTags cycleLane = new OSMWithTags();
+      cycleLane.addTag("highway", "primary");
+      cycleLane.addTag("cycleway", "lane");
+
+      OSMWithTags sameTagsInOtherOrder = new OSMWithTags();
+      sameTagsInOtherOrder.addTag("cycleway", "lane");
+      sameTagsInOtherOrder.addTag("highway", "primary");
+
+      assertSame(wps.getDataForWay(cycleLane), wps.getDataForWay(sameTagsInOtherOrder));
+    }
+
     @Test
     void pedestrianTunnelSpecificity() {
       var tunnel = WayTestData.pedestrianTunnel();
@@ -0,0 +1,146 @@
+package org.opentripplanner.raptor.configure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.model.SearchDirection;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
+
+class HeuristicsCacheTest implements RaptorTestConstants {
+
+  private static final int EDT = 10_000;
+  private static final int LAT = 20_000;
+
+  // The access and egress paths do not implement equals, so we reuse the same instances
+  private static final RaptorAccessEgress ACCESS = TestAccessEgress.walk(STOP_D, D1m);
+  private static final RaptorAccessEgress EGRESS_A = TestAccessEgress.walk(STOP_A, D2m);
+  private static final RaptorAccessEgress EGRESS_B = TestAccessEgress.walk(STOP_B, D2m);
+  private static final RaptorAccessEgress EGRESS_C = TestAccessEgress.walk(STOP_C, D2m);
+
+  private final Heuristics heuristics = mock(Heuristics.class);
+  private final TestTransitData transitData = new TestTransitDataWithKey("A");
+
+  private final HeuristicsCache<TestTripSchedule> subject = new HeuristicsCache<>(
+    2,
+    Duration.ofMinutes(5)
+  );
+
+  @Test
+  void cacheHit() {
+    subject.put(transitData, request(EDT, EGRESS_A), heuristics);
+
+    // Same request and new transit data with the same key
+    assertSame(heuristics, subject.get(new TestTransitDataWithKey("A"), request(EDT, EGRESS_A)));
+    // A later EDT is a more restrictive search, the cached heuristic is still a lower bound
+    assertSame(heuristics, subject.get(transitData, request(EDT + 600, EGRESS_A)));
+  }
+
+  @Test
+  void cacheMiss() {
+    subject.put(transitData, request(EDT, EGRESS_A), heuristics);
+
+    assertNull(subject.get(transitData, request(EDT - 600, EGRESS_A)));
+    assertNull(subject.get(transitData, request(EDT, EGRESS_B)));
+    assertNull(subject.get(new TestTransitDataWithKey("B"), request(EDT, EGRESS_A)));
+  }
+
+  @Test
+  void keepEntryWithEarliestDepartureTime() {
+    var other = mock(Heuristics.class);
+    subject.put(transitData, request(EDT, EGRESS_A), heuristics);
+    subject.put(transitData, request(EDT + 600, EGRESS_A), other);
+    assertSame(heuristics, subject.get(transitData, request(EDT + 600, EGRESS_A)));
+
+    subject.put(transitData, request(EDT - 600, EGRESS_A), other);
+    assertSame(other, subject.get(transitData, request(EDT, EGRESS_A)));
+  }
+
+  @Test
+  void evictLeastRecentlyUsedEntries() {
+    subject.put(transitData, request(EDT, EGRESS_A), heuristics);
+    subject.put(transitData, request(EDT, EGRESS_B), heuristics);
+    subject.put(transitData, request(EDT, EGRESS_C), heuristics);
+
+    assertNull(subject.get(transitData, request(EDT, EGRESS_A)));
+    assertSame(heuristics, subject.get(transitData, request(EDT, EGRESS_C)));
+  }
+
+  @Test
+  void expiredEntriesAreNotReturned() {
+    var cache = new HeuristicsCache<TestTripSchedule>(2, Duration.ofMillis(-1));
+    cache.put(transitData, request(EDT, EGRESS_A), heuristics);
+    assertNull(cache.get(transitData, request(EDT, EGRESS_A)));
+  }
+
+  @Test
+  void expiredEntriesAreRemovedWhenAnotherEntryIsAdded() {
+    var cache = new HeuristicsCache<TestTripSchedule>(3, Duration.ofMillis(-1));
+    cache.put(transitData, request(EDT, EGRESS_A), heuristics);
+    cache.put(new TestTransitDataWithKey("B"), request(EDT, EGRESS_B), heuristics);
+
+    // The entry for transit data A is removed, even if its key is never read again
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void disabled() {
+    var cache = new HeuristicsCache<TestTripSchedule>(0, Duration.ofMinutes(5));
+    assertFalse(cache.isEnabled());
+    cache.put(transitData, request(EDT, EGRESS_A), heuristics);
+    assertNull(cache.get(transitData, request(EDT, EGRESS_A)));
+  }
+
+  @Test
+  void transitDataWithoutKeyIsNotCached() {
+    var transitDataWithoutKey = new TestTransitData();
+    subject.put(transitDataWithoutKey, request(EDT, EGRESS_A), heuristics);
+    assertNull(subject.get(transitDataWithoutKey, request(EDT, EGRESS_A)));
+  }
+
+  @Test
+  void forwardSearchIsNotCached() {
+    var request = request(EDT, EGRESS_A).mutate().searchDirection(SearchDirection.FORWARD).build();
+    subject.put(transitData, request, heuristics);
+    assertNull(subject.get(transitData, request));
+  }
+
+  private static RaptorRequest<TestTripSchedule> request(int edt, RaptorAccessEgress egress) {
+    var builder = new RaptorRequestBuilder<TestTripSchedule>();
+    builder.profile(RaptorProfile.MIN_TRAVEL_DURATION).searchDirection(SearchDirection.REVERSE);
+    builder
+      .searchParams()
+      .earliestDepartureTime(edt)
+      .latestArrivalTime(LAT)
+      .searchOneIterationOnly()
+      .addAccessPaths(ACCESS)
+      .addEgressPaths(egress);
+    return builder.build();
+  }
+
+  private static class TestTransitDataWithKey extends TestTransitData {
+
+    private final String key;
+
+    private TestTransitDataWithKey(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public Object cacheKey() {
+      return key;
+    }
+  }
+}
@@ -25,6 +25,7 @@ public class HeuristicToRunResolverTest {
 
   private boolean forward = false;
   private boolean reverse = false;
+  private boolean precomputedHeuristics = false;
 
   // Request to test
   private RaptorRequest<TestTripSchedule> request;
@@ -51,6 +52,19 @@ public class HeuristicToRunResolverTest {
     // Skip alternatives with both EAT & LAT off.
   }
 
+  @Test
+  public void resolveHeuristicToRunWithPrecomputedDestinationHeuristics() {
+    precomputedHeuristics = true;
+
+    // REV is only needed to find the EDT
+    given(DEST, EDT, LAT, WIN).expect(_x_, _x_);
+    given(DEST, EDT, LAT, _x_).expect(FWD, _x_);
+    given(DEST, EDT, _x_, WIN).expect(_x_, _x_);
+    given(DEST, EDT, _x_, _x_).expect(FWD, _x_);
+    given(DEST, _x_, LAT, WIN).expect(_x_, REV);
+    given(DEST, _x_, LAT, _x_).expect(_x_, REV);
+  }
+
   @Test
   public void resolveHeuristicOffForNoneRangeRaptorProfile() {
     RaptorRequestBuilder<TestTripSchedule> b = new RaptorRequestBuilder<>();
@@ -104,6 +118,7 @@ public class HeuristicToRunResolverTest {
 
     resolveHeuristicToRunBasedOnOptimizationsAndSearchParameters(
       request,
+      precomputedHeuristics,
       this::enableForward,
       this::enableReverse
     );
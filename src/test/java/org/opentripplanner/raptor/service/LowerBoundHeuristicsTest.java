@@ -0,0 +1,124 @@
+package org.opentripplanner.raptor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.path.PathLeg;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.api.request.Optimization;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.raptor.spi.RaptorStopToStopLowerBound;
+
+class LowerBoundHeuristicsTest implements RaptorTestConstants {
+
+  /**
+   * An exact lower bound for the network below: A -> B takes 10 minutes with R1 and B -> C takes
+   * 10 minutes with R2.
+   */
+  private static final Map<Integer, int[]> LOWER_BOUND_TO_STOP_C = Map.of(
+    STOP_A,
+    new int[] { 1200, 2 },
+    STOP_B,
+    new int[] { 600, 1 },
+    STOP_C,
+    new int[] { 0, 0 }
+  );
+
+  private final TestTransitData data = new TestTransitData() {
+    @Override
+    public RaptorStopToStopLowerBound stopToStopLowerBound() {
+      return new RaptorStopToStopLowerBound() {
+        @Override
+        public int minTravelDuration(int fromStop, int toStop) {
+          return value(fromStop, toStop, 0);
+        }
+
+        @Override
+        public int minNumberOfTransitLegs(int fromStop, int toStop) {
+          return value(fromStop, toStop, 1);
+        }
+      };
+    }
+  };
+
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  @Test
+  void heuristicIsNeverAboveTheCostOfTheBestPath() {
+    data.withRoutes(
+      route("R1", STOP_A, STOP_B).withTimetable(schedule("0:10 0:20")),
+      route("R2", STOP_B, STOP_C).withTimetable(schedule("0:21 0:31"))
+    );
+
+    var request = request();
+    var subject = LowerBoundHeuristics.create(data, request);
+    assertNotNull(subject);
+
+    var paths = raptorService.route(request, data).paths();
+    assertEquals(1, paths.size(), paths.toString());
+    RaptorPath<TestTripSchedule> path = paths.iterator().next();
+
+    // The remaining cost after arriving at each stop of the path must be at least as high as
+    // the heuristic at the stop
+    int remainingCost = path.c1();
+    for (PathLeg<TestTripSchedule> leg : path.legStream().toList()) {
+      remainingCost -= leg.c1();
+      if (leg.isEgressLeg() || leg.isTransferLeg()) {
+        continue;
+      }
+      var heuristic = subject.createHeuristicAtStop(leg.toStop());
+      assertTrue(
+        heuristic.minCost() <= remainingCost,
+        "Heuristic " + heuristic + " at stop " + leg.toStop() + " > " + remainingCost
+      );
+    }
+  }
+
+  @Test
+  void numberOfTransfers() {
+    var subject = LowerBoundHeuristics.create(data, request());
+    assertNotNull(subject);
+
+    assertEquals(1, subject.createHeuristicAtStop(STOP_A).minNumTransfers());
+    assertEquals(0, subject.createHeuristicAtStop(STOP_B).minNumTransfers());
+    // No transit legs are needed at the egress stop
+    assertEquals(-1, subject.createHeuristicAtStop(STOP_C).minNumTransfers());
+    assertEquals(1, subject.bestOverallJourneyNumOfTransfers());
+  }
+
+  private static int value(int fromStop, int toStop, int index) {
+    var values = LOWER_BOUND_TO_STOP_C.get(fromStop);
+    return toStop == STOP_C && values != null ? values[index] : RaptorConstants.UNREACHED_HIGH;
+  }
+
+  private static RaptorRequest<TestTripSchedule> request() {
+    var builder = new RaptorRequestBuilder<TestTripSchedule>()
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .enableOptimization(Optimization.PARETO_CHECK_AGAINST_DESTINATION);
+    builder
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(STOP_A, D1m))
+      .addEgressPaths(TestAccessEgress.walk(STOP_C, D1m))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T01_00)
+      .searchWindow(Duration.ofMinutes(30));
+    return builder.build();
+  }
+}
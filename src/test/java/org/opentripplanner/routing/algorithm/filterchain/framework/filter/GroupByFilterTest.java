@@ -1,10 +1,14 @@
 package org.opentripplanner.routing.algorithm.filterchain.framework.filter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.model.plan.Itinerary;
@@ -77,24 +81,52 @@ public class GroupByFilterTest implements PlanTestConstants {
     List<Itinerary> inputC = List.of(i11, i12, i1);
 
     for (List<Itinerary> input : List.of(inputA, inputB, inputC)) {
-      createFilter(1).filter(input);
+      for (boolean withKeys : new boolean[] { false, true }) {
+        createFilter(1, withKeys).filter(input);
 
-      assertFalse(i1.isFlaggedForDeletion());
+        assertFalse(i1.isFlaggedForDeletion());
 
-      // Remove notices after asserting
-      assertTrue(i11.isFlaggedForDeletion());
-      i11.removeDeletionFlags(Set.of());
-      assertTrue(i12.isFlaggedForDeletion());
-      i12.removeDeletionFlags(Set.of());
+        // Remove notices after asserting
+        assertTrue(i11.isFlaggedForDeletion());
+        i11.removeDeletionFlags(Set.of());
+        assertTrue(i12.isFlaggedForDeletion());
+        i12.removeDeletionFlags(Set.of());
+      }
     }
   }
 
+  /**
+   * Group a synthetic set of itineraries with and without signature keys, the groups must be the
+   * same and in the same order.
+   */
+  @Test
+  public void testSignatureKeysGiveSameGroupsAsComparingAll() {
+    var random = new Random(7);
+    List<Itinerary> input = new ArrayList<>();
+    for (int i = 0; i < 300; ++i) {
+      int start = random.nextInt(60);
+      input.add(newItinerary(A).bus(1 + random.nextInt(500), start, start + 10, E).build());
+    }
+
+    var expected = groupBy(input, false);
+    assertEquals(expected, groupBy(input, true));
+    // Make sure some groups are merged
+    assertTrue(expected.size() < input.size());
+  }
+
   /**
    * Create a filter that group by the first leg trip-id, and uses the default sort for each group.
    */
   private GroupByFilter<AGroupId> createFilter(int maxNumberOfItinerariesPrGroup) {
+    return createFilter(maxNumberOfItinerariesPrGroup, false);
+  }
+
+  private GroupByFilter<AGroupId> createFilter(
+    int maxNumberOfItinerariesPrGroup,
+    boolean withKeys
+  ) {
     return new GroupByFilter<>(
-      i -> new AGroupId(i.firstLeg().getTrip().getId().getId()),
+      i -> new AGroupId(i.firstLeg().getTrip().getId().getId(), withKeys),
       List.of(
         new SortingFilter(SortOrderComparator.defaultComparatorDepartAfter()),
         new RemoveFilter(new MaxLimit(TEST_FILTER_TAG, maxNumberOfItinerariesPrGroup))
@@ -102,13 +134,29 @@ public class GroupByFilterTest implements PlanTestConstants {
     );
   }
 
+  /** Return the groups in the order they are filtered by the nested filter. */
+  private static List<List<Itinerary>> groupBy(List<Itinerary> input, boolean withKeys) {
+    List<List<Itinerary>> groups = new ArrayList<>();
+    var filter = new GroupByFilter<AGroupId>(
+      i -> new AGroupId(i.firstLeg().getTrip().getId().getId(), withKeys),
+      List.of(group -> {
+        groups.add(group);
+        return group;
+      })
+    );
+    filter.filter(input);
+    return groups;
+  }
+
   /** A simple implementation of GroupId for this test */
   private static class AGroupId implements GroupId<AGroupId> {
 
     private final String id;
+    private final boolean withKeys;
 
-    public AGroupId(String id) {
+    public AGroupId(String id, boolean withKeys) {
       this.id = id;
+      this.withKeys = withKeys;
     }
 
     @Override
@@ -121,6 +169,12 @@ public class GroupByFilterTest implements PlanTestConstants {
       return this.id.length() <= other.id.length() ? this : other;
     }
 
+    /** If one id is a prefix of the other, the first character is the same */
+    @Override
+    public Collection<?> signatureKeys() {
+      return withKeys ? List.of(id.charAt(0)) : null;
+    }
+
     @Override
     public String toString() {
       return id;
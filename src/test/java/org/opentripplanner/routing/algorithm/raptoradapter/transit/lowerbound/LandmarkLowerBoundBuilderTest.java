@@ -0,0 +1,226 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.lowerbound;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.raptor.api.model.RaptorConstants.UNREACHED_HIGH;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.RegularStop;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.transit.model.timetable.TripTimesFactory;
+
+class LandmarkLowerBoundBuilderTest {
+
+  private static final LocalDate DATE = LocalDate.of(2024, 1, 1);
+
+  private final TransitModelForTest testModel = TransitModelForTest.of();
+  private final RegularStop stopA = testModel.stop("A").build();
+  private final RegularStop stopB = testModel.stop("B").build();
+  private final RegularStop stopC = testModel.stop("C").build();
+  private final RegularStop stopD = testModel.stop("D").build();
+  private final int a = stopA.getIndex();
+  private final int b = stopB.getIndex();
+  private final int c = stopC.getIndex();
+  private final int d = stopD.getIndex();
+
+  /**
+   * The network: Line 1 goes A -> B -> C, 10 minutes between each stop. Line 2 goes C -> D in
+   * 5 minutes. There is a 1000 meter transfer from B to D.
+   */
+  private final TripPatternForDate line1 = tripPatternForDate(
+    "L1",
+    List.of(stopA, stopB, stopC),
+    600
+  );
+  private final TripPatternForDate line2 = tripPatternForDate("L2", List.of(stopC, stopD), 300);
+
+  private final LandmarkLowerBound subject = LandmarkLowerBoundBuilder.build(
+    createTransitLayer(),
+    4
+  );
+
+  @Test
+  void numberOfLandmarks() {
+    assertEquals(4, subject.numberOfLandmarks());
+  }
+
+  @Test
+  void minTravelDuration() {
+    assertEquals(0, subject.minTravelDuration(a, a));
+    // With all stops as landmarks the bound is exact
+    assertEquals(600, subject.minTravelDuration(a, b));
+    assertEquals(1200, subject.minTravelDuration(a, c));
+    assertEquals(300, subject.minTravelDuration(c, d));
+    // Transfer B -> D is 1000m / 10 m/s
+    assertEquals(700, subject.minTravelDuration(a, d));
+  }
+
+  @Test
+  void minNumberOfTransitLegs() {
+    assertEquals(0, subject.minNumberOfTransitLegs(a, a));
+    assertEquals(1, subject.minNumberOfTransitLegs(a, c));
+    // Transfers are free: A -> B by transit and B -> D by walking
+    assertEquals(1, subject.minNumberOfTransitLegs(a, d));
+    assertEquals(0, subject.minNumberOfTransitLegs(b, d));
+    assertEquals(1, subject.minNumberOfTransitLegs(b, c));
+  }
+
+  @Test
+  void unreachableStops() {
+    assertEquals(UNREACHED_HIGH, subject.minTravelDuration(c, a));
+    assertEquals(UNREACHED_HIGH, subject.minTravelDuration(d, b));
+    assertEquals(UNREACHED_HIGH, subject.minNumberOfTransitLegs(d, a));
+  }
+
+  @Test
+  void boundIsAdmissibleWithFewerLandmarks() {
+    var table = LandmarkLowerBoundBuilder.build(createTransitLayer(), 1);
+    assertEquals(1, table.numberOfLandmarks());
+    assertTrue(table.minTravelDuration(a, c) <= 1200);
+    assertTrue(table.minTravelDuration(a, d) <= 700);
+    assertTrue(table.minNumberOfTransitLegs(a, c) <= 1);
+  }
+
+  @Test
+  void noLandmarks() {
+    var table = LandmarkLowerBoundBuilder.build(createTransitLayer(), 0);
+    assertEquals(0, table.minTravelDuration(a, d));
+    assertEquals(0, table.minNumberOfTransitLegs(c, a));
+  }
+
+  @Test
+  void isAdmissibleForTransferSpeed() {
+    assertTrue(subject.isAdmissibleForTransferSpeed(1.33));
+    assertTrue(subject.isAdmissibleForTransferSpeed(5.0));
+    assertFalse(subject.isAdmissibleForTransferSpeed(8.0));
+  }
+
+  @Test
+  void isValidFor() {
+    assertTrue(subject.isValidFor(line1));
+    // A delayed trip is slower, so the bound is still valid
+    assertTrue(subject.isValidFor(withHopDuration(line1, List.of(stopA, stopB, stopC), 900)));
+    assertFalse(subject.isValidFor(withHopDuration(line1, List.of(stopA, stopB, stopC), 500)));
+    // A pattern not in the table, like a pattern created by a realtime updater
+    assertFalse(subject.isValidFor(tripPatternForDate("L3", List.of(stopA, stopD), 900)));
+  }
+
+  @Test
+  void updaterKeepsTheBoundIfNoHopIsShorter() {
+    var updater = new LandmarkLowerBoundUpdater(4, Duration.ofHours(1));
+    var previousLayer = createTransitLayer();
+    updater.build(previousLayer);
+
+    var delayed = new TransitLayer(previousLayer);
+    updater.update(
+      previousLayer,
+      delayed,
+      List.of(withHopDuration(line1, List.of(stopA, stopB, stopC), 900))
+    );
+    assertSame(previousLayer.getStopToStopLowerBound(), delayed.getStopToStopLowerBound());
+
+    // The rebuild is not started before the minimum rebuild interval has passed
+    var faster = new TransitLayer(delayed);
+    updater.update(
+      delayed,
+      faster,
+      List.of(withHopDuration(line1, List.of(stopA, stopB, stopC), 500))
+    );
+    assertNull(faster.getStopToStopLowerBound());
+    updater.shutdown();
+  }
+
+  @Test
+  void updaterIgnoresRefreshAfterShutdown() {
+    var updater = new LandmarkLowerBoundUpdater(4, Duration.ZERO);
+    var transitLayer = createTransitLayer();
+
+    updater.shutdown();
+    updater.refreshInBackground(transitLayer);
+
+    assertNull(transitLayer.getStopToStopLowerBound());
+  }
+
+  private TransitLayer createTransitLayer() {
+    var stopModel = testModel
+      .stopModelBuilder()
+      .withRegularStops(List.of(stopA, stopB, stopC, stopD))
+      .build();
+
+    List<List<Transfer>> transfers = new ArrayList<>();
+    for (int i = 0; i < stopModel.stopIndexSize(); ++i) {
+      transfers.add(i == b ? List.of(new Transfer(d, 1000)) : List.of());
+    }
+
+    return new TransitLayer(
+      Map.of(DATE, List.of(line1, line2)),
+      transfers,
+      null,
+      stopModel,
+      null,
+      null,
+      null,
+      null,
+      null
+    );
+  }
+
+  private TripPatternForDate tripPatternForDate(
+    String id,
+    List<RegularStop> stops,
+    int hopDuration
+  ) {
+    var route = TransitModelForTest.route(id).build();
+    var pattern = TripPattern
+      .of(TransitModelForTest.id(id))
+      .withRoute(route)
+      .withStopPattern(TransitModelForTest.stopPattern(stops))
+      .build()
+      .getRoutingTripPattern();
+    var tripTimes = tripTimes(id, route, stops, hopDuration);
+    return new TripPatternForDate(pattern, List.of(tripTimes), List.of(), DATE);
+  }
+
+  /**
+   * Create a TripPatternForDate for the same pattern, with a new trip using the given hop-time.
+   */
+  private TripPatternForDate withHopDuration(
+    TripPatternForDate original,
+    List<RegularStop> stops,
+    int hopDuration
+  ) {
+    var pattern = original.getTripPattern();
+    var tripTimes = tripTimes("RT", pattern.route(), stops, hopDuration);
+    return new TripPatternForDate(pattern, List.of(tripTimes), List.of(), DATE);
+  }
+
+  private TripTimes tripTimes(String id, Route route, List<RegularStop> stops, int hopDuration) {
+    var trip = TransitModelForTest.trip(id).withRoute(route).build();
+    var stopTimes = new ArrayList<StopTime>();
+    int time = 8 * 3600;
+    for (int i = 0; i < stops.size(); ++i) {
+      var stopTime = testModel.stopTime(trip, i, stops.get(i));
+      stopTime.setArrivalTime(time);
+      stopTime.setDepartureTime(time);
+      stopTimes.add(stopTime);
+      time += hopDuration;
+    }
+    return TripTimesFactory.tripTimes(trip, stopTimes, new Deduplicator());
+  }
+}
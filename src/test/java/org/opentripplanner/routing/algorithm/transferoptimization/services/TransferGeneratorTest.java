@@ -106,6 +106,37 @@ public class TransferGeneratorTest implements RaptorTestConstants {
     );
   }
 
+  @Test
+  void findTransfersWhenGeneratorIsReusedForPathsWithTheSameTrips() {
+    data.withRoutes(
+      route("L1", STOP_A, STOP_B, STOP_C, STOP_D)
+        .withTimetable(schedule("10:02 10:10 10:20 10:30"), schedule("10:04 10:12 10:22 10:32"))
+    );
+    var subject = new TransferGenerator<>(tsAdaptor, data);
+
+    // The transfers between the two trips are cached, but the transfers after the last
+    // stop arrival must still be removed for each path
+    var transitLegs = transitLegsSameRoute(STOP_A, STOP_C, STOP_D);
+    assertEquals(
+      "[[TripToTripTransfer{from: [2 10:10 BUS L1], to: [2 10:12 BUS L1]}, " +
+      "TripToTripTransfer{from: [3 10:20 BUS L1], to: [3 10:22 BUS L1]}]]",
+      subject.findAllPossibleTransfers(transitLegs).toString()
+    );
+
+    transitLegs = transitLegsSameRoute(STOP_A, STOP_B, STOP_C);
+    assertEquals(
+      "[[TripToTripTransfer{from: [2 10:10 BUS L1], to: [2 10:12 BUS L1]}]]",
+      subject.findAllPossibleTransfers(transitLegs).toString()
+    );
+
+    transitLegs = transitLegsSameRoute(STOP_A, STOP_C, STOP_D);
+    assertEquals(
+      "[[TripToTripTransfer{from: [2 10:10 BUS L1], to: [2 10:12 BUS L1]}, " +
+      "TripToTripTransfer{from: [3 10:20 BUS L1], to: [3 10:22 BUS L1]}]]",
+      subject.findAllPossibleTransfers(transitLegs).toString()
+    );
+  }
+
   @Test
   void findGuaranteedTransferWithNoSlack() {
     data.withRoutes(
@@ -631,6 +662,8 @@ public class TransferGeneratorTest implements RaptorTestConstants {
 
     data.clearConstrainedTransfers();
     data.withConstrainedTransfer(tripA, STOP_C, tripB, STOP_D, transfer);
+    // The generator caches the transfers, so a new one is needed when the transit data changes
+    subject = new TransferGenerator<>(tsAdaptor, data);
     result = subject.findAllPossibleTransfers(transitLegs);
 
     // The same stop transfer is no longer an option
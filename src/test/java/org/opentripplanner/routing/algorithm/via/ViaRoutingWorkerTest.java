@@ -3,11 +3,13 @@ package org.opentripplanner.routing.algorithm.via;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
 
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.framework.time.TimeUtils;
@@ -19,8 +21,10 @@ import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.RouteViaRequest;
 import org.opentripplanner.routing.api.request.ViaLocation;
 import org.opentripplanner.routing.api.request.request.JourneyRequest;
+import org.opentripplanner.routing.api.response.RoutingErrorCode;
 import org.opentripplanner.routing.api.response.RoutingResponse;
 import org.opentripplanner.routing.api.response.ViaRoutingResponseConnection;
+import org.opentripplanner.routing.error.RoutingValidationException;
 import org.opentripplanner.transit.model._data.TransitModelForTest;
 
 /**
@@ -113,6 +117,136 @@ public class ViaRoutingWorkerTest {
     );
   }
 
+  /**
+   * Search from A to B via C and D. The second search (C to D) finds an itinerary departing before
+   * the first arrival at C. It can not be combined with the first segment, so its late arrival at
+   * D must not widen the search window of the last search (D to B), and it must not be combined
+   * with the last segment either.
+   */
+  @Test
+  public void testUnreachableItinerariesAreNotContinued() {
+    var viaD = testModel.place("D", 8.0, 9.5);
+    var arriveC = newItinerary(fromA)
+      .bus(1, TimeUtils.hm2time(12, 0), TimeUtils.hm2time(13, 0), viaC)
+      .build();
+    var reachable = newItinerary(viaC)
+      .bus(2, TimeUtils.hm2time(13, 15), TimeUtils.hm2time(14, 0), viaD)
+      .build();
+    var unreachable = newItinerary(viaC)
+      .bus(3, TimeUtils.hm2time(12, 30), TimeUtils.hm2time(16, 0), viaD)
+      .build();
+    var arriveB = newItinerary(viaD)
+      .bus(4, TimeUtils.hm2time(14, 15), TimeUtils.hm2time(15, 0), toB)
+      .build();
+    var lateArriveB = newItinerary(viaD)
+      .bus(5, TimeUtils.hm2time(16, 15), TimeUtils.hm2time(17, 0), toB)
+      .build();
+
+    var lastRequests = new ArrayList<RouteRequest>();
+    var request = RouteViaRequest
+      .of(
+        List.of(via(viaC), via(viaD)),
+        List.of(new JourneyRequest(), new JourneyRequest(), new JourneyRequest())
+      )
+      .withDateTime(
+        ZonedDateTime.parse("2021-12-02T12:00:00-05:00[America/New_York]").toInstant()
+      )
+      .withFrom(location(fromA))
+      .withTo(location(toB))
+      .withSearchWindow(Duration.ofHours(1))
+      .build();
+
+    var result = new ViaRoutingWorker(
+      request,
+      req -> {
+        List<Itinerary> itineraries;
+        if (isFrom(req, fromA)) {
+          itineraries = List.of(arriveC);
+        } else if (isFrom(req, viaC)) {
+          itineraries = List.of(reachable, unreachable);
+        } else {
+          lastRequests.add(req.clone());
+          itineraries = List.of(arriveB, lateArriveB);
+        }
+        return new RoutingResponse(
+          new TripPlan(null, null, null, itineraries),
+          null,
+          null,
+          null,
+          null,
+          null
+        );
+      }
+    )
+      .route();
+
+    assertEquals(1, lastRequests.size());
+    // Only the arrival of the reachable itinerary is used for the last search
+    assertEquals(reachable.endTime().plusMinutes(10).toInstant(), lastRequests.get(0).dateTime());
+    assertEquals(Duration.ofMinutes(45), lastRequests.get(0).searchWindow());
+    assertEquals(List.of(reachable), result.plan().get(arriveC));
+    assertEquals(List.of(arriveB), result.plan().get(reachable));
+    assertFalse(result.plan().containsKey(unreachable));
+  }
+
+  /**
+   * Search from A to B via C and D. No itinerary of the second search (C to D) can be reached from
+   * the first segment, so there is no search window for the last search.
+   */
+  @Test
+  public void testNoReachableItineraries() {
+    var viaD = testModel.place("D", 8.0, 9.5);
+    var arriveC = newItinerary(fromA)
+      .bus(1, TimeUtils.hm2time(12, 0), TimeUtils.hm2time(13, 0), viaC)
+      .build();
+    var unreachable = newItinerary(viaC)
+      .bus(2, TimeUtils.hm2time(12, 30), TimeUtils.hm2time(14, 0), viaD)
+      .build();
+
+    var request = RouteViaRequest
+      .of(
+        List.of(via(viaC), via(viaD)),
+        List.of(new JourneyRequest(), new JourneyRequest(), new JourneyRequest())
+      )
+      .withDateTime(
+        ZonedDateTime.parse("2021-12-02T12:00:00-05:00[America/New_York]").toInstant()
+      )
+      .withFrom(location(fromA))
+      .withTo(location(toB))
+      .withSearchWindow(Duration.ofHours(1))
+      .build();
+
+    var subject = new ViaRoutingWorker(
+      request,
+      req -> {
+        var itineraries = isFrom(req, fromA) ? List.of(arriveC) : List.of(unreachable);
+        return new RoutingResponse(
+          new TripPlan(null, null, null, itineraries),
+          null,
+          null,
+          null,
+          null,
+          null
+        );
+      }
+    );
+
+    var exception = assertThrows(RoutingValidationException.class, subject::route);
+    assertEquals(
+      RoutingErrorCode.NO_TRANSIT_CONNECTION_IN_SEARCH_WINDOW,
+      exception.getRoutingErrors().get(0).code
+    );
+  }
+
+  private static boolean isFrom(RouteRequest req, Place place) {
+    var c = place.coordinate;
+    return req.from().lng == c.longitude() && req.from().lat == c.latitude();
+  }
+
+  private static ViaLocation via(Place place) {
+    return new ViaLocation(location(place), false, Duration.ofMinutes(10), Duration.ofMinutes(45));
+  }
+
   /**
    * This function simulates the RoutingWorker for each request
    */
@@ -0,0 +1,81 @@
+package org.opentripplanner.routing.linking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.TraverseModeSet;
+import org.opentripplanner.transit.service.StopModel;
+
+class DisposableEdgeCollectionTest {
+
+  private final Graph graph = new Graph();
+  private final IntersectionVertex a = intersectionVertex("A", 0.0, 0.0);
+  private final IntersectionVertex b = intersectionVertex("B", 0.0, 0.01);
+  private final VertexLinker linker;
+
+  {
+    graph.addVertex(a);
+    graph.addVertex(b);
+    streetEdge(a, b, 1000, StreetTraversalPermission.ALL);
+    streetEdge(b, a, 1000, StreetTraversalPermission.ALL);
+    linker = graph.getLinkerSafe(new StopModel());
+  }
+
+  @Test
+  void requestChangesDoNotChangeTheEdgeGeneration() {
+    long generation = graph.getEdgeGeneration();
+
+    var edges = linker.linkVertexForRequest(
+      intersectionVertex("X", 0.0001, 0.005),
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.BOTH_WAYS,
+      (vertex, streetVertex) -> List.of()
+    );
+    edges.disposeEdges();
+
+    assertEquals(generation, graph.getEdgeGeneration());
+  }
+
+  @Test
+  void realTimeChangesChangeTheEdgeGeneration() {
+    long generation = graph.getEdgeGeneration();
+    long permanentGeneration = graph.getPermanentEdgeGeneration();
+
+    var edges = linker.linkVertexForRealTime(
+      intersectionVertex("X", 0.0001, 0.005),
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.BOTH_WAYS,
+      (vertex, streetVertex) -> List.of()
+    );
+    assertTrue(graph.getEdgeGeneration() > generation);
+
+    generation = graph.getEdgeGeneration();
+    edges.disposeEdges();
+    assertTrue(graph.getEdgeGeneration() > generation);
+    assertEquals(permanentGeneration, graph.getPermanentEdgeGeneration());
+  }
+
+  @Test
+  void permanentChangesChangeBothEdgeGenerations() {
+    long generation = graph.getEdgeGeneration();
+    long permanentGeneration = graph.getPermanentEdgeGeneration();
+
+    linker.linkVertexPermanently(
+      intersectionVertex("X", 0.0001, 0.005),
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.BOTH_WAYS,
+      (vertex, streetVertex) -> List.of()
+    );
+
+    assertTrue(graph.getEdgeGeneration() > generation);
+    assertTrue(graph.getPermanentEdgeGeneration() > permanentGeneration);
+  }
+}
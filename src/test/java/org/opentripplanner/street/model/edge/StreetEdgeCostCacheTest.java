@@ -0,0 +1,56 @@
+package org.opentripplanner.street.model.edge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.opentripplanner.street.model.edge.StreetEdgeCostCache.NOT_COMPUTED;
+import static org.opentripplanner.street.model.edge.StreetEdgeCostCache.PAGE_SIZE;
+
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.search.TraverseMode;
+
+class StreetEdgeCostCacheTest {
+
+  private final StreetEdgeCostCache subject = new StreetEdgeCostCache();
+
+  @Test
+  void oneTablePerModeAndWalkingBike() {
+    var walk = subject.table(TraverseMode.WALK, false);
+
+    assertSame(walk, subject.table(TraverseMode.WALK, false));
+    assertNotSame(walk, subject.table(TraverseMode.WALK, true));
+    assertNotSame(walk, subject.table(TraverseMode.BICYCLE, false));
+  }
+
+  @Test
+  void costsAreStoredByEdgeIndex() {
+    var table = subject.table(TraverseMode.CAR, false);
+    assertEquals(NOT_COMPUTED, table.duration(7));
+
+    table.put(7, 12, 34.5);
+    table.put(8, 0, 0.0);
+
+    assertEquals(12, table.duration(7));
+    assertEquals(34.5, table.weight(7));
+    assertEquals(0, table.duration(8));
+    assertEquals(0.0, table.weight(8));
+    assertEquals(NOT_COMPUTED, table.duration(6));
+  }
+
+  @Test
+  void pagesAreAllocatedWhenUsed() {
+    var table = subject.table(TraverseMode.BICYCLE, false);
+    assertEquals(0, table.numberOfPages());
+
+    int farAway = 100 * PAGE_SIZE + 3;
+    table.put(farAway, 60, 120.0);
+    assertEquals(1, table.numberOfPages());
+    assertEquals(NOT_COMPUTED, table.duration(3));
+
+    table.put(3, 1, 2.0);
+    table.put(4, 1, 2.0);
+    assertEquals(2, table.numberOfPages());
+    assertEquals(60, table.duration(farAway));
+    assertEquals(120.0, table.weight(farAway));
+  }
+}
@@ -284,6 +284,65 @@ public class StreetEdgeTest {
     assertNotNull(e0.traverse(e1.traverse(state)[0])[0]);
   }
 
+  @Test
+  public void testUTurnIsNotAllowed() {
+    StreetEdge e0 = streetEdge(v0, v1, 50.0, StreetTraversalPermission.ALL);
+    StreetEdge e1 = streetEdge(v1, v0, 50.0, StreetTraversalPermission.ALL);
+    StreetEdge e2 = streetEdge(v1, v2, 18.4, StreetTraversalPermission.ALL);
+
+    State s1 = e0.traverse(new State(v0, proto))[0];
+    assertTrue(State.isEmpty(e1.traverse(s1)));
+    assertNotNull(e2.traverse(s1)[0]);
+
+    // In an arrive-by search the edges are traversed in reverse
+    var arriveBy = StreetSearchRequest.copyOf(proto).withArriveBy(true).build();
+    State s2 = e1.traverse(new State(v0, arriveBy))[0];
+    assertTrue(State.isEmpty(e0.traverse(s2)));
+  }
+
+  @Test
+  public void testUTurnIsNotAllowedWithReverseEdge() {
+    StreetEdge e0 = streetEdge(v0, v1, 50.0, StreetTraversalPermission.ALL);
+    StreetEdge e1 = streetEdge(v1, v0, 50.0, StreetTraversalPermission.ALL);
+    e0.setReverseEdge(e1);
+    e1.setReverseEdge(e0);
+
+    State s1 = e0.traverse(new State(v0, proto))[0];
+    assertTrue(State.isEmpty(e1.traverse(s1)));
+
+    State s2 = e1.traverse(new State(v1, proto))[0];
+    assertTrue(State.isEmpty(e0.traverse(s2)));
+  }
+
+  @Test
+  public void testTraversalCostsOfIndexedEdgesAreCached() {
+    StreetEdge e0 = streetEdge(v0, v1, 50.0, StreetTraversalPermission.ALL);
+    StreetEdge e1 = streetEdge(v1, v2, 18.4, StreetTraversalPermission.ALL);
+
+    // Without an index the costs are computed each time
+    var request = StreetSearchRequest.copyOf(proto).build();
+    State expected = e1.traverse(e0.traverse(new State(v0, request))[0])[0];
+
+    e0.setIndex(0);
+    e1.setIndex(1);
+    request = StreetSearchRequest.copyOf(proto).build();
+    var table = request.edgeCostCache().table(TraverseMode.WALK, false);
+    assertEquals(StreetEdgeCostCache.NOT_COMPUTED, table.duration(1));
+
+    for (int i = 0; i < 2; ++i) {
+      State s = e1.traverse(e0.traverse(new State(v0, request))[0])[0];
+      assertEquals(expected.getElapsedTimeSeconds(), s.getElapsedTimeSeconds());
+      assertEquals(expected.getWeight(), s.getWeight(), DELTA);
+    }
+    assertEquals((int) Math.ceil(e1.getDistanceMeters()), table.duration(1));
+
+    // Walking the bicycle has its own table
+    assertEquals(
+      StreetEdgeCostCache.NOT_COMPUTED,
+      request.edgeCostCache().table(TraverseMode.WALK, true).duration(1)
+    );
+  }
+
   @Test
   public void testElevationProfile() {
     var elevationProfile = new PackedCoordinateSequence.Double(
@@ -0,0 +1,100 @@
+package org.opentripplanner.street.search.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.graph_builder.module.StreetLandmarkModule;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+
+class LandmarkRemainingWeightHeuristicTest extends GraphRoutingTest {
+
+  private static final double DELTA = 0.01;
+
+  private final RouteRequest request = new RouteRequest();
+  private Graph graph;
+  private IntersectionVertex A, B, C;
+
+  /**
+   * The network: A - B - C, 1000 meters between each vertex with a car speed of 10 m/s. The
+   * street makes a detour, the straight line distance from A to C is much shorter.
+   */
+  @BeforeEach
+  void setUp() {
+    graph =
+      modelOf(
+        new Builder() {
+          @Override
+          public void build() {
+            A = intersection("A", 60.0, 10.000);
+            B = intersection("B", 60.0, 10.001);
+            C = intersection("C", 60.0, 10.002);
+
+            for (var e : new IntersectionVertex[][] { { A, B }, { B, A }, { B, C }, { C, B } }) {
+              streetBuilder(e[0], e[1], 1000, StreetTraversalPermission.ALL)
+                .withCarSpeed(10f)
+                .buildAndConnect();
+            }
+          }
+        }
+      )
+        .graph();
+    new StreetLandmarkModule(graph, 4).buildGraph();
+  }
+
+  @Test
+  void carUsesLandmarkDuration() {
+    var subject = heuristic(StreetMode.CAR, C, false);
+    assertEquals(200.0, subject.estimateRemainingWeight(state(A, StreetMode.CAR)), DELTA);
+    assertEquals(100.0, subject.estimateRemainingWeight(state(B, StreetMode.CAR)), DELTA);
+  }
+
+  @Test
+  void arriveByUsesDurationFromOrigin() {
+    var subject = heuristic(StreetMode.CAR, A, true);
+    assertEquals(200.0, subject.estimateRemainingWeight(state(C, StreetMode.CAR)), DELTA);
+  }
+
+  @Test
+  void bikeUsesLandmarkDistance() {
+    var subject = heuristic(StreetMode.BIKE, C, false);
+    double speed = request.preferences().bike().speed();
+    assertEquals(2000.0 / speed, subject.estimateRemainingWeight(state(A, StreetMode.BIKE)), DELTA);
+  }
+
+  @Test
+  void otherModesUseEuclideanEstimate() {
+    var subject = heuristic(StreetMode.WALK, C, false);
+    var euclidean = new EuclideanRemainingWeightHeuristic();
+    euclidean.initialize(StreetMode.WALK, Set.of(C), false, request.preferences());
+
+    var state = state(A, StreetMode.WALK);
+    double estimate = subject.estimateRemainingWeight(state);
+    assertEquals(euclidean.estimateRemainingWeight(state), estimate, DELTA);
+    assertTrue(estimate < 2000.0 / request.preferences().walk().speed());
+  }
+
+  private LandmarkRemainingWeightHeuristic heuristic(
+    StreetMode mode,
+    Vertex target,
+    boolean arriveBy
+  ) {
+    var heuristic = new LandmarkRemainingWeightHeuristic(40f, graph.getStreetLandmarks());
+    heuristic.initialize(mode, Set.of(target), arriveBy, request.preferences());
+    return heuristic;
+  }
+
+  private State state(Vertex vertex, StreetMode mode) {
+    return new State(vertex, StreetSearchRequest.of().withMode(mode).build());
+  }
+}
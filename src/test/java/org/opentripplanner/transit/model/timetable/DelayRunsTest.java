@@ -0,0 +1,83 @@
+package org.opentripplanner.transit.model.timetable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DelayRunsTest {
+
+  private static final int NUM_STOPS = 10;
+
+  private final DelayRuns subject = DelayRuns.ofNumberOfStops(NUM_STOPS);
+
+  @Test
+  void allDelaysAreZeroInitially() {
+    for (int stop = 0; stop < NUM_STOPS; ++stop) {
+      assertEquals(0, subject.getArrivalDelay(stop));
+      assertEquals(0, subject.getDepartureDelay(stop));
+    }
+    assertEquals(1, subject.numberOfRuns());
+  }
+
+  @Test
+  void propagatedDelayIsOneRun() {
+    // A delay reported for stop 3 and propagated to the following stops
+    subject.setDepartureDelay(3, 120);
+    for (int stop = 4; stop < NUM_STOPS; ++stop) {
+      subject.setArrivalDelay(stop, 120);
+      subject.setDepartureDelay(stop, 120);
+    }
+
+    assertEquals(0, subject.getArrivalDelay(3));
+    assertEquals(120, subject.getDepartureDelay(3));
+    assertEquals(120, subject.getArrivalDelay(NUM_STOPS - 1));
+    assertEquals(2, subject.numberOfRuns());
+  }
+
+  @Test
+  void runsAreJoinedWhenTheDelaysAreEqual() {
+    subject.setArrivalDelay(5, 60);
+    assertEquals(3, subject.numberOfRuns());
+
+    subject.setArrivalDelay(5, 0);
+    assertEquals(1, subject.numberOfRuns());
+    assertEquals(0, subject.getArrivalDelay(5));
+  }
+
+  @Test
+  void sameDelaysAsAnArray() {
+    var random = new Random(42);
+    int[] expected = new int[2 * NUM_STOPS];
+
+    for (int i = 0; i < 1000; ++i) {
+      int stop = random.nextInt(NUM_STOPS);
+      int delay = 60 * random.nextInt(3);
+      if (random.nextBoolean()) {
+        subject.setArrivalDelay(stop, delay);
+        expected[2 * stop] = delay;
+      } else {
+        subject.setDepartureDelay(stop, delay);
+        expected[2 * stop + 1] = delay;
+      }
+
+      int runs = 1;
+      for (int s = 0; s < NUM_STOPS; ++s) {
+        assertEquals(expected[2 * s], subject.getArrivalDelay(s));
+        assertEquals(expected[2 * s + 1], subject.getDepartureDelay(s));
+      }
+      for (int p = 1; p < expected.length; ++p) {
+        if (expected[p] != expected[p - 1]) {
+          ++runs;
+        }
+      }
+      assertEquals(runs, subject.numberOfRuns());
+    }
+  }
+
+  @Test
+  void stopOutOfRange() {
+    assertThrows(IndexOutOfBoundsException.class, () -> subject.setArrivalDelay(NUM_STOPS, 1));
+  }
+}
@@ -130,6 +130,28 @@ class RealTimeTripTimesTest {
       I18NString headsignSecondStop = tripTimes.getHeadsign(1);
       assertEquals(DIRECTION, headsignSecondStop);
     }
+
+    @Test
+    void shouldSetRealTimeHeadsignEqualToTripHeadsignAfterDelays() {
+      Trip trip = TransitModelForTest.trip("TRIP").withHeadsign(DIRECTION).build();
+      StopTime stopWithHeadsign = new StopTime();
+      stopWithHeadsign.setStopHeadsign(STOP_TEST_DIRECTION);
+      List<StopTime> stopTimes = List.of(stopWithHeadsign, stopWithHeadsign, stopWithHeadsign);
+
+      var tripTimes = TripTimesFactory
+        .tripTimes(trip, stopTimes, new Deduplicator())
+        .copyScheduledTimes();
+
+      // The same order as the SIRI updater: delays first, then the headsign
+      tripTimes.updateArrivalTime(1, 60);
+      tripTimes.setHeadsign(1, DIRECTION);
+      // Setting the scheduled headsign of the stop does not change anything
+      tripTimes.setHeadsign(2, STOP_TEST_DIRECTION);
+
+      assertEquals(STOP_TEST_DIRECTION, tripTimes.getHeadsign(0));
+      assertEquals(DIRECTION, tripTimes.getHeadsign(1));
+      assertEquals(STOP_TEST_DIRECTION, tripTimes.getHeadsign(2));
+    }
   }
 
   @Test
@@ -402,6 +424,41 @@ class RealTimeTripTimesTest {
     assertFalse(updatedTripTimesA.isNoDataStop(2));
   }
 
+  @Test
+  public void testOccupancyStatusAndStopStateAreStoredSeparately() {
+    RealTimeTripTimes updatedTripTimesA = createInitialTripTimes().copyScheduledTimes();
+    assertEquals(OccupancyStatus.NO_DATA_AVAILABLE, updatedTripTimesA.getOccupancyStatus(1));
+
+    updatedTripTimesA.setCancelled(1);
+    updatedTripTimesA.setOccupancyStatus(1, OccupancyStatus.NOT_ACCEPTING_PASSENGERS);
+    updatedTripTimesA.setRecorded(2);
+    updatedTripTimesA.setOccupancyStatus(2, OccupancyStatus.FULL);
+    updatedTripTimesA.setNoData(2);
+
+    assertTrue(updatedTripTimesA.isCancelledStop(1));
+    assertEquals(OccupancyStatus.NOT_ACCEPTING_PASSENGERS, updatedTripTimesA.getOccupancyStatus(1));
+    assertTrue(updatedTripTimesA.isNoDataStop(2));
+    assertFalse(updatedTripTimesA.isRecordedStop(2));
+    assertEquals(OccupancyStatus.FULL, updatedTripTimesA.getOccupancyStatus(2));
+    assertEquals(OccupancyStatus.NO_DATA_AVAILABLE, updatedTripTimesA.getOccupancyStatus(0));
+  }
+
+  @Test
+  public void testUpdateDoesNotChangeTheOriginal() {
+    RealTimeTripTimes original = createInitialTripTimes().copyScheduledTimes();
+    original.updateArrivalDelay(3, 30);
+    original.setCancelled(3);
+
+    RealTimeTripTimes updated = original.copyScheduledTimes();
+    updated.updateArrivalDelay(3, 60);
+    updated.setRecorded(3);
+
+    assertEquals(30, original.getArrivalDelay(3));
+    assertTrue(original.isCancelledStop(3));
+    assertEquals(60, updated.getArrivalDelay(3));
+    assertTrue(updated.isRecordedStop(3));
+  }
+
   @Nested
   class GtfsStopSequence {
 
@@ -0,0 +1,90 @@
+package org.opentripplanner.transit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gnu.trove.set.hash.TIntHashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.framework.time.TimeUtils;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Direction;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimesFactory;
+
+class TripStartTimeIndexTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+  private static final Route ROUTE = TransitModelForTest.route("R1").build();
+  private static final int T08_00 = TimeUtils.time("08:00");
+
+  private final Trip outbound1 = trip("OUT1", Direction.OUTBOUND);
+  private final Trip outbound2 = trip("OUT2", Direction.OUTBOUND);
+  private final Trip inbound = trip("IN", Direction.INBOUND);
+
+  private final TripStartTimeIndex subject = new TripStartTimeIndex(
+    List.of(
+      pattern("P1", outbound1, 1, outbound2, 2),
+      pattern("P2", inbound, 1, trip("IN2", Direction.INBOUND), 2)
+    )
+  );
+
+  @Test
+  void matchRouteDirectionStartTimeAndService() {
+    assertEquals(outbound1, subject.getTrip(ROUTE, Direction.OUTBOUND, T08_00, services(1)));
+    assertEquals(outbound2, subject.getTrip(ROUTE, Direction.OUTBOUND, T08_00, services(2)));
+    assertEquals(inbound, subject.getTrip(ROUTE, Direction.INBOUND, T08_00, services(1)));
+  }
+
+  @Test
+  void firstTripIsReturnedIfSeveralMatch() {
+    assertEquals(outbound1, subject.getTrip(ROUTE, Direction.OUTBOUND, T08_00, services(1, 2)));
+  }
+
+  @Test
+  void noMatch() {
+    var otherRoute = TransitModelForTest.route("R2").build();
+    assertNull(subject.getTrip(otherRoute, Direction.OUTBOUND, T08_00, services(1)));
+    assertNull(subject.getTrip(ROUTE, Direction.UNKNOWN, T08_00, services(1)));
+    assertNull(subject.getTrip(ROUTE, Direction.OUTBOUND, T08_00 + 60, services(1)));
+    assertNull(subject.getTrip(ROUTE, Direction.OUTBOUND, T08_00, services(3)));
+  }
+
+  private static Trip trip(String id, Direction direction) {
+    return TransitModelForTest.trip(id).withRoute(ROUTE).withDirection(direction).build();
+  }
+
+  /** A pattern with two trips starting at 08:00, running different services. */
+  private static TripPattern pattern(
+    String id,
+    Trip first,
+    int firstServiceCode,
+    Trip second,
+    int secondServiceCode
+  ) {
+    var pattern = TransitModelForTest
+      .tripPattern(id, ROUTE)
+      .withStopPattern(TEST_MODEL.stopPattern(3))
+      .build();
+    addTrip(pattern, first, T08_00, firstServiceCode);
+    addTrip(pattern, second, T08_00, secondServiceCode);
+    return pattern;
+  }
+
+  private static void addTrip(TripPattern pattern, Trip trip, int startTime, int serviceCode) {
+    var tripTimes = TripTimesFactory.tripTimes(
+      trip,
+      TEST_MODEL.stopTimesEvery5Minutes(3, trip, startTime),
+      new Deduplicator()
+    );
+    tripTimes.setServiceCode(serviceCode);
+    pattern.getScheduledTimetable().addTripTimes(tripTimes);
+  }
+
+  private static TIntHashSet services(int... serviceCodes) {
+    return new TIntHashSet(serviceCodes);
+  }
+}
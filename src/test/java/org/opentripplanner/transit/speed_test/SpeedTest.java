@@ -113,6 +113,8 @@ public class SpeedTest {
         new DefaultTransitService(transitModel),
         timer.getRegistry(),
         VectorTileConfig.DEFAULT,
+        TestServerContext.createVectorTileCaches(),
+        TestServerContext.createRasterTileCache(graph),
         TestServerContext.createWorldEnvelopeService(),
         TestServerContext.createRealtimeVehicleService(transitService),
         TestServerContext.createVehicleRentalService(),
@@ -0,0 +1,68 @@
+package org.opentripplanner.updater.trip.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.updater.spi.UpdateResult;
+import org.opentripplanner.updater.trip.UrlUpdaterParameters;
+
+class TripUpdateMetricsTest {
+
+  private static final Duration LOCK_HOLD_TIME = Duration.ofMillis(7);
+  private static final UpdateResult RESULT = UpdateResult.empty().withLockHoldTime(LOCK_HOLD_TIME);
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @BeforeEach
+  void setUp() {
+    Metrics.addRegistry(registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    Metrics.removeRegistry(registry);
+    registry.close();
+  }
+
+  @Test
+  void batchLockHoldTime() {
+    var parameters = new Parameters("batch");
+
+    new BatchTripUpdateMetrics(parameters).setGauges(RESULT);
+
+    assertLockHoldTime("batch_trip_updates.lockHoldTime", parameters);
+  }
+
+  @Test
+  void streamingLockHoldTime() {
+    var parameters = new Parameters("streaming");
+
+    new StreamingTripUpdateMetrics(parameters).setCounters(RESULT);
+
+    assertLockHoldTime("streaming_trip_updates.lockHoldTime", parameters);
+  }
+
+  private void assertLockHoldTime(String name, Parameters parameters) {
+    var timer = registry.get(name).tag("configRef", parameters.configRef()).timer();
+    assertEquals(1, timer.count());
+    assertEquals(LOCK_HOLD_TIME.toMillis(), timer.totalTime(TimeUnit.MILLISECONDS));
+  }
+
+  private record Parameters(String configRef) implements UrlUpdaterParameters {
+    @Override
+    public String url() {
+      return "https://example.com/" + configRef;
+    }
+
+    @Override
+    public String feedId() {
+      return "F";
+    }
+  }
+}
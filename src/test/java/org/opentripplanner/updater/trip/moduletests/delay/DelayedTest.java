@@ -4,6 +4,7 @@ import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRe
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.model.Timetable;
@@ -36,6 +37,7 @@ public class DelayedTest {
     var result = env.applyTripUpdate(tripUpdate);
 
     assertEquals(1, result.successful());
+    assertTrue(result.lockHoldTime().isPositive());
 
     // trip1 should be modified
     {
@@ -0,0 +1,108 @@
+package org.opentripplanner.updater.trip.moduletests.delay;
+
+import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRelationship.SCHEDULED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.opentripplanner.updater.trip.UpdateIncrementality.FULL_DATASET;
+
+import com.google.transit.realtime.GtfsRealtime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.Timetable;
+import org.opentripplanner.transit.model.timetable.RealTimeState;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.updater.spi.UpdateResult;
+import org.opentripplanner.updater.trip.RealtimeTestEnvironment;
+import org.opentripplanner.updater.trip.TripUpdateBuilder;
+
+/**
+ * A FULL_DATASET message should only change the trips which are changed since the last message
+ * of the feed.
+ */
+public class FullDatasetTest {
+
+  private static final int STOP_SEQUENCE = 1;
+
+  private final RealtimeTestEnvironment env = RealtimeTestEnvironment.gtfs();
+
+  @Test
+  public void unchangedTripIsKept() {
+    var result = apply(delay(env.trip1, 1), delay(env.trip2, 1));
+    assertEquals(2, result.successful());
+    var trip1Timetable = realtimeTimetable(env.trip1);
+
+    result = apply(delay(env.trip1, 1), delay(env.trip2, 2));
+    assertEquals(2, result.successful());
+
+    // trip1 is unchanged, so the trip times are the same instance
+    var tripIndex = trip1Timetable.getTripIndex(env.trip1.getId());
+    assertSame(
+      trip1Timetable.getTripTimes(tripIndex),
+      realtimeTimetable(env.trip1).getTripTimes(tripIndex)
+    );
+    assertEquals(2, env.getTripTimesForTrip(env.trip2).getArrivalDelay(STOP_SEQUENCE));
+  }
+
+  @Test
+  public void changedTripIsApplied() {
+    apply(delay(env.trip1, 1));
+    var result = apply(delay(env.trip1, 3));
+
+    assertEquals(1, result.successful());
+    var tripTimes = env.getTripTimesForTrip(env.trip1);
+    assertEquals(3, tripTimes.getArrivalDelay(STOP_SEQUENCE));
+    assertEquals(RealTimeState.UPDATED, tripTimes.getRealTimeState());
+  }
+
+  @Test
+  public void removedTripIsReverted() {
+    apply(delay(env.trip1, 1), delay(env.trip2, 1));
+    var result = apply(delay(env.trip2, 1));
+
+    assertEquals(1, result.successful());
+    var pattern = env.getPatternForTrip(env.trip1);
+    var tripIndex = pattern.getScheduledTimetable().getTripIndex(env.trip1.getId());
+    assertSame(
+      pattern.getScheduledTimetable().getTripTimes(tripIndex),
+      realtimeTimetable(env.trip1).getTripTimes(tripIndex)
+    );
+    assertEquals(1, env.getTripTimesForTrip(env.trip2).getArrivalDelay(STOP_SEQUENCE));
+  }
+
+  @Test
+  public void duplicatedTripIsRevertedWhenRemoved() {
+    apply(delay(env.trip1, 1), delay(env.trip1, 2), delay(env.trip2, 1));
+    assertEquals(2, env.getTripTimesForTrip(env.trip1).getArrivalDelay(STOP_SEQUENCE));
+
+    var result = apply(delay(env.trip2, 1));
+
+    assertEquals(1, result.successful());
+    var pattern = env.getPatternForTrip(env.trip1);
+    var tripIndex = pattern.getScheduledTimetable().getTripIndex(env.trip1.getId());
+    assertSame(
+      pattern.getScheduledTimetable().getTripTimes(tripIndex),
+      realtimeTimetable(env.trip1).getTripTimes(tripIndex)
+    );
+  }
+
+  private UpdateResult apply(GtfsRealtime.TripUpdate... updates) {
+    return env.applyTripUpdates(List.of(updates), FULL_DATASET);
+  }
+
+  private GtfsRealtime.TripUpdate delay(Trip trip, int delay) {
+    return new TripUpdateBuilder(
+      trip.getId().getId(),
+      RealtimeTestEnvironment.SERVICE_DATE,
+      SCHEDULED,
+      env.timeZone
+    )
+      .addDelayedStopTime(STOP_SEQUENCE, delay)
+      .build();
+  }
+
+  private Timetable realtimeTimetable(Trip trip) {
+    return env
+      .getTimetableSnapshot()
+      .resolve(env.getPatternForTrip(trip), RealtimeTestEnvironment.SERVICE_DATE);
+  }
+}